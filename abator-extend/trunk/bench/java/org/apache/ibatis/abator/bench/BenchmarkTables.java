@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.bench;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.abator.api.DAOGenerator;
+import org.apache.ibatis.abator.api.FullyQualifiedTable;
+import org.apache.ibatis.abator.api.GeneratedFile;
+import org.apache.ibatis.abator.api.IntrospectedTable;
+import org.apache.ibatis.abator.api.JavaModelGenerator;
+import org.apache.ibatis.abator.api.JavaTypeResolver;
+import org.apache.ibatis.abator.api.SqlMapGenerator;
+import org.apache.ibatis.abator.config.AbatorContext;
+import org.apache.ibatis.abator.config.CommentGeneratorConfiguration;
+import org.apache.ibatis.abator.config.DAOGeneratorConfiguration;
+import org.apache.ibatis.abator.config.JavaModelGeneratorConfiguration;
+import org.apache.ibatis.abator.config.SqlMapGeneratorConfiguration;
+import org.apache.ibatis.abator.config.TableConfiguration;
+import org.apache.ibatis.abator.exception.UnsupportedDataTypeException;
+import org.apache.ibatis.abator.internal.AbatorObjectFactory;
+import org.apache.ibatis.abator.internal.db.ColumnDefinition;
+import org.apache.ibatis.abator.internal.db.ColumnDefinitions;
+import org.apache.ibatis.abator.internal.db.IntrospectedTableImpl;
+import org.apache.ibatis.abator.internal.util.JavaBeansUtil;
+
+/**
+ * Builds the generators of a Java2 context (SqlMapGeneratorIterateImpl, the
+ * iBATIS DAO generator and JavaModelGeneratorJava2Impl) and synthetic
+ * introspected tables for the benchmarks, without a database.
+ *
+ * The tables have an INTEGER primary key followed by a repeating mix of
+ * VARCHAR, DECIMAL, TIMESTAMP, BIGINT, DATE and CLOB columns, so every
+ * generated method (including the WithBLOBs variants) is exercised.
+ *
+ * @author Jeff Butler
+ */
+public class BenchmarkTables {
+    private static final int[] JDBC_TYPES = {
+        Types.VARCHAR, Types.DECIMAL, Types.TIMESTAMP, Types.BIGINT,
+        Types.DATE, Types.CLOB
+    };
+
+    private static final String[] TYPE_NAMES = {
+        "VARCHAR", "DECIMAL", "TIMESTAMP", "BIGINT", "DATE", "CLOB" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+    };
+
+    private AbatorContext abatorContext;
+
+    private JavaTypeResolver javaTypeResolver;
+
+    private JavaModelGenerator javaModelGenerator;
+
+    private SqlMapGenerator sqlMapGenerator;
+
+    private DAOGenerator daoGenerator;
+
+    private List warnings;
+
+    public BenchmarkTables() {
+        super();
+
+        abatorContext = new AbatorContext("Java2", null); //$NON-NLS-1$
+        abatorContext.setId("bench"); //$NON-NLS-1$
+
+        CommentGeneratorConfiguration commentGeneratorConfiguration = new CommentGeneratorConfiguration();
+        commentGeneratorConfiguration.addProperty("suppressDate", "true"); //$NON-NLS-1$ //$NON-NLS-2$
+        abatorContext.setCommentGeneratorConfiguration(commentGeneratorConfiguration);
+
+        JavaModelGeneratorConfiguration javaModelGeneratorConfiguration = new JavaModelGeneratorConfiguration();
+        javaModelGeneratorConfiguration.setTargetPackage("bench.model"); //$NON-NLS-1$
+        javaModelGeneratorConfiguration.setTargetProject("bench"); //$NON-NLS-1$
+        abatorContext.setJavaModelGeneratorConfiguration(javaModelGeneratorConfiguration);
+
+        SqlMapGeneratorConfiguration sqlMapGeneratorConfiguration = new SqlMapGeneratorConfiguration();
+        sqlMapGeneratorConfiguration.setTargetPackage("bench.sqlmap"); //$NON-NLS-1$
+        sqlMapGeneratorConfiguration.setTargetProject("bench"); //$NON-NLS-1$
+        abatorContext.setSqlMapGeneratorConfiguration(sqlMapGeneratorConfiguration);
+
+        DAOGeneratorConfiguration daoGeneratorConfiguration = new DAOGeneratorConfiguration();
+        daoGeneratorConfiguration.setConfigurationType("IBATIS"); //$NON-NLS-1$
+        daoGeneratorConfiguration.setTargetPackage("bench.dao"); //$NON-NLS-1$
+        daoGeneratorConfiguration.setTargetProject("bench"); //$NON-NLS-1$
+        abatorContext.setDaoGeneratorConfiguration(daoGeneratorConfiguration);
+
+        warnings = new ArrayList();
+        javaTypeResolver = AbatorObjectFactory.createJavaTypeResolver(abatorContext, warnings);
+        javaModelGenerator = AbatorObjectFactory.createJavaModelGenerator(abatorContext, warnings);
+        sqlMapGenerator = AbatorObjectFactory.createSqlMapGenerator(abatorContext,
+                javaModelGenerator, warnings);
+        daoGenerator = AbatorObjectFactory.createDAOGenerator(abatorContext,
+                javaModelGenerator, sqlMapGenerator, warnings);
+    }
+
+    /**
+     * Returns a new introspected table with the specified number of columns,
+     * as the DatabaseIntrospector would have built it.
+     *
+     * @param tableName
+     * @param columnCount the number of columns, including the primary key
+     */
+    public IntrospectedTable createTable(String tableName, int columnCount) {
+        TableConfiguration tc = new TableConfiguration(abatorContext);
+        tc.setTableName(tableName);
+
+        FullyQualifiedTable table = new FullyQualifiedTable(null, null,
+                tableName, null, null, false, null, false, abatorContext);
+
+        ColumnDefinitions cds = new ColumnDefinitions();
+        cds.addColumn(createColumn("ID", Types.INTEGER, "INTEGER")); //$NON-NLS-1$ //$NON-NLS-2$
+        for (int i = 1; i < columnCount; i++) {
+            int type = i % JDBC_TYPES.length;
+            cds.addColumn(createColumn("COLUMN_" + i, //$NON-NLS-1$
+                    JDBC_TYPES[type], TYPE_NAMES[type]));
+        }
+        cds.addPrimaryKeyColumn("ID"); //$NON-NLS-1$
+
+        return new IntrospectedTableImpl(tc, cds, table);
+    }
+
+    private ColumnDefinition createColumn(String columnName, int jdbcType,
+            String typeName) {
+        ColumnDefinition cd = new ColumnDefinition(null, abatorContext);
+        cd.setActualColumnName(columnName);
+        cd.setJdbcType(jdbcType);
+        cd.setTypeName(typeName);
+        cd.setLength(jdbcType == Types.DECIMAL ? 18 : 255);
+        cd.setScale(jdbcType == Types.DECIMAL ? 2 : 0);
+        cd.setNullable(true);
+        cd.setJavaProperty(JavaBeansUtil.getCamelCaseString(columnName, false));
+        try {
+            javaTypeResolver.initializeResolvedJavaType(cd);
+        } catch (UnsupportedDataTypeException e) {
+            throw new RuntimeException(e);
+        }
+
+        return cd;
+    }
+
+    /**
+     * Renders the generated files, as Abator does before saving them, and
+     * returns the total length so the work cannot be optimized away.
+     *
+     * @param generatedFiles a List of GeneratedFile objects
+     */
+    public static int render(List generatedFiles) {
+        int length = 0;
+        Iterator iter = generatedFiles.iterator();
+        while (iter.hasNext()) {
+            length += ((GeneratedFile) iter.next()).getFormattedContent().length();
+        }
+
+        return length;
+    }
+
+    public JavaModelGenerator getJavaModelGenerator() {
+        return javaModelGenerator;
+    }
+
+    public SqlMapGenerator getSqlMapGenerator() {
+        return sqlMapGenerator;
+    }
+
+    public DAOGenerator getDaoGenerator() {
+        return daoGenerator;
+    }
+}
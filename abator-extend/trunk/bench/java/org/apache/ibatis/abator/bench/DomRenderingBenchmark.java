@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.bench;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.abator.api.GeneratedJavaFile;
+import org.apache.ibatis.abator.api.GeneratedXmlFile;
+import org.apache.ibatis.abator.api.IntrospectedTable;
+import org.apache.ibatis.abator.api.dom.xml.XmlElement;
+import org.apache.ibatis.abator.internal.NullProgressCallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering of the DOM: the root XmlElement of a generated SQL map,
+ * and the TopLevelClass of a generated model class.  The DOM is built once;
+ * only the rendering is measured.
+ *
+ * @author Jeff Butler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomRenderingBenchmark {
+    @Param({"10", "100", "500"})
+    public int columns;
+
+    private XmlElement sqlMapElement;
+
+    private GeneratedJavaFile modelClass;
+
+    @Setup
+    public void setup() {
+        BenchmarkTables tables = new BenchmarkTables();
+        IntrospectedTable introspectedTable = tables.createTable("BENCH_TABLE", columns); //$NON-NLS-1$
+        NullProgressCallback callback = new NullProgressCallback();
+
+        GeneratedXmlFile gxf = (GeneratedXmlFile) tables.getSqlMapGenerator()
+                .getGeneratedXMLFiles(introspectedTable, callback).get(0);
+        sqlMapElement = gxf.getDocument().getRootElement();
+
+        // the record class - the other model class is the example class
+        Iterator iter = tables.getJavaModelGenerator().getGeneratedJavaFiles(
+                introspectedTable, callback).iterator();
+        while (iter.hasNext()) {
+            GeneratedJavaFile gjf = (GeneratedJavaFile) iter.next();
+            if (!gjf.getFileName().endsWith("Example.java")) { //$NON-NLS-1$
+                modelClass = gjf;
+            }
+        }
+    }
+
+    @Benchmark
+    public String renderXmlElement() throws IOException {
+        StringBuffer sb = new StringBuffer();
+        sqlMapElement.writeFormattedContent(sb, 0);
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String renderTopLevelClass() {
+        return modelClass.getFormattedContent();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.abator.api.IntrospectedTable;
+import org.apache.ibatis.abator.api.ProgressCallback;
+import org.apache.ibatis.abator.internal.NullProgressCallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures complete generation of the SQL map (SqlMapGeneratorIterateImpl)
+ * and of the DAO interface and implementation (BaseDAOGenerator) of one
+ * table, including rendering of the generated files.
+ *
+ * @author Jeff Butler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({"10", "100", "500"})
+    public int columns;
+
+    private BenchmarkTables tables;
+
+    private IntrospectedTable introspectedTable;
+
+    private ProgressCallback callback;
+
+    @Setup
+    public void setup() {
+        tables = new BenchmarkTables();
+        introspectedTable = tables.createTable("BENCH_TABLE", columns); //$NON-NLS-1$
+        callback = new NullProgressCallback();
+    }
+
+    @Benchmark
+    public int generateSqlMap() {
+        List files = tables.getSqlMapGenerator().getGeneratedXMLFiles(
+                introspectedTable, callback);
+        return BenchmarkTables.render(files);
+    }
+
+    @Benchmark
+    public int generateDao() {
+        List files = tables.getDaoGenerator().getGeneratedJavaFiles(
+                introspectedTable, callback);
+        return BenchmarkTables.render(files);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.bench;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.ibatis.abator.config.AbatorContext;
+import org.apache.ibatis.abator.config.PropertyRegistry;
+import org.apache.ibatis.abator.internal.AbatorObjectFactory;
+import org.apache.ibatis.abator.internal.db.ActualTableName;
+import org.apache.ibatis.abator.internal.db.ColumnMetadata;
+import org.apache.ibatis.abator.internal.db.DatabaseMetaDataProvider;
+import org.apache.ibatis.abator.internal.db.IndexMetadata;
+import org.apache.ibatis.abator.internal.db.MetadataProvider;
+
+/**
+ * Checks a bulk MetadataProvider against the DatabaseMetaData of an
+ * embedded database.
+ *
+ * A few tables with composite keys, foreign keys and indexes are created
+ * in an in-memory database (HSQLDB by default, or Derby), and the metadata
+ * of every table is read through the provider and through a
+ * DatabaseMetaDataProvider.  The table names, columns (JDBC type and
+ * nullability, and length and scale of character and decimal columns),
+ * primary keys, indexes and foreign keys must be the same.  Primary key
+ * columns are compared without their order, because DatabaseMetaData
+ * returns them ordered by name.
+ *
+ * Usage:
+ * <pre>
+ *   MetadataProviderCheck [-provider informationSchema] [-schema schema]
+ *       [-driver class] [-url url] [-user user] [-password password]
+ * </pre>
+ * The schema defaults to the current schema of the connection.  For Derby
+ * use "-provider derby -driver org.apache.derby.jdbc.EmbeddedDriver
+ * -url jdbc:derby:memory:abator;create=true".  The exit code is 1 if any
+ * difference was found.
+ *
+ * @author Jeff Butler
+ */
+public class MetadataProviderCheck {
+    private static final String[] DDL = {
+        "CREATE TABLE ORDER_HEADER (ID INTEGER NOT NULL, CUSTOMER VARCHAR(40) NOT NULL," //$NON-NLS-1$
+            + " AMOUNT DECIMAL(12,2), CREATED TIMESTAMP, STATUS CHAR(2), PRIMARY KEY (ID))", //$NON-NLS-1$
+        "CREATE UNIQUE INDEX ORDER_HEADER_CUSTOMER ON ORDER_HEADER (CUSTOMER, CREATED)", //$NON-NLS-1$
+        "CREATE TABLE ORDER_LINE (ORDER_ID INTEGER NOT NULL, LINE_NO SMALLINT NOT NULL," //$NON-NLS-1$
+            + " PRODUCT VARCHAR(20), QUANTITY BIGINT, PRICE NUMERIC(9,3) NOT NULL," //$NON-NLS-1$
+            + " PRIMARY KEY (ORDER_ID, LINE_NO)," //$NON-NLS-1$
+            + " CONSTRAINT ORDER_LINE_HEADER FOREIGN KEY (ORDER_ID) REFERENCES ORDER_HEADER (ID))", //$NON-NLS-1$
+        "CREATE INDEX ORDER_LINE_PRODUCT ON ORDER_LINE (PRODUCT, QUANTITY)", //$NON-NLS-1$
+        "CREATE TABLE SHIPMENT (LINE_NO SMALLINT NOT NULL, ORDER_ID INTEGER NOT NULL," //$NON-NLS-1$
+            + " SHIPPED DATE, CONSTRAINT SHIPMENT_LINE FOREIGN KEY (ORDER_ID, LINE_NO)" //$NON-NLS-1$
+            + " REFERENCES ORDER_LINE (ORDER_ID, LINE_NO))" //$NON-NLS-1$
+    };
+
+    private static final String[] TABLES = {
+        "ORDER_HEADER", "ORDER_LINE", "SHIPMENT" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    };
+
+    private String provider = "informationSchema"; //$NON-NLS-1$
+
+    private String schema;
+
+    private String driver = "org.hsqldb.jdbc.JDBCDriver"; //$NON-NLS-1$
+
+    private String url = "jdbc:hsqldb:mem:abatorcheck"; //$NON-NLS-1$
+
+    private String user = "SA"; //$NON-NLS-1$
+
+    private String password = ""; //$NON-NLS-1$
+
+    private List differences = new ArrayList();
+
+    public static void main(String[] args) throws Exception {
+        MetadataProviderCheck check = new MetadataProviderCheck();
+        check.parseArguments(args);
+        if (!check.run()) {
+            System.exit(1);
+        }
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]); //$NON-NLS-1$
+            }
+
+            String name = args[i];
+            String value = args[i + 1];
+            if ("-provider".equals(name)) { //$NON-NLS-1$
+                provider = value;
+            } else if ("-schema".equals(name)) { //$NON-NLS-1$
+                schema = value;
+            } else if ("-driver".equals(name)) { //$NON-NLS-1$
+                driver = value;
+            } else if ("-url".equals(name)) { //$NON-NLS-1$
+                url = value;
+            } else if ("-user".equals(name)) { //$NON-NLS-1$
+                user = value;
+            } else if ("-password".equals(name)) { //$NON-NLS-1$
+                password = value;
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + name); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * @return true if the provider and DatabaseMetaData agree on all tables
+     */
+    private boolean run() throws Exception {
+        Class.forName(driver);
+
+        AbatorContext abatorContext = new AbatorContext("Java2", null); //$NON-NLS-1$
+        abatorContext.addProperty(PropertyRegistry.CONTEXT_METADATA_PROVIDER, provider);
+        MetadataProvider bulk = AbatorObjectFactory.createMetadataProvider(abatorContext);
+        MetadataProvider reference = new DatabaseMetaDataProvider();
+
+        Connection connection = DriverManager.getConnection(url, user, password);
+        try {
+            Statement stmt = connection.createStatement();
+            try {
+                for (int i = 0; i < DDL.length; i++) {
+                    stmt.execute(DDL[i]);
+                }
+            } finally {
+                stmt.close();
+            }
+
+            if (schema == null) {
+                schema = connection.getSchema();
+            }
+
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            System.out.println(databaseMetaData.getDatabaseProductName() + ' '
+                    + databaseMetaData.getDatabaseProductVersion() + ", provider " //$NON-NLS-1$
+                    + bulk.getClass().getName());
+            for (int i = 0; i < TABLES.length; i++) {
+                int before = differences.size();
+                checkTable(databaseMetaData, bulk, reference, TABLES[i]);
+                System.out.println((differences.size() == before ? "OK   " : "DIFF ") //$NON-NLS-1$ //$NON-NLS-2$
+                        + TABLES[i]);
+            }
+        } finally {
+            connection.close();
+        }
+
+        Iterator iter = differences.iterator();
+        while (iter.hasNext()) {
+            System.out.println("  " + iter.next()); //$NON-NLS-1$
+        }
+
+        return differences.isEmpty();
+    }
+
+    private void checkTable(DatabaseMetaData databaseMetaData,
+            MetadataProvider bulk, MetadataProvider reference, String tableName)
+            throws SQLException {
+        Map expected = reference.getColumns(databaseMetaData, null, schema, tableName);
+        Map actual = bulk.getColumns(databaseMetaData, null, schema, tableName);
+        compare(tableName + " tables", expected.keySet().toString(), //$NON-NLS-1$
+                actual.keySet().toString());
+        if (expected.size() != 1 || !expected.keySet().equals(actual.keySet())) {
+            return;
+        }
+
+        ActualTableName table = (ActualTableName) expected.keySet().iterator().next();
+        compare(tableName + " columns", //$NON-NLS-1$
+                describeColumns((List) expected.get(table)),
+                describeColumns((List) actual.get(table)));
+
+        List pk = new ArrayList(reference.getPrimaryKeyColumns(databaseMetaData, table));
+        Collections.sort(pk);
+        List bulkPk = new ArrayList(bulk.getPrimaryKeyColumns(databaseMetaData, table));
+        Collections.sort(bulkPk);
+        compare(tableName + " primary key", pk.toString(), bulkPk.toString()); //$NON-NLS-1$
+
+        compare(tableName + " indexes", //$NON-NLS-1$
+                describeIndices(reference.getIndices(databaseMetaData, table)),
+                describeIndices(bulk.getIndices(databaseMetaData, table)));
+
+        List fks = new ArrayList();
+        Iterator iter = reference.getForeignKeys(databaseMetaData, table).iterator();
+        while (iter.hasNext()) {
+            fks.add(iter.next().toString());
+        }
+        Collections.sort(fks);
+        List bulkFks = new ArrayList();
+        iter = bulk.getForeignKeys(databaseMetaData, table).iterator();
+        while (iter.hasNext()) {
+            bulkFks.add(iter.next().toString());
+        }
+        Collections.sort(bulkFks);
+        compare(tableName + " foreign keys", fks.toString(), bulkFks.toString()); //$NON-NLS-1$
+    }
+
+    private void compare(String what, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            differences.add(what + ": expected " + expected + ", was " + actual); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private static String describeColumns(List columns) {
+        StringBuffer sb = new StringBuffer();
+        Iterator iter = columns.iterator();
+        while (iter.hasNext()) {
+            ColumnMetadata column = (ColumnMetadata) iter.next();
+            sb.append(column.getColumnName());
+            sb.append(' ');
+            sb.append(column.getJdbcType());
+            switch (column.getJdbcType()) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                sb.append('(').append(column.getLength());
+                sb.append(',').append(column.getScale()).append(')');
+                break;
+            default:
+                break;
+            }
+            sb.append(column.isNullable() ? " NULL" : " NOT NULL"); //$NON-NLS-1$ //$NON-NLS-2$
+            if (iter.hasNext()) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Describes the indexes ordered by name - DatabaseMetaData orders
+     * them by uniqueness first.
+     */
+    private static String describeIndices(List indices) {
+        Map sorted = new TreeMap();
+        Iterator iter = indices.iterator();
+        while (iter.hasNext()) {
+            IndexMetadata index = (IndexMetadata) iter.next();
+            sorted.put(index.getIndexName(), (index.isUnique() ? "UNIQUE " : "") //$NON-NLS-1$ //$NON-NLS-2$
+                    + index.getColumnNames());
+        }
+
+        return sorted.toString();
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import org.apache.ibatis.abator.api.Abator;
+import org.apache.ibatis.abator.config.AbatorConfiguration;
+import org.apache.ibatis.abator.config.AbatorContext;
+import org.apache.ibatis.abator.config.CommentGeneratorConfiguration;
+import org.apache.ibatis.abator.config.DAOGeneratorConfiguration;
+import org.apache.ibatis.abator.config.JDBCConnectionConfiguration;
+import org.apache.ibatis.abator.config.JavaModelGeneratorConfiguration;
+import org.apache.ibatis.abator.config.PropertyRegistry;
+import org.apache.ibatis.abator.config.SqlMapGeneratorConfiguration;
+import org.apache.ibatis.abator.config.TableConfiguration;
+import org.apache.ibatis.abator.internal.DefaultShellCallback;
+
+/**
+ * Measures how a complete Abator run scales with the number of tables and
+ * with the number of indexes and foreign keys per table.
+ *
+ * For every combination of table count and shape, a synthetic schema is
+ * created in an embedded in-memory database (HSQLDB by default, or Derby),
+ * and Abator.generate() is run a number of times.  Each run reports wall
+ * time, peak heap and allocated bytes; the median of the measured runs is
+ * printed and appended to a CSV file, and compared with a baseline CSV file
+ * from an earlier run if one is given.
+ *
+ * Usage:
+ * <pre>
+ *   ScalingBenchmark [-tables 10,100,1000,10000] [-shapes 0x0,2x1,5x3]
+ *       [-columns 10] [-threads 1] [-warmup 1] [-runs 3]
+ *       [-driver class] [-url url] [-user user] [-password password]
+ *       [-output file.csv] [-baseline file.csv]
+ * </pre>
+ * A shape "IxF" means I indexes and F foreign keys per table.  The url is a
+ * MessageFormat pattern; {0} is replaced by a name that is unique for every
+ * schema, for example "jdbc:derby:memory:abator{0};create=true".
+ *
+ * Generated files are saved to a temporary directory that is deleted after
+ * every run, so only the files of one run are ever on disk.  Allocation is
+ * measured for the threads alive at the end of the run; with the default of
+ * one generation thread all generation happens on the calling thread.
+ *
+ * @author Jeff Butler
+ */
+public class ScalingBenchmark {
+    private static final String[] COLUMN_TYPES = {
+        "VARCHAR(50)", "DECIMAL(18,2)", "TIMESTAMP", "BIGINT", "DATE", "INTEGER" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+    };
+
+    private static final String CSV_HEADER =
+        "tables,indexes,foreignKeys,columns,threads,runs,wallMillis,millisPerTable," //$NON-NLS-1$
+        + "peakHeapMB,allocatedMB,allocatedKBPerTable,allocationMBPerSecond"; //$NON-NLS-1$
+
+    private String driver = "org.hsqldb.jdbc.JDBCDriver"; //$NON-NLS-1$
+
+    private String url = "jdbc:hsqldb:mem:abator{0}"; //$NON-NLS-1$
+
+    private String user = "SA"; //$NON-NLS-1$
+
+    private String password = ""; //$NON-NLS-1$
+
+    private int[] tableCounts = {10, 100, 1000, 10000};
+
+    private int[][] shapes = {{0, 0}, {2, 1}, {5, 3}};
+
+    private int columns = 10;
+
+    private int threads = 1;
+
+    private int warmup = 1;
+
+    private int runs = 3;
+
+    private File output = new File("scaling-benchmark.csv"); //$NON-NLS-1$
+
+    private File baseline;
+
+    public static void main(String[] args) throws Exception {
+        ScalingBenchmark benchmark = new ScalingBenchmark();
+        benchmark.parseArguments(args);
+        benchmark.run();
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]); //$NON-NLS-1$
+            }
+
+            String name = args[i];
+            String value = args[i + 1];
+            if ("-tables".equals(name)) { //$NON-NLS-1$
+                tableCounts = parseIntegers(value);
+            } else if ("-shapes".equals(name)) { //$NON-NLS-1$
+                StringTokenizer st = new StringTokenizer(value, ","); //$NON-NLS-1$
+                shapes = new int[st.countTokens()][];
+                for (int j = 0; st.hasMoreTokens(); j++) {
+                    shapes[j] = parseIntegers(st.nextToken().replace('x', ','));
+                }
+            } else if ("-columns".equals(name)) { //$NON-NLS-1$
+                columns = Integer.parseInt(value);
+            } else if ("-threads".equals(name)) { //$NON-NLS-1$
+                threads = Integer.parseInt(value);
+            } else if ("-warmup".equals(name)) { //$NON-NLS-1$
+                warmup = Integer.parseInt(value);
+            } else if ("-runs".equals(name)) { //$NON-NLS-1$
+                runs = Integer.parseInt(value);
+            } else if ("-driver".equals(name)) { //$NON-NLS-1$
+                driver = value;
+            } else if ("-url".equals(name)) { //$NON-NLS-1$
+                url = value;
+            } else if ("-user".equals(name)) { //$NON-NLS-1$
+                user = value;
+            } else if ("-password".equals(name)) { //$NON-NLS-1$
+                password = value;
+            } else if ("-output".equals(name)) { //$NON-NLS-1$
+                output = new File(value);
+            } else if ("-baseline".equals(name)) { //$NON-NLS-1$
+                baseline = new File(value);
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + name); //$NON-NLS-1$
+            }
+        }
+
+        if (columns < 2 || runs < 1) {
+            throw new IllegalArgumentException("At least two columns and one run are required"); //$NON-NLS-1$
+        }
+    }
+
+    private static int[] parseIntegers(String value) {
+        StringTokenizer st = new StringTokenizer(value, ","); //$NON-NLS-1$
+        int[] answer = new int[st.countTokens()];
+        for (int i = 0; st.hasMoreTokens(); i++) {
+            answer[i] = Integer.parseInt(st.nextToken().trim());
+        }
+
+        return answer;
+    }
+
+    private void run() throws Exception {
+        Class.forName(driver);
+
+        Map baselineRows = baseline == null ? new HashMap() : readCsv(baseline);
+
+        boolean newFile = !output.exists() || output.length() == 0;
+        PrintWriter csv = new PrintWriter(new FileWriter(output, true));
+        try {
+            if (newFile) {
+                csv.println(CSV_HEADER);
+            }
+            csv.println("# java " + System.getProperty("java.version") //$NON-NLS-1$ //$NON-NLS-2$
+                    + ", max heap " + Runtime.getRuntime().maxMemory() / 1048576 + "MB" //$NON-NLS-1$ //$NON-NLS-2$
+                    + ", " + Runtime.getRuntime().availableProcessors() + " processors" //$NON-NLS-1$ //$NON-NLS-2$
+                    + ", " + MessageFormat.format(url, new Object[] {""})); //$NON-NLS-1$ //$NON-NLS-2$
+
+            System.out.println(CSV_HEADER);
+            for (int i = 0; i < tableCounts.length; i++) {
+                for (int j = 0; j < shapes.length; j++) {
+                    String row = runSchema(tableCounts[i], shapes[j][0], shapes[j][1]);
+                    csv.println(row);
+                    csv.flush();
+                    System.out.println(row);
+
+                    String[] previous = (String[]) baselineRows.get(getKey(row.split(","))); //$NON-NLS-1$
+                    if (previous != null) {
+                        System.out.println(compare(previous, row.split(","))); //$NON-NLS-1$
+                    }
+                }
+            }
+        } finally {
+            csv.close();
+        }
+    }
+
+    /**
+     * Creates the schema, runs Abator on it and returns the CSV row of the
+     * median results.
+     */
+    private String runSchema(int tableCount, int indexes, int foreignKeys)
+            throws Exception {
+        String schemaUrl = MessageFormat.format(url, new Object[] {
+                tableCount + "_" + indexes + "x" + foreignKeys}); //$NON-NLS-1$ //$NON-NLS-2$
+
+        Connection connection = DriverManager.getConnection(schemaUrl, user, password);
+        try {
+            createSchema(connection, tableCount, indexes, foreignKeys);
+
+            long[] wall = new long[runs];
+            long[] peakHeap = new long[runs];
+            long[] allocated = new long[runs];
+            for (int i = -warmup; i < runs; i++) {
+                long[] result = runAbator(schemaUrl, tableCount);
+                if (i >= 0) {
+                    wall[i] = result[0];
+                    peakHeap[i] = result[1];
+                    allocated[i] = result[2];
+                }
+            }
+
+            double wallMillis = median(wall) / 1000000.0;
+            double allocatedBytes = median(allocated);
+            StringBuffer sb = new StringBuffer();
+            sb.append(tableCount).append(',');
+            sb.append(indexes).append(',');
+            sb.append(foreignKeys).append(',');
+            sb.append(columns).append(',');
+            sb.append(threads).append(',');
+            sb.append(runs).append(',');
+            sb.append(format(wallMillis)).append(',');
+            sb.append(format(wallMillis / tableCount)).append(',');
+            sb.append(format(median(peakHeap) / 1048576.0)).append(',');
+            sb.append(format(allocatedBytes / 1048576.0)).append(',');
+            sb.append(format(allocatedBytes / 1024.0 / tableCount)).append(',');
+            sb.append(format(allocatedBytes / 1048576.0 / (wallMillis / 1000.0)));
+            return sb.toString();
+        } finally {
+            dropSchema(connection, schemaUrl);
+        }
+    }
+
+    /**
+     * Creates tables T00001..Tn.  Every table has an ID primary key, the
+     * requested number of foreign keys to the tables created before it (on
+     * columns C1..Cf), and the requested number of single column indexes.
+     */
+    private void createSchema(Connection connection, int tableCount,
+            int indexes, int foreignKeys) throws SQLException {
+        Statement stmt = connection.createStatement();
+        try {
+            for (int t = 1; t <= tableCount; t++) {
+                String tableName = getTableName(t);
+                StringBuffer sb = new StringBuffer();
+                sb.append("CREATE TABLE ").append(tableName).append(" (ID INTEGER NOT NULL"); //$NON-NLS-1$ //$NON-NLS-2$
+                for (int c = 1; c < columns; c++) {
+                    sb.append(", C").append(c).append(' '); //$NON-NLS-1$
+                    if (c <= foreignKeys) {
+                        sb.append("INTEGER"); //$NON-NLS-1$
+                    } else {
+                        sb.append(COLUMN_TYPES[c % COLUMN_TYPES.length]);
+                    }
+                }
+                sb.append(", PRIMARY KEY (ID))"); //$NON-NLS-1$
+                stmt.execute(sb.toString());
+
+                // the indexes follow the foreign key columns, so that no
+                // index duplicates a foreign key
+                for (int i = 1; i <= indexes && foreignKeys + i < columns; i++) {
+                    stmt.execute("CREATE INDEX " + tableName + "_I" + i //$NON-NLS-1$ //$NON-NLS-2$
+                            + " ON " + tableName + " (C" + (foreignKeys + i) + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                }
+
+                for (int f = 1; f <= foreignKeys && f < t && f < columns; f++) {
+                    stmt.execute("ALTER TABLE " + tableName //$NON-NLS-1$
+                            + " ADD CONSTRAINT " + tableName + "_F" + f //$NON-NLS-1$ //$NON-NLS-2$
+                            + " FOREIGN KEY (C" + f + ") REFERENCES " //$NON-NLS-1$ //$NON-NLS-2$
+                            + getTableName(t - f) + " (ID)"); //$NON-NLS-1$
+                }
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+
+    private static String getTableName(int t) {
+        String s = "0000" + t; //$NON-NLS-1$
+        return "T" + s.substring(s.length() - 5); //$NON-NLS-1$
+    }
+
+    /**
+     * Shuts down or drops the in-memory database, so that the next schema
+     * starts from an empty heap.
+     */
+    private void dropSchema(Connection connection, String schemaUrl) {
+        try {
+            if (schemaUrl.startsWith("jdbc:hsqldb:")) { //$NON-NLS-1$
+                Statement stmt = connection.createStatement();
+                stmt.execute("SHUTDOWN"); //$NON-NLS-1$
+                stmt.close();
+            }
+            connection.close();
+            if (schemaUrl.startsWith("jdbc:derby:memory:")) { //$NON-NLS-1$
+                int index = schemaUrl.indexOf(';');
+                String base = index == -1 ? schemaUrl : schemaUrl.substring(0, index);
+                DriverManager.getConnection(base + ";drop=true"); //$NON-NLS-1$
+            }
+        } catch (SQLException e) {
+            // Derby reports a successful drop with an exception
+            ;
+        }
+    }
+
+    /**
+     * Runs Abator once and returns the wall time in nanoseconds, the peak
+     * heap in bytes and the allocated bytes.
+     */
+    private long[] runAbator(String schemaUrl, int tableCount) throws Exception {
+        File directory = File.createTempFile("abator-scaling", ""); //$NON-NLS-1$ //$NON-NLS-2$
+        directory.delete();
+        directory.mkdirs();
+
+        try {
+            AbatorConfiguration config = createConfiguration(schemaUrl,
+                    tableCount, directory.getAbsolutePath());
+            List warnings = new ArrayList();
+            Abator abator = new Abator(config, new DefaultShellCallback(true), warnings);
+
+            System.gc();
+            System.gc();
+            List heapPools = new ArrayList();
+            Iterator iter = ManagementFactory.getMemoryPoolMXBeans().iterator();
+            while (iter.hasNext()) {
+                MemoryPoolMXBean pool = (MemoryPoolMXBean) iter.next();
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    pool.resetPeakUsage();
+                    heapPools.add(pool);
+                }
+            }
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+
+            abator.generate(null);
+
+            long wall = System.nanoTime() - start;
+            long allocated = getAllocatedBytes() - allocatedBefore;
+            long peakHeap = 0;
+            iter = heapPools.iterator();
+            while (iter.hasNext()) {
+                peakHeap += ((MemoryPoolMXBean) iter.next()).getPeakUsage().getUsed();
+            }
+
+            if (!warnings.isEmpty()) {
+                System.out.println("# " + warnings.size() + " warnings, first: " //$NON-NLS-1$ //$NON-NLS-2$
+                        + warnings.get(0));
+            }
+
+            return new long[] {wall, peakHeap, allocated};
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private AbatorConfiguration createConfiguration(String schemaUrl,
+            int tableCount, String targetProject) {
+        AbatorContext abatorContext = new AbatorContext("Java2", null); //$NON-NLS-1$
+        abatorContext.setId("scaling"); //$NON-NLS-1$
+        abatorContext.addProperty(PropertyRegistry.CONTEXT_GENERATION_THREADS,
+                Integer.toString(threads));
+
+        CommentGeneratorConfiguration commentGeneratorConfiguration = new CommentGeneratorConfiguration();
+        commentGeneratorConfiguration.addProperty("suppressDate", "true"); //$NON-NLS-1$ //$NON-NLS-2$
+        abatorContext.setCommentGeneratorConfiguration(commentGeneratorConfiguration);
+
+        JDBCConnectionConfiguration jdbcConnectionConfiguration = new JDBCConnectionConfiguration();
+        jdbcConnectionConfiguration.setDriverClass(driver);
+        jdbcConnectionConfiguration.setConnectionURL(schemaUrl);
+        jdbcConnectionConfiguration.setUserId(user);
+        jdbcConnectionConfiguration.setPassword(password);
+        abatorContext.setJdbcConnectionConfiguration(jdbcConnectionConfiguration);
+
+        JavaModelGeneratorConfiguration javaModelGeneratorConfiguration = new JavaModelGeneratorConfiguration();
+        javaModelGeneratorConfiguration.setTargetPackage("bench.model"); //$NON-NLS-1$
+        javaModelGeneratorConfiguration.setTargetProject(targetProject);
+        abatorContext.setJavaModelGeneratorConfiguration(javaModelGeneratorConfiguration);
+
+        SqlMapGeneratorConfiguration sqlMapGeneratorConfiguration = new SqlMapGeneratorConfiguration();
+        sqlMapGeneratorConfiguration.setTargetPackage("bench.sqlmap"); //$NON-NLS-1$
+        sqlMapGeneratorConfiguration.setTargetProject(targetProject);
+        abatorContext.setSqlMapGeneratorConfiguration(sqlMapGeneratorConfiguration);
+
+        DAOGeneratorConfiguration daoGeneratorConfiguration = new DAOGeneratorConfiguration();
+        daoGeneratorConfiguration.setConfigurationType("IBATIS"); //$NON-NLS-1$
+        daoGeneratorConfiguration.setTargetPackage("bench.dao"); //$NON-NLS-1$
+        daoGeneratorConfiguration.setTargetProject(targetProject);
+        abatorContext.setDaoGeneratorConfiguration(daoGeneratorConfiguration);
+
+        for (int t = 1; t <= tableCount; t++) {
+            TableConfiguration tc = new TableConfiguration(abatorContext);
+            tc.setTableName(getTableName(t));
+            abatorContext.addTableConfiguration(tc);
+        }
+
+        AbatorConfiguration config = new AbatorConfiguration();
+        config.addAbatorContext(abatorContext);
+        return config;
+    }
+
+    /**
+     * Returns the bytes allocated so far by all live threads, or 0 if the
+     * VM cannot measure allocation.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+
+        long[] allocated = ((com.sun.management.ThreadMXBean) threadMXBean)
+                .getThreadAllocatedBytes(threadMXBean.getAllThreadIds());
+        long answer = 0;
+        for (int i = 0; i < allocated.length; i++) {
+            if (allocated[i] > 0) {
+                answer += allocated[i];
+            }
+        }
+
+        return answer;
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = (long[]) values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        if (sorted.length % 2 == 1) {
+            return sorted[middle];
+        }
+
+        return (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+    private static String format(double value) {
+        return Double.toString(Math.round(value * 1000.0) / 1000.0);
+    }
+
+    private static String getKey(String[] row) {
+        return row[0] + ',' + row[1] + ',' + row[2] + ',' + row[3] + ',' + row[4];
+    }
+
+    /**
+     * Reads the rows of an earlier CSV file, keyed by table count, shape,
+     * columns and threads.  Later rows replace earlier rows with the same key.
+     */
+    private static Map readCsv(File file) throws IOException {
+        Map answer = new HashMap();
+        BufferedReader br = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith("#") || line.equals(CSV_HEADER)) { //$NON-NLS-1$
+                    continue;
+                }
+                String[] row = line.split(","); //$NON-NLS-1$
+                if (row.length == 12) {
+                    answer.put(getKey(row), row);
+                }
+            }
+        } finally {
+            br.close();
+        }
+
+        return answer;
+    }
+
+    private static String compare(String[] previous, String[] current) {
+        return "#   vs baseline: wall " + change(previous[6], current[6]) //$NON-NLS-1$
+            + ", peak heap " + change(previous[8], current[8]) //$NON-NLS-1$
+            + ", allocated " + change(previous[9], current[9]); //$NON-NLS-1$
+    }
+
+    private static String change(String previous, String current) {
+        double p = Double.parseDouble(previous);
+        double c = Double.parseDouble(current);
+        if (p == 0) {
+            return "n/a"; //$NON-NLS-1$
+        }
+
+        double percent = (c - p) * 100.0 / p;
+        return (percent >= 0 ? "+" : "") + format(percent) + "%"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (int i = 0; i < children.length; i++) {
+                delete(children[i]);
+            }
+        }
+        file.delete();
+    }
+}
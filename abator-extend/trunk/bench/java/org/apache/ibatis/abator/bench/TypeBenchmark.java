@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.abator.api.dom.java.FullyQualifiedJavaType;
+import org.apache.ibatis.abator.internal.util.JavaBeansUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures FullyQualifiedJavaType construction and
+ * JavaBeansUtil.getCamelCaseString, which run for every column and every
+ * type the generators refer to.
+ *
+ * @author Jeff Butler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeBenchmark {
+    @Param({"java.lang.String", "java.math.BigDecimal", "int",
+        "com.example.generated.model.CustomerOrderExample"})
+    public String typeName;
+
+    @Param({"ID", "CUSTOMER_ORDER_LINE_AMOUNT", "customer order$line"})
+    public String columnName;
+
+    @Benchmark
+    public FullyQualifiedJavaType newFullyQualifiedJavaType() {
+        return new FullyQualifiedJavaType(typeName);
+    }
+
+    @Benchmark
+    public String getCamelCaseString() {
+        return JavaBeansUtil.getCamelCaseString(columnName, false);
+    }
+}
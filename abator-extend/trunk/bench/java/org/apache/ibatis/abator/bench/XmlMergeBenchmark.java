@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.abator.api.GeneratedXmlFile;
+import org.apache.ibatis.abator.api.IntrospectedTable;
+import org.apache.ibatis.abator.exception.ShellException;
+import org.apache.ibatis.abator.internal.NullProgressCallback;
+import org.apache.ibatis.abator.internal.XmlFileMergerJaxp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures XmlFileMergerJaxp.getMergedSource: merging a newly generated SQL
+ * map into an existing one that holds the previous generated elements and
+ * a hand written element.
+ *
+ * @author Jeff Butler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlMergeBenchmark {
+    @Param({"10", "100", "500"})
+    public int columns;
+
+    private GeneratedXmlFile generatedXmlFile;
+
+    private File existingFile;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkTables tables = new BenchmarkTables();
+        IntrospectedTable introspectedTable = tables.createTable("BENCH_TABLE", columns); //$NON-NLS-1$
+        generatedXmlFile = (GeneratedXmlFile) tables.getSqlMapGenerator()
+                .getGeneratedXMLFiles(introspectedTable, new NullProgressCallback()).get(0);
+
+        String content = generatedXmlFile.getFormattedContent();
+        int index = content.lastIndexOf("</sqlMap>"); //$NON-NLS-1$
+        StringBuffer sb = new StringBuffer(content.substring(0, index));
+        sb.append("  <select id=\"customSelect\" resultClass=\"int\">\n"); //$NON-NLS-1$
+        sb.append("    select count(*) from BENCH_TABLE\n"); //$NON-NLS-1$
+        sb.append("  </select>\n"); //$NON-NLS-1$
+        sb.append(content.substring(index));
+
+        existingFile = File.createTempFile("abator-bench", ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+        BufferedWriter bw = new BufferedWriter(new FileWriter(existingFile));
+        try {
+            bw.write(sb.toString());
+        } finally {
+            bw.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        existingFile.delete();
+    }
+
+    @Benchmark
+    public String getMergedSource() throws ShellException {
+        return XmlFileMergerJaxp.getMergedSource(generatedXmlFile, existingFile);
+    }
+}
@@ -27,10 +27,12 @@ import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.ibatis.abator.api.Abator;
+import org.apache.ibatis.abator.api.AbatorDaemon;
 import org.apache.ibatis.abator.config.AbatorConfiguration;
 import org.apache.ibatis.abator.config.xml.AbatorConfigurationParser;
 import org.apache.ibatis.abator.exception.InvalidConfigurationException;
 import org.apache.ibatis.abator.exception.XMLParserException;
+import org.apache.ibatis.abator.internal.ArchiveOutputSink;
 import org.apache.ibatis.abator.internal.DefaultShellCallback;
 import org.apache.ibatis.abator.internal.util.StringUtility;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
@@ -65,6 +67,20 @@ import org.apache.tools.ant.types.PropertySet;
  *      for this run</li>
  *   <li>"fullyQualifiedTableNames" - a comma delimited list of 
  *     fully qualified table names to use for this run</li>
+ *   <li>"streamOutput" - if true, the files of each table are saved as soon
+ *     as the table is generated</li>
+ *   <li>"daemonPort" - sends the run to an AbatorDaemon listening on this
+ *     port instead of running Abator in the Ant VM.  The daemon uses its
+ *     own configuration, so "configfile" is not needed.</li>
+ *   <li>"metricsReport" - a file to which the time spent in each phase of
+ *     the run, and the number of tables, columns and files, are written as
+ *     JSON</li>
+ *   <li>"outputArchive" - a zip or jar file into which all generated files
+ *     are written, instead of the target projects.  Existing files are not
+ *     merged.</li>
+ *   <li>"configCache" - a directory in which the parsed configuration is
+ *     saved, so the configuration file is only parsed again when it
+ *     changes</li>
  * </ul>
  * 
  * 
@@ -78,6 +94,11 @@ public class AbatorAntTask extends Task {
     private boolean verbose;
     private String contextIds;
     private String fullyQualifiedTableNames;
+    private boolean streamOutput;
+    private int daemonPort;
+    private File metricsReport;
+    private File outputArchive;
+    private File configCache;
 
     /**
      * 
@@ -90,6 +111,11 @@ public class AbatorAntTask extends Task {
      * @see org.apache.tools.ant.Task#execute()
      */
     public void execute() throws BuildException {
+        if (daemonPort > 0) {
+            executeInDaemon();
+            return;
+        }
+        
         if (!StringUtility.stringHasValue(configfile)) {
             throw new BuildException(Messages.getString("RuntimeError.0")); //$NON-NLS-1$
         }
@@ -128,14 +154,25 @@ public class AbatorAntTask extends Task {
             
             AbatorConfigurationParser cp = new AbatorConfigurationParser(p,
                 warnings);
+            cp.setCacheDirectory(configCache);
             AbatorConfiguration config = cp.parseAbatorConfiguration(configurationFile);
             
             DefaultShellCallback callback = new DefaultShellCallback(overwrite);
             
             Abator abator = new Abator(config, callback, warnings);
+            abator.setStreamOutput(streamOutput);
+            abator.setMetricsReport(metricsReport);
+            if (outputArchive != null) {
+                abator.setOutputSink(new ArchiveOutputSink(outputArchive, null));
+            }
             
             abator.generate(new AntProgressCallback(this, verbose), contexts, fullyqualifiedTables);
             
+            log(Messages.getString("Progress.14", //$NON-NLS-1$
+                    Integer.toString(abator.getFilesWritten()),
+                    Integer.toString(abator.getFilesMerged()),
+                    Integer.toString(abator.getFilesSkipped())));
+            
         } catch (XMLParserException e) {
             Iterator errors = e.getErrors().iterator();
             while (errors.hasNext()) {
@@ -226,4 +263,67 @@ public class AbatorAntTask extends Task {
     public void setFullyQualifiedTableNames(String fullyQualifiedTableNames) {
         this.fullyQualifiedTableNames = fullyQualifiedTableNames;
     }
+
+    private void executeInDaemon() throws BuildException {
+        List replies = new ArrayList();
+        boolean ok;
+        try {
+            ok = AbatorDaemon.sendRequest(daemonPort,
+                    AbatorDaemon.getGenerateRequest(contextIds,
+                            fullyQualifiedTableNames), replies);
+        } catch (IOException e) {
+            throw new BuildException(Messages.getString("RuntimeError.25", //$NON-NLS-1$
+                    Integer.toString(daemonPort), e.getMessage()));
+        }
+        
+        Iterator iter = replies.iterator();
+        while (iter.hasNext()) {
+            log((String) iter.next(), ok ? Project.MSG_INFO : Project.MSG_ERR);
+        }
+        
+        if (!ok) {
+            throw new BuildException(Messages.getString("RuntimeError.26", //$NON-NLS-1$
+                    Integer.toString(daemonPort)));
+        }
+    }
+
+    public int getDaemonPort() {
+        return daemonPort;
+    }
+
+    public void setDaemonPort(int daemonPort) {
+        this.daemonPort = daemonPort;
+    }
+
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    public void setStreamOutput(boolean streamOutput) {
+        this.streamOutput = streamOutput;
+    }
+
+    public File getMetricsReport() {
+        return metricsReport;
+    }
+
+    public void setMetricsReport(File metricsReport) {
+        this.metricsReport = metricsReport;
+    }
+
+    public File getOutputArchive() {
+        return outputArchive;
+    }
+
+    public void setOutputArchive(File outputArchive) {
+        this.outputArchive = outputArchive;
+    }
+
+    public File getConfigCache() {
+        return configCache;
+    }
+
+    public void setConfigCache(File configCache) {
+        this.configCache = configCache;
+    }
 }
@@ -16,19 +16,34 @@
 
 package org.apache.ibatis.abator.ant;
 
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import org.apache.ibatis.abator.internal.util.StringUtility;
+import org.apache.ibatis.abator.internal.util.SqlStatementReader;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
+import org.apache.tools.ant.types.FileSet;
 
 /**
  * This task executes an SQL script.  It is used during the Abator build
@@ -37,6 +52,43 @@ import org.apache.tools.ant.Task;
  * 
  * This task is very simplistic and not intended for general use.
  * 
+ * The script is read one statement at a time, so scripts of any size can be
+ * run.  These optional attributes control how it is run:
+ * <ul>
+ *   <li>"batchSize" - the number of statements sent to the database in one
+ *     JDBC batch (default 1, no batching)</li>
+ *   <li>"commitInterval" - commit after this many statements (default 0,
+ *     one commit at the end)</li>
+ *   <li>"delimiter" - the statement delimiter (default ";")</li>
+ *   <li>"delimiterType" - "normal" (default), or "row" if the delimiter
+ *     must be alone on a line</li>
+ *   <li>"backslashEscapes" - true if a backslash in a string literal escapes
+ *     the next character, as in MySQL (default false, standard SQL)</li>
+ *   <li>"encoding" - the encoding of the script (default: the platform
+ *     encoding)</li>
+ *   <li>"threads" - the number of scripts run at the same time, each on its
+ *     own connection (default 1)</li>
+ * </ul>
+ * 
+ * Instead of, or in addition to, the "src" script, scripts can be given as
+ * nested filesets.  Scripts that depend on others (data scripts that need
+ * the tables of a DDL script, for example) go into nested phase elements:
+ * <pre>
+ *   &lt;sqlScriptRunner driver="..." url="..." threads="4"&gt;
+ *     &lt;phase name="ddl"&gt;
+ *       &lt;fileset dir="sql" includes="*-ddl.sql"/&gt;
+ *     &lt;/phase&gt;
+ *     &lt;phase name="data"&gt;
+ *       &lt;fileset dir="sql" includes="*-data.sql"/&gt;
+ *     &lt;/phase&gt;
+ *   &lt;/sqlScriptRunner&gt;
+ * </pre>
+ * The "src" script and the filesets of the task itself run first, then the
+ * phases in the order they are declared.  The scripts within a phase are
+ * independent of each other and may run at the same time.  Every script is
+ * committed on its own, and the number of statements, rows and the time of
+ * every script are reported.
+ * 
  * @author Jeff Butler
  *
  */
@@ -47,33 +99,288 @@ public class SqlScriptRunnerTask extends Task {
     private String userid;
     private String password;
     private String src;
+    private int batchSize = 1;
+    private int commitInterval;
+    private String delimiter = ";"; //$NON-NLS-1$
+    private String delimiterType = "normal"; //$NON-NLS-1$
+    private boolean backslashEscapes;
+    private String encoding;
+    private int threads = 1;
+    private List filesets = new ArrayList();
+    private List phases = new ArrayList();
+    
+    /**
+     * LinkedList&lt;Connection&gt; of connections not used by a running
+     * script.  Only set while the task runs.
+     */
+    private LinkedList idleConnections;
 
     public void execute() throws BuildException {
         
-        Connection connection = null;
+        if (!"normal".equalsIgnoreCase(delimiterType) //$NON-NLS-1$
+                && !"row".equalsIgnoreCase(delimiterType)) { //$NON-NLS-1$
+            throw new BuildException(Messages.getString("RuntimeError.27", delimiterType)); //$NON-NLS-1$
+        }
+        
+        // src and the filesets of the task form the first phase
+        List allPhases = new ArrayList();
+        Phase first = new Phase();
+        if (src != null) {
+            first.addFile(new File(src));
+        }
+        Iterator iter = filesets.iterator();
+        while (iter.hasNext()) {
+            first.addFileset((FileSet) iter.next());
+        }
+        allPhases.add(first);
+        allPhases.addAll(phases);
+        
+        idleConnections = new LinkedList();
         
         try {
             Class.forName(driver);
-            connection = DriverManager.getConnection(url, userid, password);
             
-            Statement statement = connection.createStatement();
+            boolean found = false;
+            iter = allPhases.iterator();
+            while (iter.hasNext()) {
+                List scripts = ((Phase) iter.next()).getScripts(getProject());
+                if (!scripts.isEmpty()) {
+                    runPhase(scripts);
+                    found = true;
+                }
+            }
             
-            BufferedReader br = new BufferedReader(new FileReader(src));
+            if (!found) {
+                throw new BuildException(Messages.getString("RuntimeError.29")); //$NON-NLS-1$
+            }
+        } catch (BuildException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BuildException(e.getMessage());
+        } finally {
+            iter = idleConnections.iterator();
+            while (iter.hasNext()) {
+                closeConnection((Connection) iter.next());
+            }
+            idleConnections = null;
+        }
+    }
+    
+    /**
+     * Runs the scripts of a phase, up to "threads" scripts at a time, and
+     * reports the results in script order.  If a script fails, scripts that
+     * have not started yet are not run.
+     */
+    private void runPhase(List scripts) throws Exception {
+        int poolSize = Math.min(threads, scripts.size());
+        if (poolSize <= 1) {
+            Iterator iter = scripts.iterator();
+            while (iter.hasNext()) {
+                logResult(runScript((File) iter.next()));
+            }
+            return;
+        }
+        
+        final boolean[] failed = new boolean[1];
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List futures = new ArrayList();
+            Iterator iter = scripts.iterator();
+            while (iter.hasNext()) {
+                final File script = (File) iter.next();
+                futures.add(executor.submit(new Callable() {
+                    public Object call() throws Exception {
+                        synchronized (failed) {
+                            if (failed[0]) {
+                                return null;
+                            }
+                        }
+                        try {
+                            return runScript(script);
+                        } catch (Exception e) {
+                            synchronized (failed) {
+                                failed[0] = true;
+                            }
+                            throw e;
+                        }
+                    }
+                }));
+            }
+            
+            Exception failure = null;
+            iter = futures.iterator();
+            while (iter.hasNext()) {
+                try {
+                    ScriptResult result = (ScriptResult) ((Future) iter.next()).get();
+                    if (result != null) {
+                        logResult(result);
+                    }
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception
+                            ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
             
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void logResult(ScriptResult result) {
+        log(Messages.getString("Progress.19", result.script.getName(), //$NON-NLS-1$
+                Long.toString(result.statements), Long.toString(result.rows),
+                Long.toString(result.millis)), Project.MSG_INFO);
+    }
+    
+    /**
+     * Runs one script in its own transaction, on a connection of the pool.
+     */
+    private ScriptResult runScript(File script) throws Exception {
+        long start = System.currentTimeMillis();
+        Connection connection = getConnection();
+        Statement statement = null;
+        SqlStatementReader reader = null;
+        boolean ok = false;
+        
+        try {
+            int effectiveBatchSize = batchSize;
+            if (effectiveBatchSize > 1
+                    && !connection.getMetaData().supportsBatchUpdates()) {
+                effectiveBatchSize = 1;
+            }
+            
+            statement = connection.createStatement();
+            
+            Reader in;
+            if (encoding == null) {
+                in = new FileReader(script);
+            } else {
+                in = new InputStreamReader(new FileInputStream(script), encoding);
+            }
+            reader = new SqlStatementReader(in, delimiter,
+                    "row".equalsIgnoreCase(delimiterType), backslashEscapes); //$NON-NLS-1$
+            
+            ScriptResult result = new ScriptResult(script);
+            // the statements of the current batch, for error messages
+            List batch = new ArrayList();
+            int uncommitted = 0;
             String sql;
             
-            while ((sql = readStatement(br)) != null) {
-                statement.execute(sql);
+            while ((sql = reader.readStatement()) != null) {
+                log(Messages.getString("Progress.13", sql), Project.MSG_DEBUG); //$NON-NLS-1$
+                result.statements++;
+                uncommitted++;
+                
+                if (effectiveBatchSize > 1) {
+                    statement.addBatch(sql);
+                    batch.add(sql);
+                    if (batch.size() >= effectiveBatchSize) {
+                        executeBatch(statement, batch, result);
+                    }
+                } else {
+                    try {
+                        if (!statement.execute(sql)) {
+                            addRows(result, statement.getUpdateCount());
+                        }
+                    } catch (SQLException e) {
+                        throw new BuildException(Messages.getString("RuntimeError.28", //$NON-NLS-1$
+                                Long.toString(result.statements), script.getName(),
+                                e.getMessage(), sql));
+                    }
+                }
+                
+                if (commitInterval > 0 && uncommitted >= commitInterval) {
+                    executeBatch(statement, batch, result);
+                    connection.commit();
+                    uncommitted = 0;
+                }
             }
             
-            closeStatement(statement);
+            executeBatch(statement, batch, result);
             connection.commit();
-            br.close();
-        } catch (Exception e) {
-            throw new BuildException(e.getMessage());
+            ok = true;
+            
+            result.millis = System.currentTimeMillis() - start;
+            return result;
         } finally {
-            closeConnection(connection);
+            closeReader(reader);
+            closeStatement(statement);
+            if (ok) {
+                releaseConnection(connection);
+            } else {
+                closeConnection(connection);
+            }
+        }
+    }
+    
+    /**
+     * Returns an idle connection, or opens a new one.  No more than
+     * "threads" scripts run at the same time, so no more than "threads"
+     * connections are ever opened.
+     */
+    private Connection getConnection() throws SQLException {
+        synchronized (idleConnections) {
+            if (!idleConnections.isEmpty()) {
+                return (Connection) idleConnections.removeFirst();
+            }
+        }
+        
+        Connection connection = DriverManager.getConnection(url, userid, password);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+    
+    private void releaseConnection(Connection connection) {
+        synchronized (idleConnections) {
+            idleConnections.addLast(connection);
+        }
+    }
+    
+    private static void addRows(ScriptResult result, int updateCount) {
+        if (updateCount > 0) {
+            result.rows += updateCount;
+        }
+    }
+    
+    /**
+     * Sends the statements of the current batch to the database, if there
+     * are any.
+     * 
+     * @param statement
+     * @param batch the statements added to the batch
+     * @param result the result of the script so far
+     */
+    private void executeBatch(Statement statement, List batch, ScriptResult result)
+            throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        try {
+            int[] updateCounts = statement.executeBatch();
+            for (int i = 0; i < updateCounts.length; i++) {
+                addRows(result, updateCounts[i]);
+            }
+        } catch (BatchUpdateException e) {
+            // most drivers stop at the first failing statement
+            int[] updateCounts = e.getUpdateCounts();
+            int failed = updateCounts == null ? 0 : updateCounts.length;
+            if (failed >= batch.size()) {
+                failed = 0;
+            }
+            long executed = result.statements - batch.size();
+            throw new BuildException(Messages.getString("RuntimeError.28", //$NON-NLS-1$
+                    Long.toString(executed + failed + 1), result.script.getName(),
+                    e.getMessage(), (String) batch.get(failed)));
         }
+        
+        statement.clearBatch();
+        batch.clear();
     }
     
     public String getDriver() {
@@ -116,6 +423,72 @@ public class SqlScriptRunnerTask extends Task {
         this.userid = userid;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+
+    public void setCommitInterval(int commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(String delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public String getDelimiterType() {
+        return delimiterType;
+    }
+
+    public void setDelimiterType(String delimiterType) {
+        this.delimiterType = delimiterType;
+    }
+
+    public boolean isBackslashEscapes() {
+        return backslashEscapes;
+    }
+
+    public void setBackslashEscapes(boolean backslashEscapes) {
+        this.backslashEscapes = backslashEscapes;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void addFileset(FileSet fileset) {
+        filesets.add(fileset);
+    }
+
+    public Phase createPhase() {
+        Phase phase = new Phase();
+        phases.add(phase);
+        return phase;
+    }
+
     private void closeConnection(Connection connection) {
         if (connection != null) {
             try {
@@ -127,6 +500,17 @@ public class SqlScriptRunnerTask extends Task {
         }
     }
           
+    private void closeReader(SqlStatementReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // ignore
+                ;
+            }
+        }
+    }
+    
     private void closeStatement(Statement statement) {
         if (statement != null) {
             try {
@@ -137,35 +521,61 @@ public class SqlScriptRunnerTask extends Task {
             }
         }
     }
-    
-    private String readStatement(BufferedReader br) throws IOException {
-        StringBuffer sb = new StringBuffer();
+
+    /**
+     * A group of scripts that may run at the same time.  Phases run one
+     * after the other, in the order they are declared.
+     */
+    public static class Phase {
+        private String name;
+        private List files = new ArrayList();
+        private List filesets = new ArrayList();
         
-        String line;
+        public String getName() {
+            return name;
+        }
         
-        while ((line = br.readLine()) != null) {
-            if (line.startsWith("--")) { //$NON-NLS-1$
-                continue;
-            }
-            
-            if (!StringUtility.stringHasValue(line)) {
-                continue;
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public void addFileset(FileSet fileset) {
+            filesets.add(fileset);
+        }
+        
+        void addFile(File file) {
+            files.add(file);
+        }
+        
+        /**
+         * Returns the scripts of the phase.  The files of each fileset are
+         * sorted by name, so that the scripts are reported in a stable order.
+         */
+        List getScripts(Project project) {
+            List answer = new ArrayList(files);
+            Iterator iter = filesets.iterator();
+            while (iter.hasNext()) {
+                FileSet fileset = (FileSet) iter.next();
+                File dir = fileset.getDir(project);
+                String[] names = fileset.getDirectoryScanner(project).getIncludedFiles();
+                Arrays.sort(names);
+                for (int i = 0; i < names.length; i++) {
+                    answer.add(new File(dir, names[i]));
+                }
             }
             
-            if (line.endsWith(";")) { //$NON-NLS-1$
-                sb.append(line.substring(0, line.length() - 1));
-                break;
-            } else {
-                sb.append(line);
-            }
+            return answer;
         }
+    }
+    
+    private static class ScriptResult {
+        private File script;
+        private long statements;
+        private long rows;
+        private long millis;
         
-        String s = sb.toString().trim();
-
-        if (s.length() > 0) {
-            log(Messages.getString("Progress.13", s), Project.MSG_DEBUG); //$NON-NLS-1$
+        ScriptResult(File script) {
+            this.script = script;
         }
-        
-        return s.length() > 0 ? s : null;
     }
 }
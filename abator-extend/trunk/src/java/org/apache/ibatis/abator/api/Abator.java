@@ -15,24 +15,39 @@
  */
 package org.apache.ibatis.abator.api;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.abator.config.AbatorConfiguration;
 import org.apache.ibatis.abator.config.AbatorContext;
 import org.apache.ibatis.abator.exception.InvalidConfigurationException;
 import org.apache.ibatis.abator.exception.ShellException;
 import org.apache.ibatis.abator.internal.DefaultShellCallback;
+import org.apache.ibatis.abator.internal.GenerationManifest;
 import org.apache.ibatis.abator.internal.NullProgressCallback;
 import org.apache.ibatis.abator.internal.XmlFileMergerJaxp;
+import org.apache.ibatis.abator.internal.db.ConnectionFactory;
+import org.apache.ibatis.abator.internal.util.ClassloaderUtility;
+import org.apache.ibatis.abator.internal.util.StringUtility;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
 
 /**
@@ -47,12 +62,34 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * <li>Call one of the generate() methods</li>
  * </ol>
  * 
+ * Several Abator objects may run generate() at the same time, for example
+ * one per module of a parallel build.  The caches they share (drivers,
+ * connections, class loaders and type information) are thread safe, and
+ * shared connections and class loaders are only closed when the last
+ * running Abator finishes.  A single Abator object keeps the state of its
+ * run, so calls to generate() on the same object are serialized.
+ * 
  * @see org.apache.ibatis.abator.config.xml.AbatorConfigurationParser
  * 
  * @author Jeff Butler
  */
 public class Abator {
 
+    /**
+     * The rest of the lines that hold the generation date in the comments of
+     * the DefaultCommentGenerator.  The date is left out of the digest,
+     * otherwise a file would never be up to date unless the suppressDate
+     * property is set.
+     */
+    private static final Pattern GENERATED_DATE = Pattern.compile(
+            "(@abatorgenerated|This element was generated on)[^\\r\\n]*"); //$NON-NLS-1$
+
+    /**
+     * The number of generate() calls running in this VM, guarded by
+     * the Abator class
+     */
+    private static int activeRuns;
+
     private AbatorConfiguration abatorConfiguration;
 
     private ShellCallback shellCallback;
@@ -65,6 +102,28 @@ public class Abator {
 
     private Set projects;
 
+    /**
+     * Map&lt;String, GenerationManifest&gt; keyed by target project.  The value
+     * is null if the project cannot be resolved to a directory.
+     */
+    private Map manifests;
+
+    private int filesWritten;
+
+    private int filesSkipped;
+
+    private int filesMerged;
+
+    private boolean streamOutput;
+
+    private boolean closeResources = true;
+
+    private GenerationMetrics metrics;
+
+    private File metricsReport;
+
+    private OutputSink outputSink;
+
     /**
      * Constructs an Abator object.
      * 
@@ -104,6 +163,7 @@ public class Abator {
         generatedJavaFiles = new ArrayList();
         generatedXmlFiles = new ArrayList();
         projects = new HashSet();
+        manifests = new HashMap();
         
         this.abatorConfiguration.validate();
     }
@@ -151,6 +211,12 @@ public class Abator {
      * 
      * READING:ȡļģͲд뵽ļ(charr 20080823)
      * 
+     * Existing files that already hold the generated content are not
+     * rewritten.  A manifest in each target project records what was
+     * generated into each file, so unchanged files are usually recognized
+     * without being read or merged.  The generation dates in the comments
+     * are ignored, so files are skipped even if suppressDate is not set.
+     * 
      * @param callback an instance of the ProgressCallback interface, or <code>null</code>
      *   if you do not require progress information
      * @param contextIds a set of Strings containing context ids to run.  Only the
@@ -167,7 +233,8 @@ public class Abator {
      * @throws IOException
      * @throws InterruptedException if the method is cancelled through the ProgressCallback
      */
-    public void generate(ProgressCallback callback, Set contextIds, Set fullyQualifiedTableNames)
+    public synchronized void generate(ProgressCallback callback, Set contextIds,
+            Set fullyQualifiedTableNames)
             throws SQLException, IOException, InterruptedException {
 
         if (callback == null) {
@@ -203,78 +270,342 @@ public class Abator {
 
         callback.setNumberOfSubTasks(totalSteps);
 
-        iter = contextsToRun.iterator();
-        while (iter.hasNext()) {
-            AbatorContext abatorContext = (AbatorContext) iter.next();
+        manifests.clear();
+        filesWritten = 0;
+        filesSkipped = 0;
+        filesMerged = 0;
+        metrics = new GenerationMetrics(callback);
 
-            /** READING: JavaļXmlļļģ (charr 20080823) */
-            abatorContext.generateFiles(callback, generatedJavaFiles,
-                    generatedXmlFiles, warnings, fullyQualifiedTableNames);
+        if (outputSink != null) {
+            outputSink.open();
         }
         
-        iter = generatedXmlFiles.iterator();
-        while (iter.hasNext()) {
-            GeneratedXmlFile gxf = (GeneratedXmlFile) iter.next();
-            projects.add(gxf.getTargetProject());
+        runStarted();
+        try {
+            if (streamOutput) {
+                generateAndWrite(callback, contextsToRun, fullyQualifiedTableNames);
+            } else {
+                GeneratedFilesCallback filesCallback = new GeneratedFilesCallback() {
+                    public void filesGenerated(List javaFiles, List xmlFiles) {
+                        generatedJavaFiles.addAll(javaFiles);
+                        generatedXmlFiles.addAll(xmlFiles);
+                    }
+                };
+                
+                iter = contextsToRun.iterator();
+                while (iter.hasNext()) {
+                    AbatorContext abatorContext = (AbatorContext) iter.next();
+
+                    /** READING: JavaļXmlļļģ (charr 20080823) */
+                    abatorContext.generateFiles(callback, filesCallback, metrics,
+                            warnings, fullyQualifiedTableNames);
+                }
 
-            File targetFile;
-            String source;
+                writeFiles(generatedJavaFiles, generatedXmlFiles);
+                generatedJavaFiles.clear();
+                generatedXmlFiles.clear();
+            }
+        } finally {
             try {
-                File directory = shellCallback.getDirectory(gxf
-                        .getTargetProject(), gxf.getTargetPackage(), warnings);
-                targetFile = new File(directory, gxf.getFileName());
-                /** READING: sqlMapļڣϲֱ֮µļ */
-                if (targetFile.exists()) {
-                    source = XmlFileMergerJaxp.getMergedSource(gxf, targetFile);
-                } else {
-                    source = gxf.getFormattedContent();
+                if (outputSink != null) {
+                    outputSink.close();
+                }
+            } finally {
+                // connections and classloaders are only kept for the duration
+                // of a run, unless the caller runs again soon.  Other runs
+                // may still be using them, so only the last one closes them
+                if (runFinished() && closeResources) {
+                    ConnectionFactory.getInstance().closeIdleConnections();
+                    ClassloaderUtility.closeCustomClassloaders();
                 }
-            } catch (ShellException e) {
-                warnings.add(e.getMessage());
-                continue;
             }
+        }
 
-            /** READING: дxmlļ (charr 20080823) */
-            writeFile(targetFile, source);
+        iter = manifests.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            GenerationManifest manifest = (GenerationManifest) entry.getValue();
+            if (manifest != null) {
+                try {
+                    manifest.save();
+                } catch (IOException e) {
+                    warnings.add(Messages.getString("Warning.25", //$NON-NLS-1$
+                            (String) entry.getKey(), e.getMessage()));
+                }
+            }
         }
 
-        iter = generatedJavaFiles.iterator();
+        iter = projects.iterator();
         while (iter.hasNext()) {
-            GeneratedJavaFile gjf = (GeneratedJavaFile) iter.next();
-            projects.add(gjf.getTargetProject());
+            shellCallback.refreshProject((String) iter.next());
+        }
+
+        metrics.finished();
+        if (metricsReport != null) {
+            writeMetricsReport();
+        }
+    }
 
-            File targetFile;
-            String source;
+    /**
+     * Writes the metrics of the last run to the metrics report file as JSON.
+     * A report that cannot be written is a warning, not an error.
+     */
+    private void writeMetricsReport() {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(metricsReport), "UTF-8")); //$NON-NLS-1$
             try {
-                File directory = shellCallback.getDirectory(gjf
-                        .getTargetProject(), gjf.getTargetPackage(), warnings);
-                targetFile = new File(directory, gjf.getFileName());
-                if (targetFile.exists()) {
-                    if (shellCallback.mergeSupported()) {
-                        source = shellCallback.mergeJavaFile(gjf,
-                            "@abatorgenerated", warnings); //$NON-NLS-1$
-                    } else {
-                        source = gjf.getFormattedContent();
-                        targetFile = getUniqueFileName(directory, gjf);
-                        warnings.add(Messages.getString("Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
-                    }
-                } else {
-                    source = gjf.getFormattedContent();
+                metrics.writeJson(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            warnings.add(Messages.getString("Warning.27", //$NON-NLS-1$
+                    metricsReport.getAbsolutePath(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs the contexts and saves the files of every table on a separate
+     * writer thread while the next tables are generated.
+     */
+    private void generateAndWrite(ProgressCallback callback,
+            List contextsToRun, Set fullyQualifiedTableNames)
+            throws SQLException, IOException, InterruptedException {
+        List originalWarnings = warnings;
+        warnings = Collections.synchronizedList(originalWarnings);
+        FileWriterStage writerStage = new FileWriterStage();
+        Thread writerThread = new Thread(writerStage, "abator-writer"); //$NON-NLS-1$
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        boolean complete = false;
+        try {
+            Iterator iter = contextsToRun.iterator();
+            while (iter.hasNext()) {
+                AbatorContext abatorContext = (AbatorContext) iter.next();
+                abatorContext.generateFiles(callback, writerStage, metrics,
+                        warnings, fullyQualifiedTableNames);
+            }
+            complete = true;
+        } finally {
+            writerStage.finish(!complete);
+            writerThread.join();
+            warnings = originalWarnings;
+        }
+
+        writerStage.checkFailure();
+    }
+
+    /**
+     * Saves the generated files.  XML files are saved first.
+     */
+    private void writeFiles(List javaFiles, List xmlFiles) throws IOException {
+        Iterator iter = xmlFiles.iterator();
+        while (iter.hasNext()) {
+            writeXmlFile((GeneratedXmlFile) iter.next());
+        }
+
+        iter = javaFiles.iterator();
+        while (iter.hasNext()) {
+            writeJavaFile((GeneratedJavaFile) iter.next());
+        }
+    }
+
+    private void writeXmlFile(GeneratedXmlFile gxf) throws IOException {
+        if (outputSink != null) {
+            saveToOutputSink(gxf);
+            return;
+        }
+        
+        projects.add(gxf.getTargetProject());
+
+        File targetFile;
+        long start = System.nanoTime();
+        String content = gxf.getFormattedContent();
+        metrics.addTime(null, null, GenerationMetrics.PHASE_RENDER, start);
+        String digest = getContentDigest(content);
+        GenerationManifest manifest = getManifest(gxf.getTargetProject());
+        try {
+            File directory = shellCallback.getDirectory(gxf
+                    .getTargetProject(), gxf.getTargetPackage(), warnings);
+            targetFile = new File(directory, gxf.getFileName());
+            /** READING: sqlMapļڣϲֱ֮µļ */
+            if (targetFile.exists()) {
+                if (isUpToDate(targetFile, digest, manifest)) {
+                    return;
                 }
                 
-                /** READING: дjavaļ (charr 20080823) */
-                writeFile(targetFile, source);
-            } catch (ShellException e) {
-                warnings.add(e.getMessage());
+                start = System.nanoTime();
+                String source = XmlFileMergerJaxp.getMergedSource(gxf, targetFile);
+                metrics.addTime(null, null, GenerationMetrics.PHASE_MERGE, start);
+                /** READING: дxmlļ (charr 20080823) */
+                saveFile(targetFile, source, digest, manifest, true);
+            } else {
+                saveFile(targetFile, content, digest, manifest, false);
             }
+        } catch (ShellException e) {
+            warnings.add(e.getMessage());
         }
+    }
 
-        iter = projects.iterator();
-        while (iter.hasNext()) {
-            shellCallback.refreshProject((String) iter.next());
+    private void writeJavaFile(GeneratedJavaFile gjf) throws IOException {
+        if (outputSink != null) {
+            saveToOutputSink(gjf);
+            return;
+        }
+        
+        projects.add(gjf.getTargetProject());
+
+        File targetFile;
+        long start = System.nanoTime();
+        String content = gjf.getFormattedContent();
+        metrics.addTime(null, null, GenerationMetrics.PHASE_RENDER, start);
+        String digest = getContentDigest(content);
+        GenerationManifest manifest = getManifest(gjf.getTargetProject());
+        try {
+            File directory = shellCallback.getDirectory(gjf
+                    .getTargetProject(), gjf.getTargetPackage(), warnings);
+            targetFile = new File(directory, gjf.getFileName());
+            if (targetFile.exists()) {
+                if (isUpToDate(targetFile, digest, manifest)) {
+                    return;
+                }
+                
+                if (shellCallback.mergeSupported()) {
+                    start = System.nanoTime();
+                    String source = shellCallback.mergeJavaFile(gjf,
+                        "@abatorgenerated", warnings); //$NON-NLS-1$
+                    metrics.addTime(null, null, GenerationMetrics.PHASE_MERGE, start);
+                    saveFile(targetFile, source, digest, manifest, true);
+                } else {
+                    targetFile = getUniqueFileName(directory, gjf);
+                    warnings.add(Messages.getString("Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
+                    /** READING: дjavaļ (charr 20080823) */
+                    saveFile(targetFile, content, digest, null, false);
+                }
+            } else {
+                saveFile(targetFile, content, digest, manifest, false);
+            }
+        } catch (ShellException e) {
+            warnings.add(e.getMessage());
         }
     }
 
+    /**
+     * Hands a file to the output sink.  The sink renders the file itself, so
+     * rendering is recorded as part of the write phase.
+     */
+    private void saveToOutputSink(GeneratedFile gf) throws IOException {
+        long start = System.nanoTime();
+        long bytes = outputSink.saveFile(gf, warnings);
+        metrics.addTime(null, null, GenerationMetrics.PHASE_WRITE, start);
+        metrics.addCount(null, null, GenerationMetrics.COUNT_BYTES_WRITTEN, bytes);
+        metrics.addCount(null, null, GenerationMetrics.COUNT_FILES_WRITTEN, 1);
+        filesWritten++;
+    }
+
+    /**
+     * Returns the number of files written by the last call to generate()
+     * because they were new or their content changed. Merged files are not
+     * included.
+     */
+    public int getFilesWritten() {
+        return filesWritten;
+    }
+
+    /**
+     * Returns the number of files the last call to generate() left untouched
+     * because their content would not have changed.
+     */
+    public int getFilesSkipped() {
+        return filesSkipped;
+    }
+
+    /**
+     * Returns the number of existing files the last call to generate() merged
+     * with the generated content and rewrote.
+     */
+    public int getFilesMerged() {
+        return filesMerged;
+    }
+
+    /**
+     * Returns true, and counts the file as skipped, if an existing file
+     * already holds the result of the generated content. This is true if the
+     * manifest says so, or if the file is identical to the generated content
+     * apart from the generation dates.
+     */
+    private boolean isUpToDate(File file, String digest,
+            GenerationManifest manifest) throws IOException {
+        boolean upToDate = manifest != null && manifest.isUpToDate(file, digest);
+        if (!upToDate && digest.equals(getContentDigest(readFile(file)))) {
+            if (manifest != null) {
+                manifest.record(file, digest);
+            }
+            upToDate = true;
+        }
+        
+        if (upToDate) {
+            filesSkipped++;
+            metrics.addCount(null, null, GenerationMetrics.COUNT_FILES_SKIPPED, 1);
+        }
+        
+        return upToDate;
+    }
+
+    /**
+     * Writes the source to the file unless the file already holds exactly
+     * that source, and records the result in the manifest.
+     */
+    private void saveFile(File file, String source, String digest,
+            GenerationManifest manifest, boolean merged) throws IOException {
+        if (merged && source.equals(readFile(file))) {
+            filesSkipped++;
+            metrics.addCount(null, null, GenerationMetrics.COUNT_FILES_SKIPPED, 1);
+        } else {
+            long start = System.nanoTime();
+            writeFile(file, source);
+            metrics.addTime(null, null, GenerationMetrics.PHASE_WRITE, start);
+            metrics.addCount(null, null, GenerationMetrics.COUNT_BYTES_WRITTEN,
+                    file.length());
+            if (merged) {
+                filesMerged++;
+                metrics.addCount(null, null, GenerationMetrics.COUNT_FILES_MERGED, 1);
+            } else {
+                filesWritten++;
+                metrics.addCount(null, null, GenerationMetrics.COUNT_FILES_WRITTEN, 1);
+            }
+        }
+
+        if (manifest != null) {
+            manifest.record(file, digest);
+        }
+    }
+
+    /**
+     * Returns the manifest for a target project, or null if the project
+     * cannot be resolved to a directory.
+     */
+    private GenerationManifest getManifest(String targetProject) {
+        if (manifests.containsKey(targetProject)) {
+            return (GenerationManifest) manifests.get(targetProject);
+        }
+
+        GenerationManifest manifest;
+        try {
+            File directory = shellCallback.getDirectory(targetProject,
+                    "", new ArrayList()); //$NON-NLS-1$
+            manifest = new GenerationManifest(directory);
+        } catch (ShellException e) {
+            // the problem will be reported when the file is saved
+            manifest = null;
+        }
+
+        manifests.put(targetProject, manifest);
+        return manifest;
+    }
+
     /**
      * Writes, or overwrites, the contents of the specified file
      * 
@@ -283,8 +614,36 @@ public class Abator {
      */
     private void writeFile(File file, String content) throws IOException {
         BufferedWriter bw = new BufferedWriter(new FileWriter(file, false));
-        bw.write(content);
-        bw.close();
+        try {
+            bw.write(content);
+        } finally {
+            bw.close();
+        }
+    }
+
+    /**
+     * Calculates the digest of generated content, without the generation
+     * dates of the comments - the dates change on every run, the content
+     * does not.
+     */
+    private static String getContentDigest(String content) {
+        return StringUtility.digest(GENERATED_DATE.matcher(content)
+                .replaceAll("$1")); //$NON-NLS-1$
+    }
+
+    private String readFile(File file) throws IOException {
+        BufferedReader br = new BufferedReader(new FileReader(file));
+        try {
+            StringBuffer sb = new StringBuffer((int) file.length());
+            char[] buffer = new char[8192];
+            int count;
+            while ((count = br.read(buffer)) != -1) {
+                sb.append(buffer, 0, count);
+            }
+            return sb.toString();
+        } finally {
+            br.close();
+        }
     }
     
     private File getUniqueFileName(File directory, GeneratedJavaFile gjf) {
@@ -311,4 +670,183 @@ public class Abator {
         
         return answer;
     }
+
+    /**
+     * If true, generate() saves the files of each table as soon as the
+     * table is generated, on a separate thread, instead of generating
+     * everything first.  The file model of a table is released once its files
+     * are saved, so memory use no longer grows with the number of tables.
+     * If generation fails, the files of the tables generated before the
+     * failure are already saved.
+     * 
+     * @param streamOutput
+     */
+    public void setStreamOutput(boolean streamOutput) {
+        this.streamOutput = streamOutput;
+    }
+
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    /**
+     * If false, generate() leaves idle database connections and the custom
+     * class loaders open so that the next run can use them.  The caller is
+     * then responsible for closing them with
+     * ConnectionFactory.closeIdleConnections() and
+     * ClassloaderUtility.closeCustomClassloaders().  The default is true.
+     * Even if true, the resources are left open while other Abator objects
+     * of this VM are running.
+     * 
+     * @param closeResources
+     */
+    public void setCloseResources(boolean closeResources) {
+        this.closeResources = closeResources;
+    }
+
+    public boolean isCloseResources() {
+        return closeResources;
+    }
+
+    private static synchronized void runStarted() {
+        activeRuns++;
+    }
+
+    /**
+     * Returns true if no other run is active.
+     */
+    private static synchronized boolean runFinished() {
+        activeRuns--;
+        return activeRuns == 0;
+    }
+
+    /**
+     * Returns the times and counts recorded by the last call to generate(),
+     * or null if generate() has not been called.
+     */
+    public GenerationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * If set, generate() writes the times and counts of the run to this file
+     * as a JSON document.
+     * 
+     * @param metricsReport the report file, or null for no report
+     */
+    public void setMetricsReport(File metricsReport) {
+        this.metricsReport = metricsReport;
+    }
+
+    public File getMetricsReport() {
+        return metricsReport;
+    }
+
+    /**
+     * If set, generate() saves the generated files to this sink instead of
+     * the directories of the ShellCallback.  Existing files are not read
+     * or merged, and no generation manifest is kept.
+     * 
+     * @param outputSink the sink, or null to save files to the file system
+     */
+    public void setOutputSink(OutputSink outputSink) {
+        this.outputSink = outputSink;
+    }
+
+    public OutputSink getOutputSink() {
+        return outputSink;
+    }
+
+    /**
+     * Receives the files of each table from the contexts and saves them on
+     * the writer thread.  Only a few tables are queued; if the writer falls
+     * behind, generation waits for it.
+     */
+    private class FileWriterStage implements GeneratedFilesCallback, Runnable {
+        private final Object[] END = new Object[0];
+
+        private BlockingQueue queue = new ArrayBlockingQueue(4);
+
+        /**
+         * The first failure of the writer thread - an IOException, a
+         * RuntimeException or an Error such as OutOfMemoryError.
+         */
+        private volatile Throwable failure;
+
+        private volatile boolean discard;
+
+        public void filesGenerated(List generatedJavaFiles,
+                List generatedXmlFiles) throws IOException, InterruptedException {
+            checkFailure();
+            queue.put(new Object[] {generatedJavaFiles, generatedXmlFiles});
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    Object[] files = (Object[]) queue.take();
+                    if (files == END) {
+                        break;
+                    }
+
+                    if (!discard && failure == null) {
+                        writeFiles((List) files[0], (List) files[1]);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // ignore - the thread only ends
+                ;
+            } catch (Throwable e) {
+                // anything else ends the writing, but the queue must still
+                // be drained or the generating thread would block forever
+                failure = e;
+                drain();
+            }
+        }
+
+        /**
+         * Tells the writer thread that no more files will come.
+         * 
+         * @param discardPending true if queued files should not be saved
+         */
+        void finish(boolean discardPending) throws InterruptedException {
+            discard = discardPending;
+            queue.put(END);
+        }
+
+        void checkFailure() throws IOException {
+            if (failure == null) {
+                return;
+            }
+
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+
+            throw new RuntimeException(failure);
+        }
+
+        /**
+         * Keeps taking from the queue after a failure so the generating
+         * thread is never blocked, until the end marker arrives.
+         */
+        private void drain() {
+            try {
+                while (queue.take() != END) {
+                    ;
+                }
+            } catch (InterruptedException e) {
+                // ignore
+                ;
+            }
+        }
+    }
 }
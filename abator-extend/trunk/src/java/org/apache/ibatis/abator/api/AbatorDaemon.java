@@ -0,0 +1,711 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.api;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.abator.config.AbatorConfiguration;
+import org.apache.ibatis.abator.config.AbatorContext;
+import org.apache.ibatis.abator.config.xml.AbatorConfigurationParser;
+import org.apache.ibatis.abator.exception.InvalidConfigurationException;
+import org.apache.ibatis.abator.exception.XMLParserException;
+import org.apache.ibatis.abator.internal.AbatorObjectFactory;
+import org.apache.ibatis.abator.internal.DefaultShellCallback;
+import org.apache.ibatis.abator.internal.db.CachingMetadataProvider;
+import org.apache.ibatis.abator.internal.db.ConnectionFactory;
+import org.apache.ibatis.abator.internal.db.MetadataProvider;
+import org.apache.ibatis.abator.internal.util.ClassloaderUtility;
+import org.apache.ibatis.abator.internal.util.StringUtility;
+import org.apache.ibatis.abator.internal.util.messages.Messages;
+
+/**
+ * This class runs Abator as a long running process.  The configuration is
+ * parsed once, and JDBC drivers, database connections and the table
+ * metadata stay in memory between runs, so a run only has to read the
+ * tables that changed and to write the files that changed.
+ *
+ * The daemon accepts requests on a socket bound to the loopback interface.
+ * A request is one line of tab separated fields, answered with any number of
+ * message lines followed by a line with <code>OK</code> or
+ * <code>ERROR</code>:
+ * <ul>
+ *   <li><code>generate [TAB contextIds [TAB tables]]</code> - runs Abator.
+ *     Context ids and table names are comma delimited, just like the
+ *     <code>-contextids</code> and <code>-tables</code> arguments of the
+ *     AbatorRunner.</li>
+ *   <li><code>shutdown</code> - stops the daemon</li>
+ * </ul>
+ * The AbatorRunner and the Ant task send requests with the
+ * <code>-daemonport</code> argument or the <code>daemonPort</code>
+ * attribute.
+ *
+ * Optionally the daemon watches the configuration file (and the DDL scripts
+ * it names) and regenerates everything when they change, and polls the
+ * database for changed tables and regenerates only those tables.  Changed
+ * tables are detected with the fingerprints of the CachingMetadataProvider,
+ * which cover the columns, primary key, indexes and foreign keys.  Every
+ * run and every poll checks the fingerprints again, so explicit generate
+ * requests see the same changes.
+ *
+ * @author Jeff Butler
+ */
+public class AbatorDaemon {
+    public static final int DEFAULT_PORT = 7591;
+
+    public static final String GENERATE = "generate"; //$NON-NLS-1$
+    public static final String SHUTDOWN = "shutdown"; //$NON-NLS-1$
+    public static final String OK = "OK"; //$NON-NLS-1$
+    public static final String ERROR = "ERROR"; //$NON-NLS-1$
+
+    private static final String CONFIG_FILE = "-configfile"; //$NON-NLS-1$
+    private static final String OVERWRITE = "-overwrite"; //$NON-NLS-1$
+    private static final String STREAM_OUTPUT = "-streamoutput"; //$NON-NLS-1$
+    private static final String PORT = "-port"; //$NON-NLS-1$
+    private static final String WATCH = "-watch"; //$NON-NLS-1$
+    private static final String SCHEMA_POLL = "-schemapoll"; //$NON-NLS-1$
+
+    private File configurationFile;
+
+    private boolean overwrite;
+
+    private boolean streamOutput;
+
+    private int port = DEFAULT_PORT;
+
+    private int watchInterval;
+
+    private int schemaPollInterval;
+
+    private AbatorConfiguration configuration;
+
+    /**
+     * Map&lt;File, Long&gt; - the configuration file and DDL scripts, with
+     * their time stamps when the configuration was loaded
+     */
+    private Map watchedFiles;
+
+    private ServerSocket serverSocket;
+
+    private volatile boolean stopped;
+
+    public AbatorDaemon(File configurationFile) {
+        super();
+        this.configurationFile = configurationFile;
+        watchedFiles = new HashMap();
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            usage();
+            System.exit(0);
+        }
+
+        List errors = new ArrayList();
+        String configfile = null;
+        boolean overwrite = false;
+        boolean streamOutput = false;
+        int port = DEFAULT_PORT;
+        int watchInterval = 0;
+        int schemaPollInterval = 0;
+
+        for (int i = 0; i < args.length; i++) {
+            if (OVERWRITE.equalsIgnoreCase(args[i])) {
+                overwrite = true;
+            } else if (STREAM_OUTPUT.equalsIgnoreCase(args[i])) {
+                streamOutput = true;
+            } else if (CONFIG_FILE.equalsIgnoreCase(args[i])
+                    || PORT.equalsIgnoreCase(args[i])
+                    || WATCH.equalsIgnoreCase(args[i])
+                    || SCHEMA_POLL.equalsIgnoreCase(args[i])) {
+                if ((i + 1) >= args.length) {
+                    errors.add(Messages.getString("RuntimeError.19", args[i])); //$NON-NLS-1$
+                } else if (CONFIG_FILE.equalsIgnoreCase(args[i])) {
+                    configfile = args[i + 1];
+                } else {
+                    int value = parseNumber(args[i], args[i + 1], errors);
+                    if (PORT.equalsIgnoreCase(args[i])) {
+                        port = value;
+                    } else if (WATCH.equalsIgnoreCase(args[i])) {
+                        watchInterval = value;
+                    } else {
+                        schemaPollInterval = value;
+                    }
+                }
+                i++;
+            } else {
+                errors.add(Messages.getString("RuntimeError.20", args[i])); //$NON-NLS-1$
+            }
+        }
+
+        if (configfile == null) {
+            errors.add(Messages.getString("RuntimeError.0")); //$NON-NLS-1$
+        } else if (!new File(configfile).exists()) {
+            errors.add(Messages.getString("RuntimeError.1", configfile)); //$NON-NLS-1$
+        }
+
+        if (!errors.isEmpty()) {
+            writeLines(errors);
+            System.exit(-1);
+        }
+
+        AbatorDaemon daemon = new AbatorDaemon(new File(configfile));
+        daemon.setOverwrite(overwrite);
+        daemon.setStreamOutput(streamOutput);
+        daemon.setPort(port);
+        daemon.setWatchInterval(watchInterval);
+        daemon.setSchemaPollInterval(schemaPollInterval);
+
+        try {
+            daemon.run();
+        } catch (XMLParserException e) {
+            writeLine(Messages.getString("Progress.3")); //$NON-NLS-1$
+            writeLines(e.getErrors());
+            System.exit(-1);
+        } catch (InvalidConfigurationException e) {
+            writeLines(e.getErrors());
+            System.exit(-1);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Loads the configuration, generates all tables once (which fills the
+     * caches), and then serves requests until a shutdown request arrives.
+     *
+     * @throws XMLParserException if the configuration cannot be parsed
+     * @throws InvalidConfigurationException
+     * @throws SQLException
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void run() throws XMLParserException, InvalidConfigurationException,
+            SQLException, IOException, InterruptedException {
+        List warnings = new ArrayList();
+        loadConfiguration(warnings);
+        Abator abator = generate(null, null, warnings);
+        writeLines(warnings);
+        writeLine(Messages.getString("Progress.14", //$NON-NLS-1$
+                Integer.toString(abator.getFilesWritten()),
+                Integer.toString(abator.getFilesMerged()),
+                Integer.toString(abator.getFilesSkipped())));
+
+        ScheduledExecutorService watcher = null;
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress
+                    .getByName("127.0.0.1")); //$NON-NLS-1$
+
+            if (watchInterval > 0 || schemaPollInterval > 0) {
+                watcher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "abator-daemon-watch"); //$NON-NLS-1$
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+
+                if (watchInterval > 0) {
+                    watcher.scheduleWithFixedDelay(new Runnable() {
+                        public void run() {
+                            checkConfiguration();
+                        }
+                    }, watchInterval, watchInterval, TimeUnit.SECONDS);
+                }
+
+                if (schemaPollInterval > 0) {
+                    watcher.scheduleWithFixedDelay(new Runnable() {
+                        public void run() {
+                            checkSchema();
+                        }
+                    }, schemaPollInterval, schemaPollInterval, TimeUnit.SECONDS);
+                }
+            }
+
+            writeLine(Messages.getString("Progress.15", Integer.toString(port))); //$NON-NLS-1$
+
+            while (!stopped) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    if (stopped) {
+                        break;
+                    }
+                    throw e;
+                }
+
+                handleRequest(socket);
+            }
+        } finally {
+            if (watcher != null) {
+                watcher.shutdownNow();
+            }
+
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+
+            synchronized (this) {
+                ConnectionFactory.getInstance().closeIdleConnections();
+                ClassloaderUtility.closeCustomClassloaders();
+            }
+
+            writeLine(Messages.getString("Progress.16")); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Stops the daemon.  The current request, if any, is finished first.
+     */
+    public void shutdown() {
+        stopped = true;
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // ignore
+                ;
+            }
+        }
+    }
+
+    /**
+     * Sends a request to a daemon running on this machine.
+     *
+     * @param port
+     * @param request the request line
+     * @param replies the message lines of the answer are added to this list
+     * @return true if the daemon answered OK
+     * @throws IOException if the daemon cannot be reached
+     */
+    public static boolean sendRequest(int port, String request, List replies)
+            throws IOException {
+        Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), port); //$NON-NLS-1$
+        try {
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket
+                    .getOutputStream(), "UTF-8")); //$NON-NLS-1$
+            out.println(request);
+            out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), "UTF-8")); //$NON-NLS-1$
+            String status = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (status != null) {
+                    replies.add(status);
+                }
+                status = line;
+            }
+
+            return OK.equals(status);
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Builds a generate request.
+     *
+     * @param contextIds comma delimited context ids, may be null
+     * @param fullyQualifiedTableNames comma delimited table names, may be null
+     * @return the request line
+     */
+    public static String getGenerateRequest(String contextIds,
+            String fullyQualifiedTableNames) {
+        StringBuffer sb = new StringBuffer();
+        sb.append(GENERATE);
+        sb.append('\t');
+        if (contextIds != null) {
+            sb.append(contextIds);
+        }
+        sb.append('\t');
+        if (fullyQualifiedTableNames != null) {
+            sb.append(fullyQualifiedTableNames);
+        }
+
+        return sb.toString();
+    }
+
+    private void handleRequest(Socket socket) {
+        try {
+            try {
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        socket.getInputStream(), "UTF-8")); //$NON-NLS-1$
+                String request = in.readLine();
+
+                List replies = new ArrayList();
+                boolean ok = processRequest(request, replies);
+
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                        socket.getOutputStream(), "UTF-8")); //$NON-NLS-1$
+                Iterator iter = replies.iterator();
+                while (iter.hasNext()) {
+                    out.println(iter.next());
+                }
+                out.println(ok ? OK : ERROR);
+                out.flush();
+            } finally {
+                socket.close();
+            }
+        } catch (IOException e) {
+            // the client went away - nothing to report to
+            ;
+        }
+    }
+
+    private boolean processRequest(String request, List replies) {
+        if (request == null) {
+            return false;
+        }
+
+        String[] fields = request.split("\t", -1); //$NON-NLS-1$
+        if (SHUTDOWN.equals(fields[0])) {
+            stopped = true;
+            return true;
+        }
+
+        if (!GENERATE.equals(fields[0])) {
+            replies.add(Messages.getString("RuntimeError.23", request)); //$NON-NLS-1$
+            return false;
+        }
+
+        Set contextIds = fields.length > 1 ? splitList(fields[1]) : new HashSet();
+        Set tables = fields.length > 2 ? splitList(fields[2]) : new HashSet();
+
+        List warnings = new ArrayList();
+        try {
+            Abator abator = generate(contextIds, tables, warnings);
+            replies.addAll(warnings);
+            replies.add(Messages.getString("Progress.14", //$NON-NLS-1$
+                    Integer.toString(abator.getFilesWritten()),
+                    Integer.toString(abator.getFilesMerged()),
+                    Integer.toString(abator.getFilesSkipped())));
+            return true;
+        } catch (InvalidConfigurationException e) {
+            replies.addAll(e.getErrors());
+        } catch (SQLException e) {
+            replies.addAll(warnings);
+            replies.add(e.getMessage());
+        } catch (IOException e) {
+            replies.addAll(warnings);
+            replies.add(e.getMessage());
+        } catch (InterruptedException e) {
+            replies.addAll(warnings);
+        } catch (RuntimeException e) {
+            replies.addAll(warnings);
+            replies.add(e.toString());
+        }
+
+        return false;
+    }
+
+    /**
+     * Runs Abator with the current configuration.  Only one run is active at
+     * a time.
+     */
+    private synchronized Abator generate(Set contextIds, Set tables,
+            List warnings) throws InvalidConfigurationException,
+            SQLException, IOException, InterruptedException {
+        Abator abator = new Abator(configuration, new DefaultShellCallback(
+                overwrite), warnings);
+        abator.setStreamOutput(streamOutput);
+        abator.setCloseResources(false);
+        refreshMetadataProviders();
+
+        try {
+            abator.generate(null, contextIds, tables);
+        } catch (SQLException e) {
+            // the idle connections may be broken as well, the next run
+            // opens new ones
+            ConnectionFactory.getInstance().closeIdleConnections();
+            throw e;
+        }
+
+        return abator;
+    }
+
+    /**
+     * Parses the configuration file and gives every context that reads a
+     * database a metadata provider that lives as long as the configuration.
+     * The provider only keeps the metadata of tables whose fingerprint is
+     * unchanged.
+     */
+    private synchronized void loadConfiguration(List warnings)
+            throws IOException, XMLParserException {
+        Map newWatchedFiles = new HashMap();
+        newWatchedFiles.put(configurationFile, new Long(configurationFile
+                .lastModified()));
+
+        AbatorConfigurationParser cp = new AbatorConfigurationParser(warnings);
+        AbatorConfiguration newConfiguration = cp
+                .parseAbatorConfiguration(configurationFile);
+
+        Iterator iter = newConfiguration.getAbatorContexts().iterator();
+        while (iter.hasNext()) {
+            AbatorContext context = (AbatorContext) iter.next();
+            if (context.getDdlScriptsConfiguration() == null) {
+                MetadataProvider metadataProvider = AbatorObjectFactory
+                        .createMetadataProvider(context);
+                if (!(metadataProvider instanceof CachingMetadataProvider)) {
+                    metadataProvider = new CachingMetadataProvider(
+                            metadataProvider, null);
+                }
+                context.setMetadataProvider(metadataProvider);
+            } else {
+                Iterator scripts = context.getDdlScriptsConfiguration()
+                        .getScripts().iterator();
+                while (scripts.hasNext()) {
+                    File script = new File((String) scripts.next());
+                    newWatchedFiles.put(script, new Long(script.lastModified()));
+                }
+            }
+        }
+
+        if (configuration != null) {
+            // the connections and class paths may have changed
+            ConnectionFactory.getInstance().closeIdleConnections();
+            ClassloaderUtility.closeCustomClassloaders();
+        }
+
+        configuration = newConfiguration;
+        watchedFiles = newWatchedFiles;
+    }
+
+    /**
+     * Reloads the configuration and regenerates all tables if the
+     * configuration file or a DDL script changed.  If the new configuration
+     * cannot be read the daemon keeps the old one.
+     */
+    private synchronized void checkConfiguration() {
+        boolean changed = false;
+        Iterator iter = watchedFiles.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            File file = (File) entry.getKey();
+            Long lastModified = new Long(file.lastModified());
+            if (!lastModified.equals(entry.getValue())) {
+                // remember the new time stamp, so that a broken file is
+                // reported only once
+                entry.setValue(lastModified);
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        writeLine(Messages.getString("Progress.17")); //$NON-NLS-1$
+        List warnings = new ArrayList();
+        try {
+            loadConfiguration(warnings);
+        } catch (XMLParserException e) {
+            writeLine(Messages.getString("Warning.26")); //$NON-NLS-1$
+            writeLines(e.getErrors());
+            return;
+        } catch (IOException e) {
+            writeLine(Messages.getString("Warning.26")); //$NON-NLS-1$
+            writeLine(e.getMessage());
+            return;
+        }
+
+        runFromWatcher(null, null, warnings);
+    }
+
+    /**
+     * Regenerates the tables whose database definition changed.
+     */
+    private synchronized void checkSchema() {
+        refreshMetadataProviders();
+
+        Iterator iter = configuration.getAbatorContexts().iterator();
+        while (iter.hasNext()) {
+            AbatorContext context = (AbatorContext) iter.next();
+            if (!(context.getMetadataProvider() instanceof CachingMetadataProvider)) {
+                continue;
+            }
+
+            Set tables;
+            try {
+                tables = context.getChangedTables();
+            } catch (SQLException e) {
+                ConnectionFactory.getInstance().closeIdleConnections();
+                writeLine(e.getMessage());
+                continue;
+            }
+
+            if (!tables.isEmpty()) {
+                writeLine(Messages.getString("Progress.18", tables.toString())); //$NON-NLS-1$
+                Set contextIds = new HashSet();
+                contextIds.add(context.getId());
+                runFromWatcher(contextIds, tables, new ArrayList());
+            }
+        }
+    }
+
+    /**
+     * Makes the metadata providers read the database again - the providers
+     * live as long as the configuration, but the tables may change at any
+     * time.
+     */
+    private synchronized void refreshMetadataProviders() {
+        Iterator iter = configuration.getAbatorContexts().iterator();
+        while (iter.hasNext()) {
+            AbatorContext context = (AbatorContext) iter.next();
+            if (context.getMetadataProvider() instanceof CachingMetadataProvider) {
+                ((CachingMetadataProvider) context.getMetadataProvider())
+                        .refresh();
+            }
+        }
+    }
+
+    private void runFromWatcher(Set contextIds, Set tables, List warnings) {
+        try {
+            Abator abator = generate(contextIds, tables, warnings);
+            writeLines(warnings);
+            writeLine(Messages.getString("Progress.14", //$NON-NLS-1$
+                    Integer.toString(abator.getFilesWritten()),
+                    Integer.toString(abator.getFilesMerged()),
+                    Integer.toString(abator.getFilesSkipped())));
+        } catch (InvalidConfigurationException e) {
+            writeLines(e.getErrors());
+        } catch (Exception e) {
+            writeLines(warnings);
+            e.printStackTrace();
+        }
+    }
+
+    private static Set splitList(String list) {
+        Set answer = new HashSet();
+        if (StringUtility.stringHasValue(list)) {
+            StringTokenizer st = new StringTokenizer(list, ","); //$NON-NLS-1$
+            while (st.hasMoreTokens()) {
+                String s = st.nextToken().trim();
+                if (s.length() > 0) {
+                    answer.add(s);
+                }
+            }
+        }
+
+        return answer;
+    }
+
+    private static int parseNumber(String argument, String value, List errors) {
+        try {
+            int answer = Integer.parseInt(value);
+            if (answer >= 0) {
+                return answer;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+            ;
+        }
+
+        errors.add(Messages.getString("RuntimeError.24", argument, value)); //$NON-NLS-1$
+        return 0;
+    }
+
+    private static void usage() {
+        String lines = Messages.getString("DaemonUsage.Lines"); //$NON-NLS-1$
+        int iLines = Integer.parseInt(lines);
+        for (int i = 0; i < iLines; i++) {
+            String key = "DaemonUsage." + i; //$NON-NLS-1$
+            writeLine(Messages.getString(key));
+        }
+    }
+
+    private static void writeLines(List lines) {
+        Iterator iter = lines.iterator();
+        while (iter.hasNext()) {
+            writeLine((String) iter.next());
+        }
+    }
+
+    private static void writeLine(String message) {
+        System.out.println(message);
+    }
+
+    public boolean isOverwrite() {
+        return overwrite;
+    }
+
+    public void setOverwrite(boolean overwrite) {
+        this.overwrite = overwrite;
+    }
+
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    public void setStreamOutput(boolean streamOutput) {
+        this.streamOutput = streamOutput;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * @return seconds between checks of the configuration file, 0 if the
+     *   file is not watched
+     */
+    public int getWatchInterval() {
+        return watchInterval;
+    }
+
+    public void setWatchInterval(int watchInterval) {
+        this.watchInterval = watchInterval;
+    }
+
+    /**
+     * @return seconds between checks for changed tables, 0 if the database
+     *   is not polled
+     */
+    public int getSchemaPollInterval() {
+        return schemaPollInterval;
+    }
+
+    public void setSchemaPollInterval(int schemaPollInterval) {
+        this.schemaPollInterval = schemaPollInterval;
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.ibatis.abator.config.AbatorConfiguration;
 import org.apache.ibatis.abator.config.xml.AbatorConfigurationParser;
 import org.apache.ibatis.abator.exception.InvalidConfigurationException;
 import org.apache.ibatis.abator.exception.XMLParserException;
+import org.apache.ibatis.abator.internal.ArchiveOutputSink;
 import org.apache.ibatis.abator.internal.DefaultShellCallback;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
 
@@ -45,11 +46,21 @@ public class AbatorRunner {
     private static final String OVERWRITE = "-overwrite"; //$NON-NLS-1$
     private static final String CONTEXT_IDS = "-contextids"; //$NON-NLS-1$
     private static final String TABLES = "-tables"; //$NON-NLS-1$
+    private static final String STREAM_OUTPUT = "-streamoutput"; //$NON-NLS-1$
+    private static final String DAEMON_PORT = "-daemonport"; //$NON-NLS-1$
+    private static final String METRICS_REPORT = "-metricsreport"; //$NON-NLS-1$
+    private static final String OUTPUT_ARCHIVE = "-outputarchive"; //$NON-NLS-1$
+    private static final String CONFIG_CACHE = "-configcache"; //$NON-NLS-1$
 
     /** READING:  (charr 2008-08-23) */
 	public static void main(String[] args) {
         Map arguments = parseCommandLine(args);
         
+        if (arguments.containsKey(DAEMON_PORT)) {
+            runInDaemon(arguments);
+            return;
+        }
+        
         if (!arguments.containsKey(CONFIG_FILE)) {
             writeLine(Messages.getString("RuntimeError.0")); //$NON-NLS-1$
             return;
@@ -89,14 +100,30 @@ public class AbatorRunner {
         try {
             AbatorConfigurationParser cp = new AbatorConfigurationParser(
                 warnings);
+            if (arguments.containsKey(CONFIG_CACHE)) {
+                cp.setCacheDirectory(new File((String) arguments.get(CONFIG_CACHE)));
+            }
             AbatorConfiguration config = cp.parseAbatorConfiguration(configurationFile);
             
             DefaultShellCallback callback = new DefaultShellCallback(arguments.containsKey(OVERWRITE));
             
             Abator abator = new Abator(config, callback, warnings);
+            abator.setStreamOutput(arguments.containsKey(STREAM_OUTPUT));
+            if (arguments.containsKey(METRICS_REPORT)) {
+                abator.setMetricsReport(new File((String) arguments.get(METRICS_REPORT)));
+            }
+            if (arguments.containsKey(OUTPUT_ARCHIVE)) {
+                abator.setOutputSink(new ArchiveOutputSink(
+                        new File((String) arguments.get(OUTPUT_ARCHIVE)), null));
+            }
             
             abator.generate(null, contexts, fullyqualifiedTables);
             
+            writeLine(Messages.getString("Progress.14", //$NON-NLS-1$
+                    Integer.toString(abator.getFilesWritten()),
+                    Integer.toString(abator.getFilesMerged()),
+                    Integer.toString(abator.getFilesSkipped())));
+            
         } catch (XMLParserException e) {
         	writeLine(Messages.getString("Progress.3")); //$NON-NLS-1$
         	writeLine();
@@ -134,6 +161,38 @@ public class AbatorRunner {
         }
 	}
 	
+	/**
+	 * Sends the run to an AbatorDaemon instead of running Abator in this VM.
+	 */
+	private static void runInDaemon(Map arguments) {
+	    String port = (String) arguments.get(DAEMON_PORT);
+	    List replies = new ArrayList();
+	    boolean ok;
+	    try {
+	        ok = AbatorDaemon.sendRequest(Integer.parseInt(port),
+	                AbatorDaemon.getGenerateRequest(
+	                        (String) arguments.get(CONTEXT_IDS),
+	                        (String) arguments.get(TABLES)), replies);
+	    } catch (NumberFormatException e) {
+	        writeLine(Messages.getString("RuntimeError.24", DAEMON_PORT, port)); //$NON-NLS-1$
+	        System.exit(-1);
+	        return;
+	    } catch (IOException e) {
+	        writeLine(Messages.getString("RuntimeError.25", port, e.getMessage())); //$NON-NLS-1$
+	        System.exit(-1);
+	        return;
+	    }
+	    
+	    Iterator iter = replies.iterator();
+	    while (iter.hasNext()) {
+	        writeLine((String) iter.next());
+	    }
+	    
+	    if (!ok) {
+	        System.exit(-1);
+	    }
+	}
+	
 	private static void usage() {
         String lines = Messages.getString("Usage.Lines"); //$NON-NLS-1$
         int iLines = Integer.parseInt(lines);
@@ -191,6 +250,36 @@ public class AbatorRunner {
                 i++;
             } else if (OVERWRITE.equalsIgnoreCase(args[i])) {
                 arguments.put(OVERWRITE, "Y"); //$NON-NLS-1$
+            } else if (DAEMON_PORT.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(DAEMON_PORT, args[i + 1]);
+                } else {
+                    errors.add(Messages.getString("RuntimeError.19", DAEMON_PORT)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (STREAM_OUTPUT.equalsIgnoreCase(args[i])) {
+                arguments.put(STREAM_OUTPUT, "Y"); //$NON-NLS-1$
+            } else if (OUTPUT_ARCHIVE.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(OUTPUT_ARCHIVE, args[i + 1]);
+                } else {
+                    errors.add(Messages.getString("RuntimeError.19", OUTPUT_ARCHIVE)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (CONFIG_CACHE.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(CONFIG_CACHE, args[i + 1]);
+                } else {
+                    errors.add(Messages.getString("RuntimeError.19", CONFIG_CACHE)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (METRICS_REPORT.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(METRICS_REPORT, args[i + 1]);
+                } else {
+                    errors.add(Messages.getString("RuntimeError.19", METRICS_REPORT)); //$NON-NLS-1$
+                }
+                i++;
             } else if (CONTEXT_IDS.equalsIgnoreCase(args[i])) {
                 if ((i + 1) < args.length) {
                     arguments.put(CONTEXT_IDS, args[i + 1]);
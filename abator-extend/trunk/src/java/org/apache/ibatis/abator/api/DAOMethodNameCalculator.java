@@ -34,6 +34,22 @@ public interface DAOMethodNameCalculator {
      * @return the calculated name
      */
     String getInsertMethodName(IntrospectedTable introspectedTable);
+
+    /**
+     * Calculates and returns a name for the batched insert method.
+     * 
+     * @param introspectedTable
+     * @return the calculated name
+     */
+    String getInsertBatchMethodName(IntrospectedTable introspectedTable);
+
+    /**
+     * Calculates and returns a name for the multi-row insert method.
+     * 
+     * @param introspectedTable
+     * @return the calculated name
+     */
+    String getInsertMultipleMethodName(IntrospectedTable introspectedTable);
     
     /**
      * Calculates and returns a name for the update by primary key without BLOBs
@@ -62,6 +78,35 @@ public interface DAOMethodNameCalculator {
      */
     String getUpdateByPrimaryKeySelectiveMethodName(IntrospectedTable introspectedTable);
     
+    /**
+     * Calculates and returns a name for the batched update by primary key
+     * without BLOBs method.  The name must differ from the name of the
+     * batched update by primary key with BLOBs method, because both take a
+     * List.
+     * 
+     * @param introspectedTable
+     * @return the calculated name
+     */
+    String getUpdateByPrimaryKeyWithoutBLOBsBatchMethodName(IntrospectedTable introspectedTable);
+    
+    /**
+     * Calculates and returns a name for the batched update by primary key
+     * with BLOBs method.
+     * 
+     * @param introspectedTable
+     * @return the calculated name
+     */
+    String getUpdateByPrimaryKeyWithBLOBsBatchMethodName(IntrospectedTable introspectedTable);
+    
+    /**
+     * Calculates and returns a name for the batched update by primary key
+     * selective method.
+     * 
+     * @param introspectedTable
+     * @return the calculated name
+     */
+    String getUpdateByPrimaryKeySelectiveBatchMethodName(IntrospectedTable introspectedTable);
+    
     /**
      * Calculates and returns a name for the select by primary key method.
      * 
@@ -78,6 +123,17 @@ public interface DAOMethodNameCalculator {
     String getCountByNonUniqueIndexMethodName(IntrospectedTable introspectedTable, List indexColumns);
     /** EXTEND: Ψһѯķ (charr 2008-08-22) */
     String getSelectByUniqueIndexMethodName(IntrospectedTable introspectedTable, List indexColumns);
+    
+    /**
+     * Calculates and returns a name for the keyset paging method that reads
+     * the rows following a key.
+     * 
+     * @param introspectedTable
+     * @param keyColumns the columns of the primary key or unique index
+     * @return the calculated name
+     */
+    String getSelectPageAfterMethodName(IntrospectedTable introspectedTable, List keyColumns);
+    
     /**
      * Calculates and returns a name for the select by example method.
      * 
@@ -104,6 +160,15 @@ public interface DAOMethodNameCalculator {
      */
     String getDeleteByPrimaryKeyMethodName(IntrospectedTable introspectedTable);
     
+    /**
+     * Calculates and returns a name for the batched delete by primary key
+     * method.
+     * 
+     * @param introspectedTable
+     * @return the calculated name
+     */
+    String getDeleteByPrimaryKeyBatchMethodName(IntrospectedTable introspectedTable);
+    
     /**
      * Calculates and returns a name for the delete by example method.
      * 
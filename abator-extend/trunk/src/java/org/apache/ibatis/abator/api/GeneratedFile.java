@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.abator.api;
 
+import java.io.IOException;
+
 /**
  * Abstract class that holds information common to all generated files.
  * 
@@ -41,6 +43,18 @@ public abstract class GeneratedFile {
 	 * @return Returns the content.
 	 */
 	public abstract String getFormattedContent();
+
+	/**
+	 * Writes the entire contents of the generated file to an Appendable (for
+	 * example a Writer).  Subclasses write straight from the file model, so
+	 * this is cheaper than getFormattedContent() for large files.
+	 * 
+	 * @param out
+	 * @throws IOException if the Appendable throws it
+	 */
+	public void writeFormattedContent(Appendable out) throws IOException {
+	    out.append(getFormattedContent());
+	}
 	
 	/**
 	 * Get the file name (without any path).  Clients should use this method to determine how to save
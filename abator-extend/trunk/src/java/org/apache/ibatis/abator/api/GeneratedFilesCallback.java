@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.api;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An AbatorContext hands the generated files to this interface one table at
+ * a time, as soon as all files for the table are generated.  This allows
+ * the files to be saved (and released) while the next tables are still
+ * being generated.
+ *
+ * The method is always called from the thread that called
+ * <code>AbatorContext.generateFiles</code>, and the tables are always
+ * reported in table configuration order.
+ *
+ * @author Jeff Butler
+ */
+public interface GeneratedFilesCallback {
+    /**
+     * Called once for every table configuration that produced files.
+     *
+     * @param generatedJavaFiles a List of GeneratedJavaFile objects
+     * @param generatedXmlFiles a List of GeneratedXmlFile objects
+     * @throws IOException if the files cannot be saved.  Generation
+     *   stops and the exception is thrown from generateFiles.
+     * @throws InterruptedException if generation should be cancelled
+     */
+    void filesGenerated(List generatedJavaFiles, List generatedXmlFiles)
+        throws IOException, InterruptedException;
+}
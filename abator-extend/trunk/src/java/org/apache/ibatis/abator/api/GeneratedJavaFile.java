@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api;
 
+import java.io.IOException;
 import java.util.Set;
 
 import org.apache.ibatis.abator.api.dom.java.CompilationUnit;
@@ -48,6 +49,14 @@ public class GeneratedJavaFile extends GeneratedFile {
 	    return compilationUnit.getFormattedContent();
 	}
 
+	/*
+	 *  (non-Javadoc)
+	 * @see org.apache.ibatis.abator.api.GeneratedFile#writeFormattedContent(java.lang.Appendable)
+	 */
+	public void writeFormattedContent(Appendable out) throws IOException {
+	    compilationUnit.writeFormattedContent(out);
+	}
+
 	public Set getSuperInterfaceTypes() {
 		return compilationUnit.getSuperInterfaceTypes();
 	}
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.abator.api;
 
+import java.io.IOException;
+
 import org.apache.ibatis.abator.api.dom.xml.Document;
 
 /**
@@ -45,6 +47,21 @@ public class GeneratedXmlFile extends GeneratedFile {
         return document.getFormattedContent();
     }
 
+    /*
+     *  (non-Javadoc)
+     * @see org.apache.ibatis.abator.api.GeneratedFile#writeFormattedContent(java.lang.Appendable)
+     */
+    public void writeFormattedContent(Appendable out) throws IOException {
+        document.writeFormattedContent(out);
+    }
+
+    /**
+     * @return Returns the document.
+     */
+    public Document getDocument() {
+        return document;
+    }
+
     /**
      * @return Returns the fileName.
      */
@@ -0,0 +1,423 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.api;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class collects the time spent in each phase of an Abator run, and
+ * counts such as the number of tables, columns and files.  Times and counts
+ * are kept per table, per context (for work that is not done for a single
+ * table, such as connecting) and for the whole run (for work that is not
+ * done for a single context, such as saving files).
+ *
+ * Abator creates one instance per run.  All methods are thread safe.
+ *
+ * @author Jeff Butler
+ */
+public class GenerationMetrics {
+    public static final String PHASE_CONNECT = "connect"; //$NON-NLS-1$
+    public static final String PHASE_INTROSPECT_COLUMNS = "introspectColumns"; //$NON-NLS-1$
+    public static final String PHASE_INTROSPECT_PRIMARY_KEY = "introspectPrimaryKey"; //$NON-NLS-1$
+    public static final String PHASE_INTROSPECT_INDEXES = "introspectIndexes"; //$NON-NLS-1$
+    public static final String PHASE_INTROSPECT_FOREIGN_KEYS = "introspectForeignKeys"; //$NON-NLS-1$
+    public static final String PHASE_INTROSPECT_CALCULATE = "introspectCalculate"; //$NON-NLS-1$
+    public static final String PHASE_GENERATE_DAO = "generateDao"; //$NON-NLS-1$
+    public static final String PHASE_GENERATE_MODEL = "generateModel"; //$NON-NLS-1$
+    public static final String PHASE_GENERATE_SQL_MAP = "generateSqlMap"; //$NON-NLS-1$
+    public static final String PHASE_RENDER = "render"; //$NON-NLS-1$
+    public static final String PHASE_MERGE = "merge"; //$NON-NLS-1$
+    public static final String PHASE_WRITE = "write"; //$NON-NLS-1$
+
+    public static final String COUNT_TABLES = "tables"; //$NON-NLS-1$
+    public static final String COUNT_COLUMNS = "columns"; //$NON-NLS-1$
+    public static final String COUNT_FILES_GENERATED = "filesGenerated"; //$NON-NLS-1$
+    public static final String COUNT_FILES_WRITTEN = "filesWritten"; //$NON-NLS-1$
+    public static final String COUNT_FILES_MERGED = "filesMerged"; //$NON-NLS-1$
+    public static final String COUNT_FILES_SKIPPED = "filesSkipped"; //$NON-NLS-1$
+    public static final String COUNT_BYTES_WRITTEN = "bytesWritten"; //$NON-NLS-1$
+
+    private MetricsProgressCallback callback;
+
+    private long startTime;
+
+    private long startNanos;
+
+    private long elapsedNanos;
+
+    private Scope run;
+
+    /**
+     * Map&lt;String, ContextScope&gt; - in the order the contexts ran
+     */
+    private Map contexts;
+
+    /**
+     * @param callback if this is a MetricsProgressCallback, every finished
+     *   phase is reported to it.  May be null.
+     */
+    public GenerationMetrics(ProgressCallback callback) {
+        super();
+        if (callback instanceof MetricsProgressCallback) {
+            this.callback = (MetricsProgressCallback) callback;
+        }
+        startTime = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+        run = new Scope();
+        contexts = new LinkedHashMap();
+    }
+
+    /**
+     * Records a finished phase.
+     *
+     * @param contextId null for work done for the whole run
+     * @param tableName the fully qualified table name, or null for work done
+     *   for the whole context
+     * @param phase one of the PHASE constants
+     * @param startNanos the value of System.nanoTime() when the phase started
+     */
+    public void addTime(String contextId, String tableName, String phase,
+            long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        synchronized (this) {
+            getScope(contextId, tableName).addTime(phase, elapsed);
+            if (callback != null) {
+                callback.phaseFinished(contextId, tableName, phase, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Adds to a count.
+     *
+     * @param contextId null for the whole run
+     * @param tableName the fully qualified table name, or null for the whole
+     *   context
+     * @param counter one of the COUNT constants
+     * @param amount
+     */
+    public synchronized void addCount(String contextId, String tableName,
+            String counter, long amount) {
+        getScope(contextId, tableName).addCount(counter, amount);
+    }
+
+    /**
+     * Called by Abator when the run is complete.
+     */
+    public void finished() {
+        synchronized (this) {
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+
+        if (callback != null) {
+            callback.metricsFinished(this);
+        }
+    }
+
+    /**
+     * @return the total time of the phase in nanoseconds, over all contexts
+     *   and tables
+     */
+    public synchronized long getTotalTime(String phase) {
+        Scope totals = getTotals();
+        long[] time = (long[]) totals.times.get(phase);
+        return time == null ? 0 : time[1];
+    }
+
+    /**
+     * @return the total of the count over all contexts and tables
+     */
+    public synchronized long getTotalCount(String counter) {
+        Scope totals = getTotals();
+        long[] count = (long[]) totals.counts.get(counter);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Writes the metrics as a JSON document:
+     *
+     * <pre>
+     * {
+     *   "startTime": 1219500000000,
+     *   "elapsedMillis": 1234.567,
+     *   "totals": { "phases": {...}, "counts": {...} },
+     *   "run": { "phases": {...}, "counts": {...} },
+     *   "contexts": [
+     *     { "id": "...", "phases": {...}, "counts": {...},
+     *       "tables": [ { "name": "...", "phases": {...}, "counts": {...} } ] }
+     *   ]
+     * }
+     * </pre>
+     *
+     * Each phase is written as <code>"name": { "count": n, "millis": m }</code>
+     * and each count as <code>"name": n</code>.  Tables are sorted by name.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public synchronized void writeJson(Appendable out) throws IOException {
+        out.append("{\n"); //$NON-NLS-1$
+        out.append("  \"startTime\": "); //$NON-NLS-1$
+        out.append(Long.toString(startTime));
+        out.append(",\n  \"elapsedMillis\": "); //$NON-NLS-1$
+        out.append(formatMillis(elapsedNanos));
+        out.append(",\n  \"totals\": "); //$NON-NLS-1$
+        getTotals().writeJson(out, 1);
+        out.append(",\n  \"run\": "); //$NON-NLS-1$
+        run.writeJson(out, 1);
+        out.append(",\n  \"contexts\": ["); //$NON-NLS-1$
+
+        Iterator iter = contexts.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            ContextScope context = (ContextScope) entry.getValue();
+            out.append("\n    {\n      \"id\": "); //$NON-NLS-1$
+            writeString(out, (String) entry.getKey());
+            out.append(",\n      \"phases\": "); //$NON-NLS-1$
+            context.writePhases(out, 3);
+            out.append(",\n      \"counts\": "); //$NON-NLS-1$
+            context.writeCounts(out, 3);
+            out.append(",\n      \"tables\": ["); //$NON-NLS-1$
+
+            Iterator tables = context.tables.entrySet().iterator();
+            while (tables.hasNext()) {
+                Map.Entry table = (Map.Entry) tables.next();
+                out.append("\n        {\n          \"name\": "); //$NON-NLS-1$
+                writeString(out, (String) table.getKey());
+                out.append(",\n          \"phases\": "); //$NON-NLS-1$
+                ((Scope) table.getValue()).writePhases(out, 5);
+                out.append(",\n          \"counts\": "); //$NON-NLS-1$
+                ((Scope) table.getValue()).writeCounts(out, 5);
+                out.append("\n        }"); //$NON-NLS-1$
+                if (tables.hasNext()) {
+                    out.append(',');
+                }
+            }
+
+            out.append("\n      ]\n    }"); //$NON-NLS-1$
+            if (iter.hasNext()) {
+                out.append(',');
+            }
+        }
+
+        out.append("\n  ]\n}\n"); //$NON-NLS-1$
+    }
+
+    private Scope getScope(String contextId, String tableName) {
+        if (contextId == null) {
+            return run;
+        }
+
+        ContextScope context = (ContextScope) contexts.get(contextId);
+        if (context == null) {
+            context = new ContextScope();
+            contexts.put(contextId, context);
+        }
+
+        if (tableName == null) {
+            return context;
+        }
+
+        Scope table = (Scope) context.tables.get(tableName);
+        if (table == null) {
+            table = new Scope();
+            context.tables.put(tableName, table);
+        }
+
+        return table;
+    }
+
+    private Scope getTotals() {
+        Scope totals = new Scope();
+        totals.addAll(run);
+        Iterator iter = contexts.values().iterator();
+        while (iter.hasNext()) {
+            ContextScope context = (ContextScope) iter.next();
+            totals.addAll(context);
+            Iterator tables = context.tables.values().iterator();
+            while (tables.hasNext()) {
+                totals.addAll((Scope) tables.next());
+            }
+        }
+
+        return totals;
+    }
+
+    private static String formatMillis(long nanos) {
+        long micros = nanos / 1000L;
+        StringBuffer sb = new StringBuffer();
+        sb.append(micros / 1000L);
+        sb.append('.');
+        String fraction = Long.toString(micros % 1000L);
+        for (int i = fraction.length(); i < 3; i++) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+        return sb.toString();
+    }
+
+    private static void writeString(Appendable out, String s) throws IOException {
+        out.append('"');
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\');
+                    out.append(c);
+                } else if (c < ' ') {
+                    String hex = Integer.toHexString(c);
+                    out.append("\\u"); //$NON-NLS-1$
+                    for (int j = hex.length(); j < 4; j++) {
+                        out.append('0');
+                    }
+                    out.append(hex);
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    private static void indent(Appendable out, int level) throws IOException {
+        out.append('\n');
+        for (int i = 0; i < level; i++) {
+            out.append("  "); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * The times and counts of one table, context or run.
+     */
+    private static class Scope {
+        /**
+         * Map&lt;String, long[]&gt; - invocations and nanoseconds per phase
+         */
+        private Map times = new LinkedHashMap();
+
+        /**
+         * Map&lt;String, long[]&gt; - the value of each count
+         */
+        private Map counts = new LinkedHashMap();
+
+        void addTime(String phase, long nanos) {
+            long[] time = (long[]) times.get(phase);
+            if (time == null) {
+                time = new long[2];
+                times.put(phase, time);
+            }
+            time[0]++;
+            time[1] += nanos;
+        }
+
+        void addCount(String counter, long amount) {
+            long[] count = (long[]) counts.get(counter);
+            if (count == null) {
+                count = new long[1];
+                counts.put(counter, count);
+            }
+            count[0] += amount;
+        }
+
+        void addAll(Scope other) {
+            Iterator iter = other.times.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                long[] time = (long[]) entry.getValue();
+                long[] total = (long[]) times.get(entry.getKey());
+                if (total == null) {
+                    total = new long[2];
+                    times.put(entry.getKey(), total);
+                }
+                total[0] += time[0];
+                total[1] += time[1];
+            }
+
+            iter = other.counts.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                addCount((String) entry.getKey(), ((long[]) entry.getValue())[0]);
+            }
+        }
+
+        void writeJson(Appendable out, int level) throws IOException {
+            out.append('{');
+            indent(out, level + 1);
+            out.append("\"phases\": "); //$NON-NLS-1$
+            writePhases(out, level + 1);
+            out.append(',');
+            indent(out, level + 1);
+            out.append("\"counts\": "); //$NON-NLS-1$
+            writeCounts(out, level + 1);
+            indent(out, level);
+            out.append('}');
+        }
+
+        void writePhases(Appendable out, int level) throws IOException {
+            out.append('{');
+            Iterator iter = times.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                long[] time = (long[]) entry.getValue();
+                indent(out, level + 1);
+                writeString(out, (String) entry.getKey());
+                out.append(": { \"count\": "); //$NON-NLS-1$
+                out.append(Long.toString(time[0]));
+                out.append(", \"millis\": "); //$NON-NLS-1$
+                out.append(formatMillis(time[1]));
+                out.append(" }"); //$NON-NLS-1$
+                if (iter.hasNext()) {
+                    out.append(',');
+                }
+            }
+            if (!times.isEmpty()) {
+                indent(out, level);
+            }
+            out.append('}');
+        }
+
+        void writeCounts(Appendable out, int level) throws IOException {
+            out.append('{');
+            Iterator iter = counts.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                indent(out, level + 1);
+                writeString(out, (String) entry.getKey());
+                out.append(": "); //$NON-NLS-1$
+                out.append(Long.toString(((long[]) entry.getValue())[0]));
+                if (iter.hasNext()) {
+                    out.append(',');
+                }
+            }
+            if (!counts.isEmpty()) {
+                indent(out, level);
+            }
+            out.append('}');
+        }
+    }
+
+    private static class ContextScope extends Scope {
+        /**
+         * Map&lt;String, Scope&gt; - sorted by table name, so that reports of
+         * concurrent runs can be compared
+         */
+        private Map tables = new TreeMap();
+    }
+}
@@ -99,6 +99,16 @@ public interface IntrospectedTable {
     Iterator getUniqueIndices();
     Iterator getNonUniqueIndices();
     
+    /**
+     * Returns the keys that can be used for keyset (seek) paging: the
+     * primary key, followed by every unique index without nullable columns.
+     * Rows with a null in the key could never be reached by a "greater
+     * than" predicate, so such indexes are left out.
+     * 
+     * @return an Iterator of Lists of ColumnDefinition objects
+     */
+    Iterator getKeysetPagingKeys();
+    
     AbatorRules getRules();
     
     String getTableConfigurationProperty(String property);
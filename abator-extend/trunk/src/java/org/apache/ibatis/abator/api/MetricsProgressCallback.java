@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.api;
+
+/**
+ * A ProgressCallback that also wants to know how long each phase of the
+ * run took.  If the callback passed to Abator.generate() implements this
+ * interface, Abator reports every finished phase and, at the end of the run,
+ * the collected metrics.
+ *
+ * The methods may be called from generation threads, but never from two
+ * threads at the same time.
+ *
+ * @author Jeff Butler
+ */
+public interface MetricsProgressCallback extends ProgressCallback {
+    /**
+     * Called when a phase is finished.
+     *
+     * @param contextId the context, or null for work done for the whole run
+     *   (such as saving files)
+     * @param tableName the fully qualified table name, or null for work done
+     *   for the whole context (such as connecting)
+     * @param phase one of the GenerationMetrics.PHASE constants
+     * @param elapsedNanos
+     */
+    void phaseFinished(String contextId, String tableName, String phase,
+            long elapsedNanos);
+
+    /**
+     * Called once at the end of the run.
+     *
+     * @param metrics all times and counts of the run
+     */
+    void metricsFinished(GenerationMetrics metrics);
+}
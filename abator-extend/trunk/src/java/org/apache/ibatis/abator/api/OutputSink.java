@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.api;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An OutputSink receives the generated files in place of the file system.
+ * If an OutputSink is set on Abator, the files are not saved through the
+ * ShellCallback: existing files are neither read nor merged, and the sink
+ * decides where the files go.
+ * 
+ * Abator calls open() at the start of every run, saveFile() once for every
+ * generated file, and close() at the end of the run, even if the run fails.
+ * All calls come from one thread at a time.
+ * 
+ * @see org.apache.ibatis.abator.internal.MemoryOutputSink
+ * @see org.apache.ibatis.abator.internal.ArchiveOutputSink
+ * 
+ * @author Jeff Butler
+ */
+public interface OutputSink {
+    /**
+     * Called at the start of a run, before the first file is saved.
+     * 
+     * @throws IOException if the sink cannot be opened.  The run stops.
+     */
+    void open() throws IOException;
+    
+    /**
+     * Saves a generated file.  The file should be rendered with
+     * GeneratedFile.writeFormattedContent() where possible, which does not
+     * build the whole content in memory.
+     * 
+     * @param generatedFile the file
+     * @param warnings warnings about the file may be added to this list
+     * @return the number of bytes (or characters, for sinks that keep
+     *   strings) saved
+     * @throws IOException if the file cannot be saved.  The run stops.
+     */
+    long saveFile(GeneratedFile generatedFile, List warnings) throws IOException;
+    
+    /**
+     * Called at the end of a run.
+     * 
+     * @throws IOException
+     */
+    void close() throws IOException;
+}
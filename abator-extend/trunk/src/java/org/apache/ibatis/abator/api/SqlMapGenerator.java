@@ -72,6 +72,8 @@ public interface SqlMapGenerator {
 
     String getInsertStatementId();
 
+    String getInsertMultipleStatementId();
+
     String getUpdateByPrimaryKeyWithBLOBsStatementId();
 
     String getUpdateByPrimaryKeySelectiveStatementId();
@@ -105,5 +107,7 @@ public interface SqlMapGenerator {
     /** EXTEND: ΨһԲѯSqlMapѯid (charr 2008-08-23) */
     String getSelectByUniqueIndexStatementId(IntrospectedTable introspectedTable, List indexColumns);
     
+    String getSelectPageAfterStatementId(IntrospectedTable introspectedTable, List keyColumns);
+    
     List getGeneratedXMLFiles(IntrospectedTable introspectedTable, ProgressCallback callback);
 }
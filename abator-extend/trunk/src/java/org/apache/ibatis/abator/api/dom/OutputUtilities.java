@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.abator.api.dom;
 
+import java.io.IOException;
+
 /**
  * @author Jeff Butler
  */
@@ -66,6 +68,51 @@ public class OutputUtilities {
         }
     }
 
+    /**
+     * Utility method that indents by the default amount for Java (four
+     * spaces per indent level).
+     * 
+     * @param out
+     *            an Appendable to append to
+     * @param indentLevel
+     *            the required indent level
+     * @throws IOException if the Appendable throws it
+     */
+    public static void javaIndent(Appendable out, int indentLevel)
+            throws IOException {
+        for (int i = 0; i < indentLevel; i++) {
+            out.append("    "); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Utility method that indents by the default amount for XML (two spaces
+     * per indent level).
+     * 
+     * @param out
+     *            an Appendable to append to
+     * @param indentLevel
+     *            the required indent level
+     * @throws IOException if the Appendable throws it
+     */
+    public static void xmlIndent(Appendable out, int indentLevel)
+            throws IOException {
+        for (int i = 0; i < indentLevel; i++) {
+            out.append("  "); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Utility method. Adds a newline character to an Appendable.
+     * 
+     * @param out
+     *            the Appendable to be appended to
+     * @throws IOException if the Appendable throws it
+     */
+    public static void newLine(Appendable out) throws IOException {
+        out.append(lineSeparator);
+    }
+
     /**
      * Utility method. Adds a newline character to a StringBuffer.
      * 
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.java;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
@@ -26,6 +27,15 @@ import java.util.Set;
  */
 public interface CompilationUnit {
     String getFormattedContent();
+    
+    /**
+     * Writes the formatted compilation unit to the Appendable without
+     * building intermediate Strings for the nested elements.
+     * 
+     * @param out
+     * @throws IOException if the Appendable throws it
+     */
+    void writeFormattedContent(Appendable out) throws IOException;
     Set getImportedTypes();
     FullyQualifiedJavaType getSuperClass();
     boolean isJavaInterface();
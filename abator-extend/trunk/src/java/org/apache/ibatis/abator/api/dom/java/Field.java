@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.java;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 import org.apache.ibatis.abator.api.dom.OutputUtilities;
@@ -77,52 +78,61 @@ public class Field extends JavaElement {
         this.initializationString = initializationString;
     }
     
-    public String getFormattedContent(int indentLevel) {
-        StringBuffer sb = new StringBuffer();
-
+    public void writeFormattedContent(Appendable out, int indentLevel)
+            throws IOException {
         Iterator iter = getJavaDocLines().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
         iter = getAnnotations().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
         if (getVisibility() == JavaVisibility.PRIVATE) {
-            sb.append("private "); //$NON-NLS-1$
+            out.append("private "); //$NON-NLS-1$
         } else if (getVisibility() == JavaVisibility.PROTECTED) {
-            sb.append("protected "); //$NON-NLS-1$
+            out.append("protected "); //$NON-NLS-1$
         } else if (getVisibility() == JavaVisibility.PUBLIC) {
-            sb.append("public "); //$NON-NLS-1$
+            out.append("public "); //$NON-NLS-1$
         }
         
         if (isModifierStatic()) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
         
         if (isModifierFinal()) {
-            sb.append("final "); //$NON-NLS-1$
+            out.append("final "); //$NON-NLS-1$
         }
         
-        sb.append(type.getShortName());
+        out.append(type.getShortName());
 
-        sb.append(' ');
-        sb.append(name);
+        out.append(' ');
+        out.append(name);
         
         if (initializationString != null && initializationString.length() > 0) {
-            sb.append(" = "); //$NON-NLS-1$
-            sb.append(initializationString);
+            out.append(" = "); //$NON-NLS-1$
+            out.append(initializationString);
         }
         
-        sb.append(';');
-        
+        out.append(';');
+    }
+
+    public String getFormattedContent(int indentLevel) {
+        StringBuffer sb = new StringBuffer();
+        try {
+            writeFormattedContent(sb, indentLevel);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
+        }
+
         return sb.toString();
     }
 }
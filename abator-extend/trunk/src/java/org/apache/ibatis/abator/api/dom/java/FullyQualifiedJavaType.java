@@ -23,12 +23,14 @@ import java.util.List;
  * @author Jeff Butler
  */
 public class FullyQualifiedJavaType implements Comparable {
-    private static FullyQualifiedJavaType intInstance = null;
-    private static FullyQualifiedJavaType stringInstance = null;
-    private static FullyQualifiedJavaType booleanPrimitiveInstance = null;
-    private static FullyQualifiedJavaType objectInstance = null;
-    private static FullyQualifiedJavaType dateInstance = null;
-    private static FullyQualifiedJavaType criteriaInstance = null;
+    // the shared instances are created lazily and may be requested by
+    // several generation threads at the same time
+    private static volatile FullyQualifiedJavaType intInstance = null;
+    private static volatile FullyQualifiedJavaType stringInstance = null;
+    private static volatile FullyQualifiedJavaType booleanPrimitiveInstance = null;
+    private static volatile FullyQualifiedJavaType objectInstance = null;
+    private static volatile FullyQualifiedJavaType dateInstance = null;
+    private static volatile FullyQualifiedJavaType criteriaInstance = null;
     
     private String baseShortName;
     
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -101,122 +102,131 @@ public class InnerClass extends JavaElement {
         innerEnums.add(innerEnum);
     }
     
-    public String getFormattedContent(int indentLevel) {
-        StringBuffer sb = new StringBuffer();
-
+    public void writeFormattedContent(Appendable out, int indentLevel)
+            throws IOException {
         Iterator iter = getJavaDocLines().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
         iter = getAnnotations().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
         if (getVisibility() == JavaVisibility.PRIVATE) {
-            sb.append("private "); //$NON-NLS-1$
+            out.append("private "); //$NON-NLS-1$
         } else if (getVisibility() == JavaVisibility.PROTECTED) {
-            sb.append("protected "); //$NON-NLS-1$
+            out.append("protected "); //$NON-NLS-1$
         } else if (getVisibility() == JavaVisibility.PUBLIC) {
-            sb.append("public "); //$NON-NLS-1$
+            out.append("public "); //$NON-NLS-1$
         }
         
         if (isModifierStatic()) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
         
         if (isModifierFinal()) {
-            sb.append("final "); //$NON-NLS-1$
+            out.append("final "); //$NON-NLS-1$
         }
         
-        sb.append("class "); //$NON-NLS-1$
-        sb.append(getType().getShortName());
+        out.append("class "); //$NON-NLS-1$
+        out.append(getType().getShortName());
         
         if (superClass != null) {
-            sb.append(" extends "); //$NON-NLS-1$
-            sb.append(superClass.getShortName());
+            out.append(" extends "); //$NON-NLS-1$
+            out.append(superClass.getShortName());
         }
         
         if (superInterfaceTypes.size() > 0) {
-            sb.append(" implements "); //$NON-NLS-1$
+            out.append(" implements "); //$NON-NLS-1$
             
             iter = superInterfaceTypes.iterator();
             boolean comma = false;
             while (iter.hasNext()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
                 
                 FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter.next();
-                sb.append(fqjt.getShortName());
+                out.append(fqjt.getShortName());
             }
         }
         
-        sb.append(" {"); //$NON-NLS-1$
+        out.append(" {"); //$NON-NLS-1$
         indentLevel++;
 
         iter = fields.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Field field = (Field) iter.next();
-            sb.append(field.getFormattedContent(indentLevel));
+            field.writeFormattedContent(out, indentLevel);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         if (methods.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         iter = methods.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Method method = (Method) iter.next();
-            sb.append(method.getFormattedContent(indentLevel, false));
+            method.writeFormattedContent(out, indentLevel, false);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         if (innerClasses.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         iter = innerClasses.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             InnerClass innerClass = (InnerClass) iter.next();
-            sb.append(innerClass.getFormattedContent(indentLevel));
+            innerClass.writeFormattedContent(out, indentLevel);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         if (innerEnums.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         iter = innerEnums.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             InnerEnum innerEnum = (InnerEnum) iter.next();
-            sb.append(innerEnum.getFormattedContent(indentLevel));
+            innerEnum.writeFormattedContent(out, indentLevel);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         indentLevel--;
-        OutputUtilities.newLine(sb);
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append('}');
-        
+        OutputUtilities.newLine(out);
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append('}');
+    }
+
+    public String getFormattedContent(int indentLevel) {
+        StringBuffer sb = new StringBuffer();
+        try {
+            writeFormattedContent(sb, indentLevel);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
+        }
+
         return sb.toString();
     }
     
@@ -16,6 +16,7 @@
 
 package org.apache.ibatis.abator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -98,122 +99,131 @@ public class InnerEnum extends JavaElement {
         enumConstants.add(enumConstant);
     }
     
-    public String getFormattedContent(int indentLevel) {
-        StringBuffer sb = new StringBuffer();
-
+    public void writeFormattedContent(Appendable out, int indentLevel)
+            throws IOException {
         Iterator iter = getJavaDocLines().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
         iter = getAnnotations().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
         if (getVisibility() == JavaVisibility.PUBLIC) {
-            sb.append("public "); //$NON-NLS-1$
+            out.append("public "); //$NON-NLS-1$
         }
         
-        sb.append("enum "); //$NON-NLS-1$
-        sb.append(getType().getShortName());
+        out.append("enum "); //$NON-NLS-1$
+        out.append(getType().getShortName());
         
         if (superInterfaceTypes.size() > 0) {
-            sb.append(" implements "); //$NON-NLS-1$
+            out.append(" implements "); //$NON-NLS-1$
             
             iter = superInterfaceTypes.iterator();
             boolean comma = false;
             while (iter.hasNext()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
                 
                 FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter.next();
-                sb.append(fqjt.getShortName());
+                out.append(fqjt.getShortName());
             }
         }
         
-        sb.append(" {"); //$NON-NLS-1$
+        out.append(" {"); //$NON-NLS-1$
         indentLevel++;
 
         iter = enumConstants.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
-            OutputUtilities.javaIndent(sb, indentLevel);
+            OutputUtilities.newLine(out);
+            OutputUtilities.javaIndent(out, indentLevel);
             String enumConstant = (String) iter.next();
-            sb.append(enumConstant);
+            out.append(enumConstant);
             
             if (iter.hasNext()) {
-                sb.append(',');
+                out.append(',');
             } else {
-                sb.append(';');
+                out.append(';');
             }
         }
         
         if (fields.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         iter = fields.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Field field = (Field) iter.next();
-            sb.append(field.getFormattedContent(indentLevel));
+            field.writeFormattedContent(out, indentLevel);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         if (methods.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         iter = methods.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Method method = (Method) iter.next();
-            sb.append(method.getFormattedContent(indentLevel, false));
+            method.writeFormattedContent(out, indentLevel, false);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         if (innerClasses.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         iter = innerClasses.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             InnerClass innerClass = (InnerClass) iter.next();
-            sb.append(innerClass.getFormattedContent(indentLevel));
+            innerClass.writeFormattedContent(out, indentLevel);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         if (innerEnums.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         iter = innerEnums.iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             InnerEnum innerEnum = (InnerEnum) iter.next();
-            sb.append(innerEnum.getFormattedContent(indentLevel));
+            innerEnum.writeFormattedContent(out, indentLevel);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
         
         indentLevel--;
-        OutputUtilities.newLine(sb);
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append('}');
-        
+        OutputUtilities.newLine(out);
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append('}');
+    }
+
+    public String getFormattedContent(int indentLevel) {
+        StringBuffer sb = new StringBuffer();
+        try {
+            writeFormattedContent(sb, indentLevel);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
+        }
+
         return sb.toString();
     }
     
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -62,110 +63,118 @@ public class Interface extends JavaElement implements CompilationUnit {
         }
     }
 
-    public String getFormattedContent() {
-        StringBuffer sb = new StringBuffer();
-
+    public void writeFormattedContent(Appendable out) throws IOException {
         Iterator iter = fileCommentLines.iterator();
         while (iter.hasNext()) {
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
 
         if (getType().getPackageName() != null
                 && getType().getPackageName().length() > 0) {
-            sb.append("package "); //$NON-NLS-1$
-            sb.append(getType().getPackageName());
-            sb.append(';');
-            OutputUtilities.newLine(sb);
-            OutputUtilities.newLine(sb);
+            out.append("package "); //$NON-NLS-1$
+            out.append(getType().getPackageName());
+            out.append(';');
+            OutputUtilities.newLine(out);
+            OutputUtilities.newLine(out);
         }
 
         iter = importedTypes.iterator();
         while (iter.hasNext()) {
             FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter.next();
             if (fqjt.isExplicitlyImported()) {
-                sb.append("import "); //$NON-NLS-1$
-                sb.append(fqjt.getFullyQualifiedName());
-                sb.append(';');
-                OutputUtilities.newLine(sb);
+                out.append("import "); //$NON-NLS-1$
+                out.append(fqjt.getFullyQualifiedName());
+                out.append(';');
+                OutputUtilities.newLine(out);
             }
         }
 
         if (importedTypes.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
 
         int indentLevel = 0;
 
         iter = getJavaDocLines().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
 
         iter = getAnnotations().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
         if (getVisibility() == JavaVisibility.PRIVATE) {
-            sb.append("private "); //$NON-NLS-1$
+            out.append("private "); //$NON-NLS-1$
         } else if (getVisibility() == JavaVisibility.PROTECTED) {
-            sb.append("protected "); //$NON-NLS-1$
+            out.append("protected "); //$NON-NLS-1$
         } else if (getVisibility() == JavaVisibility.PUBLIC) {
-            sb.append("public "); //$NON-NLS-1$
+            out.append("public "); //$NON-NLS-1$
         }
 
         if (isModifierStatic()) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
 
         if (isModifierFinal()) {
-            sb.append("final "); //$NON-NLS-1$
+            out.append("final "); //$NON-NLS-1$
         }
 
-        sb.append("interface "); //$NON-NLS-1$
-        sb.append(getType().getShortName());
+        out.append("interface "); //$NON-NLS-1$
+        out.append(getType().getShortName());
 
         if (getSuperInterfaceTypes().size() > 0) {
-            sb.append(" extends "); //$NON-NLS-1$
+            out.append(" extends "); //$NON-NLS-1$
 
             iter = getSuperInterfaceTypes().iterator();
             boolean comma = false;
             while (iter.hasNext()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
 
                 FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter
                         .next();
-                sb.append(fqjt.getShortName());
+                out.append(fqjt.getShortName());
             }
         }
 
-        sb.append(" {"); //$NON-NLS-1$
+        out.append(" {"); //$NON-NLS-1$
         indentLevel++;
 
         iter = getMethods().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Method method = (Method) iter.next();
-            sb.append(method.getFormattedContent(indentLevel, true));
+            method.writeFormattedContent(out, indentLevel, true);
             if (iter.hasNext()) {
-                OutputUtilities.newLine(sb);
+                OutputUtilities.newLine(out);
             }
         }
 
         indentLevel--;
-        OutputUtilities.newLine(sb);
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append('}');
+        OutputUtilities.newLine(out);
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append('}');
+    }
+
+    public String getFormattedContent() {
+        StringBuffer sb = new StringBuffer();
+        try {
+            writeFormattedContent(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
+        }
 
         return sb.toString();
     }
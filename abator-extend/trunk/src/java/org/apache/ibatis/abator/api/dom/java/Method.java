@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -60,98 +61,100 @@ public class Method extends JavaElement {
         bodyLines.add(line);
     }
 
-    public String getFormattedContent(int indentLevel, boolean interfaceMethod) {
-        StringBuffer sb = new StringBuffer();
-
+    public void writeFormattedContent(Appendable out, int indentLevel,
+            boolean interfaceMethod) throws IOException {
         Iterator iter = getJavaDocLines().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
 
         iter = getAnnotations().iterator();
         while (iter.hasNext()) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
         
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
 
         if (!interfaceMethod) {
             if (getVisibility() == JavaVisibility.PRIVATE) {
-                sb.append("private "); //$NON-NLS-1$
+                out.append("private "); //$NON-NLS-1$
             } else if (getVisibility() == JavaVisibility.PROTECTED) {
-                sb.append("protected "); //$NON-NLS-1$
+                out.append("protected "); //$NON-NLS-1$
             } else if (getVisibility() == JavaVisibility.PUBLIC) {
-                sb.append("public "); //$NON-NLS-1$
+                out.append("public "); //$NON-NLS-1$
             }
 
             if (isModifierStatic()) {
-                sb.append("static "); //$NON-NLS-1$
+                out.append("static "); //$NON-NLS-1$
             }
 
             if (isModifierFinal()) {
-                sb.append("final "); //$NON-NLS-1$
+                out.append("final "); //$NON-NLS-1$
             }
             
             if (bodyLines.size() == 0) {
-                sb.append("abstract "); //$NON-NLS-1$
+                out.append("abstract "); //$NON-NLS-1$
             }
         }
 
         if (!constructor) {
             if (getReturnType() == null) {
-                sb.append("void"); //$NON-NLS-1$
+                out.append("void"); //$NON-NLS-1$
             } else {
-                sb.append(getReturnType().getShortName());
+                out.append(getReturnType().getShortName());
             }
-            sb.append(' ');
+            out.append(' ');
         }
 
-        sb.append(getName());
-        sb.append('(');
+        out.append(getName());
+        out.append('(');
 
         iter = getParameters().iterator();
         boolean comma = false;
         while (iter.hasNext()) {
             if (comma) {
-                sb.append(", "); //$NON-NLS-1$
+                out.append(", "); //$NON-NLS-1$
             } else {
                 comma = true;
             }
 
             Parameter parameter = (Parameter) iter.next();
-            sb.append(parameter.getType().getShortName());
-            sb.append(' ');
-            sb.append(parameter.getName());
+            if (parameter.isFinal() && !interfaceMethod) {
+                out.append("final "); //$NON-NLS-1$
+            }
+            out.append(parameter.getType().getShortName());
+            out.append(' ');
+            out.append(parameter.getName());
         }
 
-        sb.append(')');
+        out.append(')');
 
         if (getExceptions().size() > 0) {
-            sb.append(" throws "); //$NON-NLS-1$
+            out.append(" throws "); //$NON-NLS-1$
             iter = getExceptions().iterator();
             comma = false;
             while (iter.hasNext()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
 
                 FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter
                         .next();
-                sb.append(fqjt.getShortName());
+                out.append(fqjt.getShortName());
             }
         }
 
         // if no body lines, then this is an abstract method
         if (bodyLines.size() == 0) {
-            sb.append(';');
+            out.append(';');
         } else {
-            sb.append(" {"); //$NON-NLS-1$
+            out.append(" {"); //$NON-NLS-1$
             indentLevel++;
 
             ListIterator listIter = bodyLines.listIterator();
@@ -161,9 +164,9 @@ public class Method extends JavaElement {
                     indentLevel--;
                 }
 
-                OutputUtilities.newLine(sb);
-                OutputUtilities.javaIndent(sb, indentLevel);
-                sb.append(line);
+                OutputUtilities.newLine(out);
+                OutputUtilities.javaIndent(out, indentLevel);
+                out.append(line);
 
                 if ((line.endsWith("{") && !line.startsWith("switch")) //$NON-NLS-1$ //$NON-NLS-2$
                         || line.endsWith(":")) { //$NON-NLS-1$
@@ -186,9 +189,19 @@ public class Method extends JavaElement {
             }
 
             indentLevel--;
-            OutputUtilities.newLine(sb);
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append('}');
+            OutputUtilities.newLine(out);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append('}');
+        }
+    }
+
+    public String getFormattedContent(int indentLevel, boolean interfaceMethod) {
+        StringBuffer sb = new StringBuffer();
+        try {
+            writeFormattedContent(sb, indentLevel, interfaceMethod);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
         }
 
         return sb.toString();
@@ -22,11 +22,23 @@ package org.apache.ibatis.abator.api.dom.java;
 public class Parameter {
     private String name;
     private FullyQualifiedJavaType type;
+    private boolean isFinal;
 
     public Parameter(FullyQualifiedJavaType type, String name) {
+        this(type, name, false);
+    }
+
+    /**
+     * @param type
+     * @param name
+     * @param isFinal true if the parameter is declared final in the method
+     *   implementation, so anonymous classes can use it
+     */
+    public Parameter(FullyQualifiedJavaType type, String name, boolean isFinal) {
         super();
         this.name = name;
         this.type = type;
+        this.isFinal = isFinal;
     }
 
     /**
@@ -41,4 +53,11 @@ public class Parameter {
     public FullyQualifiedJavaType getType() {
         return type;
     }
+
+    /**
+     * @return Returns true if the parameter is final.
+     */
+    public boolean isFinal() {
+        return isFinal;
+    }
 }
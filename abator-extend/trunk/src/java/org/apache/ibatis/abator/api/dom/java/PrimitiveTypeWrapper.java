@@ -21,14 +21,16 @@ package org.apache.ibatis.abator.api.dom.java;
  *
  */
 public class PrimitiveTypeWrapper extends FullyQualifiedJavaType {
-    private static PrimitiveTypeWrapper booleanInstance;
-    private static PrimitiveTypeWrapper byteInstance;
-    private static PrimitiveTypeWrapper characterInstance;
-    private static PrimitiveTypeWrapper doubleInstance;
-    private static PrimitiveTypeWrapper floatInstance;
-    private static PrimitiveTypeWrapper integerInstance;
-    private static PrimitiveTypeWrapper longInstance;
-    private static PrimitiveTypeWrapper shortInstance;
+    // the shared instances are created lazily and may be requested by
+    // several generation threads at the same time
+    private static volatile PrimitiveTypeWrapper booleanInstance;
+    private static volatile PrimitiveTypeWrapper byteInstance;
+    private static volatile PrimitiveTypeWrapper characterInstance;
+    private static volatile PrimitiveTypeWrapper doubleInstance;
+    private static volatile PrimitiveTypeWrapper floatInstance;
+    private static volatile PrimitiveTypeWrapper integerInstance;
+    private static volatile PrimitiveTypeWrapper longInstance;
+    private static volatile PrimitiveTypeWrapper shortInstance;
     
     private String toPrimitiveMethod;
 
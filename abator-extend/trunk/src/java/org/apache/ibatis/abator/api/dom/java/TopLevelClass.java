@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -55,40 +56,48 @@ public class TopLevelClass extends InnerClass implements CompilationUnit {
         }
     }
 
-    public String getFormattedContent() {
-        StringBuffer sb = new StringBuffer();
-
+    public void writeFormattedContent(Appendable out) throws IOException {
         Iterator iter = fileCommentLines.iterator();
         while (iter.hasNext()) {
-            sb.append(iter.next());
-            OutputUtilities.newLine(sb);
+            out.append((String) iter.next());
+            OutputUtilities.newLine(out);
         }
 
         if (getType().getPackageName() != null
                 && getType().getPackageName().length() > 0) {
-            sb.append("package "); //$NON-NLS-1$
-            sb.append(getType().getPackageName());
-            sb.append(';');
-            OutputUtilities.newLine(sb);
-            OutputUtilities.newLine(sb);
+            out.append("package "); //$NON-NLS-1$
+            out.append(getType().getPackageName());
+            out.append(';');
+            OutputUtilities.newLine(out);
+            OutputUtilities.newLine(out);
         }
 
         iter = importedTypes.iterator();
         while (iter.hasNext()) {
             FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter.next();
             if (fqjt.isExplicitlyImported()) {
-                sb.append("import "); //$NON-NLS-1$
-                sb.append(fqjt.getFullyQualifiedName());
-                sb.append(';');
-                OutputUtilities.newLine(sb);
+                out.append("import "); //$NON-NLS-1$
+                out.append(fqjt.getFullyQualifiedName());
+                out.append(';');
+                OutputUtilities.newLine(out);
             }
         }
         
         if (importedTypes.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
 
-        sb.append(super.getFormattedContent(0));
+        super.writeFormattedContent(out, 0);
+    }
+
+    public String getFormattedContent() {
+        StringBuffer sb = new StringBuffer();
+        try {
+            writeFormattedContent(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
+        }
 
         return sb.toString();
     }
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.abator.api.dom.xml;
 
+import java.io.IOException;
+
 import org.apache.ibatis.abator.api.dom.OutputUtilities;
 
 /**
@@ -65,23 +67,31 @@ public class Document {
         return systemId;
     }
     
+    public void writeFormattedContent(Appendable out) throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"); //$NON-NLS-1$
+
+        OutputUtilities.newLine(out);
+        out.append("<!DOCTYPE "); //$NON-NLS-1$
+        out.append(rootElement.getName());
+        out.append(" PUBLIC \""); //$NON-NLS-1$
+        out.append(publicId);
+        out.append("\" \""); //$NON-NLS-1$
+        out.append(systemId);
+        out.append("\" >"); //$NON-NLS-1$
+        
+        OutputUtilities.newLine(out);
+        rootElement.writeFormattedContent(out, 0);
+    }
+
     public String getFormattedContent() {
         StringBuffer sb = new StringBuffer();
-        
-        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"); //$NON-NLS-1$
+        try {
+            writeFormattedContent(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
+        }
 
-        OutputUtilities.newLine(sb);
-        sb.append("<!DOCTYPE "); //$NON-NLS-1$
-        sb.append(rootElement.getName());
-        sb.append(" PUBLIC \""); //$NON-NLS-1$
-        sb.append(publicId);
-        sb.append("\" \""); //$NON-NLS-1$
-        sb.append(systemId);
-        sb.append("\" >"); //$NON-NLS-1$
-        
-        OutputUtilities.newLine(sb);
-        sb.append(rootElement.getFormattedContent(0));
-        
         return sb.toString();
     }
 }
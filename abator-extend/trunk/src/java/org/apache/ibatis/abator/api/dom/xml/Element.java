@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.abator.api.dom.xml;
 
+import java.io.IOException;
+
 /**
  * @author Jeff Butler
  */
@@ -27,5 +29,26 @@ public abstract class Element {
         super();
     }
     
-    public abstract String getFormattedContent(int indentLevel);
+    /**
+     * Writes the formatted element to the Appendable.  Child elements are
+     * written to the same Appendable, so no intermediate Strings are built.
+     * 
+     * @param out
+     * @param indentLevel
+     * @throws IOException if the Appendable throws it
+     */
+    public abstract void writeFormattedContent(Appendable out, int indentLevel)
+            throws IOException;
+
+    public String getFormattedContent(int indentLevel) {
+        StringBuffer sb = new StringBuffer();
+        try {
+            writeFormattedContent(sb, indentLevel);
+        } catch (IOException e) {
+            // cannot happen with a StringBuffer
+            throw new RuntimeException(e);
+        }
+
+        return sb.toString();
+    }
 }
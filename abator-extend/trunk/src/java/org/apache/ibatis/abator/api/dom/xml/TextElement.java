@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.xml;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.StringTokenizer;
@@ -38,10 +39,11 @@ public class TextElement extends Element {
     /*
      * (non-Javadoc)
      * 
-     * @see org.apache.ibatis.abator.api.dom.xml.Element#getFormattedContent(int)
+     * @see org.apache.ibatis.abator.api.dom.xml.Element#writeFormattedContent(java.lang.Appendable, int)
      */
-    public String getFormattedContent(int indentLevel) {
-        return formatLongString(content, 100, indentLevel);
+    public void writeFormattedContent(Appendable out, int indentLevel)
+            throws IOException {
+        out.append(formatLongString(content, 100, indentLevel));
     }
 
     /**
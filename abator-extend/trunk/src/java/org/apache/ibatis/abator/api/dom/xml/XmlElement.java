@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.api.dom.xml;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -73,40 +74,37 @@ public class XmlElement extends Element {
     /*
      * (non-Javadoc)
      * 
-     * @see org.apache.ibatis.abator.api.dom.xml.Element#getFormattedContent(int)
+     * @see org.apache.ibatis.abator.api.dom.xml.Element#writeFormattedContent(java.lang.Appendable, int)
      */
-    public String getFormattedContent(int indentLevel) {
-        StringBuffer sb = new StringBuffer();
-
-        OutputUtilities.xmlIndent(sb, indentLevel);
-        sb.append('<');
-        sb.append(name);
+    public void writeFormattedContent(Appendable out, int indentLevel)
+            throws IOException {
+        OutputUtilities.xmlIndent(out, indentLevel);
+        out.append('<');
+        out.append(name);
 
         Iterator iter = attributes.iterator();
         while (iter.hasNext()) {
             Attribute att = (Attribute) iter.next();
-            sb.append(' ');
-            sb.append(att.getFormattedContent());
+            out.append(' ');
+            out.append(att.getFormattedContent());
         }
 
         if (elements.size() > 0) {
-            sb.append(" >"); //$NON-NLS-1$
+            out.append(" >"); //$NON-NLS-1$
             iter = elements.iterator();
             while (iter.hasNext()) {
                 Element element = (Element) iter.next();
-                OutputUtilities.newLine(sb);
-                sb.append(element.getFormattedContent(indentLevel + 1));
+                OutputUtilities.newLine(out);
+                element.writeFormattedContent(out, indentLevel + 1);
             }
-            OutputUtilities.newLine(sb);
-            OutputUtilities.xmlIndent(sb, indentLevel);
-            sb.append("</"); //$NON-NLS-1$
-            sb.append(name);
-            sb.append('>');
+            OutputUtilities.newLine(out);
+            OutputUtilities.xmlIndent(out, indentLevel);
+            out.append("</"); //$NON-NLS-1$
+            out.append(name);
+            out.append('>');
 
         } else {
-            sb.append(" />"); //$NON-NLS-1$
+            out.append(" />"); //$NON-NLS-1$
         }
-
-        return sb.toString();
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.config;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -29,7 +30,9 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * 
  * @author Jeff Butler
  */
-public class AbatorConfiguration {
+public class AbatorConfiguration implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     
     private List abatorContexts;
 
@@ -15,16 +15,31 @@
  */
 package org.apache.ibatis.abator.config;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.abator.api.CommentGenerator;
 import org.apache.ibatis.abator.api.DAOGenerator;
+import org.apache.ibatis.abator.api.GeneratedFilesCallback;
+import org.apache.ibatis.abator.api.GenerationMetrics;
 import org.apache.ibatis.abator.api.IntrospectedTable;
 import org.apache.ibatis.abator.api.JavaModelGenerator;
 import org.apache.ibatis.abator.api.JavaTypeResolver;
@@ -34,8 +49,12 @@ import org.apache.ibatis.abator.api.dom.xml.Attribute;
 import org.apache.ibatis.abator.api.dom.xml.XmlElement;
 import org.apache.ibatis.abator.internal.AbatorObjectFactory;
 import org.apache.ibatis.abator.internal.NullProgressCallback;
+import org.apache.ibatis.abator.internal.SynchronizedProgressCallback;
+import org.apache.ibatis.abator.internal.db.CachingMetadataProvider;
 import org.apache.ibatis.abator.internal.db.ConnectionFactory;
+import org.apache.ibatis.abator.internal.db.DatabaseDialects;
 import org.apache.ibatis.abator.internal.db.DatabaseIntrospector;
+import org.apache.ibatis.abator.internal.db.MetadataProvider;
 import org.apache.ibatis.abator.internal.util.StringUtility;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
 
@@ -43,10 +62,14 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * @author Jeff Butler
  */
 public class AbatorContext extends PropertyHolder {
+    private static final long serialVersionUID = 1L;
+
     private String id;
     
 	private JDBCConnectionConfiguration jdbcConnectionConfiguration;
 
+	private DDLScriptsConfiguration ddlScriptsConfiguration;
+
 	private SqlMapGeneratorConfiguration sqlMapGeneratorConfiguration;
 
 	private JavaTypeResolverConfiguration javaTypeResolverConfiguration;
@@ -69,9 +92,15 @@ public class AbatorContext extends PropertyHolder {
     
     private boolean suppressTypeWarnings;
     
+    private int generationThreads = 1;
+    
+    private int maxIdleConnections = 4;
+    
     private CommentGeneratorConfiguration commentGeneratorConfiguration;
     
-    private CommentGenerator commentGenerator;
+    private transient CommentGenerator commentGenerator;
+    
+    private transient MetadataProvider metadataProvider;
     
     /**
      * Constructs an AbatorContext object.
@@ -137,13 +166,32 @@ public class AbatorContext extends PropertyHolder {
 	 * columns exist
 	 */
 	public void validate(List errors) {
-        if (jdbcConnectionConfiguration == null) {
+        if (ddlScriptsConfiguration != null) {
+            ddlScriptsConfiguration.validate(errors, id);
+        } else if (jdbcConnectionConfiguration == null) {
             errors.add(Messages.getString("ValidationError.10")); //$NON-NLS-1$
             return;
         } else {
             jdbcConnectionConfiguration.validate(errors);
         }
 
+        if (generationThreads < 1) {
+            errors.add(Messages.getString("ValidationError.16", //$NON-NLS-1$
+                    getProperty(PropertyRegistry.CONTEXT_GENERATION_THREADS), id));
+        }
+
+        if (maxIdleConnections < 0) {
+            errors.add(Messages.getString("ValidationError.18", //$NON-NLS-1$
+                    getProperty(PropertyRegistry.CONTEXT_MAX_IDLE_CONNECTIONS), id));
+        }
+
+        String databaseDialect = getProperty(PropertyRegistry.CONTEXT_DATABASE_DIALECT);
+        if (StringUtility.stringHasValue(databaseDialect)
+                && getDatabaseDialect() == null) {
+            errors.add(Messages.getString("ValidationError.19", //$NON-NLS-1$
+                    databaseDialect, id));
+        }
+
         if (javaModelGeneratorConfiguration == null) {
             errors.add(Messages.getString("ValidationError.8")); //$NON-NLS-1$
         } else {
@@ -192,11 +240,15 @@ public class AbatorContext extends PropertyHolder {
 			}
 		}
 	}
-	
 	/**
 	 * Generate iBATIS artifacts based on the configuration specified in the
 	 * constructor.  This method is long running.
 	 * 
+	 * If the <code>generationThreads</code> property is greater than one, tables
+	 * are introspected and generated concurrently by that many workers, each with
+	 * its own database connection and its own set of generators.  The generated
+	 * files are still added to the lists in table configuration order.
+	 * 
 	 * @param callback a progress callback if progress information is desired, or <code>null</code>
 	 * @param generatedJavaFiles any Java file generated from this method will be added to the List
 	 *                            The objects will be of type GeneratedJavaFile.
@@ -216,73 +268,248 @@ public class AbatorContext extends PropertyHolder {
 	 * 
 	 * @throws InterruptedException if the progress callback reports a cancel
 	 */
-	public void generateFiles(ProgressCallback callback, List generatedJavaFiles, List generatedXmlFiles, List warnings,
-            Set fullyQualifiedTableNames)
+	public void generateFiles(ProgressCallback callback, final List generatedJavaFiles,
+	        final List generatedXmlFiles, List warnings, Set fullyQualifiedTableNames)
             throws SQLException, InterruptedException {
 	    
+	    GeneratedFilesCallback filesCallback = new GeneratedFilesCallback() {
+	        public void filesGenerated(List javaFiles, List xmlFiles) {
+	            generatedJavaFiles.addAll(javaFiles);
+	            generatedXmlFiles.addAll(xmlFiles);
+	        }
+	    };
+	    
+	    try {
+	        generateFiles(callback, filesCallback, warnings, fullyQualifiedTableNames);
+	    } catch (IOException e) {
+	        // cannot happen - the callback above never throws it
+	        throw new RuntimeException(e);
+	    }
+	}
+	
+	/**
+	 * Generate iBATIS artifacts based on the configuration specified in the
+	 * constructor, and hand them to the GeneratedFilesCallback table by
+	 * table.  The files of a table are passed on as soon as the table is
+	 * finished, so the caller can save them while the remaining tables are
+	 * generated and need not keep every file in memory.
+	 * 
+	 * @param callback a progress callback if progress information is desired, or <code>null</code>
+	 * @param filesCallback receives the generated files of each table, in
+	 *   table configuration order
+	 * @param warnings any warning generated from this method will be added to the List.  Warnings
+	 *                   are always Strings.
+	 * @param fullyQualifiedTableNames a set of table names to generate, or
+	 *   <code>null</code> for all tables
+	 * 
+	 * @throws SQLException if some error arrises while introspecting the specified
+	 *                      database tables.
+	 * @throws IOException if thrown by the GeneratedFilesCallback
+	 * @throws InterruptedException if the progress callback reports a cancel
+	 */
+	public void generateFiles(ProgressCallback callback, GeneratedFilesCallback filesCallback,
+	        List warnings, Set fullyQualifiedTableNames)
+	        throws SQLException, IOException, InterruptedException {
+	    generateFiles(callback, filesCallback, new GenerationMetrics(callback),
+	            warnings, fullyQualifiedTableNames);
+	}
+	
+	/**
+	 * Generate iBATIS artifacts like the method above, and record the time
+	 * spent in each phase and the number of tables, columns and files in
+	 * the GenerationMetrics.
+	 * 
+	 * @param callback a progress callback if progress information is desired, or <code>null</code>
+	 * @param filesCallback receives the generated files of each table, in
+	 *   table configuration order
+	 * @param metrics receives the times and counts of this context
+	 * @param warnings any warning generated from this method will be added to the List.  Warnings
+	 *                   are always Strings.
+	 * @param fullyQualifiedTableNames a set of table names to generate, or
+	 *   <code>null</code> for all tables
+	 * 
+	 * @throws SQLException if some error arrises while introspecting the specified
+	 *                      database tables.
+	 * @throws IOException if thrown by the GeneratedFilesCallback
+	 * @throws InterruptedException if the progress callback reports a cancel
+	 */
+	public void generateFiles(ProgressCallback callback, GeneratedFilesCallback filesCallback,
+	        GenerationMetrics metrics, List warnings, Set fullyQualifiedTableNames)
+	        throws SQLException, IOException, InterruptedException {
+	    
 	    if (callback == null) {
 	        callback = new NullProgressCallback();
 	    }
 	    
-	    JavaTypeResolver javaTypeResolver = AbatorObjectFactory.createJavaTypeResolver(this, warnings);
-	    JavaModelGenerator javaModelGenerator = AbatorObjectFactory.createJavaModelGenerator(this, warnings);
-	    SqlMapGenerator sqlMapGenerator = AbatorObjectFactory.createSqlMapGenerator(this, javaModelGenerator, warnings);
-	    DAOGenerator daoGenerator = AbatorObjectFactory.createDAOGenerator(this, javaModelGenerator, sqlMapGenerator, warnings);
-
-		Connection connection = null;
+	    List tablesToRun = new ArrayList();
+	    Iterator iter = tableConfigurations.iterator();
+	    while (iter.hasNext()) {
+	        TableConfiguration tc = (TableConfiguration) iter.next();
+	        String tableName = StringUtility.composeFullyQualifiedTableName(
+	                tc.getCatalog(), tc.getSchema(), tc.getTableName(), '.');
+	        
+	        if (fullyQualifiedTableNames != null
+	                && fullyQualifiedTableNames.size() > 0) {
+	            if (!fullyQualifiedTableNames.contains(tableName)) {
+	                continue;
+	            }
+	        }
+	        
+	        if (!tc.areAnyStatementsEnabled()) {
+	            warnings.add(Messages.getString("Warning.0", tableName)); //$NON-NLS-1$
+	            continue;
+	        }
+	        
+	        tablesToRun.add(tc);
+	    }
+	    
+	    // one provider for the whole run, so that bulk providers load
+	    // each schema only once
+	    MetadataProvider metadataProvider = this.metadataProvider;
+	    if (metadataProvider == null) {
+	        metadataProvider = AbatorObjectFactory.createMetadataProvider(this);
+	    }
+	    
+	    try {
+	        if (generationThreads > 1 && tablesToRun.size() > 1) {
+	            generateFilesConcurrently(callback, tablesToRun, filesCallback,
+	                    warnings, metadataProvider, metrics);
+	        } else {
+	            generateFilesSequentially(callback, tablesToRun, filesCallback,
+	                    warnings, metadataProvider, metrics);
+	        }
+	    } finally {
+	        if (metadataProvider instanceof CachingMetadataProvider) {
+	            ((CachingMetadataProvider) metadataProvider).save(warnings);
+	        }
+	    }
+	}
+	
+	private void generateFilesSequentially(ProgressCallback callback, List tablesToRun,
+	        GeneratedFilesCallback filesCallback, List warnings,
+	        MetadataProvider metadataProvider, GenerationMetrics metrics)
+	        throws SQLException, IOException, InterruptedException {
+	    
+		TableWorker worker = new TableWorker(warnings, warnings, metadataProvider,
+		        metrics);
 		
 		try {
 			callback.startSubTask(Messages.getString("Progress.0")); //$NON-NLS-1$
-			connection = getConnection();
-            
-            DatabaseIntrospector databaseIntrospector =
-                new DatabaseIntrospector(this, connection.getMetaData(), javaTypeResolver, warnings);
+			worker.connect();
 			
-			Iterator iter = tableConfigurations.iterator();
+			Iterator iter = tablesToRun.iterator();
 			while (iter.hasNext()) {
 				TableConfiguration tc = (TableConfiguration) iter.next();
-				String tableName = StringUtility.composeFullyQualifiedTableName(
-                        tc.getCatalog(), tc.getSchema(), tc.getTableName(), '.');
-                
-                if (fullyQualifiedTableNames != null
-                        && fullyQualifiedTableNames.size() > 0) {
-                    if (!fullyQualifiedTableNames.contains(tableName)) {
-                        continue;
-                    }
-                }
-				
-				if (!tc.areAnyStatementsEnabled()) {
-				    warnings.add(Messages.getString("Warning.0", tableName)); //$NON-NLS-1$
-				    continue;
-				}
-				
-
-				Collection introspectedTables;
-				callback.startSubTask(Messages.getString("Progress.1", tableName)); //$NON-NLS-1$
-                introspectedTables  = databaseIntrospector.introspectTables(tc);
-				callback.checkCancel();
-                
-				/** READING: ɲDAOSqlMapModel (charr 2008-08-22) */
-                if (introspectedTables != null) {
-                    Iterator iter2 = introspectedTables.iterator();
-                    while (iter2.hasNext()) {
-                        callback.checkCancel();
-                        IntrospectedTable introspectedTable = (IntrospectedTable) iter2.next();
-
-                        if (daoGenerator != null) {
-                            generatedJavaFiles.addAll(daoGenerator.getGeneratedJavaFiles(introspectedTable, callback));
-                        }
-                        generatedJavaFiles.addAll(javaModelGenerator.getGeneratedJavaFiles(introspectedTable, callback));
-                        generatedXmlFiles.addAll(sqlMapGenerator.getGeneratedXMLFiles(introspectedTable, callback));
-                    }
-                }
+				List javaFiles = new ArrayList();
+				List xmlFiles = new ArrayList();
+				worker.generateTable(tc, callback, javaFiles, xmlFiles);
+				filesCallback.filesGenerated(javaFiles, xmlFiles);
 			}
 		} finally {
-			closeConnection(connection);
+			worker.close();
 			callback.finished();
 		}
 	}
 	
+	/**
+	 * Runs the specified tables on a pool of workers.  Each worker owns a
+	 * connection and a set of generators, so nothing but the warnings list
+	 * and the progress callback is shared between threads.  Results are
+	 * collected per table and handed to the GeneratedFilesCallback in the
+	 * original table order, on the calling thread.
+	 */
+	private void generateFilesConcurrently(ProgressCallback callback, List tablesToRun,
+	        GeneratedFilesCallback filesCallback, List warnings,
+	        MetadataProvider metadataProvider, GenerationMetrics metrics)
+	        throws SQLException, IOException, InterruptedException {
+	    
+	    final ProgressCallback sharedCallback = new SynchronizedProgressCallback(callback);
+	    List sharedWarnings = Collections.synchronizedList(warnings);
+	    
+	    // the comment generator is shared by all generators in this context,
+	    // make sure it is created before the workers start
+	    getCommentGenerator();
+	    
+	    int poolSize = Math.min(generationThreads, tablesToRun.size());
+	    final BlockingQueue idleWorkers = new LinkedBlockingQueue();
+	    List allWorkers = new ArrayList();
+	    for (int i = 0; i < poolSize; i++) {
+	        // only the first worker reports configuration warnings, otherwise
+	        // every warning raised while creating the generators would be
+	        // repeated once per worker
+	        TableWorker worker = new TableWorker(i == 0 ? sharedWarnings : new ArrayList(),
+	                sharedWarnings, metadataProvider, metrics);
+	        allWorkers.add(worker);
+	        idleWorkers.add(worker);
+	    }
+	    
+	    ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+	            new GenerationThreadFactory(id));
+	    
+	    try {
+	        sharedCallback.startSubTask(Messages.getString("Progress.0")); //$NON-NLS-1$
+	        
+	        // only a few tables are submitted ahead of the one being handed
+	        // to the files callback, so finished tables do not pile up in
+	        // memory when the callback is slower than the workers
+	        int maxPending = poolSize * 2;
+	        LinkedList futures = new LinkedList();
+	        Iterator iter = tablesToRun.iterator();
+	        while (iter.hasNext() || !futures.isEmpty()) {
+	            while (iter.hasNext() && futures.size() < maxPending) {
+	                final TableConfiguration tc = (TableConfiguration) iter.next();
+	                futures.add(executor.submit(new Callable() {
+	                    public Object call() throws Exception {
+	                        TableWorker worker = (TableWorker) idleWorkers.take();
+	                        try {
+	                            worker.connect();
+	                            
+	                            List[] answer = new List[] {new ArrayList(), new ArrayList()};
+	                            worker.generateTable(tc, sharedCallback, answer[0], answer[1]);
+	                            return answer;
+	                        } finally {
+	                            idleWorkers.add(worker);
+	                        }
+	                    }
+	                }));
+	            }
+	            
+	            Future future = (Future) futures.removeFirst();
+	            List[] files;
+	            try {
+	                files = (List[]) future.get();
+	            } catch (ExecutionException e) {
+	                Throwable cause = e.getCause();
+	                if (cause instanceof SQLException) {
+	                    throw (SQLException) cause;
+	                } else if (cause instanceof InterruptedException) {
+	                    throw (InterruptedException) cause;
+	                } else if (cause instanceof RuntimeException) {
+	                    throw (RuntimeException) cause;
+	                } else if (cause instanceof Error) {
+	                    throw (Error) cause;
+	                } else {
+	                    throw new RuntimeException(cause);
+	                }
+	            }
+	            
+	            filesCallback.filesGenerated(files[0], files[1]);
+	        }
+	    } finally {
+	        executor.shutdownNow();
+	        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+	            ;
+	        }
+	        
+	        Iterator iter = allWorkers.iterator();
+	        while (iter.hasNext()) {
+	            ((TableWorker) iter.next()).close();
+	        }
+	        
+	        sharedCallback.finished();
+	    }
+	}
+	
 	public int getTotalSteps() {
 	    int steps = 0;
 	    
@@ -304,6 +531,48 @@ public class AbatorContext extends PropertyHolder {
 	    return steps;
 	}
 
+	/**
+	 * Returns the fully qualified names of the tables whose database
+	 * metadata changed since they were last generated.  This only works if
+	 * a CachingMetadataProvider was set with setMetadataProvider() and the
+	 * tables were generated with it before - otherwise every table is
+	 * reported as changed.  Tables with no enabled statements are never
+	 * reported.
+	 * 
+	 * @return a Set of fully qualified table names, as used by
+	 *   generateFiles()
+	 * @throws SQLException
+	 */
+	public Set getChangedTables() throws SQLException {
+	    Set answer = new HashSet();
+	    List ignoredWarnings = new ArrayList();
+	    TableWorker worker = new TableWorker(ignoredWarnings, ignoredWarnings,
+	            metadataProvider, new GenerationMetrics(null));
+	    try {
+	        Iterator iter = tableConfigurations.iterator();
+	        while (iter.hasNext()) {
+	            TableConfiguration tc = (TableConfiguration) iter.next();
+	            if (!tc.areAnyStatementsEnabled()) {
+	                continue;
+	            }
+	            
+	            if (metadataProvider instanceof CachingMetadataProvider) {
+	                worker.connect();
+	                if (!worker.isChanged(tc)) {
+	                    continue;
+	                }
+	            }
+	            
+	            answer.add(StringUtility.composeFullyQualifiedTableName(
+	                    tc.getCatalog(), tc.getSchema(), tc.getTableName(), '.'));
+	        }
+	    } finally {
+	        worker.close();
+	    }
+	    
+	    return answer;
+	}
+
 	private Connection getConnection() throws SQLException {
 		Connection connection = ConnectionFactory.getInstance().
 				getConnection(jdbcConnectionConfiguration);
@@ -311,15 +580,147 @@ public class AbatorContext extends PropertyHolder {
 		return connection;
 	}
 
+	/**
+	 * Gives the connection back to the ConnectionFactory, which keeps it for
+	 * the next context or worker with the same JDBC configuration.
+	 */
 	private void closeConnection(Connection connection) {
-		if (connection != null) {
-			try {
-				connection.close();
-			} catch (SQLException e) {
-				// ignore
-				;
-			}
-		}
+		ConnectionFactory.getInstance().releaseConnection(connection,
+		        maxIdleConnections);
+	}
+	
+	/**
+	 * A TableWorker holds everything needed to introspect and generate
+	 * one table at a time: a database connection, an introspector, and
+	 * a private set of generators.  Workers are never used by two threads
+	 * at the same time.
+	 */
+	private class TableWorker {
+	    private List warnings;
+	    private JavaModelGenerator javaModelGenerator;
+	    private SqlMapGenerator sqlMapGenerator;
+	    private DAOGenerator daoGenerator;
+	    private JavaTypeResolver javaTypeResolver;
+	    private Connection connection;
+	    private DatabaseIntrospector databaseIntrospector;
+	    private MetadataProvider metadataProvider;
+	    private GenerationMetrics metrics;
+	    
+	    /**
+	     * @param creationWarnings warnings raised while the generators are
+	     *   configured are added to this list
+	     * @param warnings warnings raised while generating are added to this list
+	     * @param metadataProvider the metadata provider shared by all workers
+	     * @param metrics the metrics shared by all workers
+	     */
+	    TableWorker(List creationWarnings, List warnings, MetadataProvider metadataProvider,
+	            GenerationMetrics metrics) {
+	        this.warnings = warnings;
+	        this.metadataProvider = metadataProvider;
+	        this.metrics = metrics;
+	        
+	        javaTypeResolver = AbatorObjectFactory.createJavaTypeResolver(AbatorContext.this, creationWarnings);
+	        javaModelGenerator = AbatorObjectFactory.createJavaModelGenerator(AbatorContext.this, creationWarnings);
+	        sqlMapGenerator = AbatorObjectFactory.createSqlMapGenerator(AbatorContext.this, javaModelGenerator, creationWarnings);
+	        daoGenerator = AbatorObjectFactory.createDAOGenerator(AbatorContext.this, javaModelGenerator, sqlMapGenerator, creationWarnings);
+	        
+	        if (creationWarnings != warnings) {
+	            javaTypeResolver.setWarnings(warnings);
+	            javaModelGenerator.setWarnings(warnings);
+	            sqlMapGenerator.setWarnings(warnings);
+	            if (daoGenerator != null) {
+	                daoGenerator.setWarnings(warnings);
+	            }
+	        }
+	    }
+	    
+	    void connect() throws SQLException {
+	        if (databaseIntrospector != null) {
+	            return;
+	        }
+	        
+	        if (ddlScriptsConfiguration == null) {
+	            long start = System.nanoTime();
+	            connection = getConnection();
+	            databaseIntrospector = new DatabaseIntrospector(AbatorContext.this,
+	                    connection.getMetaData(), javaTypeResolver, warnings,
+	                    metadataProvider);
+	            metrics.addTime(id, null, GenerationMetrics.PHASE_CONNECT, start);
+	        } else {
+	            // offline - the tables are read from DDL scripts
+	            databaseIntrospector = new DatabaseIntrospector(AbatorContext.this,
+	                    null, javaTypeResolver, warnings, metadataProvider);
+	        }
+	        databaseIntrospector.setMetrics(metrics);
+	    }
+	    
+	    void generateTable(TableConfiguration tc, ProgressCallback callback,
+	            List generatedJavaFiles, List generatedXmlFiles)
+	            throws SQLException, InterruptedException {
+	        String tableName = StringUtility.composeFullyQualifiedTableName(
+	                tc.getCatalog(), tc.getSchema(), tc.getTableName(), '.');
+	        
+	        Collection introspectedTables;
+	        callback.startSubTask(Messages.getString("Progress.1", tableName)); //$NON-NLS-1$
+	        introspectedTables  = databaseIntrospector.introspectTables(tc);
+	        callback.checkCancel();
+	        
+	        /** READING: ɲDAOSqlMapModel (charr 2008-08-22) */
+	        if (introspectedTables != null) {
+	            Iterator iter = introspectedTables.iterator();
+	            while (iter.hasNext()) {
+	                callback.checkCancel();
+	                IntrospectedTable introspectedTable = (IntrospectedTable) iter.next();
+	                
+	                long start;
+	                if (daoGenerator != null) {
+	                    start = System.nanoTime();
+	                    generatedJavaFiles.addAll(daoGenerator.getGeneratedJavaFiles(introspectedTable, callback));
+	                    metrics.addTime(id, tableName, GenerationMetrics.PHASE_GENERATE_DAO, start);
+	                }
+	                start = System.nanoTime();
+	                generatedJavaFiles.addAll(javaModelGenerator.getGeneratedJavaFiles(introspectedTable, callback));
+	                metrics.addTime(id, tableName, GenerationMetrics.PHASE_GENERATE_MODEL, start);
+	                start = System.nanoTime();
+	                generatedXmlFiles.addAll(sqlMapGenerator.getGeneratedXMLFiles(introspectedTable, callback));
+	                metrics.addTime(id, tableName, GenerationMetrics.PHASE_GENERATE_SQL_MAP, start);
+	            }
+	            
+	            metrics.addCount(id, tableName, GenerationMetrics.COUNT_FILES_GENERATED,
+	                    generatedJavaFiles.size() + generatedXmlFiles.size());
+	        }
+	    }
+	    
+	    boolean isChanged(TableConfiguration tc) throws SQLException {
+	        return databaseIntrospector.isChanged(tc);
+	    }
+	    
+	    void close() {
+	        closeConnection(connection);
+	        connection = null;
+	        databaseIntrospector = null;
+	    }
+	}
+	
+	/**
+	 * Names the generation threads after the context so they can be
+	 * recognized in thread dumps.  The threads are daemons so that an
+	 * abandoned run never keeps the VM alive.
+	 */
+	private static class GenerationThreadFactory implements ThreadFactory {
+	    private String contextId;
+	    private int threadNumber;
+	    
+	    GenerationThreadFactory(String contextId) {
+	        this.contextId = contextId;
+	    }
+	    
+	    public synchronized Thread newThread(Runnable r) {
+	        threadNumber++;
+	        Thread thread = new Thread(r, "abator-" + contextId + "-" + threadNumber); //$NON-NLS-1$ //$NON-NLS-2$
+	        thread.setDaemon(true);
+	        return thread;
+	    }
 	}
 	
     public String getId() {
@@ -354,6 +755,19 @@ public class AbatorContext extends PropertyHolder {
         this.jdbcConnectionConfiguration = jdbcConnectionConfiguration;
     }
 
+    public DDLScriptsConfiguration getDdlScriptsConfiguration() {
+        return ddlScriptsConfiguration;
+    }
+
+    /**
+     * If DDL scripts are configured, Abator reads the tables from the
+     * scripts and never connects to the database.
+     */
+    public void setDdlScriptsConfiguration(
+            DDLScriptsConfiguration ddlScriptsConfiguration) {
+        this.ddlScriptsConfiguration = ddlScriptsConfiguration;
+    }
+
     public void setSqlMapGeneratorConfiguration(
             SqlMapGeneratorConfiguration sqlMapGeneratorConfiguration) {
         this.sqlMapGeneratorConfiguration = sqlMapGeneratorConfiguration;
@@ -391,6 +805,10 @@ public class AbatorContext extends PropertyHolder {
             xmlElement.addElement(jdbcConnectionConfiguration.toXmlElement());
         }
         
+        if (ddlScriptsConfiguration != null) {
+            xmlElement.addElement(ddlScriptsConfiguration.toXmlElement());
+        }
+        
         if (javaTypeResolverConfiguration != null) {
             xmlElement.addElement(javaTypeResolverConfiguration.toXmlElement());
         }
@@ -437,6 +855,20 @@ public class AbatorContext extends PropertyHolder {
             beginningDelimiter = value;
         } else if (PropertyRegistry.CONTEXT_ENDING_DELIMITER.equals(name)) {
             endingDelimiter = value;
+        } else if (PropertyRegistry.CONTEXT_GENERATION_THREADS.equals(name)) {
+            try {
+                generationThreads = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                // reported by validate()
+                generationThreads = 0;
+            }
+        } else if (PropertyRegistry.CONTEXT_MAX_IDLE_CONNECTIONS.equals(name)) {
+            try {
+                maxIdleConnections = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                // reported by validate()
+                maxIdleConnections = -1;
+            }
         }
     }
 
@@ -444,7 +876,45 @@ public class AbatorContext extends PropertyHolder {
         return suppressTypeWarnings;
     }
 
-    public CommentGenerator getCommentGenerator() {
+    public int getGenerationThreads() {
+        return generationThreads;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    /**
+     * Returns the dialect named by the databaseDialect property.  The
+     * generators use it for SQL that differs between databases, such as
+     * paging clauses.
+     * 
+     * @return the dialect, or null if the property is not set or names an
+     *   unknown database
+     */
+    public DatabaseDialects getDatabaseDialect() {
+        return DatabaseDialects.getDatabaseDialect(
+                getProperty(PropertyRegistry.CONTEXT_DATABASE_DIALECT));
+    }
+
+    public MetadataProvider getMetadataProvider() {
+        return metadataProvider;
+    }
+
+    /**
+     * Sets the metadata provider used by every run of this context.  If no
+     * provider is set (the default) a new provider is created for each run.
+     * Long running clients, such as the AbatorDaemon, set a
+     * CachingMetadataProvider so that unchanged tables are not read from
+     * the database again.
+     * 
+     * @param metadataProvider may be null
+     */
+    public void setMetadataProvider(MetadataProvider metadataProvider) {
+        this.metadataProvider = metadataProvider;
+    }
+
+    public synchronized CommentGenerator getCommentGenerator() {
         if (commentGenerator == null) {
             commentGenerator = AbatorObjectFactory.createCommentGenerator(this);
         }
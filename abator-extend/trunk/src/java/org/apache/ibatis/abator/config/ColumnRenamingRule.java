@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.config;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.apache.ibatis.abator.api.dom.xml.Attribute;
@@ -56,7 +57,9 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * @author Jeff Butler
  *
  */
-public class ColumnRenamingRule {
+public class ColumnRenamingRule implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String searchString;
     private String replaceString;
     
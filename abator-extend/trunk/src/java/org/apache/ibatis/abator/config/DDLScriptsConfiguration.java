@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.config;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.abator.api.dom.xml.Attribute;
+import org.apache.ibatis.abator.api.dom.xml.XmlElement;
+import org.apache.ibatis.abator.internal.util.StringUtility;
+import org.apache.ibatis.abator.internal.util.messages.Messages;
+
+/**
+ * This class describes DDL scripts (CREATE TABLE, CREATE INDEX and
+ * ALTER TABLE statements) that Abator reads instead of introspecting a
+ * live database.  It is the offline alternative to
+ * JDBCConnectionConfiguration.
+ *
+ * @author Jeff Butler
+ */
+public class DDLScriptsConfiguration extends PropertyHolder {
+    private static final long serialVersionUID = 1L;
+
+
+    private String encoding;
+
+    private List scripts;
+
+    public DDLScriptsConfiguration() {
+        super();
+        scripts = new ArrayList();
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public void addScript(String path) {
+        scripts.add(path);
+    }
+
+    /**
+     * @return a List&lt;String&gt; of script paths, in the order the scripts
+     *   should be read
+     */
+    public List getScripts() {
+        return scripts;
+    }
+
+    public XmlElement toXmlElement() {
+        XmlElement xmlElement = new XmlElement("ddlScripts"); //$NON-NLS-1$
+
+        if (StringUtility.stringHasValue(encoding)) {
+            xmlElement.addAttribute(new Attribute("encoding", encoding)); //$NON-NLS-1$
+        }
+
+        addPropertyXmlElements(xmlElement);
+
+        Iterator iter = scripts.iterator();
+        while (iter.hasNext()) {
+            String script = (String) iter.next();
+            XmlElement scriptElement = new XmlElement("script"); //$NON-NLS-1$
+            scriptElement.addAttribute(new Attribute("path", script)); //$NON-NLS-1$
+            xmlElement.addElement(scriptElement);
+        }
+
+        return xmlElement;
+    }
+
+    public void validate(List errors, String contextId) {
+        if (scripts.isEmpty()) {
+            errors.add(Messages.getString("ValidationError.17", contextId)); //$NON-NLS-1$
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.abator.config;
 
+import java.io.Serializable;
+
 import org.apache.ibatis.abator.api.dom.xml.Attribute;
 import org.apache.ibatis.abator.api.dom.xml.XmlElement;
 import org.apache.ibatis.abator.internal.db.DatabaseDialects;
@@ -26,7 +28,9 @@ import org.apache.ibatis.abator.internal.util.StringUtility;
  * 
  * @author Jeff Butler
  */
-public class GeneratedKey {
+public class GeneratedKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String column;
 
     private String configuredSqlStatement;
@@ -48,7 +52,7 @@ public class GeneratedKey {
         this.configuredSqlStatement = configuredSqlStatement;
         
         DatabaseDialects dialect = DatabaseDialects.getDatabaseDialect(configuredSqlStatement);
-        if (dialect == null) {
+        if (dialect == null || dialect.getIdentityRetrievalStatement() == null) {
             this.runtimeSqlStatement = configuredSqlStatement;
         } else {
             this.runtimeSqlStatement = dialect.getIdentityRetrievalStatement();
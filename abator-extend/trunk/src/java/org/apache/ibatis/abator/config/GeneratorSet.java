@@ -16,11 +16,15 @@
 
 package org.apache.ibatis.abator.config;
 
+import java.io.Serializable;
+
 /**
  * @author Jeff Butler
  * 
  */
-public abstract class GeneratorSet {
+public abstract class GeneratorSet implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     protected String javaModelGeneratorType;
 
     protected String sqlMapGeneratorType;
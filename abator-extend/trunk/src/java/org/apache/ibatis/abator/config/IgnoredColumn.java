@@ -16,6 +16,8 @@
 
 package org.apache.ibatis.abator.config;
 
+import java.io.Serializable;
+
 import org.apache.ibatis.abator.api.dom.xml.Attribute;
 import org.apache.ibatis.abator.api.dom.xml.XmlElement;
 import org.apache.ibatis.abator.internal.util.StringUtility;
@@ -24,7 +26,9 @@ import org.apache.ibatis.abator.internal.util.StringUtility;
  * @author Jeff Butler
  *
  */
-public class IgnoredColumn {
+public class IgnoredColumn implements Serializable {
+    private static final long serialVersionUID = 1L;
+
 
     private String columnName;
 
@@ -29,6 +29,8 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * @author Jeff Butler
  */
 public class JDBCConnectionConfiguration extends PropertyHolder {
+	private static final long serialVersionUID = 1L;
+
 
 	private String driverClass;
 
@@ -29,6 +29,8 @@ import org.apache.ibatis.abator.internal.types.JavaTypeResolverDefaultImpl;
  *
  */
 public class Java2GeneratorSet extends GeneratorSet {
+    private static final long serialVersionUID = 1L;
+
     
     /**
      * 
@@ -23,6 +23,8 @@ import org.apache.ibatis.abator.api.dom.xml.XmlElement;
  * @author Jeff Butler
  */
 public class JavaModelGeneratorConfiguration extends TypedPropertyHolder {
+    private static final long serialVersionUID = 1L;
+
 
     private String targetPackage;
 
@@ -22,6 +22,8 @@ import org.apache.ibatis.abator.api.dom.xml.XmlElement;
  * @author Jeff Butler
  */
 public class JavaTypeResolverConfiguration extends TypedPropertyHolder {
+    private static final long serialVersionUID = 1L;
+
 
 	/**
 	 *  
@@ -16,6 +16,8 @@
 
 package org.apache.ibatis.abator.config;
 
+import java.io.Serializable;
+
 import org.apache.ibatis.abator.internal.util.messages.Messages;
 
 /**
@@ -23,7 +25,9 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * 
  * @author Jeff Butler
  */
-public class ModelType {
+public class ModelType implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String modelType;
     
     public static final ModelType HIERARCHICAL = new ModelType("hierarchical"); //$NON-NLS-1$
@@ -53,4 +57,12 @@ public class ModelType {
             throw new RuntimeException(Messages.getString("RuntimeError.13", type)); //$NON-NLS-1$
         }
     }
+
+    /**
+     * Keeps the constants unique when a configuration is deserialized, so
+     * they can still be compared with ==.
+     */
+    private Object readResolve() {
+        return getModelType(modelType);
+    }
 }
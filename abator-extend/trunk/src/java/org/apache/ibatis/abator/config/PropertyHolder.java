@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.config;
 
+import java.io.Serializable;
 import java.util.Enumeration;
 import java.util.Properties;
 
@@ -24,7 +25,9 @@ import org.apache.ibatis.abator.api.dom.xml.XmlElement;
 /**
  * @author Jeff Butler
  */
-public abstract class PropertyHolder {
+public abstract class PropertyHolder implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	private Properties properties;
 
 	/**
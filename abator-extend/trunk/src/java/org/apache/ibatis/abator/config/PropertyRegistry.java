@@ -46,9 +46,26 @@ public class PropertyRegistry {
     public static final String CONTEXT_SUPPRESS_TYPE_WARNINGS = "suppressTypeWarnings"; //$NON-NLS-1$
     public static final String CONTEXT_BEGINNING_DELIMITER = "beginningDelimiter"; //$NON-NLS-1$
     public static final String CONTEXT_ENDING_DELIMITER = "endingDelimiter"; //$NON-NLS-1$
+    public static final String CONTEXT_GENERATION_THREADS = "generationThreads"; //$NON-NLS-1$
+    public static final String CONTEXT_METADATA_PROVIDER = "metadataProvider"; //$NON-NLS-1$
+    public static final String CONTEXT_METADATA_CACHE = "metadataCache"; //$NON-NLS-1$
+    public static final String CONTEXT_MAX_IDLE_CONNECTIONS = "maxIdleConnections"; //$NON-NLS-1$
+    public static final String CONTEXT_DATABASE_DIALECT = "databaseDialect"; //$NON-NLS-1$
 
     public static final String DAO_EXAMPLE_METHOD_VISIBILITY = "exampleMethodVisibility"; //$NON-NLS-1$
     public static final String DAO_METHOD_NAME_CALCULATOR = "methodNameCalculator"; //$NON-NLS-1$
+    public static final String DAO_BATCH_SIZE = "batchSize"; //$NON-NLS-1$
+
+    /**
+     * recognized by dao generator - code patterns for the calls of the
+     * generated methods, with the arguments {0} (SQL map namespace),
+     * {1} (statement id) and {2} (parameter)
+     */
+    public static final String DAO_DELETE_METHOD_TEMPLATE = "deleteMethodTemplate"; //$NON-NLS-1$
+    public static final String DAO_INSERT_METHOD_TEMPLATE = "insertMethodTemplate"; //$NON-NLS-1$
+    public static final String DAO_UPDATE_METHOD_TEMPLATE = "updateMethodTemplate"; //$NON-NLS-1$
+    public static final String DAO_QUERY_FOR_OBJECT_METHOD_TEMPLATE = "queryForObjectMethodTemplate"; //$NON-NLS-1$
+    public static final String DAO_QUERY_FOR_LIST_METHOD_TEMPLATE = "queryForListMethodTemplate"; //$NON-NLS-1$
 
     public static final String TYPE_RESOLVER_FORCE_BIG_DECIMALS = "forceBigDecimals"; //$NON-NLS-1$
 
@@ -33,6 +33,8 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * @author Jeff Butler
  */
 public class TableConfiguration extends PropertyHolder {
+    private static final long serialVersionUID = 1L;
+
 	private boolean insertStatementEnabled;
 
 	private boolean selectByPrimaryKeyStatementEnabled;
@@ -20,6 +20,8 @@ package org.apache.ibatis.abator.config;
  * @author Jeff Butler
  */
 public abstract class TypedPropertyHolder extends PropertyHolder {
+	private static final long serialVersionUID = 1L;
+
 
 	private String configurationType;
 
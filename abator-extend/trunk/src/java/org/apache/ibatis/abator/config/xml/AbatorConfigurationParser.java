@@ -15,19 +15,32 @@
  */
 package org.apache.ibatis.abator.config.xml;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Reader;
+import java.io.Serializable;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.ibatis.abator.config.AbatorConfiguration;
 import org.apache.ibatis.abator.config.AbatorContext;
@@ -35,6 +48,7 @@ import org.apache.ibatis.abator.config.ColumnOverride;
 import org.apache.ibatis.abator.config.ColumnRenamingRule;
 import org.apache.ibatis.abator.config.CommentGeneratorConfiguration;
 import org.apache.ibatis.abator.config.DAOGeneratorConfiguration;
+import org.apache.ibatis.abator.config.DDLScriptsConfiguration;
 import org.apache.ibatis.abator.config.GeneratedKey;
 import org.apache.ibatis.abator.config.IgnoredColumn;
 import org.apache.ibatis.abator.config.JDBCConnectionConfiguration;
@@ -47,25 +61,51 @@ import org.apache.ibatis.abator.config.TableConfiguration;
 import org.apache.ibatis.abator.exception.XMLParserException;
 import org.apache.ibatis.abator.internal.util.StringUtility;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
+ * Parses an Abator configuration file.
+ * 
+ * The file is read with a validating SAX parser, and the configuration
+ * objects are built while the file is read, so no DOM of the file is ever
+ * held in memory.  This matters for generated configurations with
+ * thousands of tables.
+ * 
+ * If a cache directory is set, the parsed configuration of a file is also
+ * saved there, and is used instead of parsing the file again as long as the
+ * file and the values of the ${...} properties used in the file are
+ * unchanged.
+ * 
  * @author Jeff Butler
  */
 public class AbatorConfigurationParser {
+    private static final int CACHE_VERSION = 1;
+
     private List warnings;
 
     private List parseErrors;
 
     private Properties properties;
 
+    private File cacheDirectory;
+
+    /**
+     * the ${...} properties resolved by the current parse, name to value
+     * (the value is null if the property is not defined)
+     */
+    private Map resolvedTokens;
+
+    /**
+     * the resource and url attributes of the properties elements of the
+     * current parse
+     */
+    private List propertiesLocations;
+
     /**
      * 
      */
@@ -88,14 +128,32 @@ public class AbatorConfigurationParser {
         }
         
         parseErrors = new ArrayList();
+        resolvedTokens = new HashMap();
+        propertiesLocations = new ArrayList();
     }
     
     public AbatorConfiguration parseAbatorConfiguration(File inputFile)
             throws IOException, XMLParserException {
 
-        FileReader fr = new FileReader(inputFile);
+        if (cacheDirectory == null) {
+            FileReader fr = new FileReader(inputFile);
 
-        return parseAbatorConfiguration(fr);
+            return parseAbatorConfiguration(fr);
+        }
+
+        File cacheFile = new File(cacheDirectory, inputFile.getName()
+                + "-" + getChecksum(inputFile) + ".ser"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        AbatorConfiguration ac = readCachedConfiguration(cacheFile);
+        if (ac == null) {
+            int firstWarning = warnings.size();
+            FileReader fr = new FileReader(inputFile);
+            ac = parseAbatorConfiguration(fr);
+            writeCachedConfiguration(cacheFile, inputFile.getName(), ac,
+                    new ArrayList(warnings.subList(firstWarning, warnings.size())));
+        }
+
+        return ac;
     }
 
     public AbatorConfiguration parseAbatorConfiguration(Reader reader)
@@ -114,27 +172,53 @@ public class AbatorConfigurationParser {
         return parseAbatorConfiguration(is);
     }
 
+    /**
+     * Sets the directory for the cache of parsed configurations.  The cache
+     * is only used when a configuration is parsed from a File.  For every
+     * configuration file, the directory holds one file named after the
+     * configuration file and a checksum of its content.
+     * 
+     * The cache only saves parsing - the configuration must still be
+     * validated before it is used.  A damaged or outdated cache file is
+     * simply replaced.
+     * 
+     * @param cacheDirectory may be null (the default) to disable the cache
+     */
+    public void setCacheDirectory(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
     private AbatorConfiguration parseAbatorConfiguration(InputSource inputSource)
             throws IOException, XMLParserException {
         parseErrors.clear();
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        resolvedTokens.clear();
+        propertiesLocations.clear();
+        SAXParserFactory factory = SAXParserFactory.newInstance();
         factory.setValidating(true);
 
         try {
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            builder.setEntityResolver(new ParserEntityResolver());
+            XMLReader reader = factory.newSAXParser().getXMLReader();
+            reader.setEntityResolver(new ParserEntityResolver());
 
             ParserErrorHandler handler = new ParserErrorHandler(warnings,
                     parseErrors);
-            builder.setErrorHandler(handler);
+            reader.setErrorHandler(handler);
+
+            ConfigurationHandler configurationHandler = new ConfigurationHandler();
+            reader.setContentHandler(configurationHandler);
 
-            Document document = null;
             try {
-                document = builder.parse(inputSource);
+                reader.parse(inputSource);
             } catch (SAXParseException e) {
                 throw new XMLParserException(parseErrors);
             } catch (SAXException e) {
-                if (e.getException() == null) {
+                if (e.getException() instanceof XMLParserException) {
+                    throw (XMLParserException) e.getException();
+                } else if (e.getException() == null) {
                     parseErrors.add(e.getMessage());
                 } else {
                     parseErrors.add(e.getException().getMessage());
@@ -145,54 +229,130 @@ public class AbatorConfigurationParser {
                 throw new XMLParserException(parseErrors);
             }
 
-            AbatorConfiguration ac;
-            Element rootNode = document.getDocumentElement();
-            if (rootNode.getNodeType() == 1
-                    && "abatorConfiguration".equals(rootNode.getNodeName())) { //$NON-NLS-1$
-                ac = parseAbatorConfiguration(rootNode);
-            } else {
-                throw new XMLParserException(Messages.getString("RuntimeError.5")); //$NON-NLS-1$
-            }
-            
-            if (parseErrors.size() > 0) {
-                throw new XMLParserException(parseErrors);
-            }
-
-            return ac;
+            return configurationHandler.getAbatorConfiguration();
         } catch (ParserConfigurationException e) {
             parseErrors.add(e.getMessage());
             throw new XMLParserException(parseErrors);
+        } catch (SAXException e) {
+            parseErrors.add(e.getMessage());
+            throw new XMLParserException(parseErrors);
         }
     }
 
-    private AbatorConfiguration parseAbatorConfiguration(Element node) throws XMLParserException {
+    /**
+     * Builds the configuration objects while the file is read.  The stack
+     * holds the object of every open element (or null for elements that do
+     * not build an object), so child elements are added to the object of
+     * their parent.
+     */
+    private class ConfigurationHandler extends DefaultHandler {
+        private AbatorConfiguration abatorConfiguration;
 
-        AbatorConfiguration abatorConfiguration = new AbatorConfiguration();
+        private LinkedList stack = new LinkedList();
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
+        public AbatorConfiguration getAbatorConfiguration() {
+            return abatorConfiguration;
+        }
 
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
+        public void startElement(String uri, String localName, String qName,
+                Attributes atts) throws SAXException {
+            Object parent = stack.isEmpty() ? null : stack.getLast();
+            Object object = null;
 
-            if ("properties".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperties(abatorConfiguration, childNode);
-            } else if ("abatorContext".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseAbatorContext(abatorConfiguration, childNode);
+            try {
+                if (stack.isEmpty()) {
+                    if (!"abatorConfiguration".equals(qName)) { //$NON-NLS-1$
+                        throw new XMLParserException(Messages.getString("RuntimeError.5")); //$NON-NLS-1$
+                    }
+                    abatorConfiguration = new AbatorConfiguration();
+                    object = abatorConfiguration;
+                } else if (parent instanceof AbatorConfiguration) {
+                    if ("properties".equals(qName)) { //$NON-NLS-1$
+                        parseProperties(atts);
+                    } else if ("abatorContext".equals(qName)) { //$NON-NLS-1$
+                        object = parseAbatorContext((AbatorConfiguration) parent, atts);
+                    }
+                } else if (parent instanceof AbatorContext) {
+                    AbatorContext abatorContext = (AbatorContext) parent;
+                    if ("property".equals(qName)) { //$NON-NLS-1$
+                        parseProperty(abatorContext, atts);
+                    } else if ("commentGenerator".equals(qName)) { //$NON-NLS-1$
+                        object = parseCommentGenerator(abatorContext, atts);
+                    } else if ("jdbcConnection".equals(qName)) { //$NON-NLS-1$
+                        object = parseJdbcConnection(abatorContext, atts);
+                    } else if ("ddlScripts".equals(qName)) { //$NON-NLS-1$
+                        object = parseDdlScripts(abatorContext, atts);
+                    } else if ("javaModelGenerator".equals(qName)) { //$NON-NLS-1$
+                        object = parseJavaModelGenerator(abatorContext, atts);
+                    } else if ("javaTypeResolver".equals(qName)) { //$NON-NLS-1$
+                        object = parseJavaTypeResolver(abatorContext, atts);
+                    } else if ("sqlMapGenerator".equals(qName)) { //$NON-NLS-1$
+                        object = parseSqlMapGenerator(abatorContext, atts);
+                    } else if ("daoGenerator".equals(qName)) { //$NON-NLS-1$
+                        object = parseDaoGenerator(abatorContext, atts);
+                    } else if ("table".equals(qName)) { //$NON-NLS-1$
+                        object = parseTable(abatorContext, atts);
+                    }
+                } else if (parent instanceof TableConfiguration) {
+                    TableConfiguration tc = (TableConfiguration) parent;
+                    if ("property".equals(qName)) { //$NON-NLS-1$
+                        parseProperty(tc, atts);
+                    } else if ("columnOverride".equals(qName)) { //$NON-NLS-1$
+                        parseColumnOverride(tc, atts);
+                    } else if ("ignoreColumn".equals(qName)) { //$NON-NLS-1$
+                        parseIgnoreColumn(tc, atts);
+                    } else if ("generatedKey".equals(qName)) { //$NON-NLS-1$
+                        parseGeneratedKey(tc, atts);
+                    } else if ("columnRenamingRule".equals(qName)) { //$NON-NLS-1$
+                        parseColumnRenamingRule(tc, atts);
+                    }
+                } else if (parent instanceof JDBCConnectionConfiguration) {
+                    JDBCConnectionConfiguration jdbcConnectionConfiguration =
+                        (JDBCConnectionConfiguration) parent;
+                    if ("classPathEntry".equals(qName)) { //$NON-NLS-1$
+                        parseClassPathEntry(jdbcConnectionConfiguration, atts);
+                    } else if ("property".equals(qName)) { //$NON-NLS-1$
+                        parseProperty(jdbcConnectionConfiguration, atts);
+                    }
+                } else if (parent instanceof DDLScriptsConfiguration) {
+                    DDLScriptsConfiguration ddlScriptsConfiguration =
+                        (DDLScriptsConfiguration) parent;
+                    if ("script".equals(qName)) { //$NON-NLS-1$
+                        Properties scriptAttributes = parseAttributes(atts);
+                        ddlScriptsConfiguration.addScript(scriptAttributes
+                                .getProperty("path")); //$NON-NLS-1$
+                    } else if ("property".equals(qName)) { //$NON-NLS-1$
+                        parseProperty(ddlScriptsConfiguration, atts);
+                    }
+                } else if (parent instanceof PropertyHolder) {
+                    // the generators and the comment generator
+                    if ("property".equals(qName)) { //$NON-NLS-1$
+                        parseProperty((PropertyHolder) parent, atts);
+                    }
+                }
+            } catch (XMLParserException e) {
+                throw new SAXException(e);
             }
+
+            stack.addLast(object);
         }
 
-        return abatorConfiguration;
+        public void endElement(String uri, String localName, String qName) {
+            stack.removeLast();
+        }
     }
 
-    private void parseProperties(AbatorConfiguration abatorConfiguration,
-            Node node) throws XMLParserException {
-        Properties attributes = parseAttributes(node);
+    private void parseProperties(Attributes atts) throws XMLParserException {
+        Properties attributes = parseAttributes(atts);
         String resource = attributes.getProperty("resource"); //$NON-NLS-1$
         String url = attributes.getProperty("url"); //$NON-NLS-1$
 
+        loadProperties(resource, url);
+        propertiesLocations.add(new String[] {resource, url});
+    }
+
+    private void loadProperties(String resource, String url)
+            throws XMLParserException {
         if (!StringUtility.stringHasValue(resource)
                 && !StringUtility.stringHasValue(url)) {
             throw new XMLParserException(Messages.getString("RuntimeError.14")); //$NON-NLS-1$
@@ -230,10 +390,10 @@ public class AbatorConfigurationParser {
         }
     }
 
-    private void parseAbatorContext(AbatorConfiguration abatorConfiguration,
-            Node node) {
+    private AbatorContext parseAbatorContext(
+            AbatorConfiguration abatorConfiguration, Attributes atts) {
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String generatorSet = attributes.getProperty("generatorSet"); //$NON-NLS-1$
         String defaultModelType = attributes.getProperty("defaultModelType"); //$NON-NLS-1$
         String id = attributes.getProperty("id"); //$NON-NLS-1$
@@ -246,41 +406,17 @@ public class AbatorConfigurationParser {
 
         abatorConfiguration.addAbatorContext(abatorContext);
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
-
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
-
-            if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(abatorContext, childNode);
-            } else if ("commentGenerator".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseCommentGenerator(abatorContext, childNode);
-            } else if ("jdbcConnection".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseJdbcConnection(abatorContext, childNode);
-            } else if ("javaModelGenerator".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseJavaModelGenerator(abatorContext, childNode);
-            } else if ("javaTypeResolver".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseJavaTypeResolver(abatorContext, childNode);
-            } else if ("sqlMapGenerator".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseSqlMapGenerator(abatorContext, childNode);
-            } else if ("daoGenerator".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseDaoGenerator(abatorContext, childNode);
-            } else if ("table".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseTable(abatorContext, childNode);
-            }
-        }
+        return abatorContext;
     }
 
-    private void parseSqlMapGenerator(AbatorContext abatorContext, Node node) {
+    private SqlMapGeneratorConfiguration parseSqlMapGenerator(
+            AbatorContext abatorContext, Attributes atts) {
         SqlMapGeneratorConfiguration sqlMapGeneratorConfiguration = new SqlMapGeneratorConfiguration();
 
         abatorContext
                 .setSqlMapGeneratorConfiguration(sqlMapGeneratorConfiguration);
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String type = attributes.getProperty("type"); //$NON-NLS-1$
         String targetPackage = attributes.getProperty("targetPackage"); //$NON-NLS-1$
         String targetProject = attributes.getProperty("targetProject"); //$NON-NLS-1$
@@ -292,25 +428,15 @@ public class AbatorConfigurationParser {
         sqlMapGeneratorConfiguration.setTargetPackage(targetPackage);
         sqlMapGeneratorConfiguration.setTargetProject(targetProject);
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
-
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
-
-            if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(sqlMapGeneratorConfiguration, childNode);
-            }
-        }
+        return sqlMapGeneratorConfiguration;
     }
 
-    private void parseTable(AbatorContext abatorContext, Node node) {
+    private TableConfiguration parseTable(AbatorContext abatorContext,
+            Attributes atts) {
         TableConfiguration tc = new TableConfiguration(abatorContext);
         abatorContext.addTableConfiguration(tc);
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String catalog = attributes.getProperty("catalog"); //$NON-NLS-1$
         String schema = attributes.getProperty("schema"); //$NON-NLS-1$
         String tableName = attributes.getProperty("tableName"); //$NON-NLS-1$
@@ -421,30 +547,11 @@ public class AbatorConfigurationParser {
                     .equals(delmitIdentifiers));
         }
         
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
-
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
-
-            if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(tc, childNode);
-            } else if ("columnOverride".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseColumnOverride(tc, childNode);
-            } else if ("ignoreColumn".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseIgnoreColumn(tc, childNode);
-            } else if ("generatedKey".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseGeneratedKey(tc, childNode);
-            } else if ("columnRenamingRule".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseColumnRenamingRule(tc, childNode);
-            }
-        }
+        return tc;
     }
 
-    private void parseColumnOverride(TableConfiguration tc, Node node) {
-        Properties attributes = parseAttributes(node);
+    private void parseColumnOverride(TableConfiguration tc, Attributes atts) {
+        Properties attributes = parseAttributes(atts);
         String column = attributes.getProperty("column"); //$NON-NLS-1$
         String property = attributes.getProperty("property"); //$NON-NLS-1$
         String javaType = attributes.getProperty("javaType"); //$NON-NLS-1$
@@ -477,8 +584,8 @@ public class AbatorConfigurationParser {
         tc.addColumnOverride(co);
     }
 
-    private void parseGeneratedKey(TableConfiguration tc, Node node) {
-        Properties attributes = parseAttributes(node);
+    private void parseGeneratedKey(TableConfiguration tc, Attributes atts) {
+        Properties attributes = parseAttributes(atts);
 
         String column = attributes.getProperty("column"); //$NON-NLS-1$
         boolean identity = "true".equals(attributes.getProperty("identity")); //$NON-NLS-1$ //$NON-NLS-2$
@@ -490,8 +597,8 @@ public class AbatorConfigurationParser {
         tc.setGeneratedKey(gk);
     }
 
-    private void parseIgnoreColumn(TableConfiguration tc, Node node) {
-        Properties attributes = parseAttributes(node);
+    private void parseIgnoreColumn(TableConfiguration tc, Attributes atts) {
+        Properties attributes = parseAttributes(atts);
         String column = attributes.getProperty("column"); //$NON-NLS-1$
         String delimitedColumnName = attributes.getProperty("delimitedColumnName"); //$NON-NLS-1$
         
@@ -504,8 +611,8 @@ public class AbatorConfigurationParser {
         tc.addIgnoredColumn(ic);
     }
 
-    private void parseColumnRenamingRule(TableConfiguration tc, Node node) {
-        Properties attributes = parseAttributes(node);
+    private void parseColumnRenamingRule(TableConfiguration tc, Attributes atts) {
+        Properties attributes = parseAttributes(atts);
         String searchString = attributes.getProperty("searchString"); //$NON-NLS-1$
         String replaceString = attributes.getProperty("replaceString"); //$NON-NLS-1$
         
@@ -520,40 +627,31 @@ public class AbatorConfigurationParser {
         tc.setColumnRenamingRule(crr);
     }
     
-    private void parseJavaTypeResolver(AbatorContext abatorContext, Node node) {
+    private JavaTypeResolverConfiguration parseJavaTypeResolver(
+            AbatorContext abatorContext, Attributes atts) {
         JavaTypeResolverConfiguration javaTypeResolverConfiguration = new JavaTypeResolverConfiguration();
 
         abatorContext
                 .setJavaTypeResolverConfiguration(javaTypeResolverConfiguration);
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String type = attributes.getProperty("type"); //$NON-NLS-1$
 
         if (StringUtility.stringHasValue(type)) {
             javaTypeResolverConfiguration.setConfigurationType(type);
         }
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
-
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
-
-            if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(javaTypeResolverConfiguration, childNode);
-            }
-        }
+        return javaTypeResolverConfiguration;
     }
 
-    private void parseJavaModelGenerator(AbatorContext abatorContext, Node node) {
+    private JavaModelGeneratorConfiguration parseJavaModelGenerator(
+            AbatorContext abatorContext, Attributes atts) {
         JavaModelGeneratorConfiguration javaModelGeneratorConfiguration = new JavaModelGeneratorConfiguration();
 
         abatorContext
                 .setJavaModelGeneratorConfiguration(javaModelGeneratorConfiguration);
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String type = attributes.getProperty("type"); //$NON-NLS-1$
         String targetPackage = attributes.getProperty("targetPackage"); //$NON-NLS-1$
         String targetProject = attributes.getProperty("targetProject"); //$NON-NLS-1$
@@ -565,26 +663,16 @@ public class AbatorConfigurationParser {
         javaModelGeneratorConfiguration.setTargetPackage(targetPackage);
         javaModelGeneratorConfiguration.setTargetProject(targetProject);
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
-
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
-
-            if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(javaModelGeneratorConfiguration, childNode);
-            }
-        }
+        return javaModelGeneratorConfiguration;
     }
 
-    private void parseDaoGenerator(AbatorContext abatorContext, Node node) {
+    private DAOGeneratorConfiguration parseDaoGenerator(
+            AbatorContext abatorContext, Attributes atts) {
         DAOGeneratorConfiguration daoGeneratorConfiguration = new DAOGeneratorConfiguration();
 
         abatorContext.setDaoGeneratorConfiguration(daoGeneratorConfiguration);
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String type = attributes.getProperty("type"); //$NON-NLS-1$
         String targetPackage = attributes.getProperty("targetPackage"); //$NON-NLS-1$
         String targetProject = attributes.getProperty("targetProject"); //$NON-NLS-1$
@@ -593,27 +681,17 @@ public class AbatorConfigurationParser {
         daoGeneratorConfiguration.setTargetPackage(targetPackage);
         daoGeneratorConfiguration.setTargetProject(targetProject);
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
-
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
-
-            if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(daoGeneratorConfiguration, childNode);
-            }
-        }
+        return daoGeneratorConfiguration;
     }
 
-    private void parseJdbcConnection(AbatorContext abatorContext, Node node) {
+    private JDBCConnectionConfiguration parseJdbcConnection(
+            AbatorContext abatorContext, Attributes atts) {
         JDBCConnectionConfiguration jdbcConnectionConfiguration = new JDBCConnectionConfiguration();
 
         abatorContext
                 .setJdbcConnectionConfiguration(jdbcConnectionConfiguration);
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String driverClass = attributes.getProperty("driverClass"); //$NON-NLS-1$
         String connectionURL = attributes.getProperty("connectionURL"); //$NON-NLS-1$
         String userId = attributes.getProperty("userId"); //$NON-NLS-1$
@@ -630,32 +708,35 @@ public class AbatorConfigurationParser {
             jdbcConnectionConfiguration.setPassword(password);
         }
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
+        return jdbcConnectionConfiguration;
+    }
 
-            if (childNode.getNodeType() != 1) {
-                continue;
-            }
+    private DDLScriptsConfiguration parseDdlScripts(
+            AbatorContext abatorContext, Attributes atts) {
+        DDLScriptsConfiguration ddlScriptsConfiguration = new DDLScriptsConfiguration();
 
-            if ("classPathEntry".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseClassPathEntry(jdbcConnectionConfiguration, childNode);
-            } else if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(jdbcConnectionConfiguration, childNode);
-            }
+        abatorContext.setDdlScriptsConfiguration(ddlScriptsConfiguration);
+
+        Properties attributes = parseAttributes(atts);
+        String encoding = attributes.getProperty("encoding"); //$NON-NLS-1$
+
+        if (StringUtility.stringHasValue(encoding)) {
+            ddlScriptsConfiguration.setEncoding(encoding);
         }
+
+        return ddlScriptsConfiguration;
     }
 
     private void parseClassPathEntry(
-            JDBCConnectionConfiguration jdbcConnectionConfiguration, Node node) {
-        Properties attributes = parseAttributes(node);
+            JDBCConnectionConfiguration jdbcConnectionConfiguration, Attributes atts) {
+        Properties attributes = parseAttributes(atts);
 
         jdbcConnectionConfiguration.addClasspathEntry(attributes
                 .getProperty("location")); //$NON-NLS-1$
     }
 
-    private void parseProperty(PropertyHolder propertyHolder, Node node) {
-        Properties attributes = parseAttributes(node);
+    private void parseProperty(PropertyHolder propertyHolder, Attributes atts) {
+        Properties attributes = parseAttributes(atts);
 
         String name = attributes.getProperty("name"); //$NON-NLS-1$
         String value = attributes.getProperty("value"); //$NON-NLS-1$
@@ -663,13 +744,11 @@ public class AbatorConfigurationParser {
         propertyHolder.addProperty(name, value);
     }
 
-    private Properties parseAttributes(Node node) {
+    private Properties parseAttributes(Attributes atts) {
         Properties attributes = new Properties();
-        NamedNodeMap nnm = node.getAttributes();
-        for (int i = 0; i < nnm.getLength(); i++) {
-            Node attribute = nnm.item(i);
-            String value = parsePropertyTokens(attribute.getNodeValue());
-            attributes.put(attribute.getNodeName(), value);
+        for (int i = 0; i < atts.getLength(); i++) {
+            String value = parsePropertyTokens(atts.getValue(i));
+            attributes.put(atts.getQName(i), value);
         }
 
         return attributes;
@@ -690,6 +769,7 @@ public class AbatorConfigurationParser {
                 String propName = newString.substring(start + OPEN.length(),
                         end);
                 String propValue = properties.getProperty(propName);
+                resolvedTokens.put(propName, propValue);
                 if (propValue != null) {
                     newString = prepend + propValue + append;
                 }
@@ -702,29 +782,162 @@ public class AbatorConfigurationParser {
         return newString;
     }
 
-    private void parseCommentGenerator(AbatorContext abatorContext, Node node) {
+    private CommentGeneratorConfiguration parseCommentGenerator(
+            AbatorContext abatorContext, Attributes atts) {
         CommentGeneratorConfiguration commentGeneratorConfiguration = new CommentGeneratorConfiguration();
 
         abatorContext.setCommentGeneratorConfiguration(commentGeneratorConfiguration);
 
-        Properties attributes = parseAttributes(node);
+        Properties attributes = parseAttributes(atts);
         String type = attributes.getProperty("type"); //$NON-NLS-1$
 
         if (StringUtility.stringHasValue(type)) {
             commentGeneratorConfiguration.setConfigurationType(type);
         }
 
-        NodeList nodeList = node.getChildNodes();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node childNode = nodeList.item(i);
+        return commentGeneratorConfiguration;
+    }
 
-            if (childNode.getNodeType() != 1) {
-                continue;
+    /**
+     * Returns the CRC-32 and the length of a file.  A cryptographic digest
+     * would take longer than the cache saves on a cold JVM.
+     */
+    private static String getChecksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[65536];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                crc.update(buffer, 0, length);
             }
+        } finally {
+            is.close();
+        }
+
+        return Long.toHexString(crc.getValue()) + "-" + file.length(); //$NON-NLS-1$
+    }
 
-            if ("property".equals(childNode.getNodeName())) { //$NON-NLS-1$
-                parseProperty(commentGeneratorConfiguration, childNode);
+    /**
+     * Returns the cached configuration, or null if there is none or it is
+     * outdated.  The properties elements are loaded as a parse would load
+     * them, then every ${...} property used by the cached parse must still
+     * have the same value.
+     */
+    private AbatorConfiguration readCachedConfiguration(File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        CachedConfiguration cachedConfiguration = null;
+        ObjectInputStream ois = null;
+        try {
+            ois = new ObjectInputStream(new BufferedInputStream(
+                    new GZIPInputStream(new FileInputStream(cacheFile), 65536), 65536));
+            if (ois.readInt() == CACHE_VERSION) {
+                cachedConfiguration = (CachedConfiguration) ois.readObject();
+            }
+        } catch (Exception e) {
+            // ignore - the file will be parsed and the cache rewritten
+            ;
+        } finally {
+            if (ois != null) {
+                try {
+                    ois.close();
+                } catch (IOException e) {
+                    // ignore
+                    ;
+                }
             }
         }
+
+        if (cachedConfiguration == null) {
+            return null;
+        }
+
+        Iterator iter = cachedConfiguration.propertiesLocations.iterator();
+        while (iter.hasNext()) {
+            String[] location = (String[]) iter.next();
+            try {
+                loadProperties(location[0], location[1]);
+            } catch (XMLParserException e) {
+                // the parse will report the error
+                return null;
+            }
+        }
+
+        iter = cachedConfiguration.resolvedTokens.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            String value = properties.getProperty((String) entry.getKey());
+            if (value == null ? entry.getValue() != null
+                    : !value.equals(entry.getValue())) {
+                return null;
+            }
+        }
+
+        warnings.addAll(cachedConfiguration.warnings);
+
+        return cachedConfiguration.abatorConfiguration;
+    }
+
+    /**
+     * Writes the cache file of a parsed configuration, and removes the
+     * cache files of earlier versions of the configuration file.
+     */
+    private void writeCachedConfiguration(File cacheFile, String fileName,
+            AbatorConfiguration abatorConfiguration, List parseWarnings) {
+        CachedConfiguration cachedConfiguration = new CachedConfiguration();
+        cachedConfiguration.abatorConfiguration = abatorConfiguration;
+        cachedConfiguration.resolvedTokens = new HashMap(resolvedTokens);
+        cachedConfiguration.propertiesLocations = new ArrayList(propertiesLocations);
+        cachedConfiguration.warnings = parseWarnings;
+
+        if (!cacheDirectory.exists()) {
+            cacheDirectory.mkdirs();
+        }
+
+        File[] files = cacheDirectory.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            String name = files[i].getName();
+            if (name.startsWith(fileName + "-") && name.endsWith(".ser")) { //$NON-NLS-1$ //$NON-NLS-2$
+                files[i].delete();
+            }
+        }
+
+        ObjectOutputStream oos = null;
+        try {
+            oos = new ObjectOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(cacheFile), 65536), 65536));
+            oos.writeInt(CACHE_VERSION);
+            oos.writeObject(cachedConfiguration);
+        } catch (IOException e) {
+            warnings.add(Messages.getString("Warning.30", //$NON-NLS-1$
+                    cacheFile.getAbsolutePath(), e.getMessage()));
+        } finally {
+            if (oos != null) {
+                try {
+                    oos.close();
+                } catch (IOException e) {
+                    // ignore
+                    ;
+                }
+            }
+        }
+    }
+
+    private static class CachedConfiguration implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        AbatorConfiguration abatorConfiguration;
+
+        /** the ${...} properties used by the parse, name to value */
+        Map resolvedTokens;
+
+        /** String[] {resource, url} of every properties element */
+        List propertiesLocations;
+
+        /** the warnings of the parse, reported again when the cache is used */
+        List warnings;
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.abator.internal;
 
+import java.io.File;
 import java.util.List;
 
 import org.apache.ibatis.abator.api.CommentGenerator;
@@ -27,7 +28,17 @@ import org.apache.ibatis.abator.config.CommentGeneratorConfiguration;
 import org.apache.ibatis.abator.config.DAOGeneratorConfiguration;
 import org.apache.ibatis.abator.config.JavaModelGeneratorConfiguration;
 import org.apache.ibatis.abator.config.JavaTypeResolverConfiguration;
+import org.apache.ibatis.abator.config.PropertyRegistry;
 import org.apache.ibatis.abator.config.SqlMapGeneratorConfiguration;
+import org.apache.ibatis.abator.internal.db.CachingMetadataProvider;
+import org.apache.ibatis.abator.internal.db.DDLMetadataProvider;
+import org.apache.ibatis.abator.internal.db.DatabaseMetaDataProvider;
+import org.apache.ibatis.abator.internal.db.Db2MetadataProvider;
+import org.apache.ibatis.abator.internal.db.DerbyMetadataProvider;
+import org.apache.ibatis.abator.internal.db.InformationSchemaMetadataProvider;
+import org.apache.ibatis.abator.internal.db.MetadataProvider;
+import org.apache.ibatis.abator.internal.db.OracleMetadataProvider;
+import org.apache.ibatis.abator.internal.util.StringUtility;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
 
 /**
@@ -185,4 +196,50 @@ public class AbatorObjectFactory {
         
         return answer;
     }
+
+    /**
+     * Creates the MetadataProvider specified by the <code>metadataProvider</code>
+     * context property.  The value may be "default", "informationSchema",
+     * "oracle", "db2", "derby", or the fully qualified name of a class that
+     * implements MetadataProvider.
+     * 
+     * If the <code>metadataCache</code> context property names a file, the
+     * provider is wrapped in a CachingMetadataProvider that keeps a snapshot
+     * of the metadata in that file.
+     * 
+     * If the context reads DDL scripts instead of a database, the result
+     * is always a DDLMetadataProvider.
+     * 
+     * @param context
+     * @return the metadata provider for the context
+     */
+    public static MetadataProvider createMetadataProvider(AbatorContext context) {
+        if (context.getDdlScriptsConfiguration() != null) {
+            return new DDLMetadataProvider(context.getDdlScriptsConfiguration());
+        }
+        
+        String type = context.getProperty(PropertyRegistry.CONTEXT_METADATA_PROVIDER);
+        
+        MetadataProvider answer;
+        if (type == null || "default".equalsIgnoreCase(type)) { //$NON-NLS-1$
+            answer = new DatabaseMetaDataProvider();
+        } else if ("informationSchema".equalsIgnoreCase(type)) { //$NON-NLS-1$
+            answer = new InformationSchemaMetadataProvider();
+        } else if ("oracle".equalsIgnoreCase(type)) { //$NON-NLS-1$
+            answer = new OracleMetadataProvider();
+        } else if ("db2".equalsIgnoreCase(type)) { //$NON-NLS-1$
+            answer = new Db2MetadataProvider();
+        } else if ("derby".equalsIgnoreCase(type)) { //$NON-NLS-1$
+            answer = new DerbyMetadataProvider();
+        } else {
+            answer = (MetadataProvider) createObject(type);
+        }
+        
+        String cacheFile = context.getProperty(PropertyRegistry.CONTEXT_METADATA_CACHE);
+        if (StringUtility.stringHasValue(cacheFile)) {
+            answer = new CachingMetadataProvider(answer, new File(cacheFile));
+        }
+        
+        return answer;
+    }
 }
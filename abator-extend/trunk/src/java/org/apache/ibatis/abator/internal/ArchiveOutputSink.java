@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.ibatis.abator.api.GeneratedFile;
+import org.apache.ibatis.abator.api.OutputSink;
+import org.apache.ibatis.abator.internal.util.messages.Messages;
+
+/**
+ * Writes all generated files of a run into one zip file, or into a jar
+ * file if the archive name ends with ".jar".  The archive is written in one
+ * sequential pass; every file is rendered straight into it.  An existing
+ * archive is replaced.
+ * 
+ * Entries are named by target package and file name, as in a sources jar.
+ * The target project is not part of the name.  If several files have the
+ * same name, only the first is kept and a warning is added.
+ * 
+ * @author Jeff Butler
+ */
+public class ArchiveOutputSink implements OutputSink {
+    private File archive;
+    
+    private String encoding;
+    
+    private ZipOutputStream out;
+    
+    private Writer writer;
+    
+    /**
+     * Set&lt;String&gt; of the entry names written so far
+     */
+    private Set entryNames;
+    
+    /**
+     * @param archive the zip or jar file to write
+     * @param encoding the encoding of the files in the archive, or null
+     *   for the platform encoding (as used when saving files to disk)
+     */
+    public ArchiveOutputSink(File archive, String encoding) {
+        super();
+        this.archive = archive;
+        this.encoding = encoding;
+        entryNames = new HashSet();
+    }
+
+    public void open() throws IOException {
+        File parent = archive.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory()) {
+            parent.mkdirs();
+        }
+        
+        BufferedOutputStream bos = new BufferedOutputStream(
+                new FileOutputStream(archive), 65536);
+        if (archive.getName().toLowerCase().endsWith(".jar")) { //$NON-NLS-1$
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().putValue("Manifest-Version", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
+            out = new JarOutputStream(bos, manifest);
+        } else {
+            out = new ZipOutputStream(bos);
+        }
+        
+        writer = encoding == null ? new OutputStreamWriter(out)
+            : new OutputStreamWriter(out, encoding);
+        entryNames.clear();
+    }
+
+    public long saveFile(GeneratedFile generatedFile, List warnings)
+            throws IOException {
+        String name = MemoryOutputSink.getPath(generatedFile);
+        if (!entryNames.add(name)) {
+            warnings.add(Messages.getString("Warning.28", name, //$NON-NLS-1$
+                    archive.getAbsolutePath()));
+            return 0;
+        }
+        
+        ZipEntry entry = new ZipEntry(name);
+        out.putNextEntry(entry);
+        generatedFile.writeFormattedContent(writer);
+        writer.flush();
+        out.closeEntry();
+        
+        return entry.getSize();
+    }
+
+    public void close() throws IOException {
+        if (writer != null) {
+            // also closes the archive
+            writer.close();
+            writer = null;
+            out = null;
+        }
+    }
+}
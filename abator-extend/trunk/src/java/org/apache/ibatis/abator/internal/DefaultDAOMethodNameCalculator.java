@@ -44,6 +44,14 @@ public class DefaultDAOMethodNameCalculator implements DAOMethodNameCalculator {
         return "insert"; //$NON-NLS-1$
     }
 
+    public String getInsertBatchMethodName(IntrospectedTable introspectedTable) {
+        return "insertBatch"; //$NON-NLS-1$
+    }
+
+    public String getInsertMultipleMethodName(IntrospectedTable introspectedTable) {
+        return "insertMultiple"; //$NON-NLS-1$
+    }
+
     /**
      * 1. if this will be the only updateByPrimaryKey, then the
      *    result should be updateByPrimaryKey.
@@ -84,6 +92,44 @@ public class DefaultDAOMethodNameCalculator implements DAOMethodNameCalculator {
         }
     }
     
+    /**
+     * 1. if this will be the only batched updateByPrimaryKey, or there are
+     *    separate base and blob classes, then the result should be
+     *    updateByPrimaryKeyBatch.
+     * 2. Else the method name should be updateByPrimaryKeyWithoutBLOBsBatch
+     */
+    public String getUpdateByPrimaryKeyWithoutBLOBsBatchMethodName(IntrospectedTable introspectedTable) {
+        AbatorRules rules = introspectedTable.getRules();
+        
+        if (!rules.generateUpdateByPrimaryKeyWithBLOBs()
+                || rules.generateRecordWithBLOBsClass()) {
+            return "updateByPrimaryKeyBatch"; //$NON-NLS-1$
+        } else {
+            return "updateByPrimaryKeyWithoutBLOBsBatch"; //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * 1. if this will be the only batched updateByPrimaryKey, then the
+     *    result should be updateByPrimaryKeyBatch.
+     * 2. Else the method name should be updateByPrimaryKeyWithBLOBsBatch.
+     *    Unlike the single row methods, the batched methods cannot be
+     *    overloaded, because both take a List.
+     */
+    public String getUpdateByPrimaryKeyWithBLOBsBatchMethodName(IntrospectedTable introspectedTable) {
+        AbatorRules rules = introspectedTable.getRules();
+        
+        if (!rules.generateUpdateByPrimaryKeyWithoutBLOBs()) {
+            return "updateByPrimaryKeyBatch"; //$NON-NLS-1$
+        } else {
+            return "updateByPrimaryKeyWithBLOBsBatch"; //$NON-NLS-1$
+        }
+    }
+
+    public String getUpdateByPrimaryKeySelectiveBatchMethodName(IntrospectedTable introspectedTable) {
+        return "updateByPrimaryKeySelectiveBatch"; //$NON-NLS-1$
+    }
+    
     public String getDeleteByExampleMethodName(IntrospectedTable introspectedTable) {
         return "deleteByExample"; //$NON-NLS-1$
     }
@@ -92,6 +138,10 @@ public class DefaultDAOMethodNameCalculator implements DAOMethodNameCalculator {
         return "deleteByPrimaryKey"; //$NON-NLS-1$
     }
 
+    public String getDeleteByPrimaryKeyBatchMethodName(IntrospectedTable introspectedTable) {
+        return "deleteByPrimaryKeyBatch"; //$NON-NLS-1$
+    }
+
     /**
      * 1. if this will be the only selectByExample, then the
      *    result should be selectByExample.
@@ -212,6 +262,33 @@ public class DefaultDAOMethodNameCalculator implements DAOMethodNameCalculator {
     	return answer;
     }
 
+    /**
+     * Returns selectPageAfter followed by the key properties, for example
+     * selectPageAfterId or selectPageAfterOrderIdAndLineNo.
+     */
+    public String getSelectPageAfterMethodName(IntrospectedTable introspectedTable, List keyColumns) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("selectPageAfter"); //$NON-NLS-1$
+        appendKeyProperties(sb, keyColumns);
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Appends the key properties, starting with a capital letter and
+     * separated by "And".
+     */
+    static void appendKeyProperties(StringBuffer sb, List keyColumns) {
+        Iterator iter = keyColumns.iterator();
+        while (iter.hasNext()) {
+            ColumnDefinition cd = (ColumnDefinition) iter.next();
+            sb.append(StringUtility.toInitCap(cd.getJavaProperty()));
+            if (iter.hasNext()) {
+                sb.append("And"); //$NON-NLS-1$
+            }
+        }
+    }
+
     public String getSelectByPrimaryKeyMethodName(IntrospectedTable introspectedTable) {
         return "selectByPrimaryKey"; //$NON-NLS-1$
     }
@@ -43,6 +43,24 @@ public class ExtendedDAOMethodNameCalculator implements DAOMethodNameCalculator
         return sb.toString();
     }
 
+    public String getInsertBatchMethodName(IntrospectedTable introspectedTable) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("insert"); //$NON-NLS-1$
+        sb.append(introspectedTable.getTable().getDomainObjectName());
+        sb.append("Batch"); //$NON-NLS-1$
+        
+        return sb.toString();
+    }
+
+    public String getInsertMultipleMethodName(IntrospectedTable introspectedTable) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("insert"); //$NON-NLS-1$
+        sb.append(introspectedTable.getTable().getDomainObjectName());
+        sb.append("Multiple"); //$NON-NLS-1$
+        
+        return sb.toString();
+    }
+
     /**
      * 1. if this will be the only updateByPrimaryKey, then the
      *    result should be updateByPrimaryKey.
@@ -96,6 +114,66 @@ public class ExtendedDAOMethodNameCalculator implements DAOMethodNameCalculator
         return sb.toString();
     }
 
+    /**
+     * 1. if this will be the only batched updateByPrimaryKey, or there are
+     *    separate base and blob classes, then the result should be
+     *    updateXXXByPrimaryKeyBatch.
+     * 2. Else the method name should be updateXXXByPrimaryKeyWithoutBLOBsBatch
+     */
+    public String getUpdateByPrimaryKeyWithoutBLOBsBatchMethodName(IntrospectedTable introspectedTable) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("update"); //$NON-NLS-1$
+        sb.append(introspectedTable.getTable().getDomainObjectName());
+        
+        AbatorRules rules = introspectedTable.getRules();
+        
+        if (!rules.generateUpdateByPrimaryKeyWithBLOBs()
+                || rules.generateRecordWithBLOBsClass()) {
+            sb.append("ByPrimaryKeyBatch"); //$NON-NLS-1$
+        } else {
+            sb.append("ByPrimaryKeyWithoutBLOBsBatch"); //$NON-NLS-1$
+        }
+        
+        return sb.toString();
+    }
+
+    /**
+     * 1. if this will be the only batched updateByPrimaryKey, then the
+     *    result should be updateXXXByPrimaryKeyBatch.
+     * 2. Else the method name should be updateXXXByPrimaryKeyWithBLOBsBatch
+     */
+    public String getUpdateByPrimaryKeyWithBLOBsBatchMethodName(IntrospectedTable introspectedTable) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("update"); //$NON-NLS-1$
+        sb.append(introspectedTable.getTable().getDomainObjectName());
+        
+        if (!introspectedTable.getRules().generateUpdateByPrimaryKeyWithoutBLOBs()) {
+            sb.append("ByPrimaryKeyBatch"); //$NON-NLS-1$
+        } else {
+            sb.append("ByPrimaryKeyWithBLOBsBatch"); //$NON-NLS-1$
+        }
+        
+        return sb.toString();
+    }
+
+    public String getUpdateByPrimaryKeySelectiveBatchMethodName(IntrospectedTable introspectedTable) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("update"); //$NON-NLS-1$
+        sb.append(introspectedTable.getTable().getDomainObjectName());
+        sb.append("ByPrimaryKeySelectiveBatch"); //$NON-NLS-1$
+        
+        return sb.toString();
+    }
+
+    public String getDeleteByPrimaryKeyBatchMethodName(IntrospectedTable introspectedTable) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("delete"); //$NON-NLS-1$
+        sb.append(introspectedTable.getTable().getDomainObjectName());
+        sb.append("ByPrimaryKeyBatch"); //$NON-NLS-1$
+        
+        return sb.toString();
+    }
+
     public String getDeleteByExampleMethodName(IntrospectedTable introspectedTable) {
         StringBuffer sb = new StringBuffer();
         sb.append("delete"); //$NON-NLS-1$
@@ -154,6 +232,16 @@ public class ExtendedDAOMethodNameCalculator implements DAOMethodNameCalculator
         return sb.toString();
     }
 
+    public String getSelectPageAfterMethodName(IntrospectedTable introspectedTable, List keyColumns) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("select"); //$NON-NLS-1$
+        sb.append(introspectedTable.getTable().getDomainObjectName());
+        sb.append("PageAfter"); //$NON-NLS-1$
+        DefaultDAOMethodNameCalculator.appendKeyProperties(sb, keyColumns);
+        
+        return sb.toString();
+    }
+
     public String getSelectByPrimaryKeyMethodName(IntrospectedTable introspectedTable) {
         StringBuffer sb = new StringBuffer();
         sb.append("select"); //$NON-NLS-1$
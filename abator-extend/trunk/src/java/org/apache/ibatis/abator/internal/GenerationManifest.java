@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.StringTokenizer;
+
+/**
+ * This class records, for every file Abator writes into a target project,
+ * the digest of the generated content together with the length and time
+ * stamp of the file that was written.  On the next run Abator can tell that a
+ * file is up to date - the generated content is the same and nobody has
+ * touched the file since - without reading or merging it, and leaves the
+ * file alone.
+ *
+ * The manifest is a properties file in the root directory of the target
+ * project.  Paths are stored relative to that directory.
+ *
+ * @author Jeff Butler
+ */
+public class GenerationManifest {
+
+    public static final String FILE_NAME = ".abator-manifest"; //$NON-NLS-1$
+
+    private File directory;
+
+    private Properties entries;
+
+    private boolean dirty;
+
+    /**
+     * Reads the manifest of a target project. A missing or unreadable
+     * manifest is treated as empty.
+     *
+     * @param directory
+     *            the root directory of the target project
+     */
+    public GenerationManifest(File directory) {
+        super();
+        this.directory = directory;
+        entries = new Properties();
+
+        File file = new File(directory, FILE_NAME);
+        if (file.isFile()) {
+            InputStream is = null;
+            try {
+                is = new BufferedInputStream(new FileInputStream(file));
+                entries.load(is);
+            } catch (IOException e) {
+                entries.clear();
+            } finally {
+                if (is != null) {
+                    try {
+                        is.close();
+                    } catch (IOException e) {
+                        // ignore
+                        ;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param file
+     * @param generatedDigest
+     *            digest of the newly generated (unmerged) content
+     * @return true if the file was last written from identical generated
+     *         content and has not been changed since
+     */
+    public boolean isUpToDate(File file, String generatedDigest) {
+        String entry = entries.getProperty(getKey(file));
+        if (entry == null) {
+            return false;
+        }
+
+        StringTokenizer st = new StringTokenizer(entry, ","); //$NON-NLS-1$
+        if (st.countTokens() != 3) {
+            return false;
+        }
+
+        try {
+            String digest = st.nextToken();
+            long length = Long.parseLong(st.nextToken());
+            long lastModified = Long.parseLong(st.nextToken());
+
+            return digest.equals(generatedDigest)
+                && file.isFile()
+                && file.length() == length
+                && file.lastModified() == lastModified;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the current state of a file that now holds the result of the
+     * generated content.
+     *
+     * @param file
+     * @param generatedDigest
+     *            digest of the newly generated (unmerged) content
+     */
+    public void record(File file, String generatedDigest) {
+        StringBuffer sb = new StringBuffer();
+        sb.append(generatedDigest);
+        sb.append(',');
+        sb.append(file.length());
+        sb.append(',');
+        sb.append(file.lastModified());
+
+        String key = getKey(file);
+        String value = sb.toString();
+        if (!value.equals(entries.getProperty(key))) {
+            entries.setProperty(key, value);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the manifest if anything was recorded since it was read.
+     *
+     * @throws IOException
+     */
+    public void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(
+                new File(directory, FILE_NAME)));
+        try {
+            entries.store(os, "Abator generated files - do not edit"); //$NON-NLS-1$
+            dirty = false;
+        } finally {
+            os.close();
+        }
+    }
+
+    private String getKey(File file) {
+        String root = directory.getAbsolutePath() + File.separatorChar;
+        String path = file.getAbsolutePath();
+        if (path.startsWith(root)) {
+            path = path.substring(root.length());
+        }
+
+        return path.replace(File.separatorChar, '/');
+    }
+}
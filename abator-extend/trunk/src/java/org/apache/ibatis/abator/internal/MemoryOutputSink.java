@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.abator.api.GeneratedFile;
+import org.apache.ibatis.abator.api.OutputSink;
+
+/**
+ * Keeps the generated files of the last run in memory, so that a caller
+ * that embeds Abator can use them without reading them back from disk.
+ * 
+ * Files are keyed by their path within the target project, for example
+ * "com/foo/model/Customer.java".  If several files have the same path, the
+ * last one is kept.
+ * 
+ * @author Jeff Butler
+ */
+public class MemoryOutputSink implements OutputSink {
+    /**
+     * Map&lt;String, String&gt; of path to content, in the order the files
+     * were generated
+     */
+    private Map files;
+    
+    public MemoryOutputSink() {
+        super();
+        files = new LinkedHashMap();
+    }
+
+    public void open() {
+        files.clear();
+    }
+
+    public long saveFile(GeneratedFile generatedFile, List warnings) {
+        String content = generatedFile.getFormattedContent();
+        files.put(getPath(generatedFile), content);
+        return content.length();
+    }
+
+    public void close() {
+        ;
+    }
+    
+    /**
+     * Returns a read only Map&lt;String, String&gt; of the path of every
+     * file to its content, in the order the files were generated.
+     */
+    public Map getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+    
+    /**
+     * Returns the content of a file, or null if no file with this path was
+     * generated.
+     * 
+     * @param path the path of the file, such as "com/foo/model/Customer.java"
+     */
+    public String getContent(String path) {
+        return (String) files.get(path);
+    }
+    
+    /**
+     * Returns the path of a generated file: the target package as
+     * directories, followed by the file name.
+     */
+    public static String getPath(GeneratedFile generatedFile) {
+        String targetPackage = generatedFile.getTargetPackage();
+        if (targetPackage == null || targetPackage.length() == 0) {
+            return generatedFile.getFileName();
+        }
+        
+        return targetPackage.replace('.', '/') + '/' + generatedFile.getFileName();
+    }
+}
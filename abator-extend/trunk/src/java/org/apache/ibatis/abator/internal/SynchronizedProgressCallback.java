@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal;
+
+import org.apache.ibatis.abator.api.ProgressCallback;
+
+/**
+ * This class wraps a ProgressCallback so that it can safely be called
+ * from several generation threads at once.  Abator clients do not need to
+ * make their callbacks thread safe - every call is serialized through this
+ * wrapper.
+ *
+ * @author Jeff Butler
+ */
+public class SynchronizedProgressCallback implements ProgressCallback {
+
+    private ProgressCallback delegate;
+
+    /**
+     *
+     * @param delegate the callback to wrap
+     */
+    public SynchronizedProgressCallback(ProgressCallback delegate) {
+        super();
+        this.delegate = delegate;
+    }
+
+    /*
+     *  (non-Javadoc)
+     * @see org.apache.ibatis.abator.api.ProgressCallback#finished()
+     */
+    public synchronized void finished() {
+        delegate.finished();
+    }
+
+    /*
+     *  (non-Javadoc)
+     * @see org.apache.ibatis.abator.api.ProgressCallback#checkCancel()
+     */
+    public synchronized void checkCancel() throws InterruptedException {
+        delegate.checkCancel();
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.ibatis.abator.api.ProgressCallback#setNumberOfSubTasks(int)
+     */
+    public synchronized void setNumberOfSubTasks(int totalSubTasks) {
+        delegate.setNumberOfSubTasks(totalSubTasks);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.ibatis.abator.api.ProgressCallback#startSubTask(java.lang.String)
+     */
+    public synchronized void startSubTask(String subTaskName) {
+        delegate.startSubTask(subTaskName);
+    }
+}
@@ -18,29 +18,41 @@ package org.apache.ibatis.abator.internal;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.ArrayList;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.ibatis.abator.api.GeneratedXmlFile;
+import org.apache.ibatis.abator.api.dom.OutputUtilities;
+import org.apache.ibatis.abator.api.dom.xml.Attribute;
+import org.apache.ibatis.abator.api.dom.xml.Document;
+import org.apache.ibatis.abator.api.dom.xml.Element;
+import org.apache.ibatis.abator.api.dom.xml.XmlElement;
 import org.apache.ibatis.abator.exception.ShellException;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
-import org.w3c.dom.Document;
-import org.w3c.dom.DocumentType;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * This class handles the task of merging changes into an existing XML file.
- * 
+ *
+ * The existing file is read with a SAX parser and written out as it is read.
+ * Abator generated elements (direct children of the root element with an id
+ * that starts with "abatorgenerated_" or "charrgenerated_") are dropped, and
+ * the newly generated elements are written straight from the in memory
+ * Document at the start of the root element.  The existing file is never
+ * parsed into a DOM, but the merged source is built up in a String - the
+ * callers write it through the same output as the other generated files.
+ *
  * @author Jeff Butler
  */
 public class XmlFileMergerJaxp {
@@ -60,120 +72,417 @@ public class XmlFileMergerJaxp {
     }
 
     /**
-     * Utility class - no instances allowed
+     * Copies the existing file to the Writer, replacing the Abator
+     * generated elements.  The user written parts are formatted the same way
+     * the DomWriter formats them.
      */
-    private XmlFileMergerJaxp() {
-        super();
-    }
+    private static class MergeHandler extends DefaultHandler implements
+            LexicalHandler {
+        private Document newDocument;
 
-    public static String getMergedSource(GeneratedXmlFile generatedXmlFile,
-            File existingFile) throws ShellException {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory
-                    .newInstance();
-            factory.setExpandEntityReferences(false);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            builder.setEntityResolver(new NullEntityResolver());
+        private Writer out;
 
-            Document existingDocument = builder.parse(existingFile);
-            StringReader sr = new StringReader(generatedXmlFile
-                    .getFormattedContent());
-            Document newDocument = builder.parse(new InputSource(sr));
+        /** element depth in the existing file, 1 is the root element */
+        private int depth;
 
-            DocumentType newDocType = newDocument.getDoctype();
-            DocumentType existingDocType = existingDocument.getDoctype();
+        /** depth of the Abator element being skipped, 0 if none */
+        private int skipDepth;
 
-            if (!newDocType.getName().equals(existingDocType.getName())) {
-                throw new ShellException(Messages.getString("Warning.12", //$NON-NLS-1$
-                        existingFile.getName()));
+        /** true if the '>' of the last start tag has not been written yet */
+        private boolean startTagOpen;
+
+        private boolean docTypeSeen;
+
+        private boolean inDTD;
+
+        private boolean inCDATA;
+
+        private boolean docTypeMismatch;
+
+        /** white space between children of the root element, not yet written */
+        private StringBuffer pendingWhiteSpace;
+
+        public MergeHandler(Document newDocument, Writer out) {
+            super();
+            this.newDocument = newDocument;
+            this.out = out;
+            pendingWhiteSpace = new StringBuffer();
+        }
+
+        public boolean isDocTypeMismatch() {
+            return docTypeMismatch;
+        }
+
+        public void startDTD(String name, String publicId, String systemId)
+                throws SAXException {
+            if (!name.equals(newDocument.getRootElement().getName())) {
+                docTypeMismatch = true;
+                throw new SAXException(name);
             }
 
-            Element existingRootElement = existingDocument.getDocumentElement();
-            Element newRootElement = newDocument.getDocumentElement();
+            print("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
+            newLine();
+            print("<!DOCTYPE "); //$NON-NLS-1$
+            print(name);
+            if (publicId != null) {
+                print(" PUBLIC \""); //$NON-NLS-1$
+                print(publicId);
+                print("\" \""); //$NON-NLS-1$
+                print(systemId);
+                print("\""); //$NON-NLS-1$
+            } else if (systemId != null) {
+                print(" SYSTEM \""); //$NON-NLS-1$
+                print(systemId);
+                print("\""); //$NON-NLS-1$
+            }
+            print(">"); //$NON-NLS-1$
+            newLine();
+            docTypeSeen = true;
+            inDTD = true;
+        }
 
-            // reconcile the namespace
-            String namespace = newRootElement.getAttribute("namespace"); //$NON-NLS-1$
-            existingRootElement.setAttribute("namespace", namespace); //$NON-NLS-1$
-
-            // remove the old Abator generated elements and any
-            // white space before the old abator nodes
-            List nodesToDelete = new ArrayList();
-            NodeList children = existingRootElement.getChildNodes();
-            int length = children.getLength();
-            for (int i = 0; i < length; i++) {
-                Node node = children.item(i);
-                if (isAnAbatorNode(node)) {
-                    nodesToDelete.add(node);
-                } else if (isWhiteSpace(node) && isAnAbatorNode(children.item(i + 1))) {
-                    nodesToDelete.add(node);
+        public void endDTD() throws SAXException {
+            inDTD = false;
+        }
+
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) throws SAXException {
+            depth++;
+            if (skipDepth > 0) {
+                return;
+            }
+
+            if (depth == 1) {
+                startRootElement(qName, attributes);
+                return;
+            }
+
+            if (depth == 2 && isAnAbatorElement(attributes)) {
+                // also drop the white space before the Abator element
+                pendingWhiteSpace.setLength(0);
+                skipDepth = depth;
+                return;
+            }
+
+            flush();
+            print("<"); //$NON-NLS-1$
+            print(qName);
+            printAttributes(attributes, null, null);
+            startTagOpen = true;
+        }
+
+        public void endElement(String uri, String localName, String qName)
+                throws SAXException {
+            if (skipDepth > 0) {
+                if (depth == skipDepth) {
+                    skipDepth = 0;
                 }
+                depth--;
+                return;
+            }
+
+            if (startTagOpen && depth > 1) {
+                startTagOpen = false;
+                print(" />"); //$NON-NLS-1$
+            } else {
+                flush();
+                print("</"); //$NON-NLS-1$
+                print(qName);
+                print(">"); //$NON-NLS-1$
+            }
+            depth--;
+        }
+
+        public void characters(char[] ch, int start, int length)
+                throws SAXException {
+            if (skipDepth > 0 || depth == 0) {
+                return;
+            }
+
+            if (inCDATA) {
+                flush();
+                print(new String(ch, start, length));
+                return;
+            }
+
+            if (depth == 1 && isWhiteSpace(ch, start, length)) {
+                // held back until we know what follows
+                pendingWhiteSpace.append(ch, start, length);
+                return;
+            }
+
+            flush();
+            printText(ch, start, length, false);
+        }
+
+        public void ignorableWhitespace(char[] ch, int start, int length)
+                throws SAXException {
+            characters(ch, start, length);
+        }
+
+        public void processingInstruction(String target, String data)
+                throws SAXException {
+            if (skipDepth > 0 || depth == 0) {
+                return;
+            }
+
+            flush();
+            print("<?"); //$NON-NLS-1$
+            print(target);
+            if (data != null && data.length() > 0) {
+                print(" "); //$NON-NLS-1$
+                print(data);
+            }
+            print("?>"); //$NON-NLS-1$
+        }
+
+        public void comment(char[] ch, int start, int length)
+                throws SAXException {
+            if (inDTD || skipDepth > 0 || depth == 0) {
+                return;
+            }
+
+            flush();
+            print("<!--"); //$NON-NLS-1$
+            print(new String(ch, start, length));
+            print("-->"); //$NON-NLS-1$
+        }
+
+        public void startCDATA() throws SAXException {
+            if (skipDepth > 0 || depth == 0) {
+                return;
+            }
+
+            flush();
+            print("<![CDATA["); //$NON-NLS-1$
+            inCDATA = true;
+        }
+
+        public void endCDATA() throws SAXException {
+            if (!inCDATA) {
+                return;
             }
 
-            Iterator iter = nodesToDelete.iterator();
+            print("]]>"); //$NON-NLS-1$
+            inCDATA = false;
+        }
+
+        public void startEntity(String name) throws SAXException {
+            // nothing to do - entities are expanded
+        }
+
+        public void endEntity(String name) throws SAXException {
+            // nothing to do - entities are expanded
+        }
+
+        private void startRootElement(String qName, Attributes attributes)
+                throws SAXException {
+            if (!docTypeSeen) {
+                docTypeMismatch = true;
+                throw new SAXException(qName);
+            }
+
+            XmlElement newRootElement = newDocument.getRootElement();
+
+            // reconcile the namespace
+            String namespace = ""; //$NON-NLS-1$
+            Iterator iter = newRootElement.getAttributes().iterator();
             while (iter.hasNext()) {
-                existingRootElement.removeChild((Node) iter.next());
+                Attribute attribute = (Attribute) iter.next();
+                if ("namespace".equals(attribute.getName())) { //$NON-NLS-1$
+                    namespace = attribute.getValue();
+                }
+            }
+
+            print("<"); //$NON-NLS-1$
+            print(qName);
+            printAttributes(attributes, "namespace", namespace); //$NON-NLS-1$
+            print(">"); //$NON-NLS-1$
+
+            // the new Abator generated elements come first
+            try {
+                iter = newRootElement.getElements().iterator();
+                while (iter.hasNext()) {
+                    Element element = (Element) iter.next();
+                    OutputUtilities.newLine(out);
+                    element.writeFormattedContent(out, 1);
+                }
+            } catch (IOException e) {
+                throw new SAXException(e);
             }
+        }
 
-            // add the new Abator generated elements
-            children = newRootElement.getChildNodes();
-            length = children.getLength();
-            Node firstChild = existingRootElement.getFirstChild();
+        /**
+         * Writes the attributes sorted by name. If replaceName is not null,
+         * that attribute is written with replaceValue (and added if it is
+         * missing).
+         */
+        private void printAttributes(Attributes attributes, String replaceName,
+                String replaceValue) throws SAXException {
+            int length = attributes.getLength();
+            String[] names = new String[replaceName == null ? length
+                    : length + 1];
+            boolean replaced = false;
             for (int i = 0; i < length; i++) {
-                Node node = children.item(i);
-                // don't add the last node if it is only white space
-                if (i == length - 1) {
-                    if (isWhiteSpace(node)) {
-                        break;
-                    }
+                names[i] = attributes.getQName(i);
+                if (names[i].equals(replaceName)) {
+                    replaced = true;
                 }
+            }
 
-                Node newNode = existingDocument.importNode(node, true);
-                if (firstChild == null) {
-                    existingRootElement.appendChild(newNode);
+            if (replaceName != null) {
+                if (replaced) {
+                    String[] tmp = new String[length];
+                    System.arraycopy(names, 0, tmp, 0, length);
+                    names = tmp;
                 } else {
-                    existingRootElement.insertBefore(newNode, firstChild);
+                    names[length] = replaceName;
                 }
             }
 
-            // pretty print the result
-            return prettyPrint(existingDocument);
-        } catch (Exception e) {
-            throw new ShellException(Messages.getString("Warning.13", //$NON-NLS-1$
-                    existingFile.getName()), e);
+            Arrays.sort(names);
+
+            for (int i = 0; i < names.length; i++) {
+                String value;
+                if (names[i].equals(replaceName)) {
+                    value = replaceValue;
+                } else {
+                    value = attributes.getValue(names[i]);
+                }
+
+                print(" "); //$NON-NLS-1$
+                print(names[i]);
+                print("=\""); //$NON-NLS-1$
+                printText(value.toCharArray(), 0, value.length(), true);
+                print("\""); //$NON-NLS-1$
+            }
+        }
+
+        /**
+         * Writes held back white space and closes an open start tag.
+         */
+        private void flush() throws SAXException {
+            if (startTagOpen) {
+                startTagOpen = false;
+                print(">"); //$NON-NLS-1$
+            }
+
+            if (pendingWhiteSpace.length() > 0) {
+                print(pendingWhiteSpace.toString());
+                pendingWhiteSpace.setLength(0);
+            }
+        }
+
+        /**
+         * Escapes text the same way the DomWriter does.
+         */
+        private void printText(char[] ch, int start, int length,
+                boolean isAttValue) throws SAXException {
+            StringBuffer sb = new StringBuffer(length);
+            for (int i = start; i < start + length; i++) {
+                char c = ch[i];
+                switch (c) {
+                case '<':
+                    sb.append("&lt;"); //$NON-NLS-1$
+                    break;
+                case '>':
+                    sb.append("&gt;"); //$NON-NLS-1$
+                    break;
+                case '&':
+                    sb.append("&amp;"); //$NON-NLS-1$
+                    break;
+                case '"':
+                    if (isAttValue) {
+                        sb.append("&quot;"); //$NON-NLS-1$
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+                case '\r':
+                    sb.append("&#xD;"); //$NON-NLS-1$
+                    break;
+                default:
+                    if (isAttValue && (c == 0x09 || c == 0x0A)) {
+                        sb.append("&#x"); //$NON-NLS-1$
+                        sb.append(Integer.toHexString(c).toUpperCase());
+                        sb.append(';');
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+
+            print(sb.toString());
+        }
+
+        private void print(String s) throws SAXException {
+            try {
+                out.write(s);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
         }
-    }
 
-    private static String prettyPrint(Document document) throws ShellException {
-         DomWriter dw = new DomWriter();
-         String s = dw.toString(document);
-         return s;
+        private void newLine() throws SAXException {
+            try {
+                OutputUtilities.newLine(out);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
     }
 
-    /** EXTEND: Զɵжϱʶ(charrgenerated_)Ա⸲Ǻϲʱԭеcharrgenerated (charr 2008-08-23) */
-    private static boolean isAnAbatorNode(Node node) {
-        boolean rc = false;
+    /**
+     * Utility class - no instances allowed
+     */
+    private XmlFileMergerJaxp() {
+        super();
+    }
 
-        if (node != null && node.getNodeType() == Node.ELEMENT_NODE) {
-            Element element = (Element) node;
-            String id = element.getAttribute("id"); //$NON-NLS-1$
-            if (id != null && (id.startsWith("abatorgenerated_") || id.startsWith("charrgenerated_"))) { //$NON-NLS-1$
-                rc = true;
+    public static String getMergedSource(GeneratedXmlFile generatedXmlFile,
+            File existingFile) throws ShellException {
+        StringWriter sw = new StringWriter((int) existingFile.length());
+        MergeHandler handler = new MergeHandler(generatedXmlFile.getDocument(),
+                sw);
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setValidating(false);
+            factory.setNamespaceAware(false);
+            SAXParser parser = factory.newSAXParser();
+            XMLReader reader = parser.getXMLReader();
+            reader.setEntityResolver(new NullEntityResolver());
+            reader.setContentHandler(handler);
+            reader.setErrorHandler(handler);
+            reader.setProperty(
+                    "http://xml.org/sax/properties/lexical-handler", handler); //$NON-NLS-1$
+            reader.parse(new InputSource(existingFile.toURI().toString()));
+        } catch (Exception e) {
+            if (handler.isDocTypeMismatch()) {
+                throw new ShellException(Messages.getString("Warning.12", //$NON-NLS-1$
+                        existingFile.getName()));
             }
+
+            throw new ShellException(Messages.getString("Warning.13", //$NON-NLS-1$
+                    existingFile.getName()), e);
         }
 
-        return rc;
+        return sw.toString();
     }
 
-    private static boolean isWhiteSpace(Node node) {
-        boolean rc = false;
+    private static boolean isAnAbatorElement(Attributes attributes) {
+        /** EXTEND: Զɵжϱʶ(charrgenerated_)Ա⸲Ǻϲʱԭеcharrgenerated (charr 2008-08-23) */
+        String id = attributes.getValue("id"); //$NON-NLS-1$
+        return id != null
+            && (id.startsWith("abatorgenerated_") || id.startsWith("charrgenerated_")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
 
-        if (node != null && node.getNodeType() == Node.TEXT_NODE) {
-            Text tn = (Text) node;
-            if (tn.getData().trim().length() == 0) {
-                rc = true;
+    private static boolean isWhiteSpace(char[] ch, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (!Character.isWhitespace(ch[i])) {
+                return false;
             }
         }
 
-        return rc;
+        return true;
     }
 }
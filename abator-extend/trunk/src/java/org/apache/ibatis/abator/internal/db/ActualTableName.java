@@ -16,6 +16,8 @@
 
 package org.apache.ibatis.abator.internal.db;
 
+import java.io.Serializable;
+
 import org.apache.ibatis.abator.internal.util.StringUtility;
 
 /**
@@ -25,7 +27,9 @@ import org.apache.ibatis.abator.internal.util.StringUtility;
  * @author Jeff Butler
  *
  */
-public class ActualTableName {
+public class ActualTableName implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String tableName;
     private String catalog;
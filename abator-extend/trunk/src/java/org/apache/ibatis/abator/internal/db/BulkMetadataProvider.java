@@ -0,0 +1,563 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.abator.internal.types.JdbcTypeNames;
+
+/**
+ * This class is the base for MetadataProviders that read the metadata of
+ * a whole schema from the database's native catalog tables.  The first
+ * request for a schema runs one query each for columns, primary keys,
+ * indexes and foreign keys; all later requests for tables in that schema
+ * are answered from memory.  This replaces the several round trips per
+ * table that the JDBC DatabaseMetaData calls make.
+ *
+ * Bulk loading needs a schema.  If the table configuration does not
+ * specify one, or if a table is not found in the loaded schema, the
+ * request is passed to a DatabaseMetaDataProvider.
+ *
+ * Subclasses supply the queries.  Every query takes the schema name as
+ * its only parameter and must return these columns (by label):
+ * <ul>
+ *   <li>all queries: TABLE_CAT (may be null), TABLE_SCHEM, TABLE_NAME</li>
+ *   <li>columns: COLUMN_NAME, TYPE_NAME, COLUMN_SIZE, DECIMAL_DIGITS,
+ *     IS_NULLABLE ("YES"/"Y" for nullable columns), ordered by table and
+ *     column position</li>
+ *   <li>primary keys: COLUMN_NAME, ordered by table and key position</li>
+ *   <li>indexes: INDEX_NAME, NON_UNIQUE (0 or 1), COLUMN_NAME, ordered by
+ *     table, index and column position</li>
+ *   <li>foreign keys: FK_NAME, COLUMN_NAME, ordered by table, key and
+ *     column position</li>
+ * </ul>
+ *
+ * @author Jeff Butler
+ */
+public abstract class BulkMetadataProvider implements MetadataProvider,
+        TableFingerprinter {
+
+    private MetadataProvider fallback;
+
+    /**
+     * Map&lt;String, SchemaMetadata&gt; keyed by catalog and schema
+     */
+    private Map schemas;
+
+    /**
+     * Map&lt;String, Map&lt;ActualTableName, String&gt;&gt; keyed by catalog
+     * and schema
+     */
+    private Map fingerprints;
+
+    public BulkMetadataProvider() {
+        super();
+        fallback = new DatabaseMetaDataProvider();
+        schemas = new HashMap();
+        fingerprints = new HashMap();
+    }
+
+    /**
+     * @return the query for the columns of all tables in a schema
+     */
+    protected abstract String getColumnsQuery();
+
+    /**
+     * @return the query for the primary key columns of all tables in a schema
+     */
+    protected abstract String getPrimaryKeysQuery();
+
+    /**
+     * @return the query for the indexes of all tables in a schema, or null
+     *   if the database has no catalog view for indexes.  In that case
+     *   indexes are read table by table through DatabaseMetaData.
+     */
+    protected abstract String getIndicesQuery();
+
+    /**
+     * @return the query for the foreign keys of all tables in a schema
+     */
+    protected abstract String getForeignKeysQuery();
+
+    /**
+     * Returns a query for a fingerprint of every table in a schema - a
+     * value that changes whenever a table, or one of its keys or indexes,
+     * is altered (see TableFingerprinter).  The query takes the schema as
+     * its only parameter and returns TABLE_CAT, TABLE_SCHEM, TABLE_NAME
+     * and FINGERPRINT.
+     *
+     * @return the query, or null if the database has no cheap way to
+     *   detect changes.  This implementation returns null.
+     */
+    protected String getFingerprintQuery() {
+        return null;
+    }
+
+    /**
+     * Calculates the JDBC type of a column.  The catalog tables only
+     * contain the native type name - the default implementation translates
+     * it with JdbcTypeNames.  Override to handle special cases of a
+     * database.
+     *
+     * @param typeName the native type name
+     * @param length
+     * @param scale
+     * @return the <code>java.sql.Types</code> value for the column
+     */
+    protected int getJdbcType(String typeName, int length, int scale) {
+        return JdbcTypeNames.getJdbcType(typeName);
+    }
+
+    public Map getColumns(DatabaseMetaData databaseMetaData, String catalog,
+            String schema, String tableNamePattern) throws SQLException {
+        if (schema == null) {
+            return fallback.getColumns(databaseMetaData, catalog, schema,
+                    tableNamePattern);
+        }
+
+        SchemaMetadata sm = getSchemaMetadata(databaseMetaData, catalog, schema);
+
+        Pattern pattern = likeToPattern(tableNamePattern,
+                databaseMetaData.getSearchStringEscape(), 0);
+
+        Map answer = new HashMap();
+        Iterator iter = sm.columns.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            ActualTableName atn = (ActualTableName) entry.getKey();
+            if (pattern.matcher(atn.getTableName()).matches()) {
+                answer.put(atn, entry.getValue());
+            }
+        }
+
+        if (answer.isEmpty()) {
+            // the table may be a view or synonym not in the catalog tables
+            answer = fallback.getColumns(databaseMetaData, catalog, schema,
+                    tableNamePattern);
+        }
+
+        return answer;
+    }
+
+    public List getPrimaryKeyColumns(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        SchemaMetadata sm = getLoadedSchemaMetadata(table);
+        if (sm == null || !sm.columns.containsKey(table)) {
+            return fallback.getPrimaryKeyColumns(databaseMetaData, table);
+        }
+
+        return getList(sm.primaryKeys, table);
+    }
+
+    public List getIndices(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        SchemaMetadata sm = getLoadedSchemaMetadata(table);
+        if (sm == null || sm.indices == null || !sm.columns.containsKey(table)) {
+            return fallback.getIndices(databaseMetaData, table);
+        }
+
+        return getList(sm.indices, table);
+    }
+
+    public List getForeignKeys(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        SchemaMetadata sm = getLoadedSchemaMetadata(table);
+        if (sm == null || !sm.columns.containsKey(table)) {
+            return fallback.getForeignKeys(databaseMetaData, table);
+        }
+
+        return getList(sm.foreignKeys, table);
+    }
+
+    public String getFingerprint(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        String query = getFingerprintQuery();
+        if (query == null || table.getSchema() == null) {
+            return null;
+        }
+
+        Map schemaFingerprints;
+        synchronized (this) {
+            String key = getSchemaKey(table.getCatalog(), table.getSchema());
+            schemaFingerprints = (Map) fingerprints.get(key);
+            if (schemaFingerprints == null) {
+                schemaFingerprints = new HashMap();
+
+                PreparedStatement ps = databaseMetaData.getConnection()
+                        .prepareStatement(query);
+                try {
+                    ps.setString(1, table.getSchema());
+                    ResultSet rs = ps.executeQuery();
+                    try {
+                        while (rs.next()) {
+                            ActualTableName atn = getActualTableName(
+                                    databaseMetaData, rs, table.getCatalog());
+                            if (atn != null) {
+                                schemaFingerprints.put(atn,
+                                        rs.getString("FINGERPRINT")); //$NON-NLS-1$
+                            }
+                        }
+                    } finally {
+                        closeResultSet(rs);
+                    }
+                } finally {
+                    closeStatement(ps);
+                }
+
+                fingerprints.put(key, schemaFingerprints);
+            }
+        }
+
+        return (String) schemaFingerprints.get(table);
+    }
+
+    /**
+     * Forgets the schemas and fingerprints read so far, so that the next
+     * calls read the database again.  Each schema is otherwise read only
+     * once for the lifetime of the provider.
+     */
+    public synchronized void refresh() {
+        schemas.clear();
+        fingerprints.clear();
+    }
+
+    private List getList(Map map, ActualTableName table) {
+        List answer = (List) map.get(table);
+        return answer == null ? new ArrayList() : answer;
+    }
+
+    private synchronized SchemaMetadata getLoadedSchemaMetadata(ActualTableName table) {
+        if (table.getSchema() == null) {
+            return null;
+        }
+
+        // the table's catalog may be filled in even if the configuration
+        // did not specify one, so also look for a schema loaded without catalog
+        SchemaMetadata answer = (SchemaMetadata) schemas.get(
+                getSchemaKey(table.getCatalog(), table.getSchema()));
+        if (answer == null) {
+            answer = (SchemaMetadata) schemas.get(
+                    getSchemaKey(null, table.getSchema()));
+        }
+
+        return answer;
+    }
+
+    private synchronized SchemaMetadata getSchemaMetadata(
+            DatabaseMetaData databaseMetaData, String catalog, String schema)
+            throws SQLException {
+        String key = getSchemaKey(catalog, schema);
+        SchemaMetadata answer = (SchemaMetadata) schemas.get(key);
+        if (answer == null) {
+            answer = loadSchema(databaseMetaData, catalog, schema);
+            schemas.put(key, answer);
+        }
+
+        return answer;
+    }
+
+    private String getSchemaKey(String catalog, String schema) {
+        StringBuffer sb = new StringBuffer();
+        if (catalog != null) {
+            sb.append(catalog);
+        }
+        sb.append('.');
+        sb.append(schema);
+        return sb.toString();
+    }
+
+    private SchemaMetadata loadSchema(DatabaseMetaData databaseMetaData,
+            String catalog, String schema) throws SQLException {
+        SchemaMetadata answer = new SchemaMetadata();
+
+        PreparedStatement ps = databaseMetaData.getConnection().prepareStatement(
+                getColumnsQuery());
+        try {
+            ps.setString(1, schema);
+            ResultSet rs = ps.executeQuery();
+            try {
+                while (rs.next()) {
+                    ActualTableName atn = getActualTableName(databaseMetaData,
+                            rs, catalog);
+                    if (atn == null) {
+                        continue;
+                    }
+
+                    ColumnMetadata column = getColumnMetadata(rs);
+                    List columns = (List) answer.columns.get(atn);
+                    if (columns == null) {
+                        columns = new ArrayList();
+                        answer.columns.put(atn, columns);
+                    }
+                    columns.add(column);
+                }
+            } finally {
+                closeResultSet(rs);
+            }
+        } finally {
+            closeStatement(ps);
+        }
+
+        ps = databaseMetaData.getConnection().prepareStatement(
+                getPrimaryKeysQuery());
+        try {
+            ps.setString(1, schema);
+            ResultSet rs = ps.executeQuery();
+            try {
+                while (rs.next()) {
+                    ActualTableName atn = getActualTableName(databaseMetaData,
+                            rs, catalog);
+                    if (atn == null) {
+                        continue;
+                    }
+
+                    List pk = (List) answer.primaryKeys.get(atn);
+                    if (pk == null) {
+                        pk = new ArrayList();
+                        answer.primaryKeys.put(atn, pk);
+                    }
+                    pk.add(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+                }
+            } finally {
+                closeResultSet(rs);
+            }
+        } finally {
+            closeStatement(ps);
+        }
+
+        String indicesQuery = getIndicesQuery();
+        if (indicesQuery != null) {
+            answer.indices = new HashMap();
+            ps = databaseMetaData.getConnection().prepareStatement(indicesQuery);
+            try {
+                ps.setString(1, schema);
+                ResultSet rs = ps.executeQuery();
+                try {
+                    IndexMetadata index = null;
+                    ActualTableName lastTable = null;
+                    while (rs.next()) {
+                        ActualTableName atn = getActualTableName(databaseMetaData,
+                                rs, catalog);
+                        if (atn == null) {
+                            continue;
+                        }
+
+                        String indexName = rs.getString("INDEX_NAME"); //$NON-NLS-1$
+                        if (index == null || !atn.equals(lastTable)
+                                || !indexName.equals(index.getIndexName())) {
+                            index = new IndexMetadata(indexName,
+                                    rs.getInt("NON_UNIQUE") == 0); //$NON-NLS-1$
+                            List indices = (List) answer.indices.get(atn);
+                            if (indices == null) {
+                                indices = new ArrayList();
+                                answer.indices.put(atn, indices);
+                            }
+                            indices.add(index);
+                            lastTable = atn;
+                        }
+
+                        index.addColumnName(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+                    }
+                } finally {
+                    closeResultSet(rs);
+                }
+            } finally {
+                closeStatement(ps);
+            }
+        }
+
+        ps = databaseMetaData.getConnection().prepareStatement(
+                getForeignKeysQuery());
+        try {
+            ps.setString(1, schema);
+            ResultSet rs = ps.executeQuery();
+            try {
+                List fk = null;
+                String lastFkName = null;
+                ActualTableName lastTable = null;
+                while (rs.next()) {
+                    ActualTableName atn = getActualTableName(databaseMetaData,
+                            rs, catalog);
+                    if (atn == null) {
+                        continue;
+                    }
+
+                    String fkName = rs.getString("FK_NAME"); //$NON-NLS-1$
+                    if (fk == null || !atn.equals(lastTable)
+                            || !fkName.equals(lastFkName)) {
+                        fk = new ArrayList();
+                        List fks = (List) answer.foreignKeys.get(atn);
+                        if (fks == null) {
+                            fks = new ArrayList();
+                            answer.foreignKeys.put(atn, fks);
+                        }
+                        fks.add(fk);
+                        lastFkName = fkName;
+                        lastTable = atn;
+                    }
+
+                    fk.add(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+                }
+            } finally {
+                closeResultSet(rs);
+            }
+        } finally {
+            closeStatement(ps);
+        }
+
+        return answer;
+    }
+
+    /**
+     * Reads a column from the current row of the columns query.  This
+     * implementation reads TYPE_NAME, COLUMN_SIZE, DECIMAL_DIGITS and
+     * IS_NULLABLE.  Override if the catalog tables of a database cannot
+     * return these columns.
+     *
+     * @param rs the columns query, positioned on a row
+     * @return the column
+     * @throws SQLException
+     */
+    protected ColumnMetadata getColumnMetadata(ResultSet rs) throws SQLException {
+        String typeName = rs.getString("TYPE_NAME"); //$NON-NLS-1$
+        int length = rs.getInt("COLUMN_SIZE"); //$NON-NLS-1$
+        int scale = rs.getInt("DECIMAL_DIGITS"); //$NON-NLS-1$
+        String nullable = rs.getString("IS_NULLABLE"); //$NON-NLS-1$
+
+        return new ColumnMetadata(rs.getString("COLUMN_NAME"), //$NON-NLS-1$
+                getJdbcType(typeName, length, scale),
+                typeName, length, scale,
+                nullable != null && nullable.toUpperCase().startsWith("Y")); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the catalog of the table in the current row the way the
+     * driver's DatabaseMetaData reports it, because the tables that are
+     * not bulk loaded pass it back to DatabaseMetaData.  This
+     * implementation returns TABLE_CAT.
+     *
+     * @param databaseMetaData
+     * @param rs a query, positioned on a row
+     * @return the catalog, or null
+     * @throws SQLException
+     */
+    protected String getTableCatalog(DatabaseMetaData databaseMetaData,
+            ResultSet rs) throws SQLException {
+        return rs.getString("TABLE_CAT"); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the table name of the current row, or null if the row
+     * belongs to a different catalog than the one requested.
+     */
+    private ActualTableName getActualTableName(DatabaseMetaData databaseMetaData,
+            ResultSet rs, String catalog) throws SQLException {
+        String tableCatalog = getTableCatalog(databaseMetaData, rs);
+        if (catalog != null && tableCatalog != null
+                && !catalog.equals(tableCatalog)) {
+            return null;
+        }
+
+        return new ActualTableName(tableCatalog,
+                rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
+                rs.getString("TABLE_NAME")); //$NON-NLS-1$
+    }
+
+    /**
+     * Translates a DatabaseMetaData search pattern ("_" and "%" wildcards)
+     * into a regular expression.
+     */
+    static Pattern likeToPattern(String like, String escape, int flags) {
+        StringBuffer sb = new StringBuffer();
+        int i = 0;
+        while (i < like.length()) {
+            if (escape != null && escape.length() > 0
+                    && like.startsWith(escape, i)
+                    && i + escape.length() < like.length()) {
+                i += escape.length();
+                sb.append(Pattern.quote(like.substring(i, i + 1)));
+            } else {
+                char c = like.charAt(i);
+                if (c == '%') {
+                    sb.append(".*"); //$NON-NLS-1$
+                } else if (c == '_') {
+                    sb.append('.');
+                } else {
+                    sb.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            i++;
+        }
+
+        return Pattern.compile(sb.toString(), flags);
+    }
+
+    private void closeResultSet(ResultSet rs) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // ignore
+                ;
+            }
+        }
+    }
+
+    private void closeStatement(PreparedStatement ps) {
+        if (ps != null) {
+            try {
+                ps.close();
+            } catch (SQLException e) {
+                // ignore
+                ;
+            }
+        }
+    }
+
+    private static class SchemaMetadata {
+        /**
+         * Map&lt;ActualTableName, List&lt;ColumnMetadata&gt;&gt; in the order
+         * the database returned the tables
+         */
+        private Map columns = new LinkedHashMap();
+
+        /**
+         * Map&lt;ActualTableName, List&lt;String&gt;&gt;
+         */
+        private Map primaryKeys = new HashMap();
+
+        /**
+         * Map&lt;ActualTableName, List&lt;IndexMetadata&gt;&gt; - null if the
+         * provider has no index query
+         */
+        private Map indices;
+
+        /**
+         * Map&lt;ActualTableName, List&lt;List&lt;String&gt;&gt;&gt;
+         */
+        private Map foreignKeys = new HashMap();
+    }
+}
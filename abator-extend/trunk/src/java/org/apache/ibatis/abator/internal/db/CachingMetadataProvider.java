@@ -0,0 +1,672 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.ibatis.abator.internal.util.StringUtility;
+import org.apache.ibatis.abator.internal.util.messages.Messages;
+
+/**
+ * This MetadataProvider keeps a snapshot of the raw table metadata
+ * (columns, primary key, indexes and foreign keys) in a local file, and
+ * answers from the snapshot as long as the table has not changed.  Only
+ * changed or new tables are read from the database.
+ *
+ * Whether a table has changed is decided by a cheap fingerprint:
+ * <ul>
+ *   <li>if the wrapped provider implements TableFingerprinter (the Oracle
+ *     and DB2 providers use the last DDL time), that fingerprint is used</li>
+ *   <li>otherwise the fingerprint is a digest of the result set metadata of
+ *     <code>select * from table where 1=0</code> (the columns), and of the
+ *     primary key, indexes and foreign keys from DatabaseMetaData</li>
+ * </ul>
+ *
+ * Only exact table names are cached.  Table configurations with a %
+ * wildcard are always read from the database.  An unescaped _ is taken as
+ * part of the name (as in ORDER_HEADER), and tables are only cached if
+ * their names match the configured name exactly.
+ *
+ * The snapshot holds the database metadata only.  Java types, column
+ * overrides and renaming rules are calculated on every run, so changes to
+ * the configuration never need a cache refresh.
+ *
+ * Specify the snapshot file with the <code>metadataCache</code> context
+ * property.  The AbatorDaemon keeps a provider in memory between runs; it may
+ * be created without a snapshot file.
+ *
+ * @author Jeff Butler
+ */
+public class CachingMetadataProvider implements MetadataProvider {
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private MetadataProvider delegate;
+
+    private File snapshotFile;
+
+    /**
+     * Map&lt;String, List&lt;ActualTableName&gt;&gt; - the tables each
+     * getColumns request resolved to
+     */
+    private Map lookups;
+
+    /**
+     * Map&lt;ActualTableName, TableSnapshot&gt;
+     */
+    private Map tables;
+
+    /**
+     * Set&lt;ActualTableName&gt; - tables whose snapshot was validated or
+     * read from the database in this run
+     */
+    private Set currentTables;
+
+    private boolean dirty;
+
+    /**
+     * @param delegate the provider that reads from the database
+     * @param snapshotFile the snapshot file, or null to keep the snapshot in
+     *   memory only
+     */
+    public CachingMetadataProvider(MetadataProvider delegate, File snapshotFile) {
+        super();
+        this.delegate = delegate;
+        this.snapshotFile = snapshotFile;
+        lookups = new HashMap();
+        tables = new HashMap();
+        currentTables = new HashSet();
+        if (snapshotFile != null) {
+            load();
+        }
+    }
+
+    /**
+     * Tells whether the tables matching the arguments have changed since
+     * they were last read through this provider.  Nothing is read or cached
+     * by this method.  The arguments are the same as for getColumns().
+     *
+     * @return true if any matching table is unknown to the snapshot or has a
+     *   different fingerprint, or if the table name contains wildcards
+     * @throws SQLException
+     */
+    public boolean isChanged(DatabaseMetaData databaseMetaData, String catalog,
+            String schema, String tableNamePattern) throws SQLException {
+        String exactName = getExactName(tableNamePattern,
+                databaseMetaData.getSearchStringEscape());
+        if (exactName == null) {
+            return true;
+        }
+
+        String key = getLookupKey(databaseMetaData, catalog, schema, tableNamePattern);
+
+        Map snapshots = new HashMap();
+        synchronized (this) {
+            List names = (List) lookups.get(key);
+            if (!matchesExactly(names, exactName)) {
+                return true;
+            }
+
+            Iterator iter = names.iterator();
+            while (iter.hasNext()) {
+                Object name = iter.next();
+                Object snapshot = tables.get(name);
+                if (snapshot == null) {
+                    return true;
+                }
+                snapshots.put(name, snapshot);
+            }
+        }
+
+        Iterator iter = snapshots.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            String fingerprint = getFingerprint(databaseMetaData,
+                    (ActualTableName) entry.getKey());
+            if (fingerprint == null
+                    || !fingerprint.equals(((TableSnapshot) entry.getValue()).fingerprint)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public Map getColumns(DatabaseMetaData databaseMetaData, String catalog,
+            String schema, String tableNamePattern) throws SQLException {
+        String exactName = getExactName(tableNamePattern,
+                databaseMetaData.getSearchStringEscape());
+        if (exactName == null) {
+            return delegate.getColumns(databaseMetaData, catalog, schema,
+                    tableNamePattern);
+        }
+
+        String key = getLookupKey(databaseMetaData, catalog, schema, tableNamePattern);
+
+        List names;
+        Map snapshots = new LinkedHashMap();
+        synchronized (this) {
+            names = (List) lookups.get(key);
+            if (!matchesExactly(names, exactName)) {
+                names = null;
+            } else {
+                Iterator iter = names.iterator();
+                while (iter.hasNext()) {
+                    Object name = iter.next();
+                    Object snapshot = tables.get(name);
+                    if (snapshot == null) {
+                        names = null;
+                        break;
+                    }
+                    snapshots.put(name, snapshot);
+                }
+            }
+        }
+
+        if (names != null) {
+            boolean valid = true;
+            Iterator iter = snapshots.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                String fingerprint = getFingerprint(databaseMetaData,
+                        (ActualTableName) entry.getKey());
+                if (fingerprint == null
+                        || !fingerprint.equals(((TableSnapshot) entry.getValue()).fingerprint)) {
+                    valid = false;
+                    break;
+                }
+            }
+
+            if (valid) {
+                Map answer = new HashMap();
+                synchronized (this) {
+                    iter = snapshots.entrySet().iterator();
+                    while (iter.hasNext()) {
+                        Map.Entry entry = (Map.Entry) iter.next();
+                        currentTables.add(entry.getKey());
+                        answer.put(entry.getKey(),
+                                new ArrayList(((TableSnapshot) entry.getValue()).columns));
+                    }
+                }
+
+                return answer;
+            }
+        }
+
+        Map answer = delegate.getColumns(databaseMetaData, catalog, schema,
+                tableNamePattern);
+
+        names = new ArrayList(answer.keySet());
+        if (!matchesExactly(names, exactName)) {
+            // an unescaped _ matched other tables too - don't cache them
+            return answer;
+        }
+
+        snapshots.clear();
+        Iterator iter = answer.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            ActualTableName atn = (ActualTableName) entry.getKey();
+            snapshots.put(atn, new TableSnapshot(getFingerprint(databaseMetaData, atn),
+                    new ArrayList((List) entry.getValue())));
+        }
+
+        synchronized (this) {
+            lookups.put(key, names);
+            tables.putAll(snapshots);
+            currentTables.addAll(names);
+            dirty = true;
+        }
+
+        return answer;
+    }
+
+    public List getPrimaryKeyColumns(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        TableSnapshot snapshot = getCurrentSnapshot(table);
+        if (snapshot == null) {
+            return delegate.getPrimaryKeyColumns(databaseMetaData, table);
+        }
+
+        synchronized (this) {
+            if (snapshot.primaryKeyColumns != null) {
+                return new ArrayList(snapshot.primaryKeyColumns);
+            }
+        }
+
+        List answer = delegate.getPrimaryKeyColumns(databaseMetaData, table);
+        synchronized (this) {
+            snapshot.primaryKeyColumns = new ArrayList(answer);
+            dirty = true;
+        }
+
+        return answer;
+    }
+
+    public List getIndices(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        TableSnapshot snapshot = getCurrentSnapshot(table);
+        if (snapshot == null) {
+            return delegate.getIndices(databaseMetaData, table);
+        }
+
+        synchronized (this) {
+            if (snapshot.indices != null) {
+                return new ArrayList(snapshot.indices);
+            }
+        }
+
+        List answer = delegate.getIndices(databaseMetaData, table);
+        synchronized (this) {
+            snapshot.indices = new ArrayList(answer);
+            dirty = true;
+        }
+
+        return answer;
+    }
+
+    public List getForeignKeys(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        TableSnapshot snapshot = getCurrentSnapshot(table);
+        if (snapshot == null) {
+            return delegate.getForeignKeys(databaseMetaData, table);
+        }
+
+        synchronized (this) {
+            if (snapshot.foreignKeys != null) {
+                return new ArrayList(snapshot.foreignKeys);
+            }
+        }
+
+        List answer = delegate.getForeignKeys(databaseMetaData, table);
+        synchronized (this) {
+            snapshot.foreignKeys = new ArrayList(answer);
+            dirty = true;
+        }
+
+        return answer;
+    }
+
+    /**
+     * Starts a new run in a long lived process such as the AbatorDaemon.
+     * The snapshot is kept, but every table must be validated against its
+     * fingerprint again, and a BulkMetadataProvider delegate forgets the
+     * schemas and fingerprints it has read so far.
+     */
+    public void refresh() {
+        synchronized (this) {
+            currentTables.clear();
+        }
+
+        if (delegate instanceof BulkMetadataProvider) {
+            ((BulkMetadataProvider) delegate).refresh();
+        }
+    }
+
+    /**
+     * Writes the snapshot file if anything was read from the database in
+     * this run.
+     *
+     * @param warnings problems writing the file are reported here
+     */
+    public synchronized void save(List warnings) {
+        if (!dirty || snapshotFile == null) {
+            return;
+        }
+
+        ObjectOutputStream oos = null;
+        try {
+            File parent = snapshotFile.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+
+            oos = new ObjectOutputStream(new GZIPOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(snapshotFile))));
+            oos.writeInt(SNAPSHOT_VERSION);
+            oos.writeObject(lookups);
+            oos.writeObject(tables);
+            dirty = false;
+        } catch (IOException e) {
+            warnings.add(Messages.getString("Warning.24", //$NON-NLS-1$
+                    snapshotFile.getAbsolutePath(), e.getMessage()));
+        } finally {
+            if (oos != null) {
+                try {
+                    oos.close();
+                } catch (IOException e) {
+                    // ignore
+                    ;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the snapshot file.  The file is only a cache - if it is missing,
+     * unreadable, or from a different version, all tables are simply read
+     * from the database.
+     */
+    private void load() {
+        if (!snapshotFile.isFile()) {
+            return;
+        }
+
+        ObjectInputStream ois = null;
+        try {
+            ois = new ObjectInputStream(new GZIPInputStream(
+                    new BufferedInputStream(new FileInputStream(snapshotFile))));
+            if (ois.readInt() == SNAPSHOT_VERSION) {
+                Map newLookups = (Map) ois.readObject();
+                Map newTables = (Map) ois.readObject();
+                lookups = newLookups;
+                tables = newTables;
+            }
+        } catch (Exception e) {
+            // ignore - the snapshot will be rebuilt
+            ;
+        } finally {
+            if (ois != null) {
+                try {
+                    ois.close();
+                } catch (IOException e) {
+                    // ignore
+                    ;
+                }
+            }
+        }
+    }
+
+    private synchronized TableSnapshot getCurrentSnapshot(ActualTableName table) {
+        if (currentTables.contains(table)) {
+            return (TableSnapshot) tables.get(table);
+        } else {
+            return null;
+        }
+    }
+
+    private String getLookupKey(DatabaseMetaData databaseMetaData, String catalog,
+            String schema, String tableNamePattern) throws SQLException {
+        // the same table names may exist in different databases, so the
+        // connection is part of the key
+        StringBuffer sb = new StringBuffer();
+        sb.append(databaseMetaData.getURL());
+        sb.append('|');
+        sb.append(databaseMetaData.getUserName());
+        sb.append('|');
+        sb.append(StringUtility.composeFullyQualifiedTableName(catalog, schema,
+                tableNamePattern, '.'));
+        return sb.toString();
+    }
+
+    private String getFingerprint(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        if (delegate instanceof TableFingerprinter) {
+            String answer = ((TableFingerprinter) delegate).getFingerprint(
+                    databaseMetaData, table);
+            if (answer != null) {
+                return answer;
+            }
+        }
+
+        String quote = databaseMetaData.getIdentifierQuoteString();
+        if (quote == null || quote.trim().length() == 0) {
+            quote = ""; //$NON-NLS-1$
+        } else {
+            quote = quote.trim();
+        }
+
+        StringBuffer sb = new StringBuffer();
+        sb.append("select * from "); //$NON-NLS-1$
+        if (StringUtility.stringHasValue(table.getCatalog())) {
+            sb.append(quote);
+            sb.append(table.getCatalog());
+            sb.append(quote);
+            sb.append('.');
+        }
+        if (StringUtility.stringHasValue(table.getSchema())) {
+            sb.append(quote);
+            sb.append(table.getSchema());
+            sb.append(quote);
+            sb.append('.');
+        }
+        sb.append(quote);
+        sb.append(table.getTableName());
+        sb.append(quote);
+        sb.append(" where 1=0"); //$NON-NLS-1$
+
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = databaseMetaData.getConnection().createStatement();
+            rs = stmt.executeQuery(sb.toString());
+            ResultSetMetaData rsmd = rs.getMetaData();
+
+            sb.setLength(0);
+            for (int i = 1; i <= rsmd.getColumnCount(); i++) {
+                sb.append(rsmd.getColumnName(i));
+                sb.append(':');
+                sb.append(rsmd.getColumnType(i));
+                sb.append(':');
+                sb.append(rsmd.getColumnTypeName(i));
+                sb.append(':');
+                sb.append(rsmd.getPrecision(i));
+                sb.append(':');
+                sb.append(rsmd.getScale(i));
+                sb.append(':');
+                sb.append(rsmd.isNullable(i));
+                sb.append(';');
+            }
+
+            appendKeys(sb, databaseMetaData, table);
+        } catch (SQLException e) {
+            // no fingerprint - the table will be read from the database
+            return null;
+        } finally {
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    // ignore
+                    ;
+                }
+            }
+            if (stmt != null) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    // ignore
+                    ;
+                }
+            }
+        }
+
+        return StringUtility.digest(sb.toString());
+    }
+
+    /**
+     * Appends the primary key, index and foreign key columns of the table
+     * to the fingerprint, so that new or dropped keys and indexes are
+     * noticed even though the columns are unchanged.
+     */
+    private static void appendKeys(StringBuffer sb,
+            DatabaseMetaData databaseMetaData, ActualTableName table)
+            throws SQLException {
+        ResultSet rs = databaseMetaData.getPrimaryKeys(table.getCatalog(),
+                table.getSchema(), table.getTableName());
+        try {
+            sb.append("PK;"); //$NON-NLS-1$
+            while (rs.next()) {
+                sb.append(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getShort("KEY_SEQ")); //$NON-NLS-1$
+                sb.append(';');
+            }
+        } finally {
+            rs.close();
+        }
+
+        // approximate - the statistics are not needed
+        rs = databaseMetaData.getIndexInfo(table.getCatalog(),
+                table.getSchema(), table.getTableName(), false, true);
+        try {
+            sb.append("IX;"); //$NON-NLS-1$
+            while (rs.next()) {
+                if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) { //$NON-NLS-1$
+                    continue;
+                }
+                sb.append(rs.getString("INDEX_NAME")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getBoolean("NON_UNIQUE")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getShort("ORDINAL_POSITION")); //$NON-NLS-1$
+                sb.append(';');
+            }
+        } finally {
+            rs.close();
+        }
+
+        rs = databaseMetaData.getImportedKeys(table.getCatalog(),
+                table.getSchema(), table.getTableName());
+        try {
+            sb.append("FK;"); //$NON-NLS-1$
+            while (rs.next()) {
+                sb.append(rs.getString("FK_NAME")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getString("FKCOLUMN_NAME")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getString("PKTABLE_NAME")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getString("PKCOLUMN_NAME")); //$NON-NLS-1$
+                sb.append(':');
+                sb.append(rs.getShort("KEY_SEQ")); //$NON-NLS-1$
+                sb.append(';');
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * Returns the table name a pattern stands for, with the escapes removed,
+     * or null if the pattern has an unescaped % wildcard.  An unescaped _ is
+     * kept as it is: it is almost always part of the name, and
+     * matchesExactly() rejects the results if it did match other tables.
+     */
+    private static String getExactName(String pattern, String escape) {
+        if (pattern == null) {
+            return null;
+        }
+
+        StringBuffer sb = new StringBuffer();
+        int i = 0;
+        while (i < pattern.length()) {
+            if (escape != null && escape.length() > 0
+                    && pattern.startsWith(escape, i)
+                    && i + escape.length() < pattern.length()) {
+                i += escape.length();
+                sb.append(pattern.charAt(i));
+            } else {
+                char c = pattern.charAt(i);
+                if (c == '%') {
+                    return null;
+                }
+                sb.append(c);
+            }
+            i++;
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Returns true if the tables are exactly the table with the specified
+     * name (in one or more catalogs or schemas).
+     *
+     * @param names a List of ActualTableName, may be null
+     */
+    private static boolean matchesExactly(List names, String exactName) {
+        if (names == null || names.isEmpty()) {
+            return false;
+        }
+
+        Iterator iter = names.iterator();
+        while (iter.hasNext()) {
+            ActualTableName atn = (ActualTableName) iter.next();
+            if (!exactName.equals(atn.getTableName())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static class TableSnapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String fingerprint;
+
+        /**
+         * List&lt;ColumnMetadata&gt;
+         */
+        private List columns;
+
+        /**
+         * List&lt;String&gt;, null until read
+         */
+        private List primaryKeyColumns;
+
+        /**
+         * List&lt;IndexMetadata&gt;, null until read
+         */
+        private List indices;
+
+        /**
+         * List&lt;List&lt;String&gt;&gt;, null until read
+         */
+        private List foreignKeys;
+
+        TableSnapshot(String fingerprint, List columns) {
+            this.fingerprint = fingerprint;
+            this.columns = columns;
+        }
+    }
+}
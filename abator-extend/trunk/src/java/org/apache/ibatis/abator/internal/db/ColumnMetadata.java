@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.io.Serializable;
+
+/**
+ * This class holds the raw description of a column as returned from a
+ * MetadataProvider.  It is independent of any table configuration - the
+ * DatabaseIntrospector turns it into a ColumnDefinition.
+ *
+ * @author Jeff Butler
+ */
+public class ColumnMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String columnName;
+
+    private int jdbcType;
+
+    private String typeName;
+
+    private int length;
+
+    private int scale;
+
+    private boolean nullable;
+
+    public ColumnMetadata(String columnName, int jdbcType, String typeName,
+            int length, int scale, boolean nullable) {
+        super();
+        this.columnName = columnName;
+        this.jdbcType = jdbcType;
+        this.typeName = typeName;
+        this.length = length;
+        this.scale = scale;
+        this.nullable = nullable;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public int getJdbcType() {
+        return jdbcType;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+}
@@ -18,9 +18,15 @@ package org.apache.ibatis.abator.internal.db;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import org.apache.ibatis.abator.config.JDBCConnectionConfiguration;
 import org.apache.ibatis.abator.internal.util.ClassloaderUtility;
@@ -32,13 +38,39 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * that any native libraries are only loaded one time (avoids the dreaded
  * UnsatisfiedLinkError library loaded in another classloader)
  * 
+ * The class also keeps a small pool of idle connections.  Connections
+ * returned with releaseConnection() are handed out again to the next caller
+ * with an identical JDBC configuration (same driver, URL, user, password,
+ * properties and class path), so that contexts and tables that use the same
+ * database share connections instead of opening a new one each time.
+ * Idle connections are closed with closeIdleConnections().
+ * 
+ * All methods are thread safe.
+ * 
  * @author Jeff Butler
  */
 public class ConnectionFactory {
 
     private static ConnectionFactory instance = new ConnectionFactory();
+    
+	/**
+	 * Key is the driver class and class path entries, value is the Driver.
+	 * Two configurations that load the same driver class from different
+	 * class paths (for example two modules of a build) get different drivers.
+	 */
 	private Map drivers;
 	
+	/**
+	 * Key is the pool key of a JDBC configuration, value is a LinkedList of
+	 * idle connections
+	 */
+	private Map idleConnections;
+	
+	/**
+	 * Key is a connection handed out by getConnection(), value is its pool key
+	 */
+	private Map connectionKeys;
+	
 	public static ConnectionFactory getInstance() {
 	    return instance;
 	}
@@ -49,10 +81,36 @@ public class ConnectionFactory {
 	private ConnectionFactory() {
 		super();
 		drivers = new HashMap();
+		idleConnections = new HashMap();
+		connectionKeys = new IdentityHashMap();
 	}
 
+	/**
+	 * Returns an idle connection for the configuration if there is one,
+	 * otherwise opens a new connection.  Callers should give the connection
+	 * back with releaseConnection() rather than closing it.
+	 * 
+	 * @param config
+	 * @return a connection
+	 * @throws SQLException
+	 */
 	public Connection getConnection(JDBCConnectionConfiguration config)
 			throws SQLException {
+	    String key = getPoolKey(config);
+	    
+	    Connection conn;
+	    while ((conn = takeIdleConnection(key)) != null) {
+	        if (isUsable(conn)) {
+	            synchronized (this) {
+	                connectionKeys.put(conn, key);
+	            }
+	            
+	            return conn;
+	        }
+	        
+	        closeConnection(conn);
+	    }
+	    
 		Driver driver = getDriver(config);
 
 		Properties props = new Properties();
@@ -67,19 +125,130 @@ public class ConnectionFactory {
 
 		props.putAll(config.getProperties());
 
-		Connection conn = driver.connect(config.getConnectionURL(), props);
+		conn = driver.connect(config.getConnectionURL(), props);
 
 		if (conn == null) {
 			throw new SQLException(Messages.getString("RuntimeError.7")); //$NON-NLS-1$
 		}
 
+		synchronized (this) {
+		    connectionKeys.put(conn, key);
+		}
+		
 		return conn;
 	}
 
-	private Driver getDriver(
+	/**
+	 * Gives back a connection obtained from getConnection().  The connection
+	 * is kept for reuse if fewer than maximumIdle connections with the same
+	 * configuration are idle, otherwise it is closed.
+	 * 
+	 * @param connection may be null
+	 * @param maximumIdle the number of idle connections to keep for the
+	 *   configuration of this connection.  Zero closes the connection.
+	 */
+	public void releaseConnection(Connection connection, int maximumIdle) {
+	    if (connection == null) {
+	        return;
+	    }
+	    
+	    if (maximumIdle > 0 && isUsable(connection)) {
+	        synchronized (this) {
+	            String key = (String) connectionKeys.remove(connection);
+	            if (key != null) {
+	                LinkedList idle = (LinkedList) idleConnections.get(key);
+	                if (idle == null) {
+	                    idle = new LinkedList();
+	                    idleConnections.put(key, idle);
+	                }
+	                
+	                if (idle.size() < maximumIdle) {
+	                    idle.addLast(connection);
+	                    return;
+	                }
+	            }
+	        }
+	    } else {
+	        synchronized (this) {
+	            connectionKeys.remove(connection);
+	        }
+	    }
+	    
+	    closeConnection(connection);
+	}
+
+	/**
+	 * Closes all idle connections.  Connections currently in use are not
+	 * affected; they are pooled again (or closed) when they are released.
+	 */
+	public void closeIdleConnections() {
+	    List connections = new ArrayList();
+	    synchronized (this) {
+	        Iterator iter = idleConnections.values().iterator();
+	        while (iter.hasNext()) {
+	            connections.addAll((LinkedList) iter.next());
+	        }
+	        idleConnections.clear();
+	    }
+	    
+	    Iterator iter = connections.iterator();
+	    while (iter.hasNext()) {
+	        closeConnection((Connection) iter.next());
+	    }
+	}
+
+	private synchronized Connection takeIdleConnection(String key) {
+	    LinkedList idle = (LinkedList) idleConnections.get(key);
+	    if (idle == null || idle.isEmpty()) {
+	        return null;
+	    }
+	    
+	    return (Connection) idle.removeFirst();
+	}
+
+	private boolean isUsable(Connection connection) {
+	    try {
+	        return !connection.isClosed();
+	    } catch (SQLException e) {
+	        return false;
+	    }
+	}
+
+	private void closeConnection(Connection connection) {
+	    try {
+	        connection.close();
+	    } catch (SQLException e) {
+	        // ignore
+	        ;
+	    }
+	}
+
+	/**
+	 * Calculates a key that is equal for JDBC configurations that would open
+	 * identical connections.
+	 */
+	private String getPoolKey(JDBCConnectionConfiguration config) {
+	    StringBuffer sb = new StringBuffer();
+	    sb.append(config.getDriverClass());
+	    sb.append('\n');
+	    sb.append(config.getConnectionURL());
+	    sb.append('\n');
+	    sb.append(config.getUserId());
+	    sb.append('\n');
+	    sb.append(config.getPassword());
+	    sb.append('\n');
+	    sb.append(new TreeMap(config.getProperties()));
+	    sb.append('\n');
+	    sb.append(config.getClassPathEntries());
+	    
+	    return sb.toString();
+	}
+
+	private synchronized Driver getDriver(
 			JDBCConnectionConfiguration connectionInformation) {
 		String driverClass = connectionInformation.getDriverClass();
-		Driver driver = (Driver) drivers.get(driverClass);
+		String key = driverClass + '\n' + connectionInformation.getClassPathEntries();
+		Driver driver = (Driver) drivers.get(key);
         
 		if (driver == null) {
             ClassLoader classLoader =
@@ -88,7 +257,7 @@ public class ConnectionFactory {
 			try {
 				Class clazz = classLoader.loadClass(driverClass);
 				driver = (Driver) clazz.newInstance();
-				drivers.put(driverClass, driver);
+				drivers.put(key, driver);
 			} catch (Exception e) {
 				throw new RuntimeException(
 				        Messages.getString("RuntimeError.8"), e); //$NON-NLS-1$
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.abator.config.DDLScriptsConfiguration;
+import org.apache.ibatis.abator.internal.util.messages.Messages;
+
+/**
+ * This MetadataProvider reads table definitions from DDL scripts instead
+ * of a database, so Abator can run without a database connection.  The
+ * scripts are read once, on first use.
+ *
+ * Table names are matched without regard to case.  If the table
+ * configuration specifies a catalog or schema, the table in the script
+ * must either have the same qualifier or none at all.
+ *
+ * The DatabaseMetaData arguments are ignored (they are null when Abator
+ * runs offline).
+ *
+ * @author Jeff Butler
+ */
+public class DDLMetadataProvider implements MetadataProvider {
+
+    private DDLScriptsConfiguration configuration;
+
+    /**
+     * Map&lt;ActualTableName, DDLScriptParser.Table&gt;, null until the
+     * scripts are read
+     */
+    private Map tables;
+
+    public DDLMetadataProvider(DDLScriptsConfiguration configuration) {
+        super();
+        this.configuration = configuration;
+    }
+
+    public Map getColumns(DatabaseMetaData databaseMetaData, String catalog,
+            String schema, String tableNamePattern) throws SQLException {
+        Pattern pattern = BulkMetadataProvider.likeToPattern(tableNamePattern,
+                "\\", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+
+        Map answer = new HashMap();
+        Iterator iter = getTables().values().iterator();
+        while (iter.hasNext()) {
+            DDLScriptParser.Table table = (DDLScriptParser.Table) iter.next();
+            ActualTableName atn = table.getName();
+            if (qualifierMatches(catalog, atn.getCatalog())
+                    && qualifierMatches(schema, atn.getSchema())
+                    && pattern.matcher(atn.getTableName()).matches()) {
+                answer.put(atn, new ArrayList(table.getColumns()));
+            }
+        }
+
+        return answer;
+    }
+
+    public List getPrimaryKeyColumns(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        return new ArrayList(getTable(table).getPrimaryKeyColumns());
+    }
+
+    public List getIndices(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        return new ArrayList(getTable(table).getIndices());
+    }
+
+    public List getForeignKeys(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        return new ArrayList(getTable(table).getForeignKeys());
+    }
+
+    private boolean qualifierMatches(String requested, String actual) {
+        return requested == null || actual == null
+                || requested.equalsIgnoreCase(actual);
+    }
+
+    private DDLScriptParser.Table getTable(ActualTableName name)
+            throws SQLException {
+        DDLScriptParser.Table answer = (DDLScriptParser.Table) getTables().get(name);
+        if (answer == null) {
+            throw new SQLException(Messages.getString("RuntimeError.22", //$NON-NLS-1$
+                    name.toString()));
+        }
+
+        return answer;
+    }
+
+    private synchronized Map getTables() throws SQLException {
+        if (tables == null) {
+            DDLScriptParser parser = new DDLScriptParser();
+
+            Iterator iter = configuration.getScripts().iterator();
+            while (iter.hasNext()) {
+                String script = (String) iter.next();
+                try {
+                    parser.parse(readScript(new File(script)));
+                } catch (IOException e) {
+                    throw new SQLException(Messages.getString("RuntimeError.21", //$NON-NLS-1$
+                            script, e.getMessage()));
+                }
+            }
+
+            Map newTables = new HashMap();
+            iter = parser.getTables().iterator();
+            while (iter.hasNext()) {
+                DDLScriptParser.Table table = (DDLScriptParser.Table) iter.next();
+                newTables.put(table.getName(), table);
+            }
+            tables = newTables;
+        }
+
+        return tables;
+    }
+
+    private String readScript(File file) throws IOException {
+        Reader reader;
+        if (configuration.getEncoding() == null) {
+            reader = new InputStreamReader(new FileInputStream(file));
+        } else {
+            reader = new InputStreamReader(new FileInputStream(file),
+                    configuration.getEncoding());
+        }
+
+        try {
+            StringBuffer sb = new StringBuffer();
+            char[] buffer = new char[8192];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, count);
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+}
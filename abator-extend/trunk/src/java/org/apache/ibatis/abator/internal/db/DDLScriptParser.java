@@ -0,0 +1,885 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.abator.internal.types.JdbcTypeNames;
+
+/**
+ * This class reads table definitions from DDL scripts.  It understands
+ * the common forms of these statements:
+ * <ul>
+ *   <li>CREATE TABLE - columns with their types, NOT NULL, inline and
+ *     out of line PRIMARY KEY, UNIQUE, FOREIGN KEY/REFERENCES
+ *     constraints, and MySQL style KEY/INDEX clauses</li>
+ *   <li>CREATE [UNIQUE] INDEX</li>
+ *   <li>ALTER TABLE ... ADD [CONSTRAINT] (columns and constraints), and
+ *     ALTER TABLE ... DROP COLUMN</li>
+ * </ul>
+ * All other statements are ignored.  Statements end with a semicolon, or
+ * with a line containing only "/" or "GO".
+ *
+ * Quoted identifiers ("x", `x` and [x]) keep their case, unquoted
+ * identifiers are kept as written.
+ *
+ * @author Jeff Butler
+ */
+public class DDLScriptParser {
+
+    private static final int WORD = 0;
+    private static final int QUOTED = 1;
+    private static final int STRING = 2;
+    private static final int NUMBER = 3;
+    private static final int SYMBOL = 4;
+
+    /**
+     * Words that may follow the first word of a multi word type name, as in
+     * "DOUBLE PRECISION" or "TIMESTAMP WITH TIME ZONE"
+     */
+    private static final String[] TYPE_CONTINUATION_WORDS = {
+        "VARYING", "PRECISION", "WITH", "WITHOUT", "LOCAL", "TIME", "ZONE", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+        "UNSIGNED", "CHAR", "CHARACTER", "VARCHAR", "VARBINARY", "VARGRAPHIC", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+        "RAW", "LARGE", "OBJECT", "FOR", "BIT", "DATA" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+    };
+
+    /**
+     * Map&lt;String, Table&gt; keyed by the upper case qualified name, in
+     * the order the tables were created
+     */
+    private Map tables;
+
+    public DDLScriptParser() {
+        super();
+        tables = new LinkedHashMap();
+    }
+
+    /**
+     * @return a List&lt;Table&gt; of all tables read so far
+     */
+    public List getTables() {
+        return new ArrayList(tables.values());
+    }
+
+    /**
+     * Reads all statements of a script.  Scripts may be read one after the
+     * other - later scripts may alter tables created in earlier scripts.
+     *
+     * @param script the text of the script
+     */
+    public void parse(String script) {
+        Iterator iter = tokenize(script).iterator();
+        while (iter.hasNext()) {
+            List statement = (List) iter.next();
+            parseStatement(new Cursor(statement));
+        }
+    }
+
+    private void parseStatement(Cursor c) {
+        if (c.accept("CREATE")) { //$NON-NLS-1$
+            if (c.accept("OR")) { //$NON-NLS-1$
+                c.accept("REPLACE"); //$NON-NLS-1$
+            }
+            boolean unique = false;
+            while (c.hasMore()) {
+                if (c.accept("UNIQUE")) { //$NON-NLS-1$
+                    unique = true;
+                } else if (c.accept("GLOBAL") || c.accept("LOCAL") //$NON-NLS-1$ //$NON-NLS-2$
+                        || c.accept("TEMPORARY") || c.accept("TEMP") //$NON-NLS-1$ //$NON-NLS-2$
+                        || c.accept("CLUSTERED") || c.accept("NONCLUSTERED") //$NON-NLS-1$ //$NON-NLS-2$
+                        || c.accept("BITMAP")) { //$NON-NLS-1$
+                    ;
+                } else {
+                    break;
+                }
+            }
+
+            if (c.accept("TABLE")) { //$NON-NLS-1$
+                parseCreateTable(c);
+            } else if (c.accept("INDEX")) { //$NON-NLS-1$
+                parseCreateIndex(c, unique);
+            }
+        } else if (c.accept("ALTER")) { //$NON-NLS-1$
+            if (c.accept("TABLE")) { //$NON-NLS-1$
+                parseAlterTable(c);
+            }
+        }
+    }
+
+    private void parseCreateTable(Cursor c) {
+        skipIfExists(c);
+        ActualTableName name = parseQualifiedName(c);
+        if (name == null || !c.acceptSymbol("(")) { //$NON-NLS-1$
+            // CREATE TABLE ... AS SELECT, or something we don't understand
+            return;
+        }
+
+        Table table = new Table(name);
+        tables.put(getKey(name), table);
+
+        Iterator iter = c.splitGroup().iterator();
+        while (iter.hasNext()) {
+            parseTableElement(table, new Cursor((List) iter.next()));
+        }
+    }
+
+    private void parseCreateIndex(Cursor c, boolean unique) {
+        skipIfExists(c);
+        ActualTableName indexName = parseQualifiedName(c);
+        if (indexName == null || !c.accept("ON")) { //$NON-NLS-1$
+            return;
+        }
+
+        Table table = findTable(parseQualifiedName(c));
+        if (table == null) {
+            return;
+        }
+
+        if (c.accept("USING")) { //$NON-NLS-1$
+            c.next();
+        }
+
+        List columns = parseColumnList(c);
+        if (columns != null) {
+            table.addIndex(indexName.getTableName(), unique, columns);
+        }
+    }
+
+    private void parseAlterTable(Cursor c) {
+        c.accept("ONLY"); //$NON-NLS-1$
+        skipIfExists(c);
+        Table table = findTable(parseQualifiedName(c));
+        if (table == null) {
+            return;
+        }
+
+        Iterator iter = c.splitRemaining().iterator();
+        while (iter.hasNext()) {
+            Cursor clause = new Cursor((List) iter.next());
+            if (clause.accept("ADD")) { //$NON-NLS-1$
+                if (clause.peekSymbol("(")) { //$NON-NLS-1$
+                    // Oracle: ALTER TABLE x ADD (col type, ...)
+                    clause.next();
+                    Iterator elements = clause.splitGroup().iterator();
+                    while (elements.hasNext()) {
+                        parseTableElement(table, new Cursor((List) elements.next()));
+                    }
+                } else {
+                    clause.accept("COLUMN"); //$NON-NLS-1$
+                    skipIfNotExists(clause);
+                    parseTableElement(table, clause);
+                }
+            } else if (clause.accept("DROP")) { //$NON-NLS-1$
+                if (clause.accept("COLUMN")) { //$NON-NLS-1$
+                    skipIfExists(clause);
+                    String columnName = clause.identifier();
+                    if (columnName != null) {
+                        table.dropColumn(columnName);
+                    }
+                }
+            }
+        }
+    }
+
+    private void parseTableElement(Table table, Cursor c) {
+        String constraintName = null;
+        if (c.accept("CONSTRAINT")) { //$NON-NLS-1$
+            constraintName = c.identifier();
+        }
+
+        if (c.accept("PRIMARY")) { //$NON-NLS-1$
+            c.accept("KEY"); //$NON-NLS-1$
+            skipIndexOptions(c);
+            List columns = parseColumnList(c);
+            if (columns != null) {
+                table.primaryKeyColumns = columns;
+            }
+        } else if (c.accept("UNIQUE")) { //$NON-NLS-1$
+            if (!c.accept("KEY")) { //$NON-NLS-1$
+                c.accept("INDEX"); //$NON-NLS-1$
+            }
+            skipIndexOptions(c);
+            if (!c.peekSymbol("(")) { //$NON-NLS-1$
+                String name = c.identifier();
+                if (constraintName == null) {
+                    constraintName = name;
+                }
+            }
+            List columns = parseColumnList(c);
+            if (columns != null) {
+                table.addIndex(constraintName, true, columns);
+            }
+        } else if (c.accept("FOREIGN")) { //$NON-NLS-1$
+            c.accept("KEY"); //$NON-NLS-1$
+            if (!c.peekSymbol("(")) { //$NON-NLS-1$
+                c.identifier();
+            }
+            List columns = parseColumnList(c);
+            if (columns != null) {
+                table.foreignKeys.add(columns);
+            }
+        } else if (constraintName != null || c.peek("CHECK") //$NON-NLS-1$
+                || c.peek("EXCLUDE") || c.peek("LIKE") //$NON-NLS-1$ //$NON-NLS-2$
+                || c.peek("FULLTEXT") || c.peek("SPATIAL") || c.peek("PERIOD")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            // some other constraint - ignore
+            ;
+        } else if (!parseIndexClause(table, c)) {
+            parseColumnDefinition(table, c);
+        }
+    }
+
+    /**
+     * Parses a MySQL style "KEY name (columns)" clause.  Returns false,
+     * without consuming anything, if the element is not such a clause - it
+     * may be the definition of a column called "key" or "index".
+     */
+    private boolean parseIndexClause(Table table, Cursor c) {
+        if (!c.peek("KEY") && !c.peek("INDEX")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return false;
+        }
+
+        int mark = c.position;
+        c.next();
+        String name = null;
+        if (!c.peekSymbol("(")) { //$NON-NLS-1$
+            name = c.identifier();
+        }
+        skipIndexOptions(c);
+        List columns = parseColumnList(c);
+        if (columns == null || c.hasMore()
+                || (name != null && JdbcTypeNames.getJdbcType(name) != Types.OTHER)) {
+            c.position = mark;
+            return false;
+        }
+
+        table.addIndex(name, false, columns);
+        return true;
+    }
+
+    private void parseColumnDefinition(Table table, Cursor c) {
+        String columnName = c.identifier();
+        if (columnName == null) {
+            return;
+        }
+
+        StringBuffer typeName = new StringBuffer();
+        List typeArguments = null;
+        if (c.hasMore() && (c.peekToken().type == WORD || c.peekToken().type == QUOTED)) {
+            Token token = c.next();
+            typeName.append(token.type == WORD ? token.text.toUpperCase() : token.text);
+        }
+        while (typeName.length() > 0 && c.hasMore()) {
+            Token token = c.peekToken();
+            if (token.isSymbol("(")) { //$NON-NLS-1$
+                c.next();
+                List group = c.group();
+                if (typeArguments == null) {
+                    typeArguments = group;
+                }
+            } else if (token.type == WORD && isTypeContinuationWord(token.text)
+                    && !c.peekAt(1, "SET")) { //$NON-NLS-1$
+                // CHARACTER SET belongs to the column options
+                c.next();
+                typeName.append(' ');
+                typeName.append(token.text.toUpperCase());
+            } else {
+                break;
+            }
+        }
+
+        if (typeName.length() == 0) {
+            // SQLite and some other databases allow columns without type
+            typeName.append("VARCHAR"); //$NON-NLS-1$
+        }
+
+        String type = typeName.toString();
+        int jdbcType = JdbcTypeNames.getJdbcType(type);
+
+        int length = -1;
+        int scale = 0;
+        if (typeArguments != null) {
+            Iterator iter = typeArguments.iterator();
+            int i = 0;
+            while (iter.hasNext()) {
+                Token token = (Token) iter.next();
+                if (token.type == NUMBER) {
+                    int value = parseInt(token.text);
+                    if (i == 0) {
+                        length = value;
+                    } else if (i == 1) {
+                        scale = value;
+                    }
+                    i++;
+                } else if (token.type == SYMBOL && token.text.equals("*")) { //$NON-NLS-1$
+                    // Oracle NUMBER(*, s)
+                    i++;
+                }
+            }
+        }
+
+        if (length < 0) {
+            length = getDefaultLength(jdbcType);
+        }
+
+        // column constraints
+        boolean nullable = true;
+        while (c.hasMore()) {
+            if (c.accept("NOT")) { //$NON-NLS-1$
+                if (c.accept("NULL")) { //$NON-NLS-1$
+                    nullable = false;
+                }
+            } else if (c.accept("PRIMARY")) { //$NON-NLS-1$
+                c.accept("KEY"); //$NON-NLS-1$
+                nullable = false;
+                List pk = new ArrayList();
+                pk.add(columnName);
+                table.primaryKeyColumns = pk;
+            } else if (c.accept("UNIQUE")) { //$NON-NLS-1$
+                c.accept("KEY"); //$NON-NLS-1$
+                List columns = new ArrayList();
+                columns.add(columnName);
+                table.addIndex(null, true, columns);
+            } else if (c.accept("REFERENCES")) { //$NON-NLS-1$
+                List fk = new ArrayList();
+                fk.add(columnName);
+                table.foreignKeys.add(fk);
+                parseQualifiedName(c);
+                if (c.peekSymbol("(")) { //$NON-NLS-1$
+                    c.next();
+                    c.group();
+                }
+            } else if (c.peekSymbol("(")) { //$NON-NLS-1$
+                c.next();
+                c.group();
+            } else {
+                c.next();
+            }
+        }
+
+        table.addColumn(new ColumnMetadata(columnName, jdbcType, type, length,
+                scale, nullable));
+    }
+
+    /**
+     * Parses "(a, b DESC, c(10))".  Returns null if the list contains
+     * expressions rather than plain column names.
+     */
+    private List parseColumnList(Cursor c) {
+        if (!c.acceptSymbol("(")) { //$NON-NLS-1$
+            return null;
+        }
+
+        List answer = new ArrayList();
+        Iterator iter = c.splitGroup().iterator();
+        while (iter.hasNext()) {
+            Cursor element = new Cursor((List) iter.next());
+            String columnName = element.identifier();
+            if (columnName == null) {
+                return null;
+            }
+
+            while (element.hasMore()) {
+                if (element.accept("ASC") || element.accept("DESC")) { //$NON-NLS-1$ //$NON-NLS-2$
+                    ;
+                } else if (element.peekSymbol("(")) { //$NON-NLS-1$
+                    // MySQL prefix length
+                    element.next();
+                    element.group();
+                } else {
+                    return null;
+                }
+            }
+
+            answer.add(columnName);
+        }
+
+        return answer.isEmpty() ? null : answer;
+    }
+
+    private ActualTableName parseQualifiedName(Cursor c) {
+        List parts = new ArrayList();
+        String part = c.identifier();
+        if (part == null) {
+            return null;
+        }
+        parts.add(part);
+
+        while (c.acceptSymbol(".")) { //$NON-NLS-1$
+            part = c.identifier();
+            if (part == null) {
+                return null;
+            }
+            parts.add(part);
+        }
+
+        int size = parts.size();
+        return new ActualTableName(size > 2 ? (String) parts.get(size - 3) : null,
+                size > 1 ? (String) parts.get(size - 2) : null,
+                (String) parts.get(size - 1));
+    }
+
+    private void skipIfExists(Cursor c) {
+        if (c.peek("IF") && c.peekAt(1, "EXISTS")) { //$NON-NLS-1$ //$NON-NLS-2$
+            c.next();
+            c.next();
+        }
+        skipIfNotExists(c);
+    }
+
+    private void skipIfNotExists(Cursor c) {
+        if (c.peek("IF") && c.peekAt(1, "NOT") && c.peekAt(2, "EXISTS")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            c.next();
+            c.next();
+            c.next();
+        }
+    }
+
+    private void skipIndexOptions(Cursor c) {
+        while (c.accept("CLUSTERED") || c.accept("NONCLUSTERED")) { //$NON-NLS-1$ //$NON-NLS-2$
+            ;
+        }
+        if (c.peek("USING") && !c.peekSymbolAt(1, "(")) { //$NON-NLS-1$ //$NON-NLS-2$
+            c.next();
+            c.next();
+        }
+    }
+
+    private Table findTable(ActualTableName name) {
+        if (name == null) {
+            return null;
+        }
+
+        Table answer = (Table) tables.get(getKey(name));
+        if (answer != null) {
+            return answer;
+        }
+
+        // the table may have been created with a different qualification
+        Iterator iter = tables.values().iterator();
+        while (iter.hasNext()) {
+            Table table = (Table) iter.next();
+            if (table.name.getTableName().equalsIgnoreCase(name.getTableName())
+                    && (name.getSchema() == null || table.name.getSchema() == null
+                            || table.name.getSchema().equalsIgnoreCase(name.getSchema()))) {
+                return table;
+            }
+        }
+
+        return null;
+    }
+
+    private static String getKey(ActualTableName name) {
+        return name.toString().toUpperCase();
+    }
+
+    private static boolean isTypeContinuationWord(String word) {
+        for (int i = 0; i < TYPE_CONTINUATION_WORDS.length; i++) {
+            if (TYPE_CONTINUATION_WORDS[i].equalsIgnoreCase(word)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * The sizes that JDBC drivers typically report when no size is declared
+     */
+    private static int getDefaultLength(int jdbcType) {
+        switch (jdbcType) {
+        case Types.CHAR:
+        case Types.BIT:
+            return 1;
+        case Types.TINYINT:
+            return 3;
+        case Types.SMALLINT:
+            return 5;
+        case Types.INTEGER:
+            return 10;
+        case Types.BIGINT:
+            return 19;
+        case Types.DECIMAL:
+        case Types.NUMERIC:
+            return 38;
+        default:
+            return 0;
+        }
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Splits a script into statements, and statements into tokens.
+     *
+     * @return a List&lt;List&lt;Token&gt;&gt;
+     */
+    private static List tokenize(String script) {
+        List statements = new ArrayList();
+        List tokens = new ArrayList();
+        int length = script.length();
+        int i = 0;
+        boolean lineStart = true;
+
+        while (i < length) {
+            char ch = script.charAt(i);
+
+            if (ch == '\n') {
+                lineStart = true;
+                i++;
+                continue;
+            }
+
+            if (Character.isWhitespace(ch)) {
+                i++;
+                continue;
+            }
+
+            if (lineStart) {
+                lineStart = false;
+                int eol = script.indexOf('\n', i);
+                if (eol == -1) {
+                    eol = length;
+                }
+                String line = script.substring(i, eol).trim();
+                if (line.equals("/") || line.equalsIgnoreCase("GO")) { //$NON-NLS-1$ //$NON-NLS-2$
+                    addStatement(statements, tokens);
+                    tokens = new ArrayList();
+                    i = eol;
+                    continue;
+                }
+            }
+
+            if (ch == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+                while (i < length && script.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (ch == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+                int end = script.indexOf("*/", i + 2); //$NON-NLS-1$
+                i = end == -1 ? length : end + 2;
+            } else if (ch == ';') {
+                addStatement(statements, tokens);
+                tokens = new ArrayList();
+                i++;
+            } else if (ch == '\'') {
+                StringBuffer sb = new StringBuffer();
+                i++;
+                while (i < length) {
+                    char c = script.charAt(i);
+                    if (c == '\'') {
+                        if (i + 1 < length && script.charAt(i + 1) == '\'') {
+                            sb.append(c);
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    sb.append(c);
+                    i++;
+                }
+                tokens.add(new Token(STRING, sb.toString()));
+            } else if (ch == '"' || ch == '`' || ch == '[') {
+                char close = ch == '[' ? ']' : ch;
+                int end = script.indexOf(close, i + 1);
+                if (end == -1) {
+                    end = length;
+                }
+                tokens.add(new Token(QUOTED, script.substring(i + 1, end)));
+                i = end + 1;
+            } else if (Character.isLetter(ch) || ch == '_') {
+                int start = i;
+                while (i < length) {
+                    char c = script.charAt(i);
+                    if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#') {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(new Token(WORD, script.substring(start, i)));
+            } else if (Character.isDigit(ch)) {
+                int start = i;
+                while (i < length && Character.isDigit(script.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(NUMBER, script.substring(start, i)));
+            } else {
+                tokens.add(new Token(SYMBOL, String.valueOf(ch)));
+                i++;
+            }
+        }
+
+        addStatement(statements, tokens);
+
+        return statements;
+    }
+
+    private static void addStatement(List statements, List tokens) {
+        if (!tokens.isEmpty()) {
+            statements.add(tokens);
+        }
+    }
+
+    /**
+     * A table read from the scripts
+     */
+    public static class Table {
+        private ActualTableName name;
+
+        /**
+         * List&lt;ColumnMetadata&gt;
+         */
+        private List columns = new ArrayList();
+
+        /**
+         * List&lt;String&gt;
+         */
+        private List primaryKeyColumns = new ArrayList();
+
+        /**
+         * List&lt;IndexMetadata&gt;
+         */
+        private List indices = new ArrayList();
+
+        /**
+         * List&lt;List&lt;String&gt;&gt;
+         */
+        private List foreignKeys = new ArrayList();
+
+        Table(ActualTableName name) {
+            this.name = name;
+        }
+
+        public ActualTableName getName() {
+            return name;
+        }
+
+        public List getColumns() {
+            return columns;
+        }
+
+        public List getPrimaryKeyColumns() {
+            return primaryKeyColumns;
+        }
+
+        public List getIndices() {
+            return indices;
+        }
+
+        public List getForeignKeys() {
+            return foreignKeys;
+        }
+
+        void addColumn(ColumnMetadata column) {
+            dropColumn(column.getColumnName());
+            columns.add(column);
+        }
+
+        void dropColumn(String columnName) {
+            Iterator iter = columns.iterator();
+            while (iter.hasNext()) {
+                ColumnMetadata column = (ColumnMetadata) iter.next();
+                if (column.getColumnName().equalsIgnoreCase(columnName)) {
+                    iter.remove();
+                }
+            }
+        }
+
+        void addIndex(String indexName, boolean unique, List columnNames) {
+            IndexMetadata index = new IndexMetadata(indexName, unique);
+            Iterator iter = columnNames.iterator();
+            while (iter.hasNext()) {
+                index.addColumnName((String) iter.next());
+            }
+            indices.add(index);
+        }
+    }
+
+    private static class Token {
+        private int type;
+        private String text;
+
+        Token(int type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        boolean isWord(String word) {
+            return type == WORD && text.equalsIgnoreCase(word);
+        }
+
+        boolean isSymbol(String symbol) {
+            return type == SYMBOL && text.equals(symbol);
+        }
+    }
+
+    /**
+     * Walks through the tokens of one statement (or part of a statement)
+     */
+    private static class Cursor {
+        private List tokens;
+        private int position;
+
+        Cursor(List tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean hasMore() {
+            return position < tokens.size();
+        }
+
+        int size() {
+            return tokens.size() - position;
+        }
+
+        Token peekToken() {
+            return (Token) tokens.get(position);
+        }
+
+        Token next() {
+            return hasMore() ? (Token) tokens.get(position++) : null;
+        }
+
+        boolean peek(String word) {
+            return peekAt(0, word);
+        }
+
+        boolean peekAt(int offset, String word) {
+            int i = position + offset;
+            return i < tokens.size() && ((Token) tokens.get(i)).isWord(word);
+        }
+
+        boolean peekSymbol(String symbol) {
+            return peekSymbolAt(0, symbol);
+        }
+
+        boolean peekSymbolAt(int offset, String symbol) {
+            int i = position + offset;
+            return i < tokens.size() && ((Token) tokens.get(i)).isSymbol(symbol);
+        }
+
+        boolean accept(String word) {
+            if (peek(word)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean acceptSymbol(String symbol) {
+            if (peekSymbol(symbol)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return the next token if it is an identifier, else null
+         */
+        String identifier() {
+            if (hasMore()) {
+                Token token = peekToken();
+                if (token.type == WORD || token.type == QUOTED) {
+                    position++;
+                    return token.text;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the tokens up to the parenthesis that closes an already
+         * consumed opening parenthesis, and moves past it.
+         *
+         * @return a List&lt;Token&gt;
+         */
+        List group() {
+            List answer = new ArrayList();
+            int depth = 1;
+            while (hasMore()) {
+                Token token = next();
+                if (token.isSymbol("(")) { //$NON-NLS-1$
+                    depth++;
+                } else if (token.isSymbol(")")) { //$NON-NLS-1$
+                    depth--;
+                    if (depth == 0) {
+                        break;
+                    }
+                }
+                answer.add(token);
+            }
+            return answer;
+        }
+
+        /**
+         * Like group(), but splits the tokens at top level commas.
+         *
+         * @return a List&lt;List&lt;Token&gt;&gt;
+         */
+        List splitGroup() {
+            return split(group());
+        }
+
+        /**
+         * Splits the remaining tokens at top level commas.
+         *
+         * @return a List&lt;List&lt;Token&gt;&gt;
+         */
+        List splitRemaining() {
+            List remaining = new ArrayList(tokens.subList(position, tokens.size()));
+            position = tokens.size();
+            return split(remaining);
+        }
+
+        private static List split(List tokens) {
+            List answer = new ArrayList();
+            List current = new ArrayList();
+            int depth = 0;
+            Iterator iter = tokens.iterator();
+            while (iter.hasNext()) {
+                Token token = (Token) iter.next();
+                if (token.isSymbol("(")) { //$NON-NLS-1$
+                    depth++;
+                } else if (token.isSymbol(")")) { //$NON-NLS-1$
+                    depth--;
+                } else if (depth == 0 && token.isSymbol(",")) { //$NON-NLS-1$
+                    if (!current.isEmpty()) {
+                        answer.add(current);
+                    }
+                    current = new ArrayList();
+                    continue;
+                }
+                current.add(token);
+            }
+            if (!current.isEmpty()) {
+                answer.add(current);
+            }
+            return answer;
+        }
+    }
+}
@@ -22,36 +22,130 @@ package org.apache.ibatis.abator.internal.db;
  */
 public class DatabaseDialects {
     
-    public static final DatabaseDialects DB2 = new DatabaseDialects("VALUES IDENTITY_VAL_LOCAL()"); //$NON-NLS-1$
+    /**
+     * The database has no paging clause that Abator knows of.  Pages are
+     * read by skipping rows in iBATIS.
+     */
+    public static final int PAGING_NONE = 0;
+    
+    /**
+     * LIMIT n OFFSET m after the order by clause
+     */
+    public static final int PAGING_LIMIT_OFFSET = 1;
+    
+    /**
+     * OFFSET m ROWS FETCH NEXT n ROWS ONLY after the order by clause
+     */
+    public static final int PAGING_OFFSET_FETCH = 2;
+    
+    /**
+     * The query is wrapped in two selects that filter on ROWNUM
+     */
+    public static final int PAGING_ROWNUM = 3;
+    
+    public static final DatabaseDialects DB2 = new DatabaseDialects("VALUES IDENTITY_VAL_LOCAL()", //$NON-NLS-1$
+            PAGING_OFFSET_FETCH, false, false, 0);
 
-    public static final DatabaseDialects MYSQL = new DatabaseDialects("SELECT LAST_INSERT_ID()"); //$NON-NLS-1$
+    public static final DatabaseDialects MYSQL = new DatabaseDialects("SELECT LAST_INSERT_ID()", //$NON-NLS-1$
+            PAGING_LIMIT_OFFSET, false, true, 65535);
 
-    public static final DatabaseDialects SQLSERVER = new DatabaseDialects("SELECT SCOPE_IDENTITY()"); //$NON-NLS-1$
+    public static final DatabaseDialects SQLSERVER = new DatabaseDialects("SELECT SCOPE_IDENTITY()", //$NON-NLS-1$
+            PAGING_OFFSET_FETCH, true, false, 0);
 
-    public static final DatabaseDialects CLOUDSCAPE = new DatabaseDialects("VALUES IDENTITY_VAL_LOCAL()"); //$NON-NLS-1$
+    public static final DatabaseDialects CLOUDSCAPE = new DatabaseDialects("VALUES IDENTITY_VAL_LOCAL()", //$NON-NLS-1$
+            PAGING_NONE, false, false, 0);
 
-    public static final DatabaseDialects DERBY = new DatabaseDialects("VALUES IDENTITY_VAL_LOCAL()"); //$NON-NLS-1$
+    public static final DatabaseDialects DERBY = new DatabaseDialects("VALUES IDENTITY_VAL_LOCAL()", //$NON-NLS-1$
+            PAGING_OFFSET_FETCH, false, false, 0);
+    
+    public static final DatabaseDialects HSQLDB = new DatabaseDialects("CALL IDENTITY()", //$NON-NLS-1$
+            PAGING_LIMIT_OFFSET, false, true, 0);
+    
+    public static final DatabaseDialects SYBASE = new DatabaseDialects("SELECT @@IDENTITY", //$NON-NLS-1$
+            PAGING_NONE, false, false, 0);
     
-    public static final DatabaseDialects HSQLDB = new DatabaseDialects("CALL IDENTITY()"); //$NON-NLS-1$
+    public static final DatabaseDialects DB2_MF = new DatabaseDialects("SELECT IDENTITY_VAL_LOCAL() FROM SYSIBM.SYSDUMMY1", //$NON-NLS-1$
+            PAGING_OFFSET_FETCH, false, false, 0);
     
-    public static final DatabaseDialects SYBASE = new DatabaseDialects("SELECT @@IDENTITY"); //$NON-NLS-1$
+    public static final DatabaseDialects POSTGRESQL = new DatabaseDialects("SELECT LASTVAL()", //$NON-NLS-1$
+            PAGING_LIMIT_OFFSET, false, true, 32767);
     
-    public static final DatabaseDialects DB2_MF = new DatabaseDialects("SELECT IDENTITY_VAL_LOCAL() FROM SYSIBM.SYSDUMMY1"); //$NON-NLS-1$
+    public static final DatabaseDialects ORACLE = new DatabaseDialects(null,
+            PAGING_ROWNUM, false, false, 0);
     
     private String identityRetrievalStatement;
+    
+    private int pagingStyle;
+    
+    private boolean orderByRequiredForPaging;
+    
+    private boolean rowValueComparisonSupported;
+    
+    private int maxInsertParameters;
 
     /**
      *  
      */
-    private DatabaseDialects(String identityRetrievalStatement) {
+    private DatabaseDialects(String identityRetrievalStatement,
+            int pagingStyle, boolean orderByRequiredForPaging,
+            boolean rowValueComparisonSupported, int maxInsertParameters) {
         super();
         this.identityRetrievalStatement = identityRetrievalStatement;
+        this.pagingStyle = pagingStyle;
+        this.orderByRequiredForPaging = orderByRequiredForPaging;
+        this.rowValueComparisonSupported = rowValueComparisonSupported;
+        this.maxInsertParameters = maxInsertParameters;
     }
 
+    /**
+     * @return the statement that returns the last identity value, or null
+     *   if the database has no identity columns
+     */
     public String getIdentityRetrievalStatement() {
         return identityRetrievalStatement;
     }
 
+    /**
+     * @return one of the PAGING constants
+     */
+    public int getPagingStyle() {
+        return pagingStyle;
+    }
+    
+    public boolean supportsPaging() {
+        return pagingStyle != PAGING_NONE;
+    }
+
+    /**
+     * @return true if the paging clause is only allowed after an order by
+     *   clause (SQL Server)
+     */
+    public boolean isOrderByRequiredForPaging() {
+        return orderByRequiredForPaging;
+    }
+
+    /**
+     * @return true if rows can be compared as a whole, as in
+     *   (A, B) &gt; (?, ?)
+     */
+    public boolean isRowValueComparisonSupported() {
+        return rowValueComparisonSupported;
+    }
+
+
+    /**
+     * @return the most parameters one insert statement may have, or 0 if
+     *   multi-row inserts (insert ... values (...), (...)) are not used
+     *   with the database
+     */
+    public int getMaxInsertParameters() {
+        return maxInsertParameters;
+    }
+    
+    public boolean supportsMultiRowInsert() {
+        return maxInsertParameters > 0;
+    }
+
     /**
      * 
      * @param database
@@ -77,6 +171,10 @@ public class DatabaseDialects {
             returnValue = SYBASE;
         } else if ("DB2_MF".equalsIgnoreCase(database)) { //$NON-NLS-1$
             returnValue = DB2_MF;
+        } else if ("PostgreSQL".equalsIgnoreCase(database)) { //$NON-NLS-1$
+            returnValue = POSTGRESQL;
+        } else if ("Oracle".equalsIgnoreCase(database)) { //$NON-NLS-1$
+            returnValue = ORACLE;
         }
         
         return returnValue;
@@ -16,7 +16,6 @@
 package org.apache.ibatis.abator.internal.db;
 
 import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -28,6 +27,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.abator.api.FullyQualifiedTable;
+import org.apache.ibatis.abator.api.GenerationMetrics;
 import org.apache.ibatis.abator.api.IntrospectedTable;
 import org.apache.ibatis.abator.api.JavaTypeResolver;
 import org.apache.ibatis.abator.api.dom.java.FullyQualifiedJavaType;
@@ -56,142 +56,99 @@ public class DatabaseIntrospector {
     private JavaTypeResolver javaTypeResolver;
     private List warnings;
     private AbatorContext abatorContext;
+    private MetadataProvider metadataProvider;
+    private GenerationMetrics metrics;
+
+    /**
+     * Map&lt;IntrospectedTable, ActualTableName&gt; - the table names as
+     * returned from the database, used for the key and index lookups
+     */
+    private Map actualTableNames;
 
     public DatabaseIntrospector(AbatorContext abatorContext, DatabaseMetaData databaseMetaData,
             JavaTypeResolver javaTypeResolver, List warnings) {
+        this(abatorContext, databaseMetaData, javaTypeResolver, warnings,
+                new DatabaseMetaDataProvider());
+    }
+
+    /**
+     * @param databaseMetaData may be null if the metadata provider does not
+     *   need a database (DDLMetadataProvider)
+     */
+    public DatabaseIntrospector(AbatorContext abatorContext, DatabaseMetaData databaseMetaData,
+            JavaTypeResolver javaTypeResolver, List warnings,
+            MetadataProvider metadataProvider) {
         super();
         this.abatorContext = abatorContext;
         this.databaseMetaData = databaseMetaData;
         this.javaTypeResolver = javaTypeResolver;
         this.warnings = warnings;
+        this.metadataProvider = metadataProvider;
+        this.actualTableNames = new HashMap();
+        this.metrics = new GenerationMetrics(null);
+    }
+
+    /**
+     * @param metrics receives the time spent in each introspection step
+     */
+    public void setMetrics(GenerationMetrics metrics) {
+        this.metrics = metrics;
     }
     
     private void calculateIndex(IntrospectedTableImpl introspectedTable){
-    	ResultSet rs = null;
-//    	System.out.println("=========calculateIndex===========");
+        List indices;
         try {
-            rs = databaseMetaData.getIndexInfo(introspectedTable.getTable().getCatalog(),
-                    introspectedTable.getTable().getSchema(),
-                    introspectedTable.getTable().getTableName(),
-                    false, false);
+            indices = metadataProvider.getIndices(databaseMetaData,
+                    (ActualTableName) actualTableNames.get(introspectedTable));
         } catch (SQLException e) {
-            closeResultSet(rs);
             warnings.add(Messages.getString("Warning.15")); //$NON-NLS-1$
             return;
         }
 
-        try {
-        	String lastIndexName = null;
-        	List index = new ArrayList();
-        	boolean lastNonUnique = true;
-            while (rs.next()) {
-                String indexName = rs.getString("INDEX_NAME"); //$NON-NLS-1$
-                String columnName = rs.getString("COLUMN_NAME");
-                boolean nonUnique = rs.getBoolean("NON_UNIQUE");
-                
-                if(!indexName.equals(lastIndexName)){
-                	if(!index.isEmpty()){
-                		if(lastNonUnique)
-                			introspectedTable.getColumnDefinitions().addNonUniqueIndex(index);
-                		else
-                			introspectedTable.getColumnDefinitions().addUniqueIndex(index);
-                	}
-                	lastNonUnique = nonUnique;
-                	lastIndexName = indexName;
-                	index = new ArrayList();
-                }
-                index.add(columnName);
-                
-//                System.out.println("=====================" + indexName + " : " + columnName);
+        Iterator iter = indices.iterator();
+        while (iter.hasNext()) {
+            IndexMetadata index = (IndexMetadata) iter.next();
+            if (index.isUnique()) {
+                introspectedTable.getColumnDefinitions().addUniqueIndex(
+                        new ArrayList(index.getColumnNames()));
+            } else {
+                introspectedTable.getColumnDefinitions().addNonUniqueIndex(
+                        new ArrayList(index.getColumnNames()));
             }
-        	if(!index.isEmpty()){
-        		if(lastNonUnique)
-        			introspectedTable.getColumnDefinitions().addNonUniqueIndex(index);
-        		else
-        			introspectedTable.getColumnDefinitions().addUniqueIndex(index);
-        	}
-        } catch (SQLException e) {
-            // ignore the primary key if there's any error
-        } finally {
-            closeResultSet(rs);
         }
     }
+
     private void calculateForeignKey(IntrospectedTableImpl introspectedTable){
-    	ResultSet rs = null;
-//    	System.out.println("=========calculateForeignKey===========");
+        List foreignKeys;
         try {
-            rs = databaseMetaData.getImportedKeys(introspectedTable.getTable().getCatalog(),
-                    introspectedTable.getTable().getSchema(),
-                    introspectedTable.getTable().getTableName());
+            foreignKeys = metadataProvider.getForeignKeys(databaseMetaData,
+                    (ActualTableName) actualTableNames.get(introspectedTable));
         } catch (SQLException e) {
-            closeResultSet(rs);
             warnings.add(Messages.getString("Warning.15")); //$NON-NLS-1$
             return;
         }
 
-        try {
-        	String lastFkName = null;
-        	List fk = new ArrayList();
-            while (rs.next()) {
-            	String fkName = rs.getString("FK_NAME");
-                String fkColumnName = rs.getString("FKCOLUMN_NAME"); //$NON-NLS-1$
-                short keySeq = rs.getShort("KEY_SEQ");
-                
-                
-                if(!fkName.equals(lastFkName)){
-                	if(!fk.isEmpty())
-                		introspectedTable.getColumnDefinitions().addForeignKey(fk);
-                	lastFkName = fkName;
-                	fk = new ArrayList();
-                }
-                
-                fk.add(fkColumnName);
-                
-//                System.out.println("=====================" + fkName + " : " + fkColumnName + " : " + keySeq);
-            }
-        	if(!fk.isEmpty())
-        		introspectedTable.getColumnDefinitions().addForeignKey(fk);
-        } catch (SQLException e) {
-            // ignore the primary key if there's any error
-        } finally {
-            closeResultSet(rs);
+        Iterator iter = foreignKeys.iterator();
+        while (iter.hasNext()) {
+            List fk = (List) iter.next();
+            introspectedTable.getColumnDefinitions().addForeignKey(new ArrayList(fk));
         }
     }
 
     private void calculatePrimaryKey(IntrospectedTableImpl introspectedTable) {
-        ResultSet rs = null;
-
+        List columnNames;
         try {
-            rs = databaseMetaData.getPrimaryKeys(introspectedTable.getTable().getCatalog(),
-                    introspectedTable.getTable().getSchema(),
-                    introspectedTable.getTable().getTableName());
+            columnNames = metadataProvider.getPrimaryKeyColumns(databaseMetaData,
+                    (ActualTableName) actualTableNames.get(introspectedTable));
         } catch (SQLException e) {
-            closeResultSet(rs);
             warnings.add(Messages.getString("Warning.15")); //$NON-NLS-1$
             return;
         }
 
-        try {
-            while (rs.next()) {
-                String columnName = rs.getString("COLUMN_NAME"); //$NON-NLS-1$
-                
-                introspectedTable.getColumnDefinitions().addPrimaryKeyColumn(columnName);
-            }
-        } catch (SQLException e) {
-            // ignore the primary key if there's any error
-        } finally {
-            closeResultSet(rs);
-        }
-    }
-
-    private void closeResultSet(ResultSet rs) {
-        if (rs != null) {
-            try {
-                rs.close();
-            } catch (SQLException e) {
-                // ignore
-                ;
-            }
+        Iterator iter = columnNames.iterator();
+        while (iter.hasNext()) {
+            introspectedTable.getColumnDefinitions().addPrimaryKeyColumn(
+                    (String) iter.next());
         }
     }
 
@@ -243,9 +200,16 @@ public class DatabaseIntrospector {
      * @throws SQLException
      */
     public List introspectTables(TableConfiguration tc) throws SQLException {
+        actualTableNames.clear();
+        String contextId = abatorContext.getId();
+        String tableName = StringUtility.composeFullyQualifiedTableName(
+                tc.getCatalog(), tc.getSchema(), tc.getTableName(), '.');
 
         // get the raw columns from the DB
+        long start = System.nanoTime();
         Map columns = getColumns(tc);
+        metrics.addTime(contextId, tableName,
+                GenerationMetrics.PHASE_INTROSPECT_COLUMNS, start);
         
         if (columns.isEmpty()) {
             warnings.add(Messages.getString("Warning.19", tc.getCatalog(), //$NON-NLS-1$
@@ -253,20 +217,33 @@ public class DatabaseIntrospector {
             return null;
         }
         
+        start = System.nanoTime();
         removeIgnoredColumns(tc, columns);
         calculateExtraColumnInformation(tc, columns);
         applyColumnOverrides(tc, columns);
         calculateIdentityColumns(tc, columns);
         
         List introspectedTables = calculateIntrospectedTables(tc, columns);
+        metrics.addTime(contextId, tableName,
+                GenerationMetrics.PHASE_INTROSPECT_CALCULATE, start);
         
         Iterator iter = introspectedTables.iterator();
         while (iter.hasNext()) {
             IntrospectedTableImpl it = (IntrospectedTableImpl) iter.next();
+            start = System.nanoTime();
             calculatePrimaryKey(it);
+            metrics.addTime(contextId, tableName,
+                    GenerationMetrics.PHASE_INTROSPECT_PRIMARY_KEY, start);
 
+            start = System.nanoTime();
             calculateIndex(it);
+            metrics.addTime(contextId, tableName,
+                    GenerationMetrics.PHASE_INTROSPECT_INDEXES, start);
+            
+            start = System.nanoTime();
             calculateForeignKey(it);
+            metrics.addTime(contextId, tableName,
+                    GenerationMetrics.PHASE_INTROSPECT_FOREIGN_KEYS, start);
         }
         
         // now introspectedTables has all the columns from all the 
@@ -293,6 +270,19 @@ public class DatabaseIntrospector {
             }
         }
 
+        iter = introspectedTables.iterator();
+        while (iter.hasNext()) {
+            ColumnDefinitions cds = ((IntrospectedTableImpl) iter.next())
+                    .getColumnDefinitions();
+            metrics.addCount(contextId, tableName,
+                    GenerationMetrics.COUNT_TABLES, 1);
+            metrics.addCount(contextId, tableName,
+                    GenerationMetrics.COUNT_COLUMNS,
+                    cds.getPrimaryKeyColumns().size()
+                            + cds.getBaseColumns().size()
+                            + cds.getBLOBColumns().size());
+        }
+
         return introspectedTables;
     }
 
@@ -425,14 +415,34 @@ public class DatabaseIntrospector {
     }
     
     /**
-     * This method returns a Map<ActualTableName, List<ColumnDefinitions>> of columns
-     * returned from the database introspection.
+     * Tells whether the metadata of the tables matching the configuration
+     * has changed since they were last introspected.  Only a
+     * CachingMetadataProvider can tell; with any other provider the tables
+     * are always reported as changed.
      * 
      * @param tc
-     * @return introspected columns
+     * @return true if the tables must be introspected again
      * @throws SQLException
      */
-    private Map getColumns(TableConfiguration tc) throws SQLException {
+    public boolean isChanged(TableConfiguration tc) throws SQLException {
+        if (!(metadataProvider instanceof CachingMetadataProvider)
+                || databaseMetaData == null) {
+            return true;
+        }
+        
+        String[] names = getLocalNames(tc);
+        return ((CachingMetadataProvider) metadataProvider).isChanged(
+                databaseMetaData, names[0], names[1], names[2]);
+    }
+    
+    /**
+     * Calculates the catalog, schema and table name to use in the metadata
+     * calls - case adjusted for the database and with wildcards escaped if
+     * the configuration asks for it.
+     * 
+     * @return an array of catalog, schema and table name
+     */
+    private String[] getLocalNames(TableConfiguration tc) throws SQLException {
         String localCatalog;
         String localSchema;
         String localTableName;
@@ -442,7 +452,7 @@ public class DatabaseIntrospector {
             || StringUtility.stringContainsSpace(tc.getSchema())
             || StringUtility.stringContainsSpace(tc.getTableName());
 
-        if (delimitIdentifiers) {
+        if (delimitIdentifiers || databaseMetaData == null) {
             localCatalog = tc.getCatalog();
             localSchema = tc.getSchema();
             localTableName = tc.getTableName();
@@ -467,7 +477,8 @@ public class DatabaseIntrospector {
         }
 
         if (tc.isWildcardEscapingEnabled()) {
-            String escapeString = databaseMetaData.getSearchStringEscape();
+            String escapeString = databaseMetaData == null ? "\\" //$NON-NLS-1$
+                    : databaseMetaData.getSearchStringEscape();
             
             StringBuffer sb = new StringBuffer();
             StringTokenizer st;
@@ -497,36 +508,51 @@ public class DatabaseIntrospector {
             localTableName = sb.toString();
         }
 
+        return new String[] {localCatalog, localSchema, localTableName};
+    }
+    
+    /**
+     * This method returns a Map<ActualTableName, List<ColumnDefinitions>> of columns
+     * returned from the database introspection.
+     * 
+     * @param tc
+     * @return introspected columns
+     * @throws SQLException
+     */
+    private Map getColumns(TableConfiguration tc) throws SQLException {
+        String[] names = getLocalNames(tc);
+        String localCatalog = names[0];
+        String localSchema = names[1];
+        String localTableName = names[2];
+        
         Map answer = new HashMap();
         
-        ResultSet rs = databaseMetaData.getColumns(localCatalog, localSchema,
-                localTableName, null);
-
-        while (rs.next()) {
-            ColumnDefinition cd = new ColumnDefinition(tc.getAlias(), abatorContext);
-
-            cd.setJdbcType(rs.getInt("DATA_TYPE")); //$NON-NLS-1$
-            cd.setLength(rs.getInt("COLUMN_SIZE")); //$NON-NLS-1$
-            cd.setActualColumnName(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
-            cd.setNullable(rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable); //$NON-NLS-1$
-            cd.setScale(rs.getInt("DECIMAL_DIGITS")); //$NON-NLS-1$
-            cd.setTypeName(rs.getString("TYPE_NAME")); //$NON-NLS-1$
-            
-            ActualTableName atn = new ActualTableName(rs.getString("TABLE_CAT"), //$NON-NLS-1$
-                    rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
-                    rs.getString("TABLE_NAME")); //$NON-NLS-1$
-            
-            List columns = (List) answer.get(atn);
-            if (columns == null) {
-                columns = new ArrayList();
-                answer.put(atn, columns);
+        Map rawColumns = metadataProvider.getColumns(databaseMetaData,
+                localCatalog, localSchema, localTableName);
+
+        Iterator entries = rawColumns.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+
+            List columns = new ArrayList();
+            Iterator iter = ((List) entry.getValue()).iterator();
+            while (iter.hasNext()) {
+                ColumnMetadata column = (ColumnMetadata) iter.next();
+                ColumnDefinition cd = new ColumnDefinition(tc.getAlias(), abatorContext);
+
+                cd.setJdbcType(column.getJdbcType());
+                cd.setLength(column.getLength());
+                cd.setActualColumnName(column.getColumnName());
+                cd.setNullable(column.isNullable());
+                cd.setScale(column.getScale());
+                cd.setTypeName(column.getTypeName());
+
+                columns.add(cd);
             }
-            
-            columns.add(cd);
+
+            answer.put(entry.getKey(), columns);
         }
         
-        closeResultSet(rs);
-        
         return answer;
     }
     
@@ -563,6 +589,7 @@ public class DatabaseIntrospector {
             ColumnDefinitions cds = new ColumnDefinitions();
             IntrospectedTableImpl introspectedTable = new IntrospectedTableImpl(tc, cds, table);
             answer.add(introspectedTable);
+            actualTableNames.put(introspectedTable, atn);
             
             Iterator tableColumns = ((List) entry.getValue()).iterator();
             while (tableColumns.hasNext()) {
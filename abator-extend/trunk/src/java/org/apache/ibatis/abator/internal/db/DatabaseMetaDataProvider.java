@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is the default MetadataProvider.  It uses the standard JDBC
+ * DatabaseMetaData calls, one set of calls for every table.  It works with
+ * any driver and is also the fallback for the catalog based providers.
+ *
+ * @author Jeff Butler
+ */
+public class DatabaseMetaDataProvider implements MetadataProvider {
+
+    public DatabaseMetaDataProvider() {
+        super();
+    }
+
+    public Map getColumns(DatabaseMetaData databaseMetaData, String catalog,
+            String schema, String tableNamePattern) throws SQLException {
+        Map answer = new HashMap();
+
+        ResultSet rs = databaseMetaData.getColumns(catalog, schema,
+                tableNamePattern, null);
+
+        try {
+            while (rs.next()) {
+                ColumnMetadata column = new ColumnMetadata(
+                        rs.getString("COLUMN_NAME"), //$NON-NLS-1$
+                        rs.getInt("DATA_TYPE"), //$NON-NLS-1$
+                        rs.getString("TYPE_NAME"), //$NON-NLS-1$
+                        rs.getInt("COLUMN_SIZE"), //$NON-NLS-1$
+                        rs.getInt("DECIMAL_DIGITS"), //$NON-NLS-1$
+                        rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable); //$NON-NLS-1$
+
+                ActualTableName atn = new ActualTableName(rs.getString("TABLE_CAT"), //$NON-NLS-1$
+                        rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
+                        rs.getString("TABLE_NAME")); //$NON-NLS-1$
+
+                List columns = (List) answer.get(atn);
+                if (columns == null) {
+                    columns = new ArrayList();
+                    answer.put(atn, columns);
+                }
+
+                columns.add(column);
+            }
+        } finally {
+            closeResultSet(rs);
+        }
+
+        return answer;
+    }
+
+    public List getPrimaryKeyColumns(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        List answer = new ArrayList();
+
+        ResultSet rs = databaseMetaData.getPrimaryKeys(table.getCatalog(),
+                table.getSchema(), table.getTableName());
+
+        try {
+            while (rs.next()) {
+                answer.add(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+            }
+        } finally {
+            closeResultSet(rs);
+        }
+
+        return answer;
+    }
+
+    public List getIndices(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        List answer = new ArrayList();
+
+        ResultSet rs = databaseMetaData.getIndexInfo(table.getCatalog(),
+                table.getSchema(), table.getTableName(), false, false);
+
+        try {
+            IndexMetadata index = null;
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME"); //$NON-NLS-1$
+                if (indexName == null) {
+                    // table statistics row
+                    continue;
+                }
+
+                if (index == null || !indexName.equals(index.getIndexName())) {
+                    index = new IndexMetadata(indexName,
+                            !rs.getBoolean("NON_UNIQUE")); //$NON-NLS-1$
+                    answer.add(index);
+                }
+
+                index.addColumnName(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+            }
+        } finally {
+            closeResultSet(rs);
+        }
+
+        return answer;
+    }
+
+    public List getForeignKeys(DatabaseMetaData databaseMetaData,
+            ActualTableName table) throws SQLException {
+        List answer = new ArrayList();
+
+        ResultSet rs = databaseMetaData.getImportedKeys(table.getCatalog(),
+                table.getSchema(), table.getTableName());
+
+        try {
+            String lastFkName = null;
+            List fk = null;
+            while (rs.next()) {
+                String fkName = rs.getString("FK_NAME"); //$NON-NLS-1$
+                short keySeq = rs.getShort("KEY_SEQ"); //$NON-NLS-1$
+
+                // some drivers do not name foreign keys, so a new key
+                // also starts whenever the key sequence starts over
+                if (fk == null || keySeq == 1
+                        || (fkName == null ? lastFkName != null : !fkName.equals(lastFkName))) {
+                    fk = new ArrayList();
+                    answer.add(fk);
+                    lastFkName = fkName;
+                }
+
+                fk.add(rs.getString("FKCOLUMN_NAME")); //$NON-NLS-1$
+            }
+        } finally {
+            closeResultSet(rs);
+        }
+
+        return answer;
+    }
+
+    private void closeResultSet(ResultSet rs) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // ignore
+                ;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+/**
+ * This MetadataProvider reads the DB2 for LUW catalog views (SYSCAT.*).
+ *
+ * @author Jeff Butler
+ */
+public class Db2MetadataProvider extends BulkMetadataProvider {
+
+    private static final String COLUMNS_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, rtrim(TABSCHEMA) as TABLE_SCHEM," //$NON-NLS-1$
+        + " TABNAME as TABLE_NAME, COLNAME as COLUMN_NAME, TYPENAME as TYPE_NAME," //$NON-NLS-1$
+        + " LENGTH as COLUMN_SIZE, SCALE as DECIMAL_DIGITS, NULLS as IS_NULLABLE" //$NON-NLS-1$
+        + " from SYSCAT.COLUMNS" //$NON-NLS-1$
+        + " where TABSCHEMA = ?" //$NON-NLS-1$
+        + " order by TABNAME, COLNO"; //$NON-NLS-1$
+
+    private static final String PRIMARY_KEYS_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, rtrim(c.TABSCHEMA) as TABLE_SCHEM," //$NON-NLS-1$
+        + " c.TABNAME as TABLE_NAME, k.COLNAME as COLUMN_NAME" //$NON-NLS-1$
+        + " from SYSCAT.TABCONST c" //$NON-NLS-1$
+        + " join SYSCAT.KEYCOLUSE k" //$NON-NLS-1$
+        + " on k.CONSTNAME = c.CONSTNAME and k.TABSCHEMA = c.TABSCHEMA and k.TABNAME = c.TABNAME" //$NON-NLS-1$
+        + " where c.TYPE = 'P' and c.TABSCHEMA = ?" //$NON-NLS-1$
+        + " order by c.TABNAME, k.COLSEQ"; //$NON-NLS-1$
+
+    private static final String INDICES_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, rtrim(i.TABSCHEMA) as TABLE_SCHEM," //$NON-NLS-1$
+        + " i.TABNAME as TABLE_NAME, i.INDNAME as INDEX_NAME," //$NON-NLS-1$
+        + " case when i.UNIQUERULE = 'D' then 1 else 0 end as NON_UNIQUE," //$NON-NLS-1$
+        + " ic.COLNAME as COLUMN_NAME" //$NON-NLS-1$
+        + " from SYSCAT.INDEXES i" //$NON-NLS-1$
+        + " join SYSCAT.INDEXCOLUSE ic" //$NON-NLS-1$
+        + " on ic.INDSCHEMA = i.INDSCHEMA and ic.INDNAME = i.INDNAME" //$NON-NLS-1$
+        + " where i.TABSCHEMA = ?" //$NON-NLS-1$
+        + " order by i.TABNAME, NON_UNIQUE, i.INDNAME, ic.COLSEQ"; //$NON-NLS-1$
+
+    private static final String FOREIGN_KEYS_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, rtrim(r.TABSCHEMA) as TABLE_SCHEM," //$NON-NLS-1$
+        + " r.TABNAME as TABLE_NAME, r.CONSTNAME as FK_NAME, k.COLNAME as COLUMN_NAME" //$NON-NLS-1$
+        + " from SYSCAT.REFERENCES r" //$NON-NLS-1$
+        + " join SYSCAT.KEYCOLUSE k" //$NON-NLS-1$
+        + " on k.CONSTNAME = r.CONSTNAME and k.TABSCHEMA = r.TABSCHEMA and k.TABNAME = r.TABNAME" //$NON-NLS-1$
+        + " where r.TABSCHEMA = ?" //$NON-NLS-1$
+        + " order by r.TABNAME, r.CONSTNAME, k.COLSEQ"; //$NON-NLS-1$
+
+    private static final String FINGERPRINT_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, rtrim(t.TABSCHEMA) as TABLE_SCHEM," //$NON-NLS-1$
+        + " t.TABNAME as TABLE_NAME," //$NON-NLS-1$
+        + " varchar(t.ALTER_TIME) || '/' || varchar(coalesce((select max(i.CREATE_TIME)" //$NON-NLS-1$
+        + " from SYSCAT.INDEXES i" //$NON-NLS-1$
+        + " where i.TABSCHEMA = t.TABSCHEMA and i.TABNAME = t.TABNAME), t.ALTER_TIME))" //$NON-NLS-1$
+        + " || '/' || varchar((select count(*) from SYSCAT.INDEXES i" //$NON-NLS-1$
+        + " where i.TABSCHEMA = t.TABSCHEMA and i.TABNAME = t.TABNAME)) as FINGERPRINT" //$NON-NLS-1$
+        + " from SYSCAT.TABLES t" //$NON-NLS-1$
+        + " where t.TABSCHEMA = ?"; //$NON-NLS-1$
+
+    public Db2MetadataProvider() {
+        super();
+    }
+
+    protected String getColumnsQuery() {
+        return COLUMNS_QUERY;
+    }
+
+    protected String getPrimaryKeysQuery() {
+        return PRIMARY_KEYS_QUERY;
+    }
+
+    protected String getIndicesQuery() {
+        return INDICES_QUERY;
+    }
+
+    protected String getForeignKeysQuery() {
+        return FOREIGN_KEYS_QUERY;
+    }
+
+    /**
+     * The fingerprint is made of the table's last alter time, the newest
+     * index and the number of indexes (dropping an index does not change
+     * the alter time).
+     */
+    protected String getFingerprintQuery() {
+        return FINGERPRINT_QUERY;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.StringTokenizer;
+
+/**
+ * This MetadataProvider reads the Derby system tables (SYS.SYSCOLUMNS,
+ * SYS.SYSCONSTRAINTS, SYS.SYSCONGLOMERATES...).  Derby has no
+ * INFORMATION_SCHEMA views.
+ *
+ * Derby keeps the type of a column and the columns of an index as Java
+ * objects.  Their text forms are read - "DECIMAL(10,2) NOT NULL" for a
+ * column and "UNIQUE BTREE (2, 1)" for an index, where the numbers are
+ * the column positions in the table.
+ *
+ * @author Jeff Butler
+ */
+public class DerbyMetadataProvider extends BulkMetadataProvider {
+
+    private static final String NOT_NULL = " NOT NULL"; //$NON-NLS-1$
+
+    /**
+     * The conglomerates (tables and indexes) of a schema.  KEYS is the
+     * column list of an index with a leading space, such as " 2, 1)", so
+     * that the position of column n is found with " n," or " n)".
+     */
+    private static final String CONGLOMERATES =
+        "(select g.CONGLOMERATEID, g.CONGLOMERATENAME, g.TABLEID, g.ISINDEX," //$NON-NLS-1$
+        + " cast(g.DESCRIPTOR as varchar(1000)) as DESCRIPTOR," //$NON-NLS-1$
+        + " ' ' || substr(cast(g.DESCRIPTOR as varchar(1000))," //$NON-NLS-1$
+        + " locate('(', cast(g.DESCRIPTOR as varchar(1000))) + 1) as KEYS" //$NON-NLS-1$
+        + " from SYS.SYSCONGLOMERATES g" //$NON-NLS-1$
+        + " join SYS.SYSSCHEMAS s on s.SCHEMAID = g.SCHEMAID" //$NON-NLS-1$
+        + " where g.ISINDEX and s.SCHEMANAME = ?) i"; //$NON-NLS-1$
+
+    private static final String KEY_POSITION =
+        "(locate(' ' || trim(char(c.COLUMNNUMBER)) || ',', i.KEYS)" //$NON-NLS-1$
+        + " + locate(' ' || trim(char(c.COLUMNNUMBER)) || ')', i.KEYS))"; //$NON-NLS-1$
+
+    private static final String COLUMNS_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, s.SCHEMANAME as TABLE_SCHEM," //$NON-NLS-1$
+        + " t.TABLENAME as TABLE_NAME, c.COLUMNNAME as COLUMN_NAME," //$NON-NLS-1$
+        + " cast(c.COLUMNDATATYPE as varchar(128)) as COLUMN_TYPE" //$NON-NLS-1$
+        + " from SYS.SYSCOLUMNS c" //$NON-NLS-1$
+        + " join SYS.SYSTABLES t on t.TABLEID = c.REFERENCEID" //$NON-NLS-1$
+        + " join SYS.SYSSCHEMAS s on s.SCHEMAID = t.SCHEMAID" //$NON-NLS-1$
+        + " where s.SCHEMANAME = ?" //$NON-NLS-1$
+        + " order by t.TABLENAME, c.COLUMNNUMBER"; //$NON-NLS-1$
+
+    private static final String PRIMARY_KEYS_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, s.SCHEMANAME as TABLE_SCHEM," //$NON-NLS-1$
+        + " t.TABLENAME as TABLE_NAME, c.COLUMNNAME as COLUMN_NAME" //$NON-NLS-1$
+        + " from " + CONGLOMERATES //$NON-NLS-1$
+        + " join SYS.SYSKEYS k on k.CONGLOMERATEID = i.CONGLOMERATEID" //$NON-NLS-1$
+        + " join SYS.SYSCONSTRAINTS cs on cs.CONSTRAINTID = k.CONSTRAINTID" //$NON-NLS-1$
+        + " join SYS.SYSTABLES t on t.TABLEID = i.TABLEID" //$NON-NLS-1$
+        + " join SYS.SYSSCHEMAS s on s.SCHEMAID = t.SCHEMAID" //$NON-NLS-1$
+        + " join SYS.SYSCOLUMNS c on c.REFERENCEID = t.TABLEID" //$NON-NLS-1$
+        + " where cs.TYPE = 'P' and " + KEY_POSITION + " > 0" //$NON-NLS-1$ //$NON-NLS-2$
+        + " order by t.TABLENAME, " + KEY_POSITION; //$NON-NLS-1$
+
+    private static final String INDICES_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, s.SCHEMANAME as TABLE_SCHEM," //$NON-NLS-1$
+        + " t.TABLENAME as TABLE_NAME, i.CONGLOMERATENAME as INDEX_NAME," //$NON-NLS-1$
+        + " case when i.DESCRIPTOR like 'UNIQUE BTREE%' then 0 else 1 end as NON_UNIQUE," //$NON-NLS-1$
+        + " c.COLUMNNAME as COLUMN_NAME" //$NON-NLS-1$
+        + " from " + CONGLOMERATES //$NON-NLS-1$
+        + " join SYS.SYSTABLES t on t.TABLEID = i.TABLEID" //$NON-NLS-1$
+        + " join SYS.SYSSCHEMAS s on s.SCHEMAID = t.SCHEMAID" //$NON-NLS-1$
+        + " join SYS.SYSCOLUMNS c on c.REFERENCEID = t.TABLEID" //$NON-NLS-1$
+        + " where " + KEY_POSITION + " > 0" //$NON-NLS-1$ //$NON-NLS-2$
+        + " order by t.TABLENAME, i.CONGLOMERATENAME, " + KEY_POSITION; //$NON-NLS-1$
+
+    private static final String FOREIGN_KEYS_QUERY =
+        "select cast(null as varchar(128)) as TABLE_CAT, s.SCHEMANAME as TABLE_SCHEM," //$NON-NLS-1$
+        + " t.TABLENAME as TABLE_NAME, cs.CONSTRAINTNAME as FK_NAME," //$NON-NLS-1$
+        + " c.COLUMNNAME as COLUMN_NAME" //$NON-NLS-1$
+        + " from " + CONGLOMERATES //$NON-NLS-1$
+        + " join SYS.SYSFOREIGNKEYS f on f.CONGLOMERATEID = i.CONGLOMERATEID" //$NON-NLS-1$
+        + " join SYS.SYSCONSTRAINTS cs on cs.CONSTRAINTID = f.CONSTRAINTID" //$NON-NLS-1$
+        + " join SYS.SYSTABLES t on t.TABLEID = i.TABLEID" //$NON-NLS-1$
+        + " join SYS.SYSSCHEMAS s on s.SCHEMAID = t.SCHEMAID" //$NON-NLS-1$
+        + " join SYS.SYSCOLUMNS c on c.REFERENCEID = t.TABLEID" //$NON-NLS-1$
+        + " where " + KEY_POSITION + " > 0" //$NON-NLS-1$ //$NON-NLS-2$
+        + " order by t.TABLENAME, cs.CONSTRAINTNAME, " + KEY_POSITION; //$NON-NLS-1$
+
+    public DerbyMetadataProvider() {
+        super();
+    }
+
+    protected String getColumnsQuery() {
+        return COLUMNS_QUERY;
+    }
+
+    protected String getPrimaryKeysQuery() {
+        return PRIMARY_KEYS_QUERY;
+    }
+
+    protected String getIndicesQuery() {
+        return INDICES_QUERY;
+    }
+
+    protected String getForeignKeysQuery() {
+        return FOREIGN_KEYS_QUERY;
+    }
+
+    /**
+     * Reads the column from the text form of its type, such as
+     * "DECIMAL(10,2) NOT NULL" or "CHAR (10) FOR BIT DATA".  The type name
+     * is the one Derby's DatabaseMetaData reports - "DECIMAL" and
+     * "CHAR () FOR BIT DATA".
+     */
+    protected ColumnMetadata getColumnMetadata(ResultSet rs) throws SQLException {
+        String type = rs.getString("COLUMN_TYPE").trim(); //$NON-NLS-1$
+
+        boolean nullable = true;
+        if (type.toUpperCase().endsWith(NOT_NULL)) {
+            nullable = false;
+            type = type.substring(0, type.length() - NOT_NULL.length()).trim();
+        }
+
+        String typeName = type;
+        int length = 0;
+        int scale = 0;
+        int open = type.indexOf('(');
+        int close = type.indexOf(')', open);
+        if (open != -1 && close != -1) {
+            StringTokenizer st = new StringTokenizer(
+                    type.substring(open + 1, close), ","); //$NON-NLS-1$
+            if (st.hasMoreTokens()) {
+                length = Integer.parseInt(st.nextToken().trim());
+            }
+            if (st.hasMoreTokens()) {
+                scale = Integer.parseInt(st.nextToken().trim());
+            }
+
+            typeName = type.substring(0, open).trim();
+            String suffix = type.substring(close + 1).trim();
+            if (suffix.length() > 0) {
+                typeName = typeName + " () " + suffix; //$NON-NLS-1$
+            }
+        }
+
+        return new ColumnMetadata(rs.getString("COLUMN_NAME"), //$NON-NLS-1$
+                getJdbcType(typeName, length, scale),
+                typeName, length, scale, nullable);
+    }
+}
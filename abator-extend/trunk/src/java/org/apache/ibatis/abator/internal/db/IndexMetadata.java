@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the description of an index as returned from a
+ * MetadataProvider.
+ *
+ * @author Jeff Butler
+ */
+public class IndexMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String indexName;
+
+    private boolean unique;
+
+    private List columnNames;
+
+    public IndexMetadata(String indexName, boolean unique) {
+        super();
+        this.indexName = indexName;
+        this.unique = unique;
+        columnNames = new ArrayList();
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public void addColumnName(String columnName) {
+        columnNames.add(columnName);
+    }
+
+    /**
+     * @return a List&lt;String&gt; of the index columns, in index order
+     */
+    public List getColumnNames() {
+        return columnNames;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * This MetadataProvider reads the SQL standard INFORMATION_SCHEMA views.
+ * It works with databases such as HSQLDB, H2, PostgreSQL, MySQL and
+ * SQL Server.
+ *
+ * The standard does not define a view for indexes, so indexes are still
+ * read table by table through DatabaseMetaData.
+ *
+ * MySQL keeps its databases in TABLE_SCHEMA (TABLE_CATALOG is always
+ * "def"), but its driver reports them as catalogs.  For MySQL (and
+ * MariaDB) the configured schema must be the database name.
+ *
+ * @author Jeff Butler
+ */
+public class InformationSchemaMetadataProvider extends BulkMetadataProvider {
+
+    private static final String COLUMNS_QUERY =
+        "select TABLE_CATALOG as TABLE_CAT, TABLE_SCHEMA as TABLE_SCHEM, TABLE_NAME," //$NON-NLS-1$
+        + " COLUMN_NAME, DATA_TYPE as TYPE_NAME," //$NON-NLS-1$
+        + " coalesce(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, 0) as COLUMN_SIZE," //$NON-NLS-1$
+        + " coalesce(NUMERIC_SCALE, 0) as DECIMAL_DIGITS, IS_NULLABLE" //$NON-NLS-1$
+        + " from INFORMATION_SCHEMA.COLUMNS" //$NON-NLS-1$
+        + " where TABLE_SCHEMA = ?" //$NON-NLS-1$
+        + " order by TABLE_NAME, ORDINAL_POSITION"; //$NON-NLS-1$
+
+    private static final String PRIMARY_KEYS_QUERY =
+        "select k.TABLE_CATALOG as TABLE_CAT, k.TABLE_SCHEMA as TABLE_SCHEM, k.TABLE_NAME," //$NON-NLS-1$
+        + " k.COLUMN_NAME" //$NON-NLS-1$
+        + " from INFORMATION_SCHEMA.TABLE_CONSTRAINTS c" //$NON-NLS-1$
+        + " join INFORMATION_SCHEMA.KEY_COLUMN_USAGE k" //$NON-NLS-1$
+        + " on k.CONSTRAINT_CATALOG = c.CONSTRAINT_CATALOG" //$NON-NLS-1$
+        + " and k.CONSTRAINT_SCHEMA = c.CONSTRAINT_SCHEMA" //$NON-NLS-1$
+        + " and k.CONSTRAINT_NAME = c.CONSTRAINT_NAME" //$NON-NLS-1$
+        + " and k.TABLE_NAME = c.TABLE_NAME" //$NON-NLS-1$
+        + " where c.CONSTRAINT_TYPE = 'PRIMARY KEY' and c.TABLE_SCHEMA = ?" //$NON-NLS-1$
+        + " order by k.TABLE_NAME, k.ORDINAL_POSITION"; //$NON-NLS-1$
+
+    private static final String FOREIGN_KEYS_QUERY =
+        "select k.TABLE_CATALOG as TABLE_CAT, k.TABLE_SCHEMA as TABLE_SCHEM, k.TABLE_NAME," //$NON-NLS-1$
+        + " k.CONSTRAINT_NAME as FK_NAME, k.COLUMN_NAME" //$NON-NLS-1$
+        + " from INFORMATION_SCHEMA.TABLE_CONSTRAINTS c" //$NON-NLS-1$
+        + " join INFORMATION_SCHEMA.KEY_COLUMN_USAGE k" //$NON-NLS-1$
+        + " on k.CONSTRAINT_CATALOG = c.CONSTRAINT_CATALOG" //$NON-NLS-1$
+        + " and k.CONSTRAINT_SCHEMA = c.CONSTRAINT_SCHEMA" //$NON-NLS-1$
+        + " and k.CONSTRAINT_NAME = c.CONSTRAINT_NAME" //$NON-NLS-1$
+        + " and k.TABLE_NAME = c.TABLE_NAME" //$NON-NLS-1$
+        + " where c.CONSTRAINT_TYPE = 'FOREIGN KEY' and c.TABLE_SCHEMA = ?" //$NON-NLS-1$
+        + " order by k.TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION"; //$NON-NLS-1$
+
+    public InformationSchemaMetadataProvider() {
+        super();
+    }
+
+    protected String getColumnsQuery() {
+        return COLUMNS_QUERY;
+    }
+
+    protected String getPrimaryKeysQuery() {
+        return PRIMARY_KEYS_QUERY;
+    }
+
+    protected String getIndicesQuery() {
+        return null;
+    }
+
+    protected String getForeignKeysQuery() {
+        return FOREIGN_KEYS_QUERY;
+    }
+
+    /**
+     * MySQL reports its databases as catalogs through DatabaseMetaData,
+     * so the database in TABLE_SCHEMA is returned as the catalog.
+     */
+    protected String getTableCatalog(DatabaseMetaData databaseMetaData,
+            ResultSet rs) throws SQLException {
+        String productName = databaseMetaData.getDatabaseProductName();
+        if ("MySQL".equalsIgnoreCase(productName) //$NON-NLS-1$
+                || "MariaDB".equalsIgnoreCase(productName)) { //$NON-NLS-1$
+            return rs.getString("TABLE_SCHEM"); //$NON-NLS-1$
+        }
+
+        return super.getTableCatalog(databaseMetaData, rs);
+    }
+}
@@ -16,7 +16,9 @@
 
 package org.apache.ibatis.abator.internal.db;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.ibatis.abator.api.FullyQualifiedTable;
 import org.apache.ibatis.abator.api.IntrospectedTable;
@@ -163,6 +165,37 @@ public class IntrospectedTableImpl implements IntrospectedTable {
     	return columnDefinitions.getNonUniqueIndicesColumns().iterator();
     }
 
+    public Iterator getKeysetPagingKeys() {
+        List answer = new ArrayList();
+        if (columnDefinitions.hasPrimaryKeyColumns()) {
+            answer.add(columnDefinitions.getPrimaryKeyColumns());
+        }
+        
+        Iterator iter = columnDefinitions.getUniqueIndicesColumns().iterator();
+        while (iter.hasNext()) {
+            List columns = (List) iter.next();
+            if (columns.isEmpty()) {
+                continue;
+            }
+            
+            boolean nullable = false;
+            Iterator iter2 = columns.iterator();
+            while (iter2.hasNext()) {
+                ColumnDefinition cd = (ColumnDefinition) iter2.next();
+                if (cd.isNullable()) {
+                    nullable = true;
+                    break;
+                }
+            }
+            
+            if (!nullable) {
+                answer.add(columns);
+            }
+        }
+        
+        return answer.iterator();
+    }
+
     public String getTableConfigurationProperty(String property) {
         return tableConfiguration.getProperty(property);
     }
@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This interface describes the raw table metadata that the
+ * DatabaseIntrospector needs: columns, primary keys, indexes and
+ * foreign keys.  The default implementation calls the JDBC
+ * DatabaseMetaData methods for every table.  Other implementations
+ * may read a whole schema in a few bulk queries and answer the per-table
+ * calls from memory.
+ *
+ * Abator creates one provider per context run and shares it between all
+ * generation threads, so implementations must be thread safe.
+ *
+ * Specify a provider with the <code>metadataProvider</code> context
+ * property.
+ *
+ * @author Jeff Butler
+ */
+public interface MetadataProvider {
+
+    /**
+     * Returns the columns of all tables matching the arguments.  The arguments
+     * follow the rules of <code>DatabaseMetaData.getColumns</code> - the
+     * identifiers have already been case adjusted, and the table name may
+     * contain wildcards.
+     *
+     * @param databaseMetaData metadata of the connection to use
+     * @param catalog the catalog, or null
+     * @param schema the schema, or null
+     * @param tableNamePattern the table name (may contain wildcards)
+     * @return a Map&lt;ActualTableName, List&lt;ColumnMetadata&gt;&gt;.  The
+     *   columns are in table order.
+     * @throws SQLException
+     */
+    Map getColumns(DatabaseMetaData databaseMetaData, String catalog, String schema,
+            String tableNamePattern) throws SQLException;
+
+    /**
+     * @param databaseMetaData metadata of the connection to use
+     * @param table a table returned from <code>getColumns</code>
+     * @return a List&lt;String&gt; of primary key column names in key order
+     * @throws SQLException
+     */
+    List getPrimaryKeyColumns(DatabaseMetaData databaseMetaData, ActualTableName table)
+            throws SQLException;
+
+    /**
+     * @param databaseMetaData metadata of the connection to use
+     * @param table a table returned from <code>getColumns</code>
+     * @return a List&lt;IndexMetadata&gt;
+     * @throws SQLException
+     */
+    List getIndices(DatabaseMetaData databaseMetaData, ActualTableName table)
+            throws SQLException;
+
+    /**
+     * @param databaseMetaData metadata of the connection to use
+     * @param table a table returned from <code>getColumns</code>
+     * @return a List&lt;List&lt;String&gt;&gt; - one list of column names for
+     *   each foreign key, in key order
+     * @throws SQLException
+     */
+    List getForeignKeys(DatabaseMetaData databaseMetaData, ActualTableName table)
+            throws SQLException;
+}
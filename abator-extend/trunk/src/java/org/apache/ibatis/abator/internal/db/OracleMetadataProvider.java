@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.Types;
+
+/**
+ * This MetadataProvider reads the Oracle data dictionary views
+ * (ALL_TAB_COLUMNS, ALL_CONSTRAINTS, ALL_INDEXES...).  These views are
+ * much faster than the Oracle driver's DatabaseMetaData methods, which
+ * run a complex dictionary query for every call.
+ *
+ * @author Jeff Butler
+ */
+public class OracleMetadataProvider extends BulkMetadataProvider {
+
+    /**
+     * The sizes are the ones the Oracle driver reports, so that the Java
+     * types do not change when switching from the default provider.  An
+     * unconstrained NUMBER has size 0 and scale -127, NUMBER(*,s) has
+     * size 38.
+     */
+    private static final String COLUMNS_QUERY =
+        "select null as TABLE_CAT, OWNER as TABLE_SCHEM, TABLE_NAME, COLUMN_NAME," //$NON-NLS-1$
+        + " DATA_TYPE as TYPE_NAME," //$NON-NLS-1$
+        + " case when DATA_PRECISION is not null then DATA_PRECISION" //$NON-NLS-1$
+        + " when DATA_TYPE = 'NUMBER' then case when DATA_SCALE is null then 0 else 38 end" //$NON-NLS-1$
+        + " when CHAR_LENGTH > 0 then CHAR_LENGTH" //$NON-NLS-1$
+        + " else DATA_LENGTH end as COLUMN_SIZE," //$NON-NLS-1$
+        + " case when DATA_TYPE = 'NUMBER' and DATA_PRECISION is null" //$NON-NLS-1$
+        + " and DATA_SCALE is null then -127" //$NON-NLS-1$
+        + " else nvl(DATA_SCALE, 0) end as DECIMAL_DIGITS, NULLABLE as IS_NULLABLE" //$NON-NLS-1$
+        + " from ALL_TAB_COLUMNS" //$NON-NLS-1$
+        + " where OWNER = ?" //$NON-NLS-1$
+        + " order by TABLE_NAME, COLUMN_ID"; //$NON-NLS-1$
+
+    private static final String PRIMARY_KEYS_QUERY =
+        "select null as TABLE_CAT, c.OWNER as TABLE_SCHEM, c.TABLE_NAME, cc.COLUMN_NAME" //$NON-NLS-1$
+        + " from ALL_CONSTRAINTS c" //$NON-NLS-1$
+        + " join ALL_CONS_COLUMNS cc" //$NON-NLS-1$
+        + " on cc.OWNER = c.OWNER and cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME" //$NON-NLS-1$
+        + " where c.CONSTRAINT_TYPE = 'P' and c.OWNER = ?" //$NON-NLS-1$
+        + " order by c.TABLE_NAME, cc.POSITION"; //$NON-NLS-1$
+
+    private static final String INDICES_QUERY =
+        "select null as TABLE_CAT, i.TABLE_OWNER as TABLE_SCHEM, i.TABLE_NAME," //$NON-NLS-1$
+        + " i.INDEX_NAME, case when i.UNIQUENESS = 'UNIQUE' then 0 else 1 end as NON_UNIQUE," //$NON-NLS-1$
+        + " ic.COLUMN_NAME" //$NON-NLS-1$
+        + " from ALL_INDEXES i" //$NON-NLS-1$
+        + " join ALL_IND_COLUMNS ic" //$NON-NLS-1$
+        + " on ic.INDEX_OWNER = i.OWNER and ic.INDEX_NAME = i.INDEX_NAME" //$NON-NLS-1$
+        + " where i.TABLE_OWNER = ?" //$NON-NLS-1$
+        + " order by i.TABLE_NAME, NON_UNIQUE, i.INDEX_NAME, ic.COLUMN_POSITION"; //$NON-NLS-1$
+
+    private static final String FOREIGN_KEYS_QUERY =
+        "select null as TABLE_CAT, c.OWNER as TABLE_SCHEM, c.TABLE_NAME," //$NON-NLS-1$
+        + " c.CONSTRAINT_NAME as FK_NAME, cc.COLUMN_NAME" //$NON-NLS-1$
+        + " from ALL_CONSTRAINTS c" //$NON-NLS-1$
+        + " join ALL_CONS_COLUMNS cc" //$NON-NLS-1$
+        + " on cc.OWNER = c.OWNER and cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME" //$NON-NLS-1$
+        + " where c.CONSTRAINT_TYPE = 'R' and c.OWNER = ?" //$NON-NLS-1$
+        + " order by c.TABLE_NAME, c.CONSTRAINT_NAME, cc.POSITION"; //$NON-NLS-1$
+
+    private static final String FINGERPRINT_QUERY =
+        "select null as TABLE_CAT, t.OWNER as TABLE_SCHEM, t.OBJECT_NAME as TABLE_NAME," //$NON-NLS-1$
+        + " to_char(greatest(t.LAST_DDL_TIME, nvl((select max(o.LAST_DDL_TIME)" //$NON-NLS-1$
+        + " from ALL_INDEXES i" //$NON-NLS-1$
+        + " join ALL_OBJECTS o" //$NON-NLS-1$
+        + " on o.OWNER = i.OWNER and o.OBJECT_NAME = i.INDEX_NAME and o.OBJECT_TYPE = 'INDEX'" //$NON-NLS-1$
+        + " where i.TABLE_OWNER = t.OWNER and i.TABLE_NAME = t.OBJECT_NAME), t.LAST_DDL_TIME))," //$NON-NLS-1$
+        + " 'YYYYMMDDHH24MISS') || '/' || (select count(*) from ALL_INDEXES i" //$NON-NLS-1$
+        + " where i.TABLE_OWNER = t.OWNER and i.TABLE_NAME = t.OBJECT_NAME) as FINGERPRINT" //$NON-NLS-1$
+        + " from ALL_OBJECTS t" //$NON-NLS-1$
+        + " where t.OBJECT_TYPE in ('TABLE', 'VIEW') and t.OWNER = ?"; //$NON-NLS-1$
+
+    public OracleMetadataProvider() {
+        super();
+    }
+
+    protected String getColumnsQuery() {
+        return COLUMNS_QUERY;
+    }
+
+    protected String getPrimaryKeysQuery() {
+        return PRIMARY_KEYS_QUERY;
+    }
+
+    protected String getIndicesQuery() {
+        return INDICES_QUERY;
+    }
+
+    protected String getForeignKeysQuery() {
+        return FOREIGN_KEYS_QUERY;
+    }
+
+    /**
+     * The fingerprint is made of the latest DDL time of the table and its
+     * indexes, and the number of indexes (dropping an index does not change
+     * the table's DDL time).
+     */
+    protected String getFingerprintQuery() {
+        return FINGERPRINT_QUERY;
+    }
+
+    /**
+     * The Oracle driver reports DATE columns as TIMESTAMP (an Oracle DATE
+     * has a time part).  This method does the same so that the generated
+     * code does not change when switching from the default provider.
+     */
+    protected int getJdbcType(String typeName, int length, int scale) {
+        if ("DATE".equalsIgnoreCase(typeName)) { //$NON-NLS-1$
+            return Types.TIMESTAMP;
+        }
+
+        return super.getJdbcType(typeName, length, scale);
+    }
+}
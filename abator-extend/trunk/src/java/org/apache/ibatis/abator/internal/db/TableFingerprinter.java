@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.db;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * MetadataProviders may implement this interface if the database offers a
+ * cheap way to tell whether a table's definition has changed - typically
+ * the time of the last DDL statement.  The CachingMetadataProvider uses the
+ * fingerprint to decide whether a cached table snapshot is still valid.
+ *
+ * @author Jeff Butler
+ */
+public interface TableFingerprinter {
+
+    /**
+     * @param databaseMetaData metadata of the connection to use
+     * @param table
+     * @return a String that changes whenever the definition of the table
+     *   (columns, keys or indexes) changes, or null if no fingerprint is
+     *   available for the table
+     * @throws SQLException
+     */
+    String getFingerprint(DatabaseMetaData databaseMetaData, ActualTableName table)
+            throws SQLException;
+}
@@ -15,7 +15,6 @@
  */
 package org.apache.ibatis.abator.internal.java.dao;
 
-import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -26,6 +25,7 @@ import org.apache.ibatis.abator.api.dom.java.Field;
 import org.apache.ibatis.abator.api.dom.java.FullyQualifiedJavaType;
 import org.apache.ibatis.abator.api.dom.java.Method;
 import org.apache.ibatis.abator.api.dom.java.Parameter;
+import org.apache.ibatis.abator.internal.util.CodeTemplate;
 
 /**
  * @author Jeff Butler
@@ -45,15 +45,21 @@ public abstract class AbstractDAOTemplate {
 
     private Method constructorTemplate;
 
-    private String deleteMethodTemplate;
+    private CodeTemplate deleteMethodTemplate;
 
-    private String insertMethodTemplate;
+    private CodeTemplate insertMethodTemplate;
 
-    private String updateMethodTemplate;
+    private CodeTemplate updateMethodTemplate;
 
-    private String queryForObjectMethodTemplate;
+    private CodeTemplate queryForObjectMethodTemplate;
 
-    private String queryForListMethodTemplate;
+    private CodeTemplate queryForListMethodTemplate;
+
+    private String batchExecutor;
+
+    private boolean batchParameterFinal;
+
+    private List batchImports;
 
     /**
      *  
@@ -65,6 +71,8 @@ public abstract class AbstractDAOTemplate {
         fields = new ArrayList();
         methods = new ArrayList();
         checkedExceptions = new ArrayList();
+        batchImports = new ArrayList();
+        batchExecutor = ""; //$NON-NLS-1$
     }
 
     public Method getConstructorClone(CommentGenerator commentGenerator, FullyQualifiedJavaType type, FullyQualifiedTable table) {
@@ -92,7 +100,7 @@ public abstract class AbstractDAOTemplate {
 
     public String getDeleteMethod(String sqlMapNamespace, String statementId,
             String parameter) {
-        String answer = MessageFormat.format(deleteMethodTemplate,
+        String answer = deleteMethodTemplate.format(
                 new String[] { sqlMapNamespace, statementId, parameter });
 
         return answer;
@@ -108,7 +116,7 @@ public abstract class AbstractDAOTemplate {
 
     public String getInsertMethod(String sqlMapNamespace, String statementId,
             String parameter) {
-        String answer = MessageFormat.format(insertMethodTemplate,
+        String answer = insertMethodTemplate.format(
                 new String[] { sqlMapNamespace, statementId, parameter });
 
         return answer;
@@ -116,7 +124,7 @@ public abstract class AbstractDAOTemplate {
 
     public String getQueryForListMethod(String sqlMapNamespace, String statementId,
             String parameter) {
-        String answer = MessageFormat.format(queryForListMethodTemplate,
+        String answer = queryForListMethodTemplate.format(
                 new String[] { sqlMapNamespace, statementId, parameter });
 
         return answer;
@@ -124,7 +132,7 @@ public abstract class AbstractDAOTemplate {
 
     public String getQueryForObjectMethod(String sqlMapNamespace, String statementId,
             String parameter) {
-        String answer = MessageFormat.format(queryForObjectMethodTemplate,
+        String answer = queryForObjectMethodTemplate.format(
                 new String[] { sqlMapNamespace, statementId, parameter });
 
         return answer;
@@ -136,12 +144,53 @@ public abstract class AbstractDAOTemplate {
 
     public String getUpdateMethod(String sqlMapNamespace, String statementId,
             String parameter) {
-        String answer = MessageFormat.format(updateMethodTemplate,
+        String answer = updateMethodTemplate.format(
                 new String[] { sqlMapNamespace, statementId, parameter });
 
         return answer;
     }
 
+    /**
+     * Returns the prefix of the batch calls in the lines passed to
+     * getBatchMethodBodyLines(), such as "sqlMapClient." for
+     * sqlMapClient.startBatch().
+     */
+    public String getBatchExecutor() {
+        return batchExecutor;
+    }
+
+    /**
+     * Returns true if the List parameter of batch methods must be final,
+     * because the batch runs in an anonymous class.
+     */
+    public boolean isBatchParameterFinal() {
+        return batchParameterFinal;
+    }
+
+    /**
+     * Returns the types the implementation needs if it has batch methods.
+     */
+    public List getBatchImports() {
+        return batchImports;
+    }
+
+    /**
+     * Returns the body of a batch method.  This implementation runs the
+     * batch lines as they are, which works for executors that take part in
+     * the transaction of the caller.
+     * 
+     * @param batchLines the lines that run the statements on the batch
+     *   executor, and leave the update count of each batch in the int[]
+     *   variable answer
+     * @return the body lines, which return answer
+     */
+    public List getBatchMethodBodyLines(List batchLines) {
+        List answer = new ArrayList(batchLines);
+        answer.add("return answer;"); //$NON-NLS-1$
+
+        return answer;
+    }
+
     public List getCheckedExceptions() {
         return checkedExceptions;
     }
@@ -208,7 +257,7 @@ public abstract class AbstractDAOTemplate {
     }
 
     protected void setDeleteMethodTemplate(String deleteMethodTemplate) {
-        this.deleteMethodTemplate = deleteMethodTemplate;
+        this.deleteMethodTemplate = new CodeTemplate(deleteMethodTemplate);
     }
 
     protected void addField(Field field) {
@@ -216,7 +265,7 @@ public abstract class AbstractDAOTemplate {
     }
 
     protected void setInsertMethodTemplate(String insertMethodTemplate) {
-        this.insertMethodTemplate = insertMethodTemplate;
+        this.insertMethodTemplate = new CodeTemplate(insertMethodTemplate);
     }
 
     protected void addMethod(Method method) {
@@ -224,11 +273,11 @@ public abstract class AbstractDAOTemplate {
     }
 
     protected void setQueryForListMethodTemplate(String queryForListMethodTemplate) {
-        this.queryForListMethodTemplate = queryForListMethodTemplate;
+        this.queryForListMethodTemplate = new CodeTemplate(queryForListMethodTemplate);
     }
 
     protected void setQueryForObjectMethodTemplate(String queryForObjectMethodTemplate) {
-        this.queryForObjectMethodTemplate = queryForObjectMethodTemplate;
+        this.queryForObjectMethodTemplate = new CodeTemplate(queryForObjectMethodTemplate);
     }
 
     protected void setSuperClass(FullyQualifiedJavaType superClass) {
@@ -236,7 +285,19 @@ public abstract class AbstractDAOTemplate {
     }
 
     protected void setUpdateMethodTemplate(String updateMethodTemplate) {
-        this.updateMethodTemplate = updateMethodTemplate;
+        this.updateMethodTemplate = new CodeTemplate(updateMethodTemplate);
+    }
+
+    protected void setBatchExecutor(String batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    protected void setBatchParameterFinal(boolean batchParameterFinal) {
+        this.batchParameterFinal = batchParameterFinal;
+    }
+
+    protected void addBatchImport(FullyQualifiedJavaType type) {
+        batchImports.add(type);
     }
 
     protected void addInterfaceImport(FullyQualifiedJavaType type) {
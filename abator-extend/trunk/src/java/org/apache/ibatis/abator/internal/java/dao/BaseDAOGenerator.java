@@ -16,11 +16,11 @@
 package org.apache.ibatis.abator.internal.java.dao;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.abator.api.CommentGenerator;
 import org.apache.ibatis.abator.api.DAOGenerator;
@@ -47,7 +47,9 @@ import org.apache.ibatis.abator.internal.AbatorObjectFactory;
 import org.apache.ibatis.abator.internal.DefaultDAOMethodNameCalculator;
 import org.apache.ibatis.abator.internal.ExtendedDAOMethodNameCalculator;
 import org.apache.ibatis.abator.internal.db.ColumnDefinition;
+import org.apache.ibatis.abator.internal.db.DatabaseDialects;
 import org.apache.ibatis.abator.internal.rules.AbatorRules;
+import org.apache.ibatis.abator.internal.util.CodeTemplate;
 import org.apache.ibatis.abator.internal.util.JavaBeansUtil;
 import org.apache.ibatis.abator.internal.util.StringUtility;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
@@ -110,13 +112,19 @@ public class BaseDAOGenerator implements DAOGenerator {
 
     protected SqlMapGenerator sqlMapGenerator;
 
-    private Map tableValueMaps;
+    private ConcurrentHashMap tableValueMaps;
 
     private boolean useJava5Features;
     
     protected JavaVisibility exampleMethodVisibility = JavaVisibility.PUBLIC;
     
     protected DAOMethodNameCalculator methodNameCalculator = new DefaultDAOMethodNameCalculator();
+
+    /**
+     * The number of statements the generated batch methods send in one JDBC
+     * batch
+     */
+    protected int batchSize = 100;
     
     /**
      * 
@@ -126,7 +134,7 @@ public class BaseDAOGenerator implements DAOGenerator {
         super();
         this.daoTemplate = daoTemplate;
         this.useJava5Features = useJava5Features;
-        tableValueMaps = new HashMap();
+        tableValueMaps = new ConcurrentHashMap();
         properties = new Properties();
     }
 
@@ -162,6 +170,67 @@ public class BaseDAOGenerator implements DAOGenerator {
                 }
             }
         }
+
+        value = properties.getProperty(PropertyRegistry.DAO_BATCH_SIZE);
+        if (StringUtility.stringHasValue(value)) {
+            int size;
+            try {
+                size = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                size = 0;
+            }
+            
+            if (size > 0) {
+                batchSize = size;
+            } else {
+                warnings.add(Messages.getString("Warning.31", //$NON-NLS-1$
+                        value, Integer.toString(batchSize)));
+            }
+        }
+
+        value = getMethodTemplate(PropertyRegistry.DAO_DELETE_METHOD_TEMPLATE);
+        if (value != null) {
+            daoTemplate.setDeleteMethodTemplate(value);
+        }
+
+        value = getMethodTemplate(PropertyRegistry.DAO_INSERT_METHOD_TEMPLATE);
+        if (value != null) {
+            daoTemplate.setInsertMethodTemplate(value);
+        }
+
+        value = getMethodTemplate(PropertyRegistry.DAO_UPDATE_METHOD_TEMPLATE);
+        if (value != null) {
+            daoTemplate.setUpdateMethodTemplate(value);
+        }
+
+        value = getMethodTemplate(PropertyRegistry.DAO_QUERY_FOR_OBJECT_METHOD_TEMPLATE);
+        if (value != null) {
+            daoTemplate.setQueryForObjectMethodTemplate(value);
+        }
+
+        value = getMethodTemplate(PropertyRegistry.DAO_QUERY_FOR_LIST_METHOD_TEMPLATE);
+        if (value != null) {
+            daoTemplate.setQueryForListMethodTemplate(value);
+        }
+    }
+
+    /**
+     * Returns the configured pattern for the calls of a kind of DAO method,
+     * or null if the default of the DAO template should be used.
+     */
+    private String getMethodTemplate(String property) {
+        String value = properties.getProperty(property);
+        if (!StringUtility.stringHasValue(value)) {
+            return null;
+        }
+
+        int maxArgumentIndex = new CodeTemplate(value).getMaxArgumentIndex();
+        if (maxArgumentIndex > 2) {
+            warnings.add(Messages.getString("Warning.29", //$NON-NLS-1$
+                    property, Integer.toString(maxArgumentIndex)));
+        }
+
+        return value;
     }
 
     /*
@@ -273,6 +342,36 @@ public class BaseDAOGenerator implements DAOGenerator {
         }
 
         AbatorRules rules = introspectedTable.getRules();
+        
+        if (hasBatchMethods(introspectedTable)) {
+            Field field = new Field();
+            field.setVisibility(JavaVisibility.PRIVATE);
+            field.setModifierStatic(true);
+            field.setModifierFinal(true);
+            field.setType(FullyQualifiedJavaType.getIntInstance());
+            field.setName("BATCH_SIZE"); //$NON-NLS-1$
+            field.setInitializationString(Integer.toString(batchSize));
+            commentGenerator.addFieldComment(field, table);
+            answer.addField(field);
+            
+            iter = daoTemplate.getBatchImports().iterator();
+            while (iter.hasNext()) {
+                answer.addImportedType((FullyQualifiedJavaType) iter.next());
+            }
+        }
+
+        int rows = getMaxInsertMultipleRows(introspectedTable);
+        if (rules.generateInsertMultiple() && rows > 0) {
+            Field field = new Field();
+            field.setVisibility(JavaVisibility.PRIVATE);
+            field.setModifierStatic(true);
+            field.setModifierFinal(true);
+            field.setType(FullyQualifiedJavaType.getIntInstance());
+            field.setName("INSERT_MULTIPLE_ROWS"); //$NON-NLS-1$
+            field.setInitializationString(Integer.toString(rows));
+            commentGenerator.addFieldComment(field, table);
+            answer.addField(field);
+        }
         List methods;
         
         if (rules.generateInsert()) {
@@ -283,6 +382,24 @@ public class BaseDAOGenerator implements DAOGenerator {
                     answer.addMethod((Method) iter.next());
                 }
             }
+
+            methods = getInsertBatchMethods(introspectedTable, false, answer);
+            if (methods != null) {
+                iter = methods.iterator();
+                while (iter.hasNext()) {
+                    answer.addMethod((Method) iter.next());
+                }
+            }
+        }
+
+        if (rules.generateInsertMultiple() && getMaxInsertMultipleRows(introspectedTable) > 0) {
+            methods = getInsertMultipleMethods(introspectedTable, false, answer);
+            if (methods != null) {
+                iter = methods.iterator();
+                while (iter.hasNext()) {
+                    answer.addMethod((Method) iter.next());
+                }
+            }
         }
 
         if (rules.generateUpdateByPrimaryKeyWithoutBLOBs()) {
@@ -338,6 +455,15 @@ public class BaseDAOGenerator implements DAOGenerator {
             }
         }
 
+        if (isDatabasePaging()
+                && (rules.generateSelectByExampleWithoutBLOBs()
+                        || rules.generateSelectByExampleWithBLOBs())) {
+            InnerClass innerClass = getSelectByExampleParms(introspectedTable, answer);
+            if (innerClass != null) {
+                answer.addInnerClass(innerClass);
+            }
+        }
+
         if (rules.generateSelectByPrimaryKey()) {
             methods = getSelectByPrimaryKeyMethods(introspectedTable, false, answer);
             if (methods != null) {
@@ -439,6 +565,11 @@ public class BaseDAOGenerator implements DAOGenerator {
         		answer.addMethod((Method)iter.next());
         	}
         }
+        methods = getSelectPageAfterMethods(introspectedTable, false, answer);
+        iter = methods.iterator();
+        while (iter.hasNext()) {
+            answer.addMethod((Method) iter.next());
+        }
         InnerClass ic = getOrderByParms(introspectedTable, answer);
         if(ic != null){
         	answer.addInnerClass(ic);
@@ -555,7 +686,11 @@ public class BaseDAOGenerator implements DAOGenerator {
                     methodCount.addBodyLine(sb.toString());
                 }
                 method.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy);"); //$NON-NLS-1$
-                methodPaging.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy);"); //$NON-NLS-1$
+                if (isDatabasePaging()) {
+                    methodPaging.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy, skipResults, maxResults);"); //$NON-NLS-1$
+                } else {
+                    methodPaging.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy);"); //$NON-NLS-1$
+                }
             
 
 	            sb.setLength(0);
@@ -575,7 +710,7 @@ public class BaseDAOGenerator implements DAOGenerator {
 	            sb.append(") "); //$NON-NLS-1$
 	            sb.append(daoTemplate.getQueryForListMethod(sqlMapGenerator
 	                    .getSqlMapNamespace(table), sqlMapGenerator
-	                    .getQueryByForeignKeyStatementId(introspectedTable, columns), "parms, skipResults, maxResults")); //$NON-NLS-1$
+	                    .getQueryByForeignKeyStatementId(introspectedTable, columns), getPagingArguments("parms"))); //$NON-NLS-1$
 	            methodPaging.addBodyLine(sb.toString());
 	            
 	            sb.setLength(0);
@@ -710,7 +845,11 @@ public class BaseDAOGenerator implements DAOGenerator {
                     methodCount.addBodyLine(sb.toString());
                 }
                 method.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy);"); //$NON-NLS-1$
-                methodPaging.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy);"); //$NON-NLS-1$
+                if (isDatabasePaging()) {
+                    methodPaging.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy, skipResults, maxResults);"); //$NON-NLS-1$
+                } else {
+                    methodPaging.addBodyLine("OrderByParms parms = new OrderByParms(record, orderBy);"); //$NON-NLS-1$
+                }
             
 
 	            sb.setLength(0);
@@ -730,7 +869,7 @@ public class BaseDAOGenerator implements DAOGenerator {
 	            sb.append(") "); //$NON-NLS-1$
 	            sb.append(daoTemplate.getQueryForListMethod(sqlMapGenerator
 	                    .getSqlMapNamespace(table), sqlMapGenerator
-	                    .getQueryByNonUniqueIndexStatementId(introspectedTable, columns), "parms, skipResults, maxResults")); //$NON-NLS-1$
+	                    .getQueryByNonUniqueIndexStatementId(introspectedTable, columns), getPagingArguments("parms"))); //$NON-NLS-1$
 	            methodPaging.addBodyLine(sb.toString());
 
 	            sb.setLength(0);
@@ -904,6 +1043,24 @@ public class BaseDAOGenerator implements DAOGenerator {
                     answer.addMethod((Method) iter.next());
                 }
             }
+
+            methods = getInsertBatchMethods(introspectedTable, true, answer);
+            if (methods != null) {
+                iter = methods.iterator();
+                while (iter.hasNext()) {
+                    answer.addMethod((Method) iter.next());
+                }
+            }
+        }
+
+        if (rules.generateInsertMultiple() && getMaxInsertMultipleRows(introspectedTable) > 0) {
+            methods = getInsertMultipleMethods(introspectedTable, true, answer);
+            if (methods != null) {
+                iter = methods.iterator();
+                while (iter.hasNext()) {
+                    answer.addMethod((Method) iter.next());
+                }
+            }
         }
 
         if (rules.generateUpdateByPrimaryKeyWithoutBLOBs()) {
@@ -1051,12 +1208,130 @@ public class BaseDAOGenerator implements DAOGenerator {
         		answer.addMethod((Method)iter.next());
         	}
         }
+        methods = getSelectPageAfterMethods(introspectedTable, true, answer);
+        iter = methods.iterator();
+        while (iter.hasNext()) {
+            answer.addMethod((Method) iter.next());
+        }
         
         afterInterfaceGenerationHook(introspectedTable, answer);
         
         return answer;
     }
 
+    /**
+     * Returns the keyset paging methods, one for each key of
+     * IntrospectedTable.getKeysetPagingKeys().  The methods take the key of
+     * the last row of the previous page (nulls for the first page) and the
+     * page size, and return the following rows in key order.
+     */
+    protected List getSelectPageAfterMethods(
+            IntrospectedTable introspectedTable, boolean interfaceMethod,
+            CompilationUnit compilationUnit) {
+        FullyQualifiedTable table = introspectedTable.getTable();
+        List answer = new ArrayList();
+        
+        Iterator iter = introspectedTable.getKeysetPagingKeys();
+        while (iter.hasNext()) {
+            List columns = (List) iter.next();
+            
+            compilationUnit.addImportedType(FullyQualifiedJavaType
+                    .getNewListInstance());
+            
+            Method method = new Method();
+            method.setVisibility(JavaVisibility.PUBLIC);
+            
+            FullyQualifiedJavaType returnType = FullyQualifiedJavaType.getNewListInstance();
+            if (useJava5Features) {
+                FullyQualifiedJavaType fqjt;
+                if (introspectedTable.getRules().generateRecordWithBLOBsClass()) {
+                    fqjt = javaModelGenerator.getRecordWithBLOBsType(table);
+                } else {
+                    // the blob fields must be rolled up into the base class
+                    fqjt = javaModelGenerator.getBaseRecordType(table);
+                }
+                
+                compilationUnit.addImportedType(fqjt);
+                returnType.addTypeArgument(fqjt);
+                
+                if (!interfaceMethod) {
+                    method.addSuppressTypeWarningsAnnotation();
+                }
+            }
+            method.setReturnType(returnType);
+            method.setName(methodNameCalculator.getSelectPageAfterMethodName(
+                    introspectedTable, columns));
+            
+            Iterator iter2 = columns.iterator();
+            while (iter2.hasNext()) {
+                ColumnDefinition cd = (ColumnDefinition) iter2.next();
+                FullyQualifiedJavaType type = cd.getResolvedJavaType().getFullyQualifiedJavaType();
+                compilationUnit.addImportedType(type);
+                method.addParameter(new Parameter(type, cd.getJavaProperty()));
+            }
+            method.addParameter(new Parameter(FullyQualifiedJavaType
+                    .getIntInstance(), "pageSize")); //$NON-NLS-1$
+            
+            iter2 = daoTemplate.getCheckedExceptions().iterator();
+            while (iter2.hasNext()) {
+                FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter2.next();
+                method.addException(fqjt);
+                compilationUnit.addImportedType(fqjt);
+            }
+            
+            abatorContext.getCommentGenerator().addGeneralMethodComment(method, table);
+            
+            if (!interfaceMethod) {
+                // generate the implementation method
+                FullyQualifiedJavaType keyType = javaModelGenerator.getBaseRecordType(table);
+                compilationUnit.addImportedType(keyType);
+                
+                StringBuffer sb = new StringBuffer();
+                sb.append(keyType.getShortName());
+                sb.append(" record = new "); //$NON-NLS-1$
+                sb.append(keyType.getShortName());
+                sb.append("();"); //$NON-NLS-1$
+                method.addBodyLine(sb.toString());
+                
+                iter2 = columns.iterator();
+                while (iter2.hasNext()) {
+                    ColumnDefinition cd = (ColumnDefinition) iter2.next();
+                    sb.setLength(0);
+                    sb.append("record."); //$NON-NLS-1$
+                    sb.append(JavaBeansUtil.getSetterMethodName(cd.getJavaProperty()));
+                    sb.append('(');
+                    sb.append(cd.getJavaProperty());
+                    sb.append(");"); //$NON-NLS-1$
+                    method.addBodyLine(sb.toString());
+                }
+                
+                String parameter;
+                if (isDatabasePaging()) {
+                    method.addBodyLine("OrderByParms parms = new OrderByParms(record, null, 0, pageSize);"); //$NON-NLS-1$
+                    parameter = "parms"; //$NON-NLS-1$
+                } else {
+                    method.addBodyLine("OrderByParms parms = new OrderByParms(record, null);"); //$NON-NLS-1$
+                    parameter = "parms, 0, pageSize"; //$NON-NLS-1$
+                }
+                
+                sb.setLength(0);
+                sb.append(returnType.getShortName());
+                sb.append(" list = ("); //$NON-NLS-1$
+                sb.append(returnType.getShortName());
+                sb.append(") "); //$NON-NLS-1$
+                sb.append(daoTemplate.getQueryForListMethod(sqlMapGenerator
+                        .getSqlMapNamespace(table), sqlMapGenerator
+                        .getSelectPageAfterStatementId(introspectedTable, columns), parameter));
+                method.addBodyLine(sb.toString());
+                method.addBodyLine("return list;"); //$NON-NLS-1$
+            }
+            
+            answer.add(method);
+        }
+        
+        return answer;
+    }
+
     protected FullyQualifiedJavaType getDAOImplementationType(
             FullyQualifiedTable table) {
         String key = "getDAOImplementationType"; //$NON-NLS-1$
@@ -1165,6 +1440,209 @@ public class BaseDAOGenerator implements DAOGenerator {
         return answer;
     }
 
+    protected List getInsertBatchMethods(IntrospectedTable introspectedTable,
+            boolean interfaceMethod, CompilationUnit compilationUnit) {
+
+        FullyQualifiedTable table = introspectedTable.getTable();
+        Method method = getBatchMethod(introspectedTable,
+                methodNameCalculator.getInsertBatchMethodName(introspectedTable),
+                introspectedTable.getRules().calculateAllFieldsClass(javaModelGenerator, table),
+                "records", "insert", sqlMapGenerator.getInsertStatementId(), //$NON-NLS-1$ //$NON-NLS-2$
+                interfaceMethod, compilationUnit);
+
+        List answer = new ArrayList();
+        answer.add(method);
+
+        return answer;
+    }
+
+    protected List getInsertMultipleMethods(IntrospectedTable introspectedTable,
+            boolean interfaceMethod, CompilationUnit compilationUnit) {
+
+        FullyQualifiedTable table = introspectedTable.getTable();
+        Method method = new Method();
+        method.setReturnType(FullyQualifiedJavaType.getIntInstance());
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setName(methodNameCalculator.getInsertMultipleMethodName(introspectedTable));
+
+        FullyQualifiedJavaType type = FullyQualifiedJavaType.getNewListInstance();
+        if (useJava5Features) {
+            FullyQualifiedJavaType recordType =
+                introspectedTable.getRules().calculateAllFieldsClass(javaModelGenerator, table);
+            type.addTypeArgument(recordType);
+            compilationUnit.addImportedType(recordType);
+        }
+        compilationUnit.addImportedType(type);
+        method.addParameter(new Parameter(type, "records")); //$NON-NLS-1$
+
+        Iterator iter = daoTemplate.getCheckedExceptions().iterator();
+        while (iter.hasNext()) {
+            FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter.next();
+            method.addException(fqjt);
+            compilationUnit.addImportedType(fqjt);
+        }
+
+        abatorContext.getCommentGenerator().addGeneralMethodComment(method, table);
+        
+        if (!interfaceMethod) {
+            // generate the implementation method
+            StringBuffer sb = new StringBuffer();
+
+            method.addBodyLine("int rows = 0;"); //$NON-NLS-1$
+            method.addBodyLine("for (int i = 0; i < records.size(); i += INSERT_MULTIPLE_ROWS) {"); //$NON-NLS-1$
+            
+            sb.append(type.getShortName());
+            sb.append(" chunk = records.subList(i, Math.min(records.size(), i + INSERT_MULTIPLE_ROWS));"); //$NON-NLS-1$
+            method.addBodyLine(sb.toString());
+            
+            sb.setLength(0);
+            sb.append("rows += "); //$NON-NLS-1$
+            sb.append(daoTemplate.getUpdateMethod(sqlMapGenerator
+                    .getSqlMapNamespace(table), sqlMapGenerator
+                    .getInsertMultipleStatementId(), "chunk")); //$NON-NLS-1$
+            method.addBodyLine(sb.toString());
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("return rows;"); //$NON-NLS-1$
+        }
+
+        List answer = new ArrayList();
+        answer.add(method);
+
+        return answer;
+    }
+
+    /**
+     * Returns the most records one multi-row insert statement may have: at
+     * most batchSize, and few enough that the parameters of all columns stay
+     * under the limit of the database dialect.  Returns 0 if the dialect has
+     * no multi-row inserts.
+     */
+    protected int getMaxInsertMultipleRows(IntrospectedTable introspectedTable) {
+        DatabaseDialects dialect = abatorContext.getDatabaseDialect();
+        if (dialect == null || !dialect.supportsMultiRowInsert()) {
+            return 0;
+        }
+        
+        int columns = 0;
+        Iterator iter = introspectedTable.getAllColumns();
+        while (iter.hasNext()) {
+            iter.next();
+            columns++;
+        }
+        
+        if (columns == 0) {
+            return 0;
+        }
+        
+        return Math.max(1, Math.min(batchSize,
+                dialect.getMaxInsertParameters() / columns));
+    }
+
+    /**
+     * Returns true if the DAO of the table has batch methods, which share the
+     * BATCH_SIZE constant of the implementation class.
+     */
+    protected boolean hasBatchMethods(IntrospectedTable introspectedTable) {
+        AbatorRules rules = introspectedTable.getRules();
+        
+        return rules.generateInsert()
+            || rules.generateUpdateByPrimaryKeyWithoutBLOBs()
+            || rules.generateUpdateByPrimaryKeyWithBLOBs()
+            || rules.generateUpdateByPrimaryKeySelective()
+            || rules.generateDeleteByPrimaryKey();
+    }
+
+    /**
+     * Returns a batch method, which runs a statement for every element of a
+     * List parameter, BATCH_SIZE statements per JDBC batch, and returns the
+     * update count of each batch.  The insert, update and delete batch
+     * methods all use it.  The method never starts or ends a transaction -
+     * it runs in the caller's, and the DAO template's
+     * getBatchMethodBodyLines() tells the callers if they must open one.
+     * 
+     * @param introspectedTable
+     * @param methodName
+     * @param elementType the type of the List elements
+     * @param parameterName the name of the List parameter
+     * @param statementMethod the executor method, such as insert
+     * @param statementId
+     * @param interfaceMethod
+     * @param compilationUnit
+     */
+    protected Method getBatchMethod(IntrospectedTable introspectedTable,
+            String methodName, FullyQualifiedJavaType elementType,
+            String parameterName, String statementMethod, String statementId,
+            boolean interfaceMethod, CompilationUnit compilationUnit) {
+        FullyQualifiedTable table = introspectedTable.getTable();
+        
+        Method method = new Method();
+        method.setReturnType(new FullyQualifiedJavaType("int[]")); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setName(methodName);
+
+        FullyQualifiedJavaType type = FullyQualifiedJavaType.getNewListInstance();
+        if (useJava5Features) {
+            type.addTypeArgument(elementType);
+            compilationUnit.addImportedType(elementType);
+        }
+        compilationUnit.addImportedType(type);
+        method.addParameter(new Parameter(type, parameterName,
+                daoTemplate.isBatchParameterFinal()));
+
+        Iterator iter = daoTemplate.getCheckedExceptions().iterator();
+        while (iter.hasNext()) {
+            FullyQualifiedJavaType fqjt = (FullyQualifiedJavaType) iter.next();
+            method.addException(fqjt);
+            compilationUnit.addImportedType(fqjt);
+        }
+
+        abatorContext.getCommentGenerator().addGeneralMethodComment(method, table);
+        
+        if (!interfaceMethod) {
+            // generate the implementation method
+            String executor = daoTemplate.getBatchExecutor();
+            List lines = new ArrayList();
+            StringBuffer sb = new StringBuffer();
+            
+            sb.append("int[] answer = new int[("); //$NON-NLS-1$
+            sb.append(parameterName);
+            sb.append(".size() + BATCH_SIZE - 1) / BATCH_SIZE];"); //$NON-NLS-1$
+            lines.add(sb.toString());
+            lines.add("for (int i = 0; i < answer.length; i++) {"); //$NON-NLS-1$
+            lines.add(executor + "startBatch();"); //$NON-NLS-1$
+            
+            sb.setLength(0);
+            sb.append("int end = Math.min("); //$NON-NLS-1$
+            sb.append(parameterName);
+            sb.append(".size(), (i + 1) * BATCH_SIZE);"); //$NON-NLS-1$
+            lines.add(sb.toString());
+            lines.add("for (int j = i * BATCH_SIZE; j < end; j++) {"); //$NON-NLS-1$
+            
+            sb.setLength(0);
+            sb.append(executor);
+            sb.append(statementMethod);
+            sb.append("(\""); //$NON-NLS-1$
+            sb.append(sqlMapGenerator.getSqlMapNamespace(table));
+            sb.append('.');
+            sb.append(statementId);
+            sb.append("\", "); //$NON-NLS-1$
+            sb.append(parameterName);
+            sb.append(".get(j));"); //$NON-NLS-1$
+            lines.add(sb.toString());
+            
+            lines.add("}"); //$NON-NLS-1$
+            lines.add("answer[i] = " + executor + "executeBatch();"); //$NON-NLS-1$ //$NON-NLS-2$
+            lines.add("}"); //$NON-NLS-1$
+            
+            iter = daoTemplate.getBatchMethodBodyLines(lines).iterator();
+            while (iter.hasNext()) {
+                method.addBodyLine((String) iter.next());
+            }
+        }
+        
+        return method;
+    }
+
     protected List getUpdateByPrimaryKeyWithoutBLOBsMethods(
             IntrospectedTable introspectedTable, boolean interfaceMethod,
             CompilationUnit compilationUnit) {
@@ -1204,6 +1682,11 @@ public class BaseDAOGenerator implements DAOGenerator {
 
         ArrayList answer = new ArrayList();
         answer.add(method);
+        answer.add(getBatchMethod(introspectedTable,
+                methodNameCalculator.getUpdateByPrimaryKeyWithoutBLOBsBatchMethodName(introspectedTable),
+                parameterType, "records", "update", //$NON-NLS-1$ //$NON-NLS-2$
+                sqlMapGenerator.getUpdateByPrimaryKeyStatementId(),
+                interfaceMethod, compilationUnit));
 
         return answer;
     }
@@ -1253,6 +1736,11 @@ public class BaseDAOGenerator implements DAOGenerator {
 
         ArrayList answer = new ArrayList();
         answer.add(method);
+        answer.add(getBatchMethod(introspectedTable,
+                methodNameCalculator.getUpdateByPrimaryKeyWithBLOBsBatchMethodName(introspectedTable),
+                parameterType, "records", "update", //$NON-NLS-1$ //$NON-NLS-2$
+                sqlMapGenerator.getUpdateByPrimaryKeyWithBLOBsStatementId(),
+                interfaceMethod, compilationUnit));
 
         return answer;
     }
@@ -1302,6 +1790,11 @@ public class BaseDAOGenerator implements DAOGenerator {
 
         ArrayList answer = new ArrayList();
         answer.add(method);
+        answer.add(getBatchMethod(introspectedTable,
+                methodNameCalculator.getUpdateByPrimaryKeySelectiveBatchMethodName(introspectedTable),
+                parameterType, "records", "update", //$NON-NLS-1$ //$NON-NLS-2$
+                sqlMapGenerator.getUpdateByPrimaryKeySelectiveStatementId(),
+                interfaceMethod, compilationUnit));
 
         return answer;
     }
@@ -1393,7 +1886,12 @@ public class BaseDAOGenerator implements DAOGenerator {
             //charr 2008-08-22 ҳĲ
             paging += daoTemplate.getQueryForListMethod(sqlMapGenerator
                     .getSqlMapNamespace(table), sqlMapGenerator
-                    .getSelectByExampleStatementId(), "example, skipResults, maxResults");
+                    .getSelectByExampleStatementId(), getPagingArguments(isDatabasePaging() ? "parms" : "example")); //$NON-NLS-1$ //$NON-NLS-2$
+            if (isDatabasePaging()) {
+                // a copy of the example carries the paging, the caller's
+                // example is left as it is
+                methodPaging.addBodyLine("SelectByExampleParms parms = new SelectByExampleParms(example, skipResults, maxResults);"); //$NON-NLS-1$
+            }
             methodPaging.addBodyLine(paging);		//charr 2008-08-22
             method.addBodyLine("return list;"); //$NON-NLS-1$
             methodPaging.addBodyLine("return list;"); //$NON-NLS-1$		//charr 2008-08-22
@@ -1490,7 +1988,12 @@ public class BaseDAOGenerator implements DAOGenerator {
             //bugfixed: getSelectByExampleWithBLOBsStatementIdдgetSelectByExampleStatementIdµ˴sqlMapѯ (charr 20080826)
             paging += daoTemplate.getQueryForListMethod(sqlMapGenerator
                     .getSqlMapNamespace(table), sqlMapGenerator
-                    .getSelectByExampleWithBLOBsStatementId(), "example, skipResults, maxResults");
+                    .getSelectByExampleWithBLOBsStatementId(), getPagingArguments(isDatabasePaging() ? "parms" : "example")); //$NON-NLS-1$ //$NON-NLS-2$
+            if (isDatabasePaging()) {
+                // a copy of the example carries the paging, the caller's
+                // example is left as it is
+                methodPaging.addBodyLine("SelectByExampleParms parms = new SelectByExampleParms(example, skipResults, maxResults);"); //$NON-NLS-1$
+            }
             methodPaging.addBodyLine(paging);		//charr 2008-08-22
             method.addBodyLine("return list;"); //$NON-NLS-1$
             methodPaging.addBodyLine("return list;"); //$NON-NLS-1$		//charr 2008-08-22
@@ -1708,8 +2211,21 @@ public class BaseDAOGenerator implements DAOGenerator {
             method.addBodyLine("return rows;"); //$NON-NLS-1$
         }
 
+        // the batch takes the objects the statement expects as keys
+        FullyQualifiedJavaType keyType;
+        if (introspectedTable.getRules().generatePrimaryKeyClass()) {
+            keyType = javaModelGenerator.getPrimaryKeyType(table);
+        } else {
+            keyType = javaModelGenerator.getBaseRecordType(table);
+        }
+        
         ArrayList answer = new ArrayList();
         answer.add(method);
+        answer.add(getBatchMethod(introspectedTable,
+                methodNameCalculator.getDeleteByPrimaryKeyBatchMethodName(introspectedTable),
+                keyType, "keys", "delete", //$NON-NLS-1$ //$NON-NLS-2$
+                sqlMapGenerator.getDeleteByPrimaryKeyStatementId(),
+                interfaceMethod, compilationUnit));
 
         return answer;
     }
@@ -1806,8 +2322,11 @@ public class BaseDAOGenerator implements DAOGenerator {
     private Map getTableValueMap(FullyQualifiedTable table) {
         Map map = (Map) tableValueMaps.get(table);
         if (map == null) {
-            map = new HashMap();
-            tableValueMaps.put(table, map);
+            map = new ConcurrentHashMap();
+            Map existing = (Map) tableValueMaps.putIfAbsent(table, map);
+            if (existing != null) {
+                map = existing;
+            }
         }
 
         return map;
@@ -1914,6 +2433,41 @@ public class BaseDAOGenerator implements DAOGenerator {
         return answer;
     }
     
+    /**
+     * Returns the parameter class of the select by example methods that
+     * page in the database.  It copies the caller's example and adds the
+     * paging, so that the caller's example is never changed.
+     */
+    protected InnerClass getSelectByExampleParms (IntrospectedTable introspectedTable,
+            CompilationUnit compilationUnit) {
+        FullyQualifiedTable table = introspectedTable.getTable();
+        compilationUnit.addImportedType(javaModelGenerator.getExampleType(table));
+        
+        InnerClass answer = new InnerClass(
+                new FullyQualifiedJavaType("SelectByExampleParms")); //$NON-NLS-1$
+        answer.setVisibility(JavaVisibility.PRIVATE);
+        answer.setModifierStatic(true);
+        answer.setSuperClass(javaModelGenerator.getExampleType(table));
+        abatorContext.getCommentGenerator().addClassComment(answer, table);
+        
+        Method method = new Method();
+        method.setConstructor(true);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setName(answer.getType().getShortName());
+        method.addParameter(
+                new Parameter(javaModelGenerator.getExampleType(table),
+                        "example")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType
+                .getIntInstance(), "skipResults")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType
+                .getIntInstance(), "maxResults")); //$NON-NLS-1$
+        method.addBodyLine("super(example);"); //$NON-NLS-1$
+        method.addBodyLine("setPaging(skipResults, maxResults);"); //$NON-NLS-1$
+        answer.addMethod(method);
+        
+        return answer;
+    }
+    
     protected InnerClass getOrderByParms (IntrospectedTable introspectedTable,
             CompilationUnit compilationUnit) {
         FullyQualifiedTable table = introspectedTable.getTable();
@@ -1964,11 +2518,80 @@ public class BaseDAOGenerator implements DAOGenerator {
         method.addBodyLine("return orderByClause;"); //$NON-NLS-1$
         answer.addMethod(method);
         
-        method= new Method();
-        
+        if (isDatabasePaging()) {
+            // the paging clause of the statements reads these properties
+            method = new Method();
+            method.setConstructor(true);
+            method.setVisibility(JavaVisibility.PUBLIC);
+            method.setName(answer.getType().getShortName());
+            method.addParameter(
+                    new Parameter(FullyQualifiedJavaType.getObjectInstance(),
+                            "record")); //$NON-NLS-1$
+            method.addParameter(
+                    new Parameter(new FullyQualifiedJavaType("java.lang.String"),
+                            "orderBy")); //$NON-NLS-1$
+            method.addParameter(new Parameter(FullyQualifiedJavaType
+                    .getIntInstance(), "skipResults")); //$NON-NLS-1$
+            method.addParameter(new Parameter(FullyQualifiedJavaType
+                    .getIntInstance(), "maxResults")); //$NON-NLS-1$
+            method.addBodyLine("this(record, orderBy);"); //$NON-NLS-1$
+            method.addBodyLine("this.skipResults = skipResults;"); //$NON-NLS-1$
+            method.addBodyLine("this.maxResults = maxResults;"); //$NON-NLS-1$
+            answer.addMethod(method);
+            
+            field = new Field();
+            field.setVisibility(JavaVisibility.PRIVATE);
+            field.setType(FullyQualifiedJavaType.getIntInstance());
+            field.setName("skipResults"); //$NON-NLS-1$
+            answer.addField(field);
+            
+            field = new Field();
+            field.setVisibility(JavaVisibility.PRIVATE);
+            field.setType(FullyQualifiedJavaType.getIntInstance());
+            field.setName("maxResults"); //$NON-NLS-1$
+            field.setInitializationString("-1"); //$NON-NLS-1$
+            answer.addField(field);
+            
+            method = new Method();
+            method.setVisibility(JavaVisibility.PUBLIC);
+            method.setReturnType(FullyQualifiedJavaType.getIntInstance());
+            method.setName("getSkipResults"); //$NON-NLS-1$
+            method.addBodyLine("return skipResults;"); //$NON-NLS-1$
+            answer.addMethod(method);
+            
+            method = new Method();
+            method.setVisibility(JavaVisibility.PUBLIC);
+            method.setReturnType(FullyQualifiedJavaType.getIntInstance());
+            method.setName("getMaxResults"); //$NON-NLS-1$
+            method.addBodyLine("return maxResults;"); //$NON-NLS-1$
+            answer.addMethod(method);
+        }
         
         return answer;
     }
+    
+    /**
+     * Returns true if the paged query methods hand skipResults and
+     * maxResults to the statement, so that the database skips the rows.
+     * Otherwise iBATIS reads and skips them.
+     */
+    protected boolean isDatabasePaging() {
+        DatabaseDialects dialect = abatorContext.getDatabaseDialect();
+        return dialect != null && dialect.supportsPaging();
+    }
+    
+    /**
+     * Returns the arguments of the query for list call of a paged method.
+     * 
+     * @param parameter the parameter object of the statement
+     */
+    protected String getPagingArguments(String parameter) {
+        if (isDatabasePaging()) {
+            return parameter;
+        }
+        
+        return parameter + ", skipResults, maxResults"; //$NON-NLS-1$
+    }
 
     protected List getUpdateByExampleWithBLOBsMethods(
             IntrospectedTable introspectedTable, boolean interfaceMethod,
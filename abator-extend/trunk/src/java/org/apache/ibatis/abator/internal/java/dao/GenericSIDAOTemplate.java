@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.abator.internal.java.dao;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.ibatis.abator.api.dom.java.Field;
 import org.apache.ibatis.abator.api.dom.java.FullyQualifiedJavaType;
 import org.apache.ibatis.abator.api.dom.java.JavaVisibility;
@@ -69,5 +72,22 @@ public class GenericSIDAOTemplate extends AbstractDAOTemplate {
         setQueryForObjectMethodTemplate("sqlMapClient.queryForObject(\"{0}.{1}\", {2});"); //$NON-NLS-1$
         setQueryForListMethodTemplate("sqlMapClient.queryForList(\"{0}.{1}\", {2});"); //$NON-NLS-1$
         setUpdateMethodTemplate("sqlMapClient.update(\"{0}.{1}\", {2});"); //$NON-NLS-1$
+        setBatchExecutor("sqlMapClient."); //$NON-NLS-1$
+    }
+
+    /**
+     * Runs the batch in the transaction of the caller.  The SqlMapClient
+     * only batches statements inside a transaction, so the generated
+     * methods tell the callers to start one - a transaction of their own
+     * would commit the caller's work along with the batch.
+     */
+    public List getBatchMethodBodyLines(List batchLines) {
+        List answer = new ArrayList();
+        answer.add("// the SqlMapClient only batches statements inside a transaction,"); //$NON-NLS-1$
+        answer.add("// so callers must call sqlMapClient.startTransaction() before this"); //$NON-NLS-1$
+        answer.add("// method and commitTransaction() and endTransaction() after it"); //$NON-NLS-1$
+        answer.addAll(super.getBatchMethodBodyLines(batchLines));
+
+        return answer;
     }
 }
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.abator.internal.java.dao;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.ibatis.abator.api.dom.java.FullyQualifiedJavaType;
 import org.apache.ibatis.abator.api.dom.java.JavaVisibility;
 import org.apache.ibatis.abator.api.dom.java.Method;
@@ -44,5 +47,29 @@ public class SpringDAOTemplate extends AbstractDAOTemplate {
         setQueryForObjectMethodTemplate("getSqlMapClientTemplate().queryForObject(\"{0}.{1}\", {2});"); //$NON-NLS-1$
         setQueryForListMethodTemplate("getSqlMapClientTemplate().queryForList(\"{0}.{1}\", {2});"); //$NON-NLS-1$
         setUpdateMethodTemplate("getSqlMapClientTemplate().update(\"{0}.{1}\", {2});"); //$NON-NLS-1$
+
+        setBatchExecutor("executor."); //$NON-NLS-1$
+        setBatchParameterFinal(true);
+        addBatchImport(new FullyQualifiedJavaType(
+                "org.springframework.orm.ibatis.SqlMapClientCallback")); //$NON-NLS-1$
+        addBatchImport(new FullyQualifiedJavaType(
+                "com.ibatis.sqlmap.client.SqlMapExecutor")); //$NON-NLS-1$
+        addBatchImport(new FullyQualifiedJavaType("java.sql.SQLException")); //$NON-NLS-1$
+    }
+
+    /**
+     * Runs the batch in a SqlMapClientCallback, so it uses the connection
+     * and transaction Spring manages for the SqlMapClientTemplate.
+     */
+    public List getBatchMethodBodyLines(List batchLines) {
+        List answer = new ArrayList();
+        answer.add("return (int[]) getSqlMapClientTemplate().execute(new SqlMapClientCallback() {"); //$NON-NLS-1$
+        answer.add("public Object doInSqlMapClient(SqlMapExecutor executor) throws SQLException {"); //$NON-NLS-1$
+        answer.addAll(batchLines);
+        answer.add("return answer;"); //$NON-NLS-1$
+        answer.add("}"); //$NON-NLS-1$
+        answer.add("});"); //$NON-NLS-1$
+
+        return answer;
     }
 }
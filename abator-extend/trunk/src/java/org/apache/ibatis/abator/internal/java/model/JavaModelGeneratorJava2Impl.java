@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.abator.api.CommentGenerator;
 import org.apache.ibatis.abator.api.FullyQualifiedTable;
@@ -43,6 +44,7 @@ import org.apache.ibatis.abator.api.dom.java.TopLevelClass;
 import org.apache.ibatis.abator.config.AbatorContext;
 import org.apache.ibatis.abator.config.PropertyRegistry;
 import org.apache.ibatis.abator.internal.db.ColumnDefinition;
+import org.apache.ibatis.abator.internal.db.DatabaseDialects;
 import org.apache.ibatis.abator.internal.rules.AbatorRules;
 import org.apache.ibatis.abator.internal.util.ClassloaderUtility;
 import org.apache.ibatis.abator.internal.util.JavaBeansUtil;
@@ -97,15 +99,13 @@ public class JavaModelGeneratorJava2Impl implements JavaModelGenerator {
      */
     protected String targetProject;
 
-    private Map tableValueMaps;
+    private ConcurrentHashMap tableValueMaps;
 
     private Map propertyDescriptorMap;
     
-    private ClassLoader rootClassLoader;
-    
     public JavaModelGeneratorJava2Impl() {
         super();
-        tableValueMaps = new HashMap();
+        tableValueMaps = new ConcurrentHashMap();
         properties = new Properties();
         propertyDescriptorMap = new HashMap();
     }
@@ -126,8 +126,11 @@ public class JavaModelGeneratorJava2Impl implements JavaModelGenerator {
     private Map getTableValueMap(FullyQualifiedTable table) {
         Map map = (Map) tableValueMaps.get(table);
         if (map == null) {
-            map = new HashMap();
-            tableValueMaps.put(table, map);
+            map = new ConcurrentHashMap();
+            Map existing = (Map) tableValueMaps.putIfAbsent(table, map);
+            if (existing != null) {
+                map = existing;
+            }
         }
 
         return map;
@@ -773,12 +776,10 @@ public class JavaModelGeneratorJava2Impl implements JavaModelGenerator {
         topLevelClass.addMethod(method);
         
         // add shallow copy contructor if the update by
-        // example methods are enabled - because the parameter
-        // class for update by example methods will subclass this class
-        AbatorRules rules = introspectedTable.getRules();
-        if (rules.generateUpdateByExampleSelective()
-                || rules.generateUpdateByExampleWithBLOBs()
-                ||rules.generateUpdateByExampleWithoutBLOBs()) {
+        // example methods or the database paged select by example
+        // methods are enabled - because their parameter classes will
+        // subclass this class
+        if (isCopyConstructorNeeded(introspectedTable)) {
             method = new Method();
             method.setVisibility(JavaVisibility.PROTECTED);
             method.setConstructor(true);
@@ -815,6 +816,8 @@ public class JavaModelGeneratorJava2Impl implements JavaModelGenerator {
         commentGenerator.addGeneralMethodComment(method, table);
         topLevelClass.addMethod(method);
 
+        addPagingMembers(topLevelClass, table);
+
         // add field and methods for the list of ored criteria
         field = new Field();
         field.setVisibility(JavaVisibility.PROTECTED);
@@ -886,6 +889,88 @@ public class JavaModelGeneratorJava2Impl implements JavaModelGenerator {
         return topLevelClass;
     }
 
+    /**
+     * Returns true if the example class needs the shallow copy constructor
+     * that the parameter classes of the DAO subclass - UpdateByExampleParms
+     * for the update by example methods, and SelectByExampleParms for the
+     * select by example methods that page in the database.
+     */
+    protected boolean isCopyConstructorNeeded(IntrospectedTable introspectedTable) {
+        AbatorRules rules = introspectedTable.getRules();
+        if (rules.generateUpdateByExampleSelective()
+                || rules.generateUpdateByExampleWithBLOBs()
+                || rules.generateUpdateByExampleWithoutBLOBs()) {
+            return true;
+        }
+
+        DatabaseDialects dialect = abatorContext.getDatabaseDialect();
+        return dialect != null && dialect.supportsPaging()
+                && (rules.generateSelectByExampleWithoutBLOBs()
+                        || rules.generateSelectByExampleWithBLOBs());
+    }
+    
+    /**
+     * Adds the skipResults and maxResults properties that the paging clause
+     * of the select by example statements reads, if the context has a
+     * database dialect with a paging clause.  A maxResults below zero (the
+     * default) selects all rows.
+     * 
+     * @param topLevelClass the example class
+     * @param table
+     */
+    protected void addPagingMembers(TopLevelClass topLevelClass,
+            FullyQualifiedTable table) {
+        DatabaseDialects dialect = abatorContext.getDatabaseDialect();
+        if (dialect == null || !dialect.supportsPaging()) {
+            return;
+        }
+        
+        CommentGenerator commentGenerator = abatorContext.getCommentGenerator();
+        
+        Field field = new Field();
+        field.setVisibility(JavaVisibility.PROTECTED);
+        field.setType(FullyQualifiedJavaType.getIntInstance());
+        field.setName("skipResults"); //$NON-NLS-1$
+        commentGenerator.addFieldComment(field, table);
+        topLevelClass.addField(field);
+        
+        field = new Field();
+        field.setVisibility(JavaVisibility.PROTECTED);
+        field.setType(FullyQualifiedJavaType.getIntInstance());
+        field.setName("maxResults"); //$NON-NLS-1$
+        field.setInitializationString("-1"); //$NON-NLS-1$
+        commentGenerator.addFieldComment(field, table);
+        topLevelClass.addField(field);
+        
+        Method method = new Method();
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setName("setPaging"); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType
+                .getIntInstance(), "skipResults")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType
+                .getIntInstance(), "maxResults")); //$NON-NLS-1$
+        method.addBodyLine("this.skipResults = skipResults;"); //$NON-NLS-1$
+        method.addBodyLine("this.maxResults = maxResults;"); //$NON-NLS-1$
+        commentGenerator.addGeneralMethodComment(method, table);
+        topLevelClass.addMethod(method);
+        
+        method = new Method();
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getIntInstance());
+        method.setName("getSkipResults"); //$NON-NLS-1$
+        method.addBodyLine("return skipResults;"); //$NON-NLS-1$
+        commentGenerator.addGeneralMethodComment(method, table);
+        topLevelClass.addMethod(method);
+        
+        method = new Method();
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getIntInstance());
+        method.setName("getMaxResults"); //$NON-NLS-1$
+        method.addBodyLine("return maxResults;"); //$NON-NLS-1$
+        commentGenerator.addGeneralMethodComment(method, table);
+        topLevelClass.addMethod(method);
+    }
+
     protected InnerClass getCriteriaInnerClass(
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         Field field;
@@ -1554,7 +1639,7 @@ public class JavaModelGeneratorJava2Impl implements JavaModelGenerator {
         return clazz;
     }
 
-    protected PropertyDescriptor[] getRootClassPropertyDescriptors(String rootClass) {
+    protected synchronized PropertyDescriptor[] getRootClassPropertyDescriptors(String rootClass) {
         if (rootClass == null) {
             return null;
         }
@@ -1633,12 +1718,12 @@ public class JavaModelGeneratorJava2Impl implements JavaModelGenerator {
         return found;
     }
     
+    /**
+     * The classloader is shared with every other generator that uses the
+     * same root classpath, and is closed at the end of the run.
+     */
     private ClassLoader getRootclassloader() {
-        if (rootClassLoader == null) {
-            rootClassLoader = ClassloaderUtility.getCustomClassloader(
-                    properties.getProperty(PropertyRegistry.MODEL_GENERATOR_ROOT_CLASSPATH));
-        }
-        
-        return rootClassLoader;
+        return ClassloaderUtility.getCustomClassloader(
+                properties.getProperty(PropertyRegistry.MODEL_GENERATOR_ROOT_CLASSPATH));
     }
 }
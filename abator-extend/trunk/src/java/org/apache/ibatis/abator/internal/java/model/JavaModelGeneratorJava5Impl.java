@@ -32,7 +32,6 @@ import org.apache.ibatis.abator.api.dom.java.Method;
 import org.apache.ibatis.abator.api.dom.java.Parameter;
 import org.apache.ibatis.abator.api.dom.java.TopLevelClass;
 import org.apache.ibatis.abator.internal.db.ColumnDefinition;
-import org.apache.ibatis.abator.internal.rules.AbatorRules;
 import org.apache.ibatis.abator.internal.util.JavaBeansUtil;
 import org.apache.ibatis.abator.internal.util.StringUtility;
 
@@ -71,12 +70,10 @@ public class JavaModelGeneratorJava5Impl extends JavaModelGeneratorJava2Impl {
         topLevelClass.addMethod(method);
         
         // add shallow copy contructor if the update by
-        // example methods are enabled - because the parameter
-        // class for update by example methods will subclass this class
-        AbatorRules rules = introspectedTable.getRules();
-        if (rules.generateUpdateByExampleSelective()
-                || rules.generateUpdateByExampleWithBLOBs()
-                ||rules.generateUpdateByExampleWithoutBLOBs()) {
+        // example methods or the database paged select by example
+        // methods are enabled - because their parameter classes will
+        // subclass this class
+        if (isCopyConstructorNeeded(introspectedTable)) {
             method = new Method();
             method.setVisibility(JavaVisibility.PROTECTED);
             method.setConstructor(true);
@@ -113,6 +110,8 @@ public class JavaModelGeneratorJava5Impl extends JavaModelGeneratorJava2Impl {
         commentGenerator.addGeneralMethodComment(method, table);
         topLevelClass.addMethod(method);
 
+        addPagingMembers(topLevelClass, table);
+
         // add field and methods for the list of ored criteria
         field = new Field();
         field.setVisibility(JavaVisibility.PROTECTED);
@@ -56,6 +56,20 @@ public abstract class AbatorRules {
         return tableConfiguration.isInsertStatementEnabled();
     }
 
+    /**
+     * Implements the rule for generating the multi-row insert SQL Map element
+     * and DAO method. If the insert statement is allowed and the table has no
+     * generated key, then generate the element and method.  Keys generated by
+     * a multi-row insert cannot be mapped back to the records.  The
+     * generators also check that the database dialect has multi-row inserts.
+     * 
+     * @return true if the element and method may be generated
+     */
+    public boolean generateInsertMultiple() {
+        return tableConfiguration.isInsertStatementEnabled()
+            && tableConfiguration.getGeneratedKey() == null;
+    }
+
     /**
      * Calculates the class that contains all fields.  This class is used
      * as the insert statement parameter, as well as the returned value
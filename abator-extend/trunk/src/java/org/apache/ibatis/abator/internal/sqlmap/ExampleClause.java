@@ -15,13 +15,13 @@
  */
 package org.apache.ibatis.abator.internal.sqlmap;
 
-import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 import org.apache.ibatis.abator.internal.db.ColumnDefinition;
+import org.apache.ibatis.abator.internal.util.CodeTemplate;
 import org.apache.ibatis.abator.internal.util.StringUtility;
 
 /**
@@ -48,9 +48,9 @@ public class ExampleClause {
 
 	private static final List clauses;
 
-	private String selectorProperty;
+	private CodeTemplate selectorProperty;
 
-	private String clause;
+	private CodeTemplate clause;
 
 	private boolean propertyInMapRequired;
 
@@ -109,8 +109,8 @@ public class ExampleClause {
 			boolean propertyInMapRequired, boolean characterOnly,
 			String examplePropertyName, int examplePropertyValue) {
 		super();
-		this.selectorProperty = selectorProperty;
-		this.clause = clause;
+		this.selectorProperty = new CodeTemplate(selectorProperty);
+		this.clause = new CodeTemplate(clause);
 		this.propertyInMapRequired = propertyInMapRequired;
 		this.characterOnly = characterOnly;
 		this.examplePropertyName = examplePropertyName;
@@ -118,9 +118,9 @@ public class ExampleClause {
 	}
 
 	public String getSelectorAndProperty(ColumnDefinition cd, boolean forJava) {
-		Object[] arguments = { "AND", cd.getEscapedColumnName() }; //$NON-NLS-1$
+		String[] arguments = { "AND", cd.getEscapedColumnName() }; //$NON-NLS-1$
         
-        String s = MessageFormat.format(selectorProperty, arguments);
+        String s = selectorProperty.format(arguments);
 
         if (forJava) {
             s = StringUtility.escapeStringForJava(s);
@@ -132,9 +132,9 @@ public class ExampleClause {
 	}
 
 	public String getSelectorOrProperty(ColumnDefinition cd, boolean forJava) {
-		Object[] arguments = { "OR", cd.getEscapedColumnName() }; //$NON-NLS-1$
+		String[] arguments = { "OR", cd.getEscapedColumnName() }; //$NON-NLS-1$
 
-        String s = MessageFormat.format(selectorProperty, arguments);
+        String s = selectorProperty.format(arguments);
 
         if (forJava) {
             s = StringUtility.escapeStringForJava(s);
@@ -146,9 +146,9 @@ public class ExampleClause {
 	}
 
 	public String getClause(ColumnDefinition cd) {
-		Object[] arguments = { cd.getAliasedEscapedColumnName(), cd.getIbatisFormattedParameterClause() };
+		String[] arguments = { cd.getAliasedEscapedColumnName(), cd.getIbatisFormattedParameterClause() };
 
-		return MessageFormat.format(clause, arguments);
+		return clause.format(arguments);
 	}
 
 	public boolean isCharacterOnly() {
@@ -16,11 +16,11 @@
 package org.apache.ibatis.abator.internal.sqlmap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.abator.api.FullyQualifiedTable;
 import org.apache.ibatis.abator.api.GeneratedXmlFile;
@@ -38,6 +38,7 @@ import org.apache.ibatis.abator.config.AbatorContext;
 import org.apache.ibatis.abator.config.GeneratedKey;
 import org.apache.ibatis.abator.config.PropertyRegistry;
 import org.apache.ibatis.abator.internal.db.ColumnDefinition;
+import org.apache.ibatis.abator.internal.db.DatabaseDialects;
 import org.apache.ibatis.abator.internal.rules.AbatorRules;
 import org.apache.ibatis.abator.internal.util.StringUtility;
 import org.apache.ibatis.abator.internal.util.messages.Messages;
@@ -75,24 +76,28 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
     /**
      * This is a map of maps. The map is keyed by a FullyQualifiedTable object.
      * The inner map holds generated strings keyed by the String name. This Map
-     * is used to cache generated Strings.
+     * is used to cache generated Strings, and may be read and filled by
+     * several threads at the same time.
      */
-    private Map tableStringMaps;
+    private ConcurrentHashMap tableStringMaps;
 
     /**
      * Constructs an instance of SqlMapGeneratorDefaultImpl
      */
     public SqlMapGeneratorIterateImpl() {
         super();
-        tableStringMaps = new HashMap();
+        tableStringMaps = new ConcurrentHashMap();
         properties = new Properties();
     }
 
     private Map getTableStringMap(FullyQualifiedTable table) {
         Map map = (Map) tableStringMaps.get(table);
         if (map == null) {
-            map = new HashMap();
-            tableStringMaps.put(table, map);
+            map = new ConcurrentHashMap();
+            Map existing = (Map) tableStringMaps.putIfAbsent(table, map);
+            if (existing != null) {
+                map = existing;
+            }
         }
 
         return map;
@@ -242,6 +247,13 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
             }
         }
 
+        if (rules.generateInsertMultiple() && isMultiRowInsertSupported()) {
+            element = getInsertMultipleElement(introspectedTable);
+            if (element != null) {
+                answer.addElement(element);
+            }
+        }
+
         if (rules.generateUpdateByPrimaryKeyWithBLOBs()) {
             element = getUpdateByPrimaryKeyWithBLOBs(introspectedTable);
             if (element != null) {
@@ -317,6 +329,12 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
         	}
         }
         
+        elements = getSelectPageAfter(introspectedTable);
+        Iterator iter = elements.iterator();
+        while (iter.hasNext()) {
+            answer.addElement((XmlElement) iter.next());
+        }
+        
         return answer;
     }
 
@@ -966,6 +984,11 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
 
             abatorContext.getCommentGenerator().addComment(element);
             abatorContext.getCommentGenerator().addComment(elementCount);
+            
+            XmlElement pagingPrefix = getPagingPrefix();
+            if (pagingPrefix != null) {
+                element.addElement(pagingPrefix);
+            }
 
             StringBuffer sb = new StringBuffer();
             sb.append("select "); //$NON-NLS-1$
@@ -1023,6 +1046,11 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
             isNotEmptyElement.addElement(new TextElement("order by $orderByClause$")); //$NON-NLS-1$
             element.addElement(isNotEmptyElement);
             
+            XmlElement pagingSuffix = getPagingSuffix();
+            if (pagingSuffix != null) {
+                element.addElement(pagingSuffix);
+            }
+            
             answer.add(element);
             answer.add(elementCount);
     	}
@@ -1073,6 +1101,11 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
 
             abatorContext.getCommentGenerator().addComment(element);
             abatorContext.getCommentGenerator().addComment(elementCount);
+            
+            XmlElement pagingPrefix = getPagingPrefix();
+            if (pagingPrefix != null) {
+                element.addElement(pagingPrefix);
+            }
 
             StringBuffer sb = new StringBuffer();
             sb.append("select "); //$NON-NLS-1$
@@ -1130,6 +1163,11 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
             isNotEmptyElement.addElement(new TextElement("order by $orderByClause$")); //$NON-NLS-1$
             element.addElement(isNotEmptyElement);
             
+            XmlElement pagingSuffix = getPagingSuffix();
+            if (pagingSuffix != null) {
+                element.addElement(pagingSuffix);
+            }
+            
             
             answer.add(element);
             answer.add(elementCount);
@@ -1371,6 +1409,11 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
         return "abatorgenerated_insert"; //$NON-NLS-1$
     }
 
+
+    public String getInsertMultipleStatementId() {
+        return "abatorgenerated_insertMultiple"; //$NON-NLS-1$
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -1453,6 +1496,21 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
     	return answer;
     }
 
+    public String getSelectPageAfterStatementId(IntrospectedTable introspectedTable, List keyColumns) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("abatorgenerated_selectPageAfter"); //$NON-NLS-1$
+        Iterator iter = keyColumns.iterator();
+        while (iter.hasNext()) {
+            ColumnDefinition cd = (ColumnDefinition) iter.next();
+            sb.append(StringUtility.toInitCap(cd.getJavaProperty()));
+            if (iter.hasNext()) {
+                sb.append("And"); //$NON-NLS-1$
+            }
+        }
+        
+        return sb.toString();
+    }
+    
     public String getSelectByUniqueIndexStatementId(IntrospectedTable introspectedTable, List indexColumns){
     	Iterator iter = indexColumns.iterator();
     	String answer = "";
@@ -1550,6 +1608,317 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
         return "abatorgenerated_Example_Where_Clause"; //$NON-NLS-1$
     }
 
+    /**
+     * This method should return an XmlElement for the multi-row insert
+     * statement.  The parameter is a List of records, and the statement
+     * inserts all of them with one values clause per record.  The DAO keeps
+     * the Lists small enough for the parameter limit of the dialect.
+     * 
+     * @param introspectedTable
+     * @return the insert element
+     */
+    protected XmlElement getInsertMultipleElement(IntrospectedTable introspectedTable) {
+        
+        XmlElement answer = new XmlElement("insert"); //$NON-NLS-1$
+
+        FullyQualifiedTable table = introspectedTable.getTable();
+        answer.addAttribute(new Attribute("id", getInsertMultipleStatementId())); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("parameterClass", //$NON-NLS-1$
+                "java.util.List")); //$NON-NLS-1$
+
+        abatorContext.getCommentGenerator().addComment(answer);
+
+        StringBuffer insertClause = new StringBuffer();
+        StringBuffer valuesClause = new StringBuffer();
+
+        insertClause.append("insert into "); //$NON-NLS-1$
+        insertClause.append(table.getFullyQualifiedTableNameAtRuntime());
+        insertClause.append(" ("); //$NON-NLS-1$
+
+        valuesClause.append('(');
+
+        boolean comma = false;
+        Iterator iter = introspectedTable.getAllColumns();
+        while (iter.hasNext()) {
+            ColumnDefinition cd = (ColumnDefinition) iter.next();
+
+            if (comma) {
+                insertClause.append(", "); //$NON-NLS-1$
+                valuesClause.append(", "); //$NON-NLS-1$
+            } else {
+                comma = true; // turn on comma for next time
+            }
+
+            insertClause.append(cd.getEscapedColumnName());
+            valuesClause.append(cd.getIbatisFormattedParameterClause("[].")); //$NON-NLS-1$
+        }
+        insertClause.append(')');
+        valuesClause.append(')');
+
+        answer.addElement(new TextElement(insertClause.toString()));
+        answer.addElement(new TextElement("values")); //$NON-NLS-1$
+        
+        XmlElement iterateElement = new XmlElement("iterate"); //$NON-NLS-1$
+        iterateElement.addAttribute(new Attribute("conjunction", ",")); //$NON-NLS-1$ //$NON-NLS-2$
+        iterateElement.addElement(new TextElement(valuesClause.toString()));
+        answer.addElement(iterateElement);
+
+        return answer;
+    }
+    
+    /**
+     * Returns true if the database dialect of the context has multi-row
+     * inserts.
+     */
+    protected boolean isMultiRowInsertSupported() {
+        DatabaseDialects dialect = abatorContext.getDatabaseDialect();
+        return dialect != null && dialect.supportsMultiRowInsert();
+    }
+    
+    /**
+     * Returns the keyset paging statements, one for each key of
+     * IntrospectedTable.getKeysetPagingKeys().  The parameter is the
+     * OrderByParms object of the DAO.  Its record holds the last key of the
+     * previous page, or nulls for the first page, and the rows are read in
+     * key order.  The page size is either maxResults of the paging clause,
+     * or the maxResults argument of queryForList if the context has no
+     * paging dialect.
+     * 
+     * @param introspectedTable
+     * @return a List of select elements
+     */
+    protected List getSelectPageAfter(IntrospectedTable introspectedTable) {
+        List answer = new ArrayList();
+        FullyQualifiedTable table = introspectedTable.getTable();
+        DatabaseDialects dialect = abatorContext.getDatabaseDialect();
+        boolean rowValues = dialect != null && dialect.isRowValueComparisonSupported();
+        
+        Iterator iter = introspectedTable.getKeysetPagingKeys();
+        while (iter.hasNext()) {
+            List columns = (List) iter.next();
+            
+            XmlElement element = new XmlElement("select"); //$NON-NLS-1$
+            element.addAttribute(new Attribute(
+                    "id", getSelectPageAfterStatementId(introspectedTable, columns))); //$NON-NLS-1$
+            if (introspectedTable.getRules().generateResultMapWithBLOBs()) {
+                element.addAttribute(new Attribute("resultMap", //$NON-NLS-1$
+                        getResultMapName(table) + "WithBLOBs")); //$NON-NLS-1$
+            } else {
+                element.addAttribute(new Attribute("resultMap", //$NON-NLS-1$
+                        getResultMapName(table)));
+            }
+            
+            abatorContext.getCommentGenerator().addComment(element);
+            
+            XmlElement pagingPrefix = getPagingPrefix();
+            if (pagingPrefix != null) {
+                element.addElement(pagingPrefix);
+            }
+            
+            StringBuffer sb = new StringBuffer();
+            sb.append("select "); //$NON-NLS-1$
+
+            boolean comma = false;
+            if (StringUtility.stringHasValue(introspectedTable.getSelectByPrimaryKeyQueryId())) {
+                sb.append('\'');
+                sb.append(introspectedTable.getSelectByPrimaryKeyQueryId());
+                sb.append("' as QUERYID"); //$NON-NLS-1$
+                comma = true;
+            }
+
+            Iterator iter2 = introspectedTable.getAllColumns();
+            while (iter2.hasNext()) {
+                ColumnDefinition cd = (ColumnDefinition) iter2.next();
+                if (comma) {
+                    sb.append(", "); //$NON-NLS-1$
+                } else {
+                    comma = true;
+                }
+
+                sb.append(cd.getSelectListPhrase());
+            }
+            element.addElement(new TextElement(sb.toString()));
+
+            sb.setLength(0);
+            sb.append("from "); //$NON-NLS-1$
+            sb.append(table.getAliasedFullyQualifiedTableNameAtRuntime());
+            element.addElement(new TextElement(sb.toString()));
+            
+            // no key - the first page
+            ColumnDefinition firstColumn = (ColumnDefinition) columns.get(0);
+            XmlElement isNotNullElement = new XmlElement("isNotNull"); //$NON-NLS-1$
+            isNotNullElement.addAttribute(new Attribute("property", //$NON-NLS-1$
+                    "record." + firstColumn.getJavaProperty())); //$NON-NLS-1$
+            isNotNullElement.addElement(new TextElement(
+                    getKeysetPredicate(columns, rowValues)));
+            element.addElement(isNotNullElement);
+            
+            sb.setLength(0);
+            sb.append("order by "); //$NON-NLS-1$
+            iter2 = columns.iterator();
+            while (iter2.hasNext()) {
+                ColumnDefinition cd = (ColumnDefinition) iter2.next();
+                sb.append(cd.getAliasedEscapedColumnName());
+                if (iter2.hasNext()) {
+                    sb.append(", "); //$NON-NLS-1$
+                }
+            }
+            element.addElement(new TextElement(sb.toString()));
+            
+            XmlElement pagingSuffix = getPagingSuffix();
+            if (pagingSuffix != null) {
+                element.addElement(pagingSuffix);
+            }
+            
+            answer.add(element);
+        }
+        
+        return answer;
+    }
+    
+    /**
+     * Returns the where clause that selects the rows following the key in
+     * the record property of the parameter.  A single column is compared
+     * directly.  Keys with more columns are compared as a row value if the
+     * dialect supports it, or else expanded to
+     * A &gt; a or (A = a and B &gt; b) ...
+     */
+    private String getKeysetPredicate(List columns, boolean rowValues) {
+        StringBuffer sb = new StringBuffer();
+        sb.append("where "); //$NON-NLS-1$
+        
+        if (columns.size() == 1 || rowValues) {
+            StringBuffer values = new StringBuffer();
+            Iterator iter = columns.iterator();
+            while (iter.hasNext()) {
+                ColumnDefinition cd = (ColumnDefinition) iter.next();
+                sb.append(cd.getAliasedEscapedColumnName());
+                values.append(cd.getIbatisFormattedParameterClause("record.")); //$NON-NLS-1$
+                if (iter.hasNext()) {
+                    sb.append(", "); //$NON-NLS-1$
+                    values.append(", "); //$NON-NLS-1$
+                }
+            }
+            
+            if (columns.size() == 1) {
+                sb.append(" &gt; "); //$NON-NLS-1$
+                sb.append(values);
+            } else {
+                sb.insert(6, '(');
+                sb.append(") &gt; ("); //$NON-NLS-1$
+                sb.append(values);
+                sb.append(')');
+            }
+            
+            return sb.toString();
+        }
+        
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(" or ("); //$NON-NLS-1$
+            }
+            
+            for (int j = 0; j <= i; j++) {
+                ColumnDefinition cd = (ColumnDefinition) columns.get(j);
+                if (j > 0) {
+                    sb.append(" and "); //$NON-NLS-1$
+                }
+                sb.append(cd.getAliasedEscapedColumnName());
+                sb.append(j < i ? " = " : " &gt; "); //$NON-NLS-1$ //$NON-NLS-2$
+                sb.append(cd.getIbatisFormattedParameterClause("record.")); //$NON-NLS-1$
+            }
+            
+            if (i > 0) {
+                sb.append(')');
+            }
+        }
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Returns the dialect of the context if it has a paging clause, or null
+     * if pages are read by skipping rows in iBATIS.
+     */
+    protected DatabaseDialects getPagingDialect() {
+        DatabaseDialects dialect = abatorContext.getDatabaseDialect();
+        if (dialect != null && dialect.supportsPaging()) {
+            return dialect;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Returns the element that opens the paging clause before the select
+     * list.  Only the ROWNUM dialects need one.
+     * 
+     * @return the element, or null if the dialect needs no prefix
+     */
+    protected XmlElement getPagingPrefix() {
+        DatabaseDialects dialect = getPagingDialect();
+        if (dialect == null
+                || dialect.getPagingStyle() != DatabaseDialects.PAGING_ROWNUM) {
+            return null;
+        }
+        
+        XmlElement answer = getPagingCondition();
+        answer.addElement(new TextElement(
+                "select * from ( select abator_page.*, rownum abator_rownum from (")); //$NON-NLS-1$
+        
+        return answer;
+    }
+    
+    /**
+     * Returns the element with the paging clause that follows the order by
+     * clause.  The clause reads the skipResults and maxResults properties
+     * of the parameter object, and is only rendered if maxResults is zero
+     * or more.
+     * 
+     * @return the element, or null if the context has no paging dialect
+     */
+    protected XmlElement getPagingSuffix() {
+        DatabaseDialects dialect = getPagingDialect();
+        if (dialect == null) {
+            return null;
+        }
+        
+        XmlElement answer = getPagingCondition();
+        switch (dialect.getPagingStyle()) {
+        case DatabaseDialects.PAGING_LIMIT_OFFSET:
+            answer.addElement(new TextElement(
+                    "limit #maxResults# offset #skipResults#")); //$NON-NLS-1$
+            break;
+            
+        case DatabaseDialects.PAGING_OFFSET_FETCH:
+            if (dialect.isOrderByRequiredForPaging()) {
+                // the opposite of the isNotEmpty test in selectByExample
+                XmlElement isEmptyElement = new XmlElement("isEmpty"); //$NON-NLS-1$
+                isEmptyElement.addAttribute(new Attribute("property", "orderByClause")); //$NON-NLS-1$ //$NON-NLS-2$
+                isEmptyElement.addElement(new TextElement("order by (select null)")); //$NON-NLS-1$
+                answer.addElement(isEmptyElement);
+            }
+            answer.addElement(new TextElement(
+                    "offset #skipResults# rows fetch next #maxResults# rows only")); //$NON-NLS-1$
+            break;
+            
+        default:
+            answer.addElement(new TextElement(
+                    ") abator_page where rownum &lt;= #skipResults# + #maxResults# ) where abator_rownum &gt; #skipResults#")); //$NON-NLS-1$
+            break;
+        }
+        
+        return answer;
+    }
+    
+    private XmlElement getPagingCondition() {
+        XmlElement answer = new XmlElement("isGreaterEqual"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("property", "maxResults")); //$NON-NLS-1$ //$NON-NLS-2$
+        answer.addAttribute(new Attribute("compareValue", "0")); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        return answer;
+    }
+
     /**
      * This method should return an XmlElement for the example where clause SQL
      * fragment (an sql fragment).
@@ -1776,6 +2145,14 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
 
         abatorContext.getCommentGenerator().addComment(answer);
 
+        XmlElement pagingPrefix = getPagingPrefix();
+        if (pagingPrefix != null) {
+            XmlElement isParameterPresentElement =
+                new XmlElement("isParameterPresent"); //$NON-NLS-1$
+            isParameterPresentElement.addElement(pagingPrefix);
+            answer.addElement(isParameterPresentElement);
+        }
+
         StringBuffer sb = new StringBuffer();
         sb.append("select "); //$NON-NLS-1$
 
@@ -1815,12 +2192,17 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
                 getSqlMapNamespace(table) + "." + getExampleWhereClauseId())); //$NON-NLS-1$
         isParameterPresenteElement.addElement(includeElement);
 
-        XmlElement isNotNullElement = new XmlElement("isNotNull"); //$NON-NLS-1$
-        isNotNullElement
+        XmlElement isNotEmptyElement = new XmlElement("isNotEmpty"); //$NON-NLS-1$
+        isNotEmptyElement
                 .addAttribute(new Attribute("property", "orderByClause")); //$NON-NLS-1$ //$NON-NLS-2$
-        isNotNullElement
+        isNotEmptyElement
                 .addElement(new TextElement("order by $orderByClause$")); //$NON-NLS-1$
-        isParameterPresenteElement.addElement(isNotNullElement);
+        isParameterPresenteElement.addElement(isNotEmptyElement);
+
+        XmlElement pagingSuffix = getPagingSuffix();
+        if (pagingSuffix != null) {
+            isParameterPresenteElement.addElement(pagingSuffix);
+        }
 
         return answer;
     }
@@ -1847,6 +2229,14 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
 
         abatorContext.getCommentGenerator().addComment(answer);
 
+        XmlElement pagingPrefix = getPagingPrefix();
+        if (pagingPrefix != null) {
+            XmlElement isParameterPresentElement =
+                new XmlElement("isParameterPresent"); //$NON-NLS-1$
+            isParameterPresentElement.addElement(pagingPrefix);
+            answer.addElement(isParameterPresentElement);
+        }
+
         StringBuffer sb = new StringBuffer();
         sb.append("select "); //$NON-NLS-1$
 
@@ -1887,12 +2277,17 @@ public class SqlMapGeneratorIterateImpl implements SqlMapGenerator {
                 getSqlMapNamespace(table) + "." + getExampleWhereClauseId())); //$NON-NLS-1$
         isParameterPresenteElement.addElement(includeElement);
 
-        XmlElement isNotNullElement = new XmlElement("isNotNull"); //$NON-NLS-1$
-        isNotNullElement
+        XmlElement isNotEmptyElement = new XmlElement("isNotEmpty"); //$NON-NLS-1$
+        isNotEmptyElement
                 .addAttribute(new Attribute("property", "orderByClause")); //$NON-NLS-1$ //$NON-NLS-2$
-        isNotNullElement
+        isNotEmptyElement
                 .addElement(new TextElement("order by $orderByClause$")); //$NON-NLS-1$
-        isParameterPresenteElement.addElement(isNotNullElement);
+        isParameterPresenteElement.addElement(isNotEmptyElement);
+
+        XmlElement pagingSuffix = getPagingSuffix();
+        if (pagingSuffix != null) {
+            isParameterPresenteElement.addElement(pagingSuffix);
+        }
 
         return answer;
     }
@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.types;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class translates database type names (as found in catalog tables
+ * and DDL scripts) into <code>java.sql.Types</code> values.  It is used
+ * whenever Abator reads metadata without the help of a JDBC driver.
+ *
+ * Type names are matched without regard to case, length/precision
+ * clauses, and repeated spaces, so "varchar2(30 char)" and
+ * "TIMESTAMP(6) WITH TIME ZONE" are recognized.
+ *
+ * @author Jeff Butler
+ */
+public class JdbcTypeNames {
+
+    private static Map typeMap;
+
+    static {
+        typeMap = new HashMap();
+
+        put(Types.CHAR, new String[] {"CHAR", "CHARACTER", "NCHAR", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "NATIONAL CHARACTER", "NATIONAL CHAR", "GRAPHIC", "BPCHAR"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        put(Types.VARCHAR, new String[] {"VARCHAR", "VARCHAR2", "NVARCHAR", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "NVARCHAR2", "CHARACTER VARYING", "CHAR VARYING", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "NATIONAL CHARACTER VARYING", "VARGRAPHIC", "VARCHAR_IGNORECASE"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        put(Types.LONGVARCHAR, new String[] {"LONG VARCHAR", "LONG", "TEXT", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "MEDIUMTEXT", "LONGTEXT", "NTEXT", "LONG VARGRAPHIC"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        put(Types.CLOB, new String[] {"CLOB", "NCLOB", "DBCLOB", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "CHARACTER LARGE OBJECT"}); //$NON-NLS-1$
+        put(Types.BLOB, new String[] {"BLOB", "BINARY LARGE OBJECT", //$NON-NLS-1$ //$NON-NLS-2$
+                "MEDIUMBLOB", "LONGBLOB"}); //$NON-NLS-1$ //$NON-NLS-2$
+        put(Types.BINARY, new String[] {"BINARY", "CHAR FOR BIT DATA"}); //$NON-NLS-1$ //$NON-NLS-2$
+        put(Types.VARBINARY, new String[] {"VARBINARY", "BINARY VARYING", "RAW", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "VARCHAR FOR BIT DATA"}); //$NON-NLS-1$
+        put(Types.LONGVARBINARY, new String[] {"LONG RAW", "LONG VARBINARY", //$NON-NLS-1$ //$NON-NLS-2$
+                "BYTEA", "IMAGE", "LONG VARCHAR FOR BIT DATA"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        put(Types.TINYINT, new String[] {"TINYINT"}); //$NON-NLS-1$
+        put(Types.SMALLINT, new String[] {"SMALLINT", "INT2"}); //$NON-NLS-1$ //$NON-NLS-2$
+        put(Types.INTEGER, new String[] {"INTEGER", "INT", "INT4", "MEDIUMINT", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                "SERIAL"}); //$NON-NLS-1$
+        put(Types.BIGINT, new String[] {"BIGINT", "INT8", "BIGSERIAL"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        put(Types.DECIMAL, new String[] {"DECIMAL", "DEC", "NUMBER"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        put(Types.NUMERIC, new String[] {"NUMERIC"}); //$NON-NLS-1$
+        put(Types.REAL, new String[] {"REAL", "FLOAT4", "BINARY_FLOAT"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        put(Types.FLOAT, new String[] {"FLOAT"}); //$NON-NLS-1$
+        put(Types.DOUBLE, new String[] {"DOUBLE", "DOUBLE PRECISION", "FLOAT8", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "BINARY_DOUBLE"}); //$NON-NLS-1$
+        put(Types.BIT, new String[] {"BIT"}); //$NON-NLS-1$
+        put(Types.BOOLEAN, new String[] {"BOOLEAN", "BOOL"}); //$NON-NLS-1$ //$NON-NLS-2$
+        put(Types.DATE, new String[] {"DATE"}); //$NON-NLS-1$
+        put(Types.TIME, new String[] {"TIME", "TIME WITHOUT TIME ZONE", //$NON-NLS-1$ //$NON-NLS-2$
+                "TIME WITH TIME ZONE", "TIMETZ"}); //$NON-NLS-1$ //$NON-NLS-2$
+        put(Types.TIMESTAMP, new String[] {"TIMESTAMP", "DATETIME", "SMALLDATETIME", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "TIMESTAMP WITHOUT TIME ZONE", "TIMESTAMP WITH TIME ZONE", //$NON-NLS-1$ //$NON-NLS-2$
+                "TIMESTAMP WITH LOCAL TIME ZONE", "TIMESTAMPTZ"}); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Utility Class - No Instances
+     */
+    private JdbcTypeNames() {
+    }
+
+    private static void put(int jdbcType, String[] names) {
+        Integer value = new Integer(jdbcType);
+        for (int i = 0; i < names.length; i++) {
+            typeMap.put(names[i], value);
+        }
+    }
+
+    /**
+     * Strips length clauses, modifiers and extra spaces from a type name.
+     * For example " varchar2 (30 char) " becomes "VARCHAR2", and
+     * "int(10) unsigned" becomes "INT".
+     *
+     * @param typeName
+     * @return the normalized type name
+     */
+    public static String normalizeTypeName(String typeName) {
+        StringBuffer sb = new StringBuffer();
+        int depth = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < typeName.length(); i++) {
+            char c = typeName.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth > 0) {
+                continue;
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+
+        String answer = sb.toString();
+        if (answer.endsWith(" UNSIGNED")) { //$NON-NLS-1$
+            answer = answer.substring(0, answer.length() - 9);
+        }
+
+        return answer;
+    }
+
+    /**
+     * @param typeName a database type name
+     * @return the matching <code>java.sql.Types</code> value, or
+     *   <code>Types.OTHER</code> if the type name is not known
+     */
+    public static int getJdbcType(String typeName) {
+        if (typeName == null) {
+            return Types.OTHER;
+        }
+
+        Integer answer = (Integer) typeMap.get(normalizeTypeName(typeName));
+
+        return answer == null ? Types.OTHER : answer.intValue();
+    }
+}
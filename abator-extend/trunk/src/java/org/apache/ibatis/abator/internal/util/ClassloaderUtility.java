@@ -16,13 +16,17 @@
 
 package org.apache.ibatis.abator.internal.util;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.apache.ibatis.abator.config.JDBCConnectionConfiguration;
@@ -32,11 +36,23 @@ import org.apache.ibatis.abator.internal.util.messages.Messages;
  * This class holds methods useful for constructing custom 
  * classloaders in Abator.
  * 
+ * Classloaders are cached by their parent and their (canonical) class
+ * path entries, so that the same jars are opened only once no matter how
+ * many contexts or generators ask for them.  The classloaders are closed by
+ * closeCustomClassloaders() at the end of an Abator run - except the
+ * classloaders that loaded JDBC drivers, which stay open because
+ * ConnectionFactory caches the drivers for the life of the VM.
+ * 
  * @author Jeff Butler
  *
  */
 public class ClassloaderUtility {
 
+    /**
+     * Key is a ClassloaderKey, value is a CachedClassloader
+     */
+    private static Map classloaders = new HashMap();
+
     /**
      * Utility Class - No Instances 
      */
@@ -64,12 +80,87 @@ public class ClassloaderUtility {
         return getCustomClassloader(entryList);
     }
     
+    /**
+     * Returns the classloader for a JDBC driver.  The classloader is never
+     * closed by closeCustomClassloaders().
+     */
     public static ClassLoader getCustomClassloader(
             JDBCConnectionConfiguration connectionInformation) {
-        return getCustomClassloader(connectionInformation.getClassPathEntries());
+        return getCustomClassloader(connectionInformation.getClassPathEntries(), true);
     }
 
     public static ClassLoader getCustomClassloader(List entries) {
+        return getCustomClassloader(entries, false);
+    }
+
+    /**
+     * Closes the cached classloaders (where the VM supports closing them) and
+     * removes them from the cache, except the classloaders of JDBC drivers.
+     */
+    public static void closeCustomClassloaders() {
+        List closeable = new ArrayList();
+        synchronized (ClassloaderUtility.class) {
+            Iterator iter = classloaders.values().iterator();
+            while (iter.hasNext()) {
+                CachedClassloader cached = (CachedClassloader) iter.next();
+                if (!cached.keepOpen) {
+                    closeable.add(cached.classLoader);
+                    iter.remove();
+                }
+            }
+        }
+
+        Iterator iter = closeable.iterator();
+        while (iter.hasNext()) {
+            Object classLoader = iter.next();
+            // URLClassLoader is Closeable as of Java 7
+            if (classLoader instanceof Closeable) {
+                try {
+                    ((Closeable) classLoader).close();
+                } catch (IOException e) {
+                    // ignore
+                    ;
+                }
+            }
+        }
+    }
+
+    private static synchronized ClassLoader getCustomClassloader(List entries,
+            boolean keepOpen) {
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+
+        List files = new ArrayList();
+        if (entries != null) {
+            Iterator iter = entries.iterator();
+            while (iter.hasNext()) {
+                files.add(getCanonicalFile((String) iter.next()));
+            }
+        }
+
+        ClassloaderKey key = new ClassloaderKey(parent, files);
+        CachedClassloader cached = (CachedClassloader) classloaders.get(key);
+        if (cached == null) {
+            cached = new CachedClassloader(createClassloader(parent, entries));
+            classloaders.put(key, cached);
+        }
+
+        if (keepOpen) {
+            cached.keepOpen = true;
+        }
+
+        return cached.classLoader;
+    }
+
+    private static File getCanonicalFile(String classPathEntry) {
+        File file = new File(classPathEntry);
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static ClassLoader createClassloader(ClassLoader parent, List entries) {
         ArrayList urls = new ArrayList();
         File file;
 
@@ -93,10 +184,49 @@ public class ClassloaderUtility {
             }
         }
 
-        ClassLoader parent = Thread.currentThread().getContextClassLoader();
         URLClassLoader ucl = new URLClassLoader((URL[]) urls
                 .toArray(new URL[urls.size()]), parent);
 
         return ucl;
     }
+
+    private static class CachedClassloader {
+        private ClassLoader classLoader;
+        private boolean keepOpen;
+
+        CachedClassloader(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+    }
+
+    /**
+     * Classloaders are equal if they have the same parent and the same
+     * class path.  The parent is compared by identity.
+     */
+    private static class ClassloaderKey {
+        private ClassLoader parent;
+        private List files;
+
+        ClassloaderKey(ClassLoader parent, List files) {
+            this.parent = parent;
+            this.files = files;
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof ClassloaderKey)) {
+                return false;
+            }
+
+            ClassloaderKey other = (ClassloaderKey) obj;
+            return parent == other.parent && files.equals(other.files);
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(parent) * 31 + files.hashCode();
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A code pattern that is parsed once and can then be rendered any number of
+ * times.  It replaces MessageFormat for the patterns of the generators,
+ * which would otherwise be parsed again for every generated method.
+ *
+ * An argument is written as {n}, where n is the index of the argument.  All
+ * other text, including braces that are not part of an argument and single
+ * quotes, is copied as it is - so unlike MessageFormat, the patterns may
+ * contain Java code such as "new Object[] {...}" or 'c' without quoting.
+ * An argument that is not supplied is rendered as {n}, as MessageFormat
+ * does.
+ *
+ * Instances are immutable and may be shared between threads.
+ *
+ * @author Jeff Butler
+ */
+public class CodeTemplate {
+    private String pattern;
+
+    /**
+     * literals[i] is written before the argument arguments[i], the last
+     * literal after the last argument
+     */
+    private String[] literals;
+
+    private int[] arguments;
+
+    private int literalLength;
+
+    private int maxArgumentIndex = -1;
+
+    public CodeTemplate(String pattern) {
+        super();
+        this.pattern = pattern;
+
+        List literalList = new ArrayList();
+        List argumentList = new ArrayList();
+        int literalStart = 0;
+        int i = pattern.indexOf('{');
+        while (i != -1) {
+            int end = i + 1;
+            while (end < pattern.length()
+                    && Character.isDigit(pattern.charAt(end))) {
+                end++;
+            }
+
+            if (end > i + 1 && end < pattern.length()
+                    && pattern.charAt(end) == '}') {
+                int index = Integer.parseInt(pattern.substring(i + 1, end));
+                literalList.add(pattern.substring(literalStart, i));
+                argumentList.add(new Integer(index));
+                maxArgumentIndex = Math.max(maxArgumentIndex, index);
+                literalStart = end + 1;
+                i = pattern.indexOf('{', literalStart);
+            } else {
+                i = pattern.indexOf('{', i + 1);
+            }
+        }
+        literalList.add(pattern.substring(literalStart));
+
+        literals = (String[]) literalList.toArray(new String[literalList.size()]);
+        arguments = new int[argumentList.size()];
+        for (int j = 0; j < arguments.length; j++) {
+            arguments[j] = ((Integer) argumentList.get(j)).intValue();
+        }
+
+        for (int j = 0; j < literals.length; j++) {
+            literalLength += literals[j].length();
+        }
+    }
+
+    public String format(String[] arguments) {
+        StringBuffer sb = new StringBuffer(literalLength + 16 * this.arguments.length);
+        appendTo(sb, arguments);
+        return sb.toString();
+    }
+
+    public void appendTo(StringBuffer sb, String[] arguments) {
+        for (int i = 0; i < this.arguments.length; i++) {
+            sb.append(literals[i]);
+            int index = this.arguments[i];
+            if (index < arguments.length) {
+                sb.append(arguments[index]);
+            } else {
+                sb.append('{');
+                sb.append(index);
+                sb.append('}');
+            }
+        }
+        sb.append(literals[this.arguments.length]);
+    }
+
+    /**
+     * Returns the highest argument index used in the pattern, or -1 if the
+     * pattern has no arguments.
+     */
+    public int getMaxArgumentIndex() {
+        return maxArgumentIndex;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public String toString() {
+        return pattern;
+    }
+}
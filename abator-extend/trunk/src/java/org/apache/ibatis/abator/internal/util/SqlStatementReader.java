@@ -0,0 +1,273 @@
+/*
+ *  Copyright 2008 The Apache Software Foundation
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.ibatis.abator.internal.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits an SQL script into statements while reading it, so only the
+ * current statement is held in memory.
+ *
+ * Delimiters inside string literals ('...', with '' as an escaped quote),
+ * quoted identifiers ("...") and comments are ignored.  A backslash in a
+ * string literal is an ordinary character, as in standard SQL, unless
+ * backslash escapes are enabled (for MySQL scripts, for example) - then
+ * \' is an escaped quote as well.  Line comments (-- ...) and block
+ * comments are removed from the statements, except optimizer hints (block
+ * comments that start with /*+), which are kept.
+ *
+ * With a normal delimiter, a statement ends wherever the delimiter appears.
+ * A delimiter that starts or ends with a letter or digit (such as "GO")
+ * only counts as a whole word, so "category" is not split.
+ * With a row delimiter, a statement ends at a line that contains only the
+ * delimiter (such as "/" or "GO"), so the statements themselves may contain
+ * semicolons.  Delimiters are compared ignoring case.
+ *
+ * @author Jeff Butler
+ */
+public class SqlStatementReader {
+    private static final int CODE = 0;
+    private static final int STRING = 1;
+    private static final int IDENTIFIER = 2;
+    private static final int LINE_COMMENT = 3;
+    private static final int BLOCK_COMMENT = 4;
+    private static final int HINT = 5;
+
+    private BufferedReader reader;
+
+    private String delimiter;
+
+    private boolean rowDelimiter;
+
+    private boolean backslashEscapes;
+
+    private int pushedBack = -1;
+
+    /**
+     * @param reader the script
+     * @param delimiter the statement delimiter, such as ";"
+     * @param rowDelimiter true if the delimiter must be alone on a line
+     */
+    public SqlStatementReader(Reader reader, String delimiter,
+            boolean rowDelimiter) {
+        this(reader, delimiter, rowDelimiter, false);
+    }
+
+    /**
+     * @param reader the script
+     * @param delimiter the statement delimiter, such as ";"
+     * @param rowDelimiter true if the delimiter must be alone on a line
+     * @param backslashEscapes true if a backslash in a string literal
+     *   escapes the next character (MySQL, PostgreSQL with
+     *   standard_conforming_strings off)
+     */
+    public SqlStatementReader(Reader reader, String delimiter,
+            boolean rowDelimiter, boolean backslashEscapes) {
+        super();
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        this.delimiter = delimiter;
+        this.rowDelimiter = rowDelimiter;
+        this.backslashEscapes = backslashEscapes;
+    }
+
+    /**
+     * Returns the next statement without the delimiter and surrounding
+     * white space, or null at the end of the script.  Empty statements are
+     * skipped.  A last statement without a delimiter is returned too.
+     */
+    public String readStatement() throws IOException {
+        StringBuffer sb = new StringBuffer();
+        int lineStart = 0;
+        int state = CODE;
+        int c;
+
+        while ((c = read()) != -1) {
+            switch (state) {
+            case STRING:
+            case IDENTIFIER:
+                sb.append((char) c);
+                if (c == '\\' && state == STRING && backslashEscapes) {
+                    // backslash escape - the next character is part of
+                    // the string
+                    int next = read();
+                    if (next != -1) {
+                        sb.append((char) next);
+                    }
+                } else if (c == (state == STRING ? '\'' : '"')) {
+                    int next = read();
+                    if (next == c) {
+                        // doubled quote - still inside
+                        sb.append((char) next);
+                    } else {
+                        unread(next);
+                        state = CODE;
+                    }
+                }
+                break;
+
+            case LINE_COMMENT:
+                if (c == '\n') {
+                    unread(c);
+                    state = CODE;
+                }
+                break;
+
+            case BLOCK_COMMENT:
+            case HINT:
+                if (state == HINT) {
+                    sb.append((char) c);
+                }
+                if (c == '*') {
+                    int next = read();
+                    if (next == '/') {
+                        if (state == HINT) {
+                            sb.append((char) next);
+                        } else {
+                            // keep tokens on both sides apart
+                            sb.append(' ');
+                        }
+                        state = CODE;
+                    } else {
+                        unread(next);
+                    }
+                }
+                break;
+
+            default:
+                if (c == '\'') {
+                    sb.append((char) c);
+                    state = STRING;
+                } else if (c == '"') {
+                    sb.append((char) c);
+                    state = IDENTIFIER;
+                } else if (c == '-' || c == '/') {
+                    int next = read();
+                    if (c == '-' && next == '-') {
+                        state = LINE_COMMENT;
+                    } else if (c == '/' && next == '*') {
+                        int hint = read();
+                        if (hint == '+') {
+                            // optimizer hint - part of the statement
+                            sb.append("/*+"); //$NON-NLS-1$
+                            state = HINT;
+                        } else {
+                            unread(hint);
+                            state = BLOCK_COMMENT;
+                        }
+                    } else {
+                        unread(next);
+                        sb.append((char) c);
+                    }
+                } else if (c == '\n') {
+                    if (rowDelimiter && isDelimiterLine(sb, lineStart)) {
+                        sb.setLength(lineStart);
+                        String statement = sb.toString().trim();
+                        if (statement.length() > 0) {
+                            return statement;
+                        }
+                        sb.setLength(0);
+                    } else {
+                        sb.append((char) c);
+                    }
+                    lineStart = sb.length();
+                } else if (c != '\r') {
+                    sb.append((char) c);
+                }
+
+                if (state == CODE && !rowDelimiter && endsWithDelimiter(sb)) {
+                    sb.setLength(sb.length() - delimiter.length());
+                    String statement = sb.toString().trim();
+                    if (statement.length() > 0) {
+                        return statement;
+                    }
+                    sb.setLength(0);
+                    lineStart = 0;
+                }
+                break;
+            }
+        }
+
+        if (rowDelimiter && isDelimiterLine(sb, lineStart)) {
+            sb.setLength(lineStart);
+        }
+
+        String statement = sb.toString().trim();
+        return statement.length() > 0 ? statement : null;
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -1) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    /**
+     * Returns true if the statement ends with the delimiter.  A delimiter
+     * that starts or ends with a word character must not be part of a
+     * longer word - the next character is looked at for this.
+     */
+    private boolean endsWithDelimiter(StringBuffer sb) throws IOException {
+        int start = sb.length() - delimiter.length();
+        if (start < 0) {
+            return false;
+        }
+
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (Character.toUpperCase(sb.charAt(start + i)) != Character
+                    .toUpperCase(delimiter.charAt(i))) {
+                return false;
+            }
+        }
+
+        if (isWordCharacter(delimiter.charAt(0)) && start > 0
+                && isWordCharacter(sb.charAt(start - 1))) {
+            return false;
+        }
+
+        if (isWordCharacter(delimiter.charAt(delimiter.length() - 1))) {
+            int next = read();
+            unread(next);
+            if (next != -1 && isWordCharacter((char) next)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private boolean isDelimiterLine(StringBuffer sb, int lineStart) {
+        return sb.substring(lineStart).trim().equalsIgnoreCase(delimiter);
+    }
+}
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.abator.internal.util;
 
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.StringTokenizer;
 
 /**
@@ -99,4 +102,31 @@ public class StringUtility {
     		return s.toUpperCase();
     	return s.substring(0, 1).toUpperCase() + s.substring(1);
     }
+
+    /**
+     * Calculates the MD5 digest of the UTF-8 bytes of a String.
+     * 
+     * @param s
+     * @return the digest as a hex String, or the String itself if the
+     *   digest cannot be calculated
+     */
+    public static String digest(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5"); //$NON-NLS-1$
+            byte[] bytes = md.digest(s.getBytes("UTF-8")); //$NON-NLS-1$
+            StringBuffer sb = new StringBuffer();
+            for (int i = 0; i < bytes.length; i++) {
+                String hex = Integer.toHexString(bytes[i] & 0xff);
+                if (hex.length() == 1) {
+                    sb.append('0');
+                }
+                sb.append(hex);
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return s;
+        } catch (UnsupportedEncodingException e) {
+            return s;
+        }
+    }
 }